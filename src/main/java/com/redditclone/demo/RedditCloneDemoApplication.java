@@ -5,6 +5,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Import;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import com.redditclone.demo.config.SwaggerConfiguration;
 
@@ -14,6 +15,7 @@ import com.redditclone.demo.config.SwaggerConfiguration;
  */
 @SpringBootApplication
 @EnableAsync
+@EnableScheduling
 @Import(SwaggerConfiguration.class)
 public class RedditCloneDemoApplication {
 
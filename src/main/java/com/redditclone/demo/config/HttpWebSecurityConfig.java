@@ -1,8 +1,8 @@
 package com.redditclone.demo.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
-import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.BeanIds;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
@@ -10,12 +10,14 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import com.redditclone.demo.security.JwtAuthenticationFilter;
 import com.redditclone.demo.security.JwtProvider;
+import com.redditclone.demo.security.RateLimitFilter;
+import com.redditclone.demo.security.RequestRouteTable;
+import com.redditclone.demo.security.WorkFactorBCryptPasswordEncoder;
 
 import lombok.AllArgsConstructor;
 
@@ -42,33 +44,47 @@ public class HttpWebSecurityConfig extends WebSecurityConfigurerAdapter {
 	 */
 	private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
+	/**
+	 * The rate limit filter which rejects the clients exceeding the rate limits of
+	 * the apis before jwt authentication filter.
+	 */
+	private final RateLimitFilter rateLimitFilter;
+
+	/**
+	 * The request route table which classifies the public and swagger requests
+	 * permitted without authentication, same as jwt authentication filter.
+	 */
+	private final RequestRouteTable requestRouteTable;
+
 	/**
 	 * configure method configures http security authentication for each and every
 	 * api request in order to ensure security of user and data. since session is
-	 * not used csrf check is disable and also it adds jwt authentication filter to
-	 * authenticate every api request to verify active user login.
+	 * not used csrf check is disable and also it adds rate limit filter followed by
+	 * jwt authentication filter to authenticate every api request to verify active
+	 * user login.
 	 */
 	@Override
 	public void configure(HttpSecurity httpSecurityConfig) throws Exception {
 		httpSecurityConfig.cors().and().csrf().disable()
 				.authorizeRequests()
-				.antMatchers("/api/auth/**").permitAll().antMatchers(HttpMethod.GET, "/api/subreddit/**").permitAll()
-				.antMatchers(HttpMethod.GET, "/api/posts/**").permitAll()
-				.antMatchers(HttpMethod.GET, "/api/comments/**").permitAll()
-				.antMatchers("/v2/api-docs", "/configuration/ui", "/swagger-resources/**", "/configuration/security",
-						"/swagger-ui.html", "/webjars/**")
-				.permitAll().anyRequest().authenticated();
+				.requestMatchers(requestRouteTable.getPermittedWithoutAuthenticationMatcher()).permitAll()
+				.anyRequest().authenticated();
+		httpSecurityConfig.addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class);
 		httpSecurityConfig.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 	}
 
 	/**
-	 * passwordEncoder bean which will be used to encode password.
+	 * passwordEncoder bean which will be used to encode password with the target
+	 * work factor. Stored passwords of other work factors are re-encoded on the
+	 * next successful login.
 	 * 
-	 * @return BCryptPasswordEncoder
+	 * @param targetWorkFactor the bcrypt log rounds with which passwords are
+	 *                         encoded.
+	 * @return WorkFactorBCryptPasswordEncoder
 	 */
 	@Bean
-	public PasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
+	public PasswordEncoder passwordEncoder(@Value("${password.bcrypt.work.factor}") int targetWorkFactor) {
+		return new WorkFactorBCryptPasswordEncoder(targetWorkFactor);
 	}
 
 	/**
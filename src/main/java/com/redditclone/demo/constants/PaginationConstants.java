@@ -0,0 +1,54 @@
+package com.redditclone.demo.constants;
+
+/**
+ * PaginationConstants Class contains the constants related to page size of the
+ * paginated rest api methods.
+ */
+public class PaginationConstants {
+
+	/**
+	 * The Constant DEFAULT_PAGE_SIZE the page size used when client does not
+	 * request any page size.
+	 */
+	public static final String DEFAULT_PAGE_SIZE = "25";
+
+	/**
+	 * The Constant MAX_PAGE_SIZE the maximum page size which can be requested by
+	 * the client in a single api request.
+	 */
+	public static final int MAX_PAGE_SIZE = 100;
+
+	/**
+	 * The Constant DEFAULT_COMMENT_DEPTH the no of levels of the comment thread
+	 * loaded when client does not request any depth.
+	 */
+	public static final String DEFAULT_COMMENT_DEPTH = "5";
+
+	/**
+	 * The Constant MAX_COMMENT_DEPTH the maximum no of levels of the comment
+	 * thread which can be loaded in a single api request.
+	 */
+	public static final int MAX_COMMENT_DEPTH = 10;
+
+	/**
+	 * resolvePageSize method returns the requested page size bounded between one
+	 * and the maximum page size.
+	 *
+	 * @param requestedPageSize the page size requested by the client.
+	 * @return the bounded page size.
+	 */
+	public static int resolvePageSize(int requestedPageSize) {
+		return Math.max(1, Math.min(requestedPageSize, MAX_PAGE_SIZE));
+	}
+
+	/**
+	 * resolveCommentDepth method returns the requested comment depth bounded
+	 * between one and the maximum comment depth.
+	 *
+	 * @param requestedCommentDepth the comment depth requested by the client.
+	 * @return the bounded comment depth.
+	 */
+	public static int resolveCommentDepth(int requestedCommentDepth) {
+		return Math.max(1, Math.min(requestedCommentDepth, MAX_COMMENT_DEPTH));
+	}
+}
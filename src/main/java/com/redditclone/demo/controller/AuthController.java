@@ -1,13 +1,18 @@
 package com.redditclone.demo.controller;
 
+import java.util.concurrent.CompletableFuture;
+
 import javax.validation.Valid;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -16,6 +21,8 @@ import com.redditclone.demo.constants.AuthEndPointConstants;
 import com.redditclone.demo.dto.AuthenticationResponse;
 import com.redditclone.demo.dto.RefreshTokenRequest;
 import com.redditclone.demo.dto.UserSignupRequestInfo;
+import com.redditclone.demo.security.JwtProvider;
+import com.redditclone.demo.service.AccessTokenRevocationService;
 import com.redditclone.demo.service.AuthService;
 import com.redditclone.demo.service.RefreshTokenService;
 
@@ -44,19 +51,27 @@ public class AuthController {
 	 */
 	private final RefreshTokenService refreshTokenService;
 
+	/**
+	 * The access token revocation service which is used to revoke the access token
+	 * on logout.
+	 */
+	private final AccessTokenRevocationService accessTokenRevocationService;
+
 	/**
 	 * processSignupRequest api method handles sign request from the user and do the
-	 * process of signup with the request data.
+	 * process of signup with the request data. Request thread is released while
+	 * password is encoded on the password hashing executor.
 	 *
 	 * @param userSignupRequestInfo the user signup request info which will be used
 	 *                              to do the signup process.
-	 * @return the response entity which contains response message to the client
-	 *         with respective http status.
+	 * @return the future of response entity which contains response message to the
+	 *         client with respective http status.
 	 */
 	@PostMapping(AuthEndPointConstants.SIGNUP_REQUEST_MAPPING_METHOD)
-	public ResponseEntity<String> handleSignupRequest(@RequestBody UserSignupRequestInfo userSignupRequestInfo) {
-		authService.doSignupProcess(userSignupRequestInfo);
-		return new ResponseEntity<String>("User Registration is Successful", HttpStatus.OK);
+	public CompletableFuture<ResponseEntity<String>> handleSignupRequest(
+			@RequestBody UserSignupRequestInfo userSignupRequestInfo) {
+		return authService.doSignupProcess(userSignupRequestInfo)
+				.thenApply(signup -> new ResponseEntity<String>("User Registration is Successful", HttpStatus.OK));
 	}
 
 	/**
@@ -76,15 +91,17 @@ public class AuthController {
 
 	/**
 	 * handleLoginRequest method handle login request from the user and verify the
-	 * login request and also returns authentication response.
+	 * login request and also returns authentication response. Request thread is
+	 * released while password is verified on the password hashing executor.
 	 *
 	 * @param username the user name of the user to authenticate.
 	 * @param password the password of the user to authenticate.
-	 * @return the authentication response which contains authentication token
-	 *         related to requested user.
+	 * @return the future of authentication response which contains
+	 *         authentication token related to requested user.
 	 */
 	@PostMapping(AuthEndPointConstants.LOGIN_REQUEST_MAPPING_METHOD)
-	public AuthenticationResponse handleLoginRequest(@RequestParam String username, @RequestParam String password) {
+	public CompletableFuture<AuthenticationResponse> handleLoginRequest(@RequestParam String username,
+			@RequestParam String password) {
 		return authService.verifyLoginRequestAndGetAuthenticationInfo(username, password);
 	}
 
@@ -106,18 +123,27 @@ public class AuthController {
 
 	/**
 	 * handleLogoutRequest method handle logout request from the user and to make
-	 * login inactive or invalid by deleting refresh token.
+	 * login inactive or invalid by deleting refresh token and revoking the access
+	 * token of the authorization header until it's expiry.
 	 *
 	 * @param deleteRefreshTokenRequest the refresh token request which contains
 	 *                                  refresh token of the previous authentication
 	 *                                  token information.
+	 * @param authorizationHeader       the authorization header which contains the
+	 *                                  access token to be revoked, it is not
+	 *                                  required.
 	 * @return the authentication response which contains authentication token
 	 *         related to requested user.
 	 */
 	@PostMapping(AuthEndPointConstants.lOG_OUT_REQUEST_MAPPING_METHOD)
 	public ResponseEntity<String> handleLogoutRequest(
-			@Valid @RequestBody RefreshTokenRequest deleteRefreshTokenRequest) {
+			@Valid @RequestBody RefreshTokenRequest deleteRefreshTokenRequest,
+			@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorizationHeader) {
 		refreshTokenService.deleteRefreshToken(deleteRefreshTokenRequest.getRefreshToken());
+		String accessToken = JwtProvider.getJwtFromAuthorizationHeader(authorizationHeader);
+		if (StringUtils.hasText(accessToken)) {
+			accessTokenRevocationService.revokeAccessToken(accessToken);
+		}
 		return ResponseEntity.status(HttpStatus.OK).body("Refresh Token Deleted and User Logged out successfully");
 	}
 }
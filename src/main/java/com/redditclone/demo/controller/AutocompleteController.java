@@ -0,0 +1,60 @@
+package com.redditclone.demo.controller;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.redditclone.demo.service.AutocompleteService;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * AutocompleteController class provides api request methods to suggest the
+ * subreddit names and user names which start with the prefix typed by the user.
+ */
+@RestController
+@RequestMapping("/api/autocomplete")
+@AllArgsConstructor
+public class AutocompleteController {
+
+	/**
+	 * The autocomplete service which will be used to find the suggestions of the
+	 * prefix.
+	 */
+	private final AutocompleteService autocompleteService;
+
+	/**
+	 * suggestSubredditNames method handles the api request to find the most
+	 * popular subreddit names which start with the prefix.
+	 *
+	 * @param prefix the prefix of the subreddit names.
+	 * @param limit  the maximum no of subreddit names to be returned.
+	 * @return ResponseEntity<List<String>> the response entity which contains the
+	 *         matching subreddit names as response.
+	 */
+	@GetMapping("/subreddits")
+	public ResponseEntity<List<String>> suggestSubredditNames(@RequestParam String prefix,
+			@RequestParam(defaultValue = "10") int limit) {
+		return ResponseEntity.status(HttpStatus.OK).body(autocompleteService.findSubredditNames(prefix, limit));
+	}
+
+	/**
+	 * suggestUsernames method handles the api request to find the most active user
+	 * names which start with the prefix.
+	 *
+	 * @param prefix the prefix of the user names.
+	 * @param limit  the maximum no of user names to be returned.
+	 * @return ResponseEntity<List<String>> the response entity which contains the
+	 *         matching user names as response.
+	 */
+	@GetMapping("/users")
+	public ResponseEntity<List<String>> suggestUsernames(@RequestParam String prefix,
+			@RequestParam(defaultValue = "10") int limit) {
+		return ResponseEntity.status(HttpStatus.OK).body(autocompleteService.findUsernames(prefix, limit));
+	}
+}
@@ -9,9 +9,12 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.redditclone.demo.constants.PaginationConstants;
 import com.redditclone.demo.dto.CommentDto;
+import com.redditclone.demo.dto.CursorPageResponse;
 import com.redditclone.demo.service.CommentsService;
 
 import lombok.AllArgsConstructor;
@@ -48,16 +51,45 @@ public class CommentsController {
 	}
 
 	/**
-	 * getAllCommentsByPost method handles the api request to find the matching
-	 * comments information by post id and returns it .
+	 * getAllCommentsByPost method handles the api request to find the page of
+	 * comments of the post in thread order and returns it .
 	 *
-	 * @param postId the id of post which related comments needs to be found.
-	 * @return ResponseEntity<List<CommentDto>> the response entity which contains
-	 *         the matching list of comments information as response.
+	 * @param id     the id of post which related comments needs to be found.
+	 * @param cursor the opaque page cursor returned with previous page, it is not
+	 *               required for first page.
+	 * @param limit  the no of comments to be returned in the page.
+	 * @param depth  the no of levels of the thread to be loaded.
+	 * @return ResponseEntity<CursorPageResponse<CommentDto>> the response entity
+	 *         which contains the page of comments information as response.
 	 */
 	@GetMapping("/by-post/{id}")
-	public ResponseEntity<List<CommentDto>> getAllCommentsByPost(@PathVariable Long id) {
-		return ResponseEntity.status(HttpStatus.OK).body(commentsService.getCommentsByPostId(id));
+	public ResponseEntity<CursorPageResponse<CommentDto>> getAllCommentsByPost(@PathVariable Long id,
+			@RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = PaginationConstants.DEFAULT_PAGE_SIZE) int limit,
+			@RequestParam(defaultValue = PaginationConstants.DEFAULT_COMMENT_DEPTH) int depth) {
+		return ResponseEntity.status(HttpStatus.OK)
+				.body(commentsService.getCommentsByPostId(id, cursor, limit, depth));
+	}
+
+	/**
+	 * getCommentReplies method handles the api request to load more replies of the
+	 * comment in thread order and returns it .
+	 *
+	 * @param id     the id of comment which replies needs to be found.
+	 * @param cursor the opaque page cursor returned with previous page, it is not
+	 *               required for first page.
+	 * @param limit  the no of replies to be returned in the page.
+	 * @param depth  the no of levels of the thread to be loaded.
+	 * @return ResponseEntity<CursorPageResponse<CommentDto>> the response entity
+	 *         which contains the page of replies information as response.
+	 */
+	@GetMapping("/replies/{id}")
+	public ResponseEntity<CursorPageResponse<CommentDto>> getCommentReplies(@PathVariable Long id,
+			@RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = PaginationConstants.DEFAULT_PAGE_SIZE) int limit,
+			@RequestParam(defaultValue = PaginationConstants.DEFAULT_COMMENT_DEPTH) int depth) {
+		return ResponseEntity.status(HttpStatus.OK)
+				.body(commentsService.getCommentReplies(id, cursor, limit, depth));
 	}
 
 	/**
@@ -1,7 +1,5 @@
 package com.redditclone.demo.controller;
 
-import java.util.List;
-
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -9,9 +7,13 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.redditclone.demo.constants.PaginationConstants;
+import com.redditclone.demo.dto.CursorPageResponse;
 import com.redditclone.demo.dto.PostDto;
+import com.redditclone.demo.model.PostSortType;
 import com.redditclone.demo.service.PostService;
 
 import lombok.AllArgsConstructor;
@@ -60,40 +62,67 @@ public class PostController {
 	}
 
 	/**
-	 * getAllPosts method handles the api request to get and return all the posts.
+	 * getAllPosts method handles the api request to get and return the page of
+	 * posts in the order of the sort type. Ranked sort types list only the top
+	 * post.feed.global.capacity posts, after which no next cursor is returned.
 	 *
-	 * @return ResponseEntity<List<PostDto>> the response entity which contains the
-	 *         list of all post information as response.
+	 * @param sort   the sort type of the posts [hot, top, rising, new].
+	 * @param cursor the opaque page cursor returned with previous page, it is not
+	 *               required for first page.
+	 * @param limit  the no of posts to be returned in the page.
+	 * @return ResponseEntity<CursorPageResponse<PostDto>> the response entity
+	 *         which contains the page of post information as response.
 	 */
 	@GetMapping("/getAll")
-	public ResponseEntity<List<PostDto>> getAllPosts() {
-		return ResponseEntity.status(HttpStatus.OK).body(postService.getAllPosts());
+	public ResponseEntity<CursorPageResponse<PostDto>> getAllPosts(@RequestParam(defaultValue = "new") String sort,
+			@RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = PaginationConstants.DEFAULT_PAGE_SIZE) int limit) {
+		return ResponseEntity.status(HttpStatus.OK)
+				.body(postService.getAllPosts(PostSortType.findPostSortType(sort), cursor, limit));
 	}
 
 	/**
-	 * getPostsBySubreddit method handles the api request to find the matching posts
-	 * information by related subreddit id and returns it .
+	 * getPostsBySubreddit method handles the api request to find the page of
+	 * matching posts information by related subreddit id in the order of the sort
+	 * type and returns it . Ranked sort types list only the top
+	 * post.feed.subreddit.capacity posts of the subreddit, after which no next
+	 * cursor is returned.
 	 *
-	 * @param id the id of subreddit which related posts needs to be found.
-	 * @return ResponseEntity<List<PostDto>> the response entity which contains the
-	 *         matching list of post information as response.
+	 * @param id     the id of subreddit which related posts needs to be found.
+	 * @param sort   the sort type of the posts [hot, top, rising, new].
+	 * @param cursor the opaque page cursor returned with previous page, it is not
+	 *               required for first page.
+	 * @param limit  the no of posts to be returned in the page.
+	 * @return ResponseEntity<CursorPageResponse<PostDto>> the response entity
+	 *         which contains the page of matching post information as response.
 	 */
 	@GetMapping("/by-subreddit/{id}")
-	public ResponseEntity<List<PostDto>> getPostsBySubreddit(@PathVariable Long id) {
-		return ResponseEntity.status(HttpStatus.OK).body(postService.getPostsBySubredditId(id));
+	public ResponseEntity<CursorPageResponse<PostDto>> getPostsBySubreddit(@PathVariable Long id,
+			@RequestParam(defaultValue = "new") String sort, @RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = PaginationConstants.DEFAULT_PAGE_SIZE) int limit) {
+		return ResponseEntity.status(HttpStatus.OK)
+				.body(postService.getPostsBySubredditId(id, PostSortType.findPostSortType(sort), cursor, limit));
 	}
 
 	/**
-	 * getPostsByUserName method handles the api request to find the matching posts
-	 * information by username and returns it .
+	 * getPostsByUserName method handles the api request to find the page of
+	 * matching posts information by username in the order of the sort type and
+	 * returns it .
 	 *
 	 * @param username the username of which related posts needs to be found.
-	 * @return ResponseEntity<List<PostDto>> the response entity which contains the
-	 *         matching list of post information as response.
+	 * @param sort     the sort type of the posts [new].
+	 * @param cursor   the opaque page cursor returned with previous page, it is
+	 *                 not required for first page.
+	 * @param limit    the no of posts to be returned in the page.
+	 * @return ResponseEntity<CursorPageResponse<PostDto>> the response entity
+	 *         which contains the page of matching post information as response.
 	 */
 	@GetMapping("/by-username/{username}")
-	public ResponseEntity<List<PostDto>> getPostsByUserName(@PathVariable String username) {
-		return ResponseEntity.status(HttpStatus.OK).body(postService.getPostsByUserName(username));
+	public ResponseEntity<CursorPageResponse<PostDto>> getPostsByUserName(@PathVariable String username,
+			@RequestParam(defaultValue = "new") String sort, @RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = PaginationConstants.DEFAULT_PAGE_SIZE) int limit) {
+		return ResponseEntity.status(HttpStatus.OK).body(
+				postService.getPostsByUserName(username, PostSortType.findPostSortType(sort), cursor, limit));
 	}
 
 }
@@ -0,0 +1,55 @@
+package com.redditclone.demo.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.redditclone.demo.constants.PaginationConstants;
+import com.redditclone.demo.dto.CursorPageResponse;
+import com.redditclone.demo.dto.SearchResultDto;
+import com.redditclone.demo.service.SearchIndexService;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * SearchController class provides api request method to search the posts and
+ * comments by the terms of their text.
+ */
+@RestController
+@RequestMapping("/api/search")
+@AllArgsConstructor
+public class SearchController {
+
+	/**
+	 * The search index service which will be used to find the matching posts and
+	 * comments.
+	 */
+	private final SearchIndexService searchIndexService;
+
+	/**
+	 * search method handles the api request to find the page of posts and
+	 * comments which match the search query in the order of relevance.
+	 *
+	 * @param q           the search query.
+	 * @param subredditId the subreddit id to which results are limited, it is not
+	 *                    required for all the subreddits.
+	 * @param username    the user name of the author to which results are
+	 *                    limited, it is not required for all the users.
+	 * @param cursor      the opaque page cursor returned with previous page, it is
+	 *                    not required for first page.
+	 * @param limit       the no of results to be returned in the page.
+	 * @return ResponseEntity<CursorPageResponse<SearchResultDto>> the response
+	 *         entity which contains the page of search results as response.
+	 */
+	@GetMapping
+	public ResponseEntity<CursorPageResponse<SearchResultDto>> search(@RequestParam String q,
+			@RequestParam(required = false) Long subredditId, @RequestParam(required = false) String username,
+			@RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = PaginationConstants.DEFAULT_PAGE_SIZE) int limit) {
+		return ResponseEntity.status(HttpStatus.OK)
+				.body(searchIndexService.search(q, subredditId, username, cursor, limit));
+	}
+}
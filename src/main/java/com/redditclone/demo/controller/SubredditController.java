@@ -9,9 +9,13 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.redditclone.demo.constants.PaginationConstants;
+import com.redditclone.demo.dto.CursorPageResponse;
 import com.redditclone.demo.dto.SubredditDto;
+import com.redditclone.demo.model.SubredditSortType;
 import com.redditclone.demo.service.SubredditService;
 
 import lombok.AllArgsConstructor;
@@ -72,4 +76,23 @@ public class SubredditController {
 		return ResponseEntity.status(HttpStatus.CREATED).body(subredditService.getAllSubreddits());
 	}
 
+	/**
+	 * getSubredditDirectory method handles the api request to get and return the
+	 * page of subreddits in the order of the sort type.
+	 *
+	 * @param sort   the sort type of the subreddits [name, size, new].
+	 * @param cursor the opaque page cursor returned with previous page, it is not
+	 *               required for first page.
+	 * @param limit  the no of subreddits to be returned in the page.
+	 * @return ResponseEntity<CursorPageResponse<SubredditDto>> the response entity
+	 *         which contains the page of subreddit information as response.
+	 */
+	@GetMapping("directory")
+	public ResponseEntity<CursorPageResponse<SubredditDto>> getSubredditDirectory(
+			@RequestParam(defaultValue = "name") String sort, @RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = PaginationConstants.DEFAULT_PAGE_SIZE) int limit) {
+		return ResponseEntity.status(HttpStatus.OK).body(subredditService
+				.getSubredditDirectoryPage(SubredditSortType.findSubredditSortType(sort), cursor, limit));
+	}
+
 }
@@ -0,0 +1,52 @@
+package com.redditclone.demo.dto;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * CachedPost class holds the part of the post dto which is same for all the
+ * users along with the created date time of the post. Vote count of the shared
+ * post dto is the vote count committed to the post table. It is immutable, so
+ * that it can be shared between requests, changes are applied by creating a new
+ * copy.
+ */
+@Getter
+@AllArgsConstructor
+public class CachedPost {
+
+	/**
+	 * The shared post dto which must not be modified, it is copied before
+	 * applying the per user fields.
+	 */
+	private final PostDto sharedPostDto;
+
+	/** The created date time of the post. */
+	private final Instant createdDateTime;
+
+	/**
+	 * withVoteDelta method returns the copy of the cached post with vote delta
+	 * added to the vote count.
+	 *
+	 * @param voteDelta the vote delta which needs to be added.
+	 * @return the cached post with updated vote count.
+	 */
+	public CachedPost withVoteDelta(long voteDelta) {
+		return new CachedPost(sharedPostDto.toBuilder()
+				.voteCount(Math.toIntExact(sharedPostDto.getVoteCount() + voteDelta)).build(), createdDateTime);
+	}
+
+	/**
+	 * withCommentDelta method returns the copy of the cached post with comment
+	 * delta added to the comment count.
+	 *
+	 * @param commentDelta the comment delta which needs to be added.
+	 * @return the cached post with updated comment count.
+	 */
+	public CachedPost withCommentDelta(int commentDelta) {
+		return new CachedPost(
+				sharedPostDto.toBuilder().commentCount(sharedPostDto.getCommentCount() + commentDelta).build(),
+				createdDateTime);
+	}
+}
@@ -27,6 +27,18 @@ public class CommentDto {
 	/** The commented user name. */
 	private String commentedUserName;
 
+	/**
+	 * The id of the comment to which this comment is replied, null for the top
+	 * level comment.
+	 */
+	private Long parentCommentId;
+
+	/** The no of parent comments above this comment, zero for top level. */
+	private Integer depth;
+
+	/** The no of direct replies to this comment. */
+	private Integer replyCount;
+
 	/**
 	 * The duration of comment how much has been passed after comment is created.
 	 */
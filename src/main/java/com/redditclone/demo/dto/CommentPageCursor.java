@@ -0,0 +1,47 @@
+package com.redditclone.demo.dto;
+
+import com.redditclone.demo.exceptions.RedditException;
+import com.redditclone.demo.util.PageCursorCodec;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * CommentPageCursor class holds the thread path of the last comment of the page
+ * which will be used as keyset to load more comments of the thread.
+ */
+@Data
+@AllArgsConstructor
+public class CommentPageCursor {
+
+	/** The thread path of the last comment of the page. */
+	private String threadPath;
+
+	/**
+	 * encodeCommentPageCursor method encodes the thread path of the last comment
+	 * of the page as opaque page cursor.
+	 *
+	 * @return the encoded opaque page cursor.
+	 */
+	public String encodeCommentPageCursor() {
+		return PageCursorCodec.encodePageCursor(threadPath);
+	}
+
+	/**
+	 * decodeCommentPageCursor method decodes the opaque page cursor into comment
+	 * page cursor.
+	 *
+	 * throws RedditException with invalid page cursor message if page cursor is
+	 * malformed.
+	 *
+	 * @param pageCursor the opaque page cursor which needs to be decoded.
+	 * @return the comment page cursor.
+	 */
+	public static CommentPageCursor decodeCommentPageCursor(String pageCursor) {
+		String threadPath = PageCursorCodec.decodePageCursor(pageCursor, 1)[0];
+		if (threadPath.isEmpty()) {
+			throw new RedditException("Invalid page cursor: " + pageCursor);
+		}
+		return new CommentPageCursor(threadPath);
+	}
+}
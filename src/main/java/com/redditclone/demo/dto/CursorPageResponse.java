@@ -0,0 +1,31 @@
+package com.redditclone.demo.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * CursorPageResponse class is used to hold and transfer one page of the
+ * paginated information along with the opaque cursor which will be used by
+ * client to fetch the next page.
+ *
+ * @param <T> the type of the page items.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageResponse<T> {
+
+	/** The items of the current page. */
+	private List<T> items;
+
+	/**
+	 * The next cursor which needs to be sent by client to fetch the next page. It
+	 * is null when there is no next page.
+	 */
+	private String nextCursor;
+}
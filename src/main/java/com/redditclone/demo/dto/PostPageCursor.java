@@ -0,0 +1,56 @@
+package com.redditclone.demo.dto;
+
+import java.time.Instant;
+
+import com.redditclone.demo.exceptions.RedditException;
+import com.redditclone.demo.model.Post;
+import com.redditclone.demo.util.PageCursorCodec;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * PostPageCursor class holds the created date time and post id of the last
+ * post of the page which will be used as keyset to fetch the next page of
+ * posts.
+ */
+@Data
+@AllArgsConstructor
+public class PostPageCursor {
+
+	/** The created date time of the last post of the page. */
+	private Instant createdDateTime;
+
+	/** The post id of the last post of the page. */
+	private Long postId;
+
+	/**
+	 * encodePostPageCursor method encodes the keyset of given post as opaque page
+	 * cursor.
+	 *
+	 * @param lastPostOfPage the last post of the page.
+	 * @return the encoded opaque page cursor.
+	 */
+	public static String encodePostPageCursor(Post lastPostOfPage) {
+		return PageCursorCodec.encodePageCursor(lastPostOfPage.getCreatedDateTime(), lastPostOfPage.getPostId());
+	}
+
+	/**
+	 * decodePostPageCursor method decodes the opaque page cursor into post page
+	 * cursor.
+	 *
+	 * throws RedditException with invalid page cursor message if page cursor is
+	 * malformed.
+	 *
+	 * @param pageCursor the opaque page cursor which needs to be decoded.
+	 * @return the post page cursor.
+	 */
+	public static PostPageCursor decodePostPageCursor(String pageCursor) {
+		String[] cursorValues = PageCursorCodec.decodePageCursor(pageCursor, 2);
+		try {
+			return new PostPageCursor(Instant.parse(cursorValues[0]), Long.valueOf(cursorValues[1]));
+		} catch (RuntimeException exception) {
+			throw new RedditException("Invalid page cursor: " + pageCursor, exception);
+		}
+	}
+}
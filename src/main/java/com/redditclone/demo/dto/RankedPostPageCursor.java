@@ -0,0 +1,52 @@
+package com.redditclone.demo.dto;
+
+import com.redditclone.demo.exceptions.RedditException;
+import com.redditclone.demo.util.PageCursorCodec;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * RankedPostPageCursor class holds the rank score and post id of the last post
+ * of the page which will be used as keyset to fetch the next page of ranked
+ * posts.
+ */
+@Data
+@AllArgsConstructor
+public class RankedPostPageCursor {
+
+	/** The rank score of the last post of the page. */
+	private double score;
+
+	/** The post id of the last post of the page. */
+	private Long postId;
+
+	/**
+	 * encodeRankedPostPageCursor method encodes the keyset of the last post of the
+	 * page as opaque page cursor.
+	 *
+	 * @return the encoded opaque page cursor.
+	 */
+	public String encodeRankedPostPageCursor() {
+		return PageCursorCodec.encodePageCursor(score, postId);
+	}
+
+	/**
+	 * decodeRankedPostPageCursor method decodes the opaque page cursor into ranked
+	 * post page cursor.
+	 *
+	 * throws RedditException with invalid page cursor message if page cursor is
+	 * malformed.
+	 *
+	 * @param pageCursor the opaque page cursor which needs to be decoded.
+	 * @return the ranked post page cursor.
+	 */
+	public static RankedPostPageCursor decodeRankedPostPageCursor(String pageCursor) {
+		String[] cursorValues = PageCursorCodec.decodePageCursor(pageCursor, 2);
+		try {
+			return new RankedPostPageCursor(Double.parseDouble(cursorValues[0]), Long.valueOf(cursorValues[1]));
+		} catch (RuntimeException exception) {
+			throw new RedditException("Invalid page cursor: " + pageCursor, exception);
+		}
+	}
+}
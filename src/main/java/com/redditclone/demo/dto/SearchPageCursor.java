@@ -0,0 +1,52 @@
+package com.redditclone.demo.dto;
+
+import com.redditclone.demo.exceptions.RedditException;
+import com.redditclone.demo.util.PageCursorCodec;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * SearchPageCursor class holds the relevance score and document key of the last
+ * search result of the page which will be used as keyset to fetch the next
+ * page of search results.
+ */
+@Data
+@AllArgsConstructor
+public class SearchPageCursor {
+
+	/** The relevance score of the last search result of the page. */
+	private float score;
+
+	/** The document key of the last search result of the page. */
+	private String documentKey;
+
+	/**
+	 * encodeSearchPageCursor method encodes the keyset of the last search result
+	 * of the page as opaque page cursor.
+	 *
+	 * @return the encoded opaque page cursor.
+	 */
+	public String encodeSearchPageCursor() {
+		return PageCursorCodec.encodePageCursor(score, documentKey);
+	}
+
+	/**
+	 * decodeSearchPageCursor method decodes the opaque page cursor into search
+	 * page cursor.
+	 *
+	 * throws RedditException with invalid page cursor message if page cursor is
+	 * malformed.
+	 *
+	 * @param pageCursor the opaque page cursor which needs to be decoded.
+	 * @return the search page cursor.
+	 */
+	public static SearchPageCursor decodeSearchPageCursor(String pageCursor) {
+		String[] cursorValues = PageCursorCodec.decodePageCursor(pageCursor, 2);
+		try {
+			return new SearchPageCursor(Float.parseFloat(cursorValues[0]), cursorValues[1]);
+		} catch (RuntimeException exception) {
+			throw new RedditException("Invalid page cursor: " + pageCursor, exception);
+		}
+	}
+}
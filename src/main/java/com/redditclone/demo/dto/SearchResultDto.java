@@ -0,0 +1,41 @@
+package com.redditclone.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * SearchResultDto class is used to hold and transfer the post or comment which
+ * matches the search query along with it's relevance score.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SearchResultDto {
+
+	/** The type of the matching document [post, comment]. */
+	private String type;
+
+	/** The id of the matching post or of the post which comment is made on. */
+	private Long postId;
+
+	/** The id of the matching comment, null for the matching post. */
+	private Long commentId;
+
+	/** The name of the post. */
+	private String postName;
+
+	/** The leading part of the post description or comment text. */
+	private String excerpt;
+
+	/** The id of the subreddit which post is related to. */
+	private Long subredditId;
+
+	/** The user name of the author of the post or comment. */
+	private String username;
+
+	/** The relevance score of the post or comment for the search query. */
+	private float score;
+}
@@ -0,0 +1,65 @@
+package com.redditclone.demo.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.redditclone.demo.exceptions.RedditException;
+import com.redditclone.demo.util.PageCursorCodec;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * SubredditPageCursor class holds the sort keys of the last subreddit of the
+ * page, which are post count, name and subreddit id. Next page of the subreddit
+ * directory starts after the position of these keys in the current directory
+ * snapshot, so that the page follows on even if the last subreddit moved or is
+ * not in the snapshot. Name is encoded on it's own in the cursor, as it can
+ * hold the separator of the cursor values.
+ */
+@Data
+@AllArgsConstructor
+public class SubredditPageCursor {
+
+	/** The post count of the last subreddit of the page. */
+	private Integer postCount;
+
+	/** The name of the last subreddit of the page. */
+	private String name;
+
+	/** The subreddit id of the last subreddit of the page. */
+	private Long subredditId;
+
+	/**
+	 * encodeSubredditPageCursor method encodes the sort keys of the last subreddit
+	 * of the page as opaque page cursor.
+	 *
+	 * @return the encoded opaque page cursor.
+	 */
+	public String encodeSubredditPageCursor() {
+		return PageCursorCodec.encodePageCursor(postCount,
+				Base64.getUrlEncoder().withoutPadding().encodeToString(name.getBytes(StandardCharsets.UTF_8)),
+				subredditId);
+	}
+
+	/**
+	 * decodeSubredditPageCursor method decodes the opaque page cursor into
+	 * subreddit page cursor.
+	 *
+	 * throws RedditException with invalid page cursor message if page cursor is
+	 * malformed.
+	 *
+	 * @param pageCursor the opaque page cursor which needs to be decoded.
+	 * @return the subreddit page cursor.
+	 */
+	public static SubredditPageCursor decodeSubredditPageCursor(String pageCursor) {
+		String[] cursorValues = PageCursorCodec.decodePageCursor(pageCursor, 3);
+		try {
+			return new SubredditPageCursor(Integer.valueOf(cursorValues[0]),
+					new String(Base64.getUrlDecoder().decode(cursorValues[1]), StandardCharsets.UTF_8),
+					Long.valueOf(cursorValues[2]));
+		} catch (RuntimeException exception) {
+			throw new RedditException("Invalid page cursor: " + pageCursor, exception);
+		}
+	}
+}
@@ -0,0 +1,20 @@
+package com.redditclone.demo.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * CommentCreatedEvent class holds the details of the comment created by the
+ * user on a post. It is published by comments service, so that in memory views
+ * of the posts can be updated once the comment is committed.
+ */
+@Getter
+@AllArgsConstructor
+public class CommentCreatedEvent {
+
+	/** The post id of the commented post. */
+	private final Long postId;
+
+	/** The comment id of the created comment. */
+	private final Long commentId;
+}
@@ -0,0 +1,17 @@
+package com.redditclone.demo.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * JwtKeysRotatedEvent class holds the details of the keys which are resolved
+ * again from the modified java key store. It is published by jwt provider, so
+ * that the results verified by the previous keys can be discarded.
+ */
+@Getter
+@AllArgsConstructor
+public class JwtKeysRotatedEvent {
+
+	/** The key id of the key which signs the new tokens. */
+	private final String signingKeyId;
+}
@@ -0,0 +1,25 @@
+package com.redditclone.demo.event;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * PostCreatedEvent class holds the details of the post created by the user. It
+ * is published by post service, so that in memory views of the posts can be
+ * updated once the post is committed.
+ */
+@Getter
+@AllArgsConstructor
+public class PostCreatedEvent {
+
+	/** The post id of the created post. */
+	private final Long postId;
+
+	/** The id of the subreddit which post is related to. */
+	private final Long subredditId;
+
+	/** The created date time of the post. */
+	private final Instant createdDateTime;
+}
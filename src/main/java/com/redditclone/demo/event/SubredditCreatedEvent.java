@@ -0,0 +1,20 @@
+package com.redditclone.demo.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * SubredditCreatedEvent class holds the details of the subreddit created by the
+ * user. It is published by subreddit service, so that the subreddit name index
+ * can be updated once the subreddit is committed.
+ */
+@Getter
+@AllArgsConstructor
+public class SubredditCreatedEvent {
+
+	/** The id of the created subreddit. */
+	private final Long subredditId;
+
+	/** The name of the created subreddit. */
+	private final String name;
+}
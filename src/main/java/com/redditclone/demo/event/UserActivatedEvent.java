@@ -0,0 +1,20 @@
+package com.redditclone.demo.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * UserActivatedEvent class holds the details of the user whose account is
+ * activated by the verification token. It is published by auth service, so
+ * that the user name can be suggested once the activation is committed.
+ */
+@Getter
+@AllArgsConstructor
+public class UserActivatedEvent {
+
+	/** The user id of the activated user. */
+	private final Long userId;
+
+	/** The user name of the activated user. */
+	private final String username;
+}
@@ -0,0 +1,23 @@
+package com.redditclone.demo.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * UserRegisteredEvent class holds the details of the user registered by
+ * signup. It is published by auth service, so that verification token of the
+ * user can be issued and mailed once the user is committed.
+ */
+@Getter
+@AllArgsConstructor
+public class UserRegisteredEvent {
+
+	/** The user id of the registered user. */
+	private final Long userId;
+
+	/** The user name of the registered user. */
+	private final String username;
+
+	/** The email address to which verification mail is sent. */
+	private final String email;
+}
@@ -0,0 +1,20 @@
+package com.redditclone.demo.event;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * VoteCountsFlushedEvent class holds the vote count changes of the posts which
+ * are written to the post table by a flush of the vote aggregator service. It
+ * is published with in the flush transaction, so that in memory copies of the
+ * post vote counts can be updated in place once the flush is committed.
+ */
+@Getter
+@AllArgsConstructor
+public class VoteCountsFlushedEvent {
+
+	/** The flushed vote delta mapped by post id. */
+	private final Map<Long, Long> flushedVoteDeltaByPostId;
+}
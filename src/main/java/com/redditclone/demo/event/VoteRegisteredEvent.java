@@ -0,0 +1,31 @@
+package com.redditclone.demo.event;
+
+import com.redditclone.demo.model.VoteType;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * VoteRegisteredEvent class holds the details of the vote registered by the
+ * user on a post. It is published by vote service, so that in memory views of
+ * the votes can be updated once the vote is committed.
+ */
+@Getter
+@AllArgsConstructor
+public class VoteRegisteredEvent {
+
+	/** The post id of the voted post. */
+	private final Long postId;
+
+	/** The user id of the voted user. */
+	private final Long userId;
+
+	/** The vote type registered by the user. */
+	private final VoteType voteType;
+
+	/**
+	 * The change in vote count of the post, which is the difference between
+	 * registered and previous vote value of the user.
+	 */
+	private final int voteDelta;
+}
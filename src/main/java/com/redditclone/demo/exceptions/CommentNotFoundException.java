@@ -0,0 +1,15 @@
+package com.redditclone.demo.exceptions;
+
+/**
+ * CommentNotFoundException is custom RuntimeException which will be used to
+ * throw an exception when related comment information is not found.
+ */
+public class CommentNotFoundException extends RuntimeException {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = -2906614781236254027L;
+
+	public CommentNotFoundException(String commentId) {
+		super("Comment Not Found with Id: " + commentId);
+	}
+}
@@ -0,0 +1,20 @@
+package com.redditclone.demo.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * PasswordHashingRejectedException is custom RuntimeException which will be
+ * used to reject the request immediately with service unavailable status when
+ * all the password hashing threads are busy and the waiting queue is full.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PasswordHashingRejectedException extends RuntimeException {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 2967023574188154311L;
+
+	public PasswordHashingRejectedException(String exMessage, Exception exception) {
+		super(exMessage, exception);
+	}
+}
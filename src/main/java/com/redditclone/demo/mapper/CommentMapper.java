@@ -32,7 +32,8 @@ public interface CommentMapper {
 
 	/**
 	 * mapCommentModelFromDto method map and form new comment model from the comment
-	 * dto. target field id is ignored from the mapping .target field
+	 * dto. target fields [id,threadPath,depth,replyCount] are ignored from the
+	 * mapping, they are assigned by the thread of the comment .target field
 	 * createdDateTime takes current instant time as mapping value always.
 	 *
 	 * @param commentDto    the comment dto which needs to be mapped to model.
@@ -41,6 +42,9 @@ public interface CommentMapper {
 	 * @return the comment which is mapped from dto.
 	 */
 	@Mapping(target = "id", ignore = true)
+	@Mapping(target = "threadPath", ignore = true)
+	@Mapping(target = "depth", ignore = true)
+	@Mapping(target = "replyCount", ignore = true)
 	@Mapping(target = "commentedDateTime", expression = "java(java.time.Instant.now())")
 	@Mapping(target = "user", source = "commentedUser")
 	@Mapping(target = "post", source = "relatedPost")
@@ -1,6 +1,9 @@
 package com.redditclone.demo.mapper;
 
-import java.util.Optional;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.mapstruct.InheritInverseConfiguration;
 import org.mapstruct.Mapper;
@@ -8,15 +11,15 @@ import org.mapstruct.Mapping;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import com.github.marlonlom.utilities.timeago.TimeAgo;
+import com.redditclone.demo.dto.CachedPost;
 import com.redditclone.demo.dto.PostDto;
 import com.redditclone.demo.model.Post;
 import com.redditclone.demo.model.Subreddit;
 import com.redditclone.demo.model.User;
-import com.redditclone.demo.model.Vote;
 import com.redditclone.demo.model.VoteType;
-import com.redditclone.demo.repository.CommentRepository;
-import com.redditclone.demo.repository.VoteRepository;
 import com.redditclone.demo.service.AuthService;
+import com.redditclone.demo.service.PostVoterIndexService;
+import com.redditclone.demo.service.VoteAggregatorService;
 
 /**
  * PostMapper interface defines the mapper methods to map between to post model
@@ -27,38 +30,109 @@ import com.redditclone.demo.service.AuthService;
 public abstract class PostMapper {
 
 	/**
-	 * The comment repository which is used to fetch the no of comments related to
-	 * the post.
+	 * The post voter index service which is used to find the latest vote type
+	 * register by the user related to the post from memory.
 	 */
 	@Autowired
-	private CommentRepository commentRepository;
-
-	/**
-	 * The vote repository which is used to fetch the latest vote type register by
-	 * the user related to the post.
-	 */
-	@Autowired
-	private VoteRepository voteRepository;
+	private PostVoterIndexService postVoterIndexService;
 
 	/** The auth service which will be used to get logged in user details */
 	@Autowired
 	private AuthService authService;
 
 	/**
-	 * mapPostDtoFromModel method map and form new post dto from the post model. The
-	 * target field commentCount from PostDto model is mapped to count of related
-	 * comments.The target field duration from PostDto model is mapped to time
-	 * passed after post is created.
+	 * The vote aggregator service which is used to fetch the vote count changes of
+	 * the post which are not yet flushed to post table.
+	 */
+	@Autowired
+	private VoteAggregatorService voteAggregatorService;
+
+	/**
+	 * mapPostDtoFromModel method map and form new post dto from the post model.
 	 * 
 	 * @param post the post model which needs to be mapped to dto.
 	 * @return the post dto which is mapped from model.
 	 */
+	public PostDto mapPostDtoFromModel(Post post) {
+		return mapPostDtoListFromModels(Collections.singletonList(post)).get(0);
+	}
+
+	/**
+	 * mapPostDtoListFromModels method map and form new post dto's from the list of
+	 * post models. Author and related subreddit of the posts are expected to be
+	 * fetched along with the posts.
+	 *
+	 * @param posts the post models which needs to be mapped to dto's.
+	 * @return the post dto's which are mapped from models in the same order.
+	 */
+	public List<PostDto> mapPostDtoListFromModels(List<Post> posts) {
+		return mapPostDtoListFromCachedPosts(
+				posts.stream().map(this::mapCachedPostFromModel).collect(Collectors.toList()));
+	}
+
+	/**
+	 * mapCachedPostFromModel method map and form new cached post from the post
+	 * model, which holds the part of post dto same for all the users.
+	 *
+	 * @param post the post model which needs to be mapped to cached post.
+	 * @return the cached post which is mapped from model.
+	 */
+	public CachedPost mapCachedPostFromModel(Post post) {
+		return new CachedPost(mapSharedPostDtoFromModel(post), post.getCreatedDateTime());
+	}
+
+	/**
+	 * mapPostDtoListFromCachedPosts method map and form new post dto's from the
+	 * list of cached posts by applying the fields which change with time and
+	 * logged in user. Latest vote types made by logged in user are found for all
+	 * the posts together from the in memory voters of the posts.
+	 *
+	 * @param cachedPosts the cached posts which needs to be mapped to dto's.
+	 * @return the post dto's which are mapped from cached posts in the same order.
+	 */
+	public List<PostDto> mapPostDtoListFromCachedPosts(List<CachedPost> cachedPosts) {
+		if (cachedPosts.isEmpty()) {
+			return Collections.emptyList();
+		}
+		Map<Long, VoteType> latestVoteTypeByPostId = getLatestVoteTypeByPostId(cachedPosts.stream()
+				.map(cachedPost -> cachedPost.getSharedPostDto().getPostId()).collect(Collectors.toList()));
+		return cachedPosts.stream()
+				.map(cachedPost -> mapPostDtoFromCachedPost(cachedPost,
+						latestVoteTypeByPostId.get(cachedPost.getSharedPostDto().getPostId())))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * mapSharedPostDtoFromModel method map and form new post dto from the post
+	 * model with only the fields which are same for all the users. Target fields
+	 * duration and latestVoteTypeMadeByUser are ignored from the mapping.
+	 * 
+	 * @param post the post model which needs to be mapped to dto.
+	 * @return the shared post dto which is mapped from model.
+	 */
 	@Mapping(target = "subredditName", source = "relatedSubreddit.name")
 	@Mapping(target = "username", source = "user.username")
-	@Mapping(target = "commentCount", expression = "java(getCommentCount(post))")
-	@Mapping(target = "duration", expression = "java(getDuration(post))")
-	@Mapping(target = "latestVoteTypeMadeByUser", expression = "java(getLatestVoteTypeMadeByUser(post))")
-	public abstract PostDto mapPostDtoFromModel(Post post);
+	@Mapping(target = "duration", ignore = true)
+	@Mapping(target = "latestVoteTypeMadeByUser", ignore = true)
+	protected abstract PostDto mapSharedPostDtoFromModel(Post post);
+
+	/**
+	 * mapPostDtoFromCachedPost method map and form new post dto from the copy of
+	 * the shared post dto of the cached post. The target field voteCount is mapped
+	 * to vote count including the votes which are not yet flushed to post table.
+	 * The target field duration is mapped to time passed after post is created.
+	 *
+	 * @param cachedPost               the cached post which needs to be mapped to
+	 *                                 dto.
+	 * @param latestVoteTypeMadeByUser the latest vote type made by logged in user
+	 *                                 on the post.
+	 * @return the post dto which is mapped from cached post.
+	 */
+	protected PostDto mapPostDtoFromCachedPost(CachedPost cachedPost, VoteType latestVoteTypeMadeByUser) {
+		PostDto sharedPostDto = cachedPost.getSharedPostDto();
+		return sharedPostDto.toBuilder().voteCount(getVoteCount(sharedPostDto))
+				.duration(getDuration(cachedPost)).latestVoteTypeMadeByUser(latestVoteTypeMadeByUser).build();
+	}
 
 	/**
 	 * mapPostModelFromDto method map and form new post model from the post dto.
@@ -73,6 +147,7 @@ public abstract class PostMapper {
 	@Mapping(target = "postId", ignore = true)
 	@Mapping(target = "description", source = "postDto.description")
 	@Mapping(target = "voteCount", constant = "0")
+	@Mapping(target = "commentCount", constant = "0")
 	@Mapping(target = "createdDateTime", expression = "java(java.time.Instant.now())")
 	@Mapping(target = "user", source = "postedUser")
 	@Mapping(target = "relatedSubreddit", source = "relatedSubreddit")
@@ -80,45 +155,44 @@ public abstract class PostMapper {
 	public abstract Post mapPostModelFromDto(PostDto postDto, Subreddit relatedSubreddit, User postedUser);
 
 	/**
-	 * getCommentCount method get and returns the comment count from the count of
-	 * related comments to the given post.
+	 * getVoteCount method get and returns the current vote count of the post by
+	 * merging the vote count of post table with vote delta which is pending to be
+	 * flushed.
 	 *
-	 * @param post the post which related comments count need to get.
-	 * @return the integer the count of comments related to the post.
+	 * @param sharedPostDto the shared post dto which current vote count needs to
+	 *                      get.
+	 * @return the integer the current vote count of the post.
 	 */
-	protected Integer getCommentCount(Post post) {
-		return commentRepository.countByPost(post);
+	protected Integer getVoteCount(PostDto sharedPostDto) {
+		return Math.toIntExact(
+				sharedPostDto.getVoteCount() + voteAggregatorService.getPendingVoteDelta(sharedPostDto.getPostId()));
 	}
 
 	/**
 	 * getDuration method calculates the duration of the post using TimeAgo kotin
 	 * library function and returns relative time ago text.
 	 *
-	 * @param post the post for which duration needs to be calculated.
+	 * @param cachedPost the cached post for which duration needs to be calculated.
 	 * @return the String which shows the relative time ago text. <br>
 	 *         example such as [4 days ago,21 hours ago,a minute ago,just now]
 	 */
-	protected String getDuration(Post post) {
-		return TimeAgo.using(post.getCreatedDateTime().toEpochMilli());
+	protected String getDuration(CachedPost cachedPost) {
+		return TimeAgo.using(cachedPost.getCreatedDateTime().toEpochMilli());
 	}
 
 	/**
-	 * getLatestVoteTypeMadeByUser method get the latest vote type made by user.
-	 * 
+	 * getLatestVoteTypeByPostId method get the latest vote type made by logged in
+	 * user on each given post id from the in memory voters of the posts. Empty map
+	 * is returned if user is not logged in.
 	 *
-	 * @param post the post for which latest vote type needs to be found.
-	 * @return the matching latest vote type made by the user.If there is no
-	 *         matching vote is found null is returned.
+	 * @param postIds the post ids for which latest vote type needs to be found.
+	 * @return the latest vote type made by the user mapped by post id.
 	 */
-	protected VoteType getLatestVoteTypeMadeByUser(Post post) {
-		if (authService.isLoggedIn()) {
-			Optional<Vote> voteOptional = voteRepository.findTopByPostAndUserOrderByVoteIdDesc(post,
-					authService.getCurrentLoggedInUser());
-			if (voteOptional.isPresent()) {
-				return voteOptional.get().getVoteType();
-			}
+	protected Map<Long, VoteType> getLatestVoteTypeByPostId(List<Long> postIds) {
+		if (!authService.isLoggedIn()) {
+			return Collections.emptyMap();
 		}
-		return null;
+		return postVoterIndexService.getVoteTypeByPostId(authService.getCurrentLoggedInUserId(), postIds);
 	}
 
 }
@@ -1,13 +1,10 @@
 package com.redditclone.demo.mapper;
 
-import java.util.List;
-
 import org.mapstruct.InheritInverseConfiguration;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
 import com.redditclone.demo.dto.SubredditDto;
-import com.redditclone.demo.model.Post;
 import com.redditclone.demo.model.Subreddit;
 
 /**
@@ -21,18 +18,18 @@ public interface SubredditMapper {
 	/**
 	 * mapSubredditDtoFromModel method map and form new subreddit dto from the
 	 * subreddit model. The target field noOfRelatedPosts from SubredditDto model is
-	 * mapped to size of relatedPosts from Subreddit.
+	 * mapped to postCount from Subreddit, so that related posts are not loaded.
 	 *
 	 * @param subreddit the subreddit model which needs to be mapped to dto.
 	 * @return the subreddit dto which is mapped from model.
 	 */
-	@Mapping(target = "noOfRelatedPosts", expression = "java(getNoOfRelatedPosts(subreddit.getRelatedPosts()))")
+	@Mapping(target = "noOfRelatedPosts", source = "postCount")
 	public SubredditDto mapSubredditDtoFromModel(Subreddit subreddit);
 
 	/**
 	 * mapSubredditModelFromDto method map and form new subreddit model from the
-	 * subreddit dto. target fields [id,createdDateTime,user,relatedPosts] are
-	 * ignored from the mapping.
+	 * subreddit dto. target fields [id,createdDateTime,user,relatedPosts,postCount]
+	 * are ignored from the mapping.
 	 *
 	 * @param subredditDto the subreddit dto which needs to be mapped to model.
 	 * @return the subreddit which is mapped from dto.
@@ -41,17 +38,7 @@ public interface SubredditMapper {
 	@Mapping(target = "createdDateTime", ignore = true)
 	@Mapping(target = "user", ignore = true)
 	@Mapping(target = "relatedPosts", ignore = true)
+	@Mapping(target = "postCount", ignore = true)
 	@InheritInverseConfiguration
 	public Subreddit mapSubredditModelFromDto(SubredditDto subredditDto);
-
-	/**
-	 * getNoOfRelatedPosts method returns the no of related posts from the size of
-	 * related post list.
-	 *
-	 * @param relatedPosts the related posts under subreddit/community.
-	 * @return the integer the no of related posts.
-	 */
-	default Integer getNoOfRelatedPosts(List<Post> relatedPosts) {
-		return relatedPosts.size();
-	}
 }
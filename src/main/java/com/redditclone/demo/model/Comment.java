@@ -2,13 +2,16 @@ package com.redditclone.demo.model;
 
 import java.time.Instant;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
 import javax.validation.constraints.NotEmpty;
 
 import lombok.AllArgsConstructor;
@@ -20,11 +23,14 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Table(indexes = @Index(name = "idx_comment_post_thread_path", columnList = "postId, threadPath, depth"))
 @Builder
 /**
  * Comment class holds information about the comments posted by the user. It
  * contains information such as comment's text, date time,related post and the
- * user information.
+ * user information. Replies are threaded under their parent comment by the
+ * materialized thread path, so that a whole thread or the replies of a comment
+ * are read in thread order by a single range of the thread path index.
  * 
  * @author Santhosh Kumar J
  * 
@@ -63,4 +69,31 @@ public class Comment {
 	 * contains user commented date time information in UTC Time Zone/Format.
 	 */
 	private Instant commentedDateTime;
+
+	/**
+	 * the id of the comment to which this comment is replied, null for the top
+	 * level comment of the post.
+	 */
+	private Long parentCommentId;
+
+	/**
+	 * the thread path which is the thread path of the parent comment followed by
+	 * the fixed width base 36 id of this comment, so that ordering by thread path
+	 * lists each comment followed by all of it's replies.
+	 */
+	@Column(length = 240)
+	private String threadPath;
+
+	/** the no of parent comments above this comment, zero for top level. */
+	@Builder.Default
+	@Column(nullable = false)
+	private Integer depth = 0;
+
+	/**
+	 * no of direct replies to this comment which is incremented along with
+	 * creation of each reply, so that hidden replies can be loaded on demand.
+	 */
+	@Builder.Default
+	@Column(nullable = false)
+	private Integer replyCount = 0;
 }
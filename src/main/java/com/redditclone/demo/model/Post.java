@@ -2,14 +2,17 @@ package com.redditclone.demo.model;
 
 import java.time.Instant;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.Lob;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
 import javax.validation.constraints.NotBlank;
 
 import org.springframework.lang.Nullable;
@@ -24,6 +27,9 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @Entity
 @Builder
+@Table(indexes = { @Index(name = "idx_post_created", columnList = "createdDateTime, postId"),
+		@Index(name = "idx_post_subreddit_created", columnList = "subredditId, createdDateTime, postId"),
+		@Index(name = "idx_post_user_created", columnList = "userId, createdDateTime, postId") })
 
 /**
  * Post is a entity class which contains information about reddit post. It
@@ -72,6 +78,15 @@ public class Post {
 	@Builder.Default
 	private Integer voteCount = 0;
 
+	/**
+	 * no of comments made on this post which is incremented along with creation
+	 * of each comment, so that comment table need not be counted while reading
+	 * the post.
+	 */
+	@Builder.Default
+	@Column(nullable = false)
+	private Integer commentCount = 0;
+
 	/**
 	 * Contains post author's user information.
 	 */
@@ -0,0 +1,43 @@
+package com.redditclone.demo.model;
+
+import java.util.Arrays;
+
+import com.redditclone.demo.exceptions.RedditException;
+
+/**
+ * PostSortType Enum contains the orders in which the posts can be listed in
+ * feeds.
+ */
+public enum PostSortType {
+	/**
+	 * Posts ranked by votes where newer posts need fewer votes to stay on top.
+	 */
+	HOT,
+	/**
+	 * Posts ranked by vote count.
+	 */
+	TOP,
+	/**
+	 * Posts ranked by votes and comments where the age of the post decays the rank
+	 * faster than hot, so that recently active posts come on top.
+	 */
+	RISING,
+	/**
+	 * Posts sorted by descending order of created date time.
+	 */
+	NEW;
+
+	/**
+	 * findPostSortType method finds the post sort type by it's name ignoring the
+	 * case.
+	 *
+	 * throws RedditException if matching post sort type is not found.
+	 *
+	 * @param sortName the name of the sort type.
+	 * @return the matching post sort type.
+	 */
+	public static PostSortType findPostSortType(String sortName) {
+		return Arrays.stream(PostSortType.values()).filter(postSortType -> postSortType.name().equalsIgnoreCase(sortName))
+				.findAny().orElseThrow(() -> new RedditException("Post sort type " + sortName + " is not supported"));
+	}
+}
@@ -2,10 +2,16 @@ package com.redditclone.demo.model;
 
 import java.time.Instant;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -15,11 +21,14 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(indexes = { @Index(name = "uk_refresh_token_hash", columnList = "tokenHash", unique = true),
+		@Index(name = "idx_refresh_token_expiry", columnList = "expiryDateTime") })
 /**
  * refresh token class used to store the authentication token related
  * information which will used for security authentication at the time of
- * refresh. It contains information such as authentication token and it's
- * expiry.
+ * refresh. It contains information such as hash of the authentication token,
+ * the user to which it is issued and it's expiry. Raw token is only returned
+ * to the client and never stored.
  * 
  * @author Santhosh Kumar J
  *
@@ -35,12 +44,25 @@ public class RefreshToken {
 	private Long id;
 
 	/**
-	 * token which will be used for authentication of user.
+	 * sha-256 hash of the token which will be used for authentication of user.
 	 */
-	private String token;
+	@Column(length = 64)
+	private String tokenHash;
+
+	/**
+	 * the user to which the token is issued.
+	 */
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "userId", referencedColumnName = "userId")
+	private User user;
 
 	/**
 	 * contains refresh token created date time information in UTC Time Zone/Format.
 	 */
 	private Instant createdDateTime;
+
+	/**
+	 * contains refresh token expiry date time information in UTC Time Zone/Format.
+	 */
+	private Instant expiryDateTime;
 }
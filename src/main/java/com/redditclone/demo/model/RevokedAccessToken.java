@@ -0,0 +1,36 @@
+package com.redditclone.demo.model;
+
+import java.time.Instant;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(indexes = @Index(name = "idx_revoked_access_token_expiry", columnList = "expiryDateTime"))
+/**
+ * RevokedAccessToken class holds the token id of the access token[jwt] which is
+ * revoked on logout before it's expiry. It is held only until the expiry of the
+ * access token, as expired tokens are rejected by the signature verification.
+ *
+ */
+public class RevokedAccessToken {
+
+	/** The unique token id[jti claim] of the revoked access token. */
+	@Id
+	private String tokenId;
+
+	/**
+	 * contains expiry date time of the revoked access token in UTC Time
+	 * Zone/Format.
+	 */
+	private Instant expiryDateTime;
+}
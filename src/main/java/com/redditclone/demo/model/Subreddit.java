@@ -3,6 +3,7 @@ package com.redditclone.demo.model;
 import java.time.Instant;
 import java.util.List;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
@@ -66,6 +67,15 @@ public class Subreddit {
 	@OneToMany(fetch = FetchType.LAZY)
 	private List<Post> relatedPosts;
 
+	/**
+	 * no of posts related to this subreddit/community which is incremented along
+	 * with creation of each post, so that related posts need not be loaded or
+	 * counted while reading the subreddit.
+	 */
+	@Builder.Default
+	@Column(nullable = false)
+	private Integer postCount = 0;
+
 	/**
 	 * contains subreddit created date time information in UTC Time Zone/Format.
 	 */
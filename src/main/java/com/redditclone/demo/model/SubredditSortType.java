@@ -0,0 +1,39 @@
+package com.redditclone.demo.model;
+
+import java.util.Arrays;
+
+import com.redditclone.demo.exceptions.RedditException;
+
+/**
+ * SubredditSortType Enum contains the orders in which the subreddits can be
+ * listed in the subreddit directory.
+ */
+public enum SubredditSortType {
+	/**
+	 * Subreddits sorted by name ignoring the case.
+	 */
+	NAME,
+	/**
+	 * Subreddits sorted by descending order of post count.
+	 */
+	SIZE,
+	/**
+	 * Subreddits sorted by descending order of creation.
+	 */
+	NEW;
+
+	/**
+	 * findSubredditSortType method finds the subreddit sort type by it's name
+	 * ignoring the case.
+	 *
+	 * throws RedditException if matching subreddit sort type is not found.
+	 *
+	 * @param sortName the name of the sort type.
+	 * @return the matching subreddit sort type.
+	 */
+	public static SubredditSortType findSubredditSortType(String sortName) {
+		return Arrays.stream(SubredditSortType.values())
+				.filter(subredditSortType -> subredditSortType.name().equalsIgnoreCase(sortName)).findAny()
+				.orElseThrow(() -> new RedditException("Subreddit sort type " + sortName + " is not supported"));
+	}
+}
@@ -6,6 +6,9 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotEmpty;
@@ -20,6 +23,8 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @Entity
 @Builder
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_user_username", columnNames = "username"),
+		indexes = @Index(name = "idx_user_enabled_created", columnList = "isUserEnabled, createdDateTime"))
 /**
  * User class contains reddit user information such as
  * name,authentication,communication details and account status.
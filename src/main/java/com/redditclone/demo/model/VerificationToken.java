@@ -7,6 +7,7 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
 
@@ -18,11 +19,13 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "token")
+@Table(name = "token", indexes = { @Index(name = "uk_token_token", columnList = "token", unique = true),
+		@Index(name = "idx_token_expiry", columnList = "expiryDateTime") })
 /**
  * verification token class used to store the authentication token related
  * information which will used for security authentication. It contains
- * information such as authentication token,related user and it's expiry.
+ * information such as authentication token,related user and it's expiry. Token
+ * is deleted once it is used to activate the user account.
  * 
  * @author Santhosh Kumar J
  *
@@ -8,6 +8,8 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 import javax.validation.constraints.NotNull;
 
 import lombok.AllArgsConstructor;
@@ -20,9 +22,11 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @Entity
 @Builder
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_vote_post_user", columnNames = { "postId", "userId" }))
 /**
  * Vote class holds the voting information for each reddit post. It contains
- * information such as type of vote,related post and the user.
+ * information such as type of vote,related post and the user. Each user has
+ * only one vote on a post which is updated when user changes the vote type.
  * 
  * @author Santhosh Kumar J
  *
@@ -3,10 +3,16 @@
  */
 package com.redditclone.demo.repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.redditclone.demo.model.Comment;
 import com.redditclone.demo.model.Post;
@@ -46,4 +52,79 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
 	 * @return Long the count of matching comments related to the post.
 	 */
 	Integer countByPost(Post searchInputPost);
+
+	/**
+	 * findWithUserAndPostByIdIn method finds and returns the comments of the given
+	 * comment ids along with their author and post.
+	 *
+	 * @param commentIds the comment ids which needs to be found.
+	 * @return the list of matching comments.
+	 */
+	@EntityGraph(attributePaths = { "user", "post" })
+	List<Comment> findWithUserAndPostByIdIn(Collection<Long> commentIds);
+
+	/**
+	 * findWithUserAndPostByIdBetween method finds and returns the comments which
+	 * comment id is with in the given range along with their author and post.
+	 *
+	 * @param fromCommentId the first comment id of the range.
+	 * @param toCommentId   the last comment id of the range.
+	 * @return the list of comments with in the range.
+	 */
+	@EntityGraph(attributePaths = { "user", "post" })
+	List<Comment> findWithUserAndPostByIdBetween(Long fromCommentId, Long toCommentId);
+
+	/**
+	 * findMaxCommentId method finds and returns the maximum comment id.
+	 *
+	 * @return the maximum comment id, null if there is no comment.
+	 */
+	@Query("select max(c.id) from Comment c")
+	Long findMaxCommentId();
+
+	/**
+	 * findThreadCommentsAfter method finds and returns the page of comments of the
+	 * post under the thread path prefix which thread path is after the given
+	 * thread path, in the order of thread path. Comments deeper than the maximum
+	 * depth are skipped with in the same range of the thread path index.
+	 *
+	 * @param postId           the post id of which comments needs to be found.
+	 * @param threadPathPrefix the thread path of the comment which replies needs
+	 *                         to be found, empty for all the comments of the post.
+	 * @param afterThreadPath  the thread path of last comment of previous page.
+	 * @param maximumDepth     the maximum depth of the comments.
+	 * @param pageable         the pageable which limits the no of comments.
+	 * @return the list of comments in the order of thread path.
+	 */
+	@EntityGraph(attributePaths = { "user" })
+	@Query("select c from Comment c where c.post.postId = :postId "
+			+ "and c.threadPath like concat(:threadPathPrefix, '%') and c.threadPath > :afterThreadPath "
+			+ "and c.depth <= :maximumDepth order by c.threadPath")
+	List<Comment> findThreadCommentsAfter(Long postId, String threadPathPrefix, String afterThreadPath,
+			Integer maximumDepth, Pageable pageable);
+
+	/**
+	 * incrementReplyCount method increments the reply count of the comment by one
+	 * with in the database, so that concurrent replies doesn't override each
+	 * other.
+	 *
+	 * @param commentId the id of comment which needs to be updated.
+	 * @return the int the update status.
+	 */
+	@Modifying
+	@Transactional
+	@Query("update Comment c set c.replyCount = c.replyCount + 1 where c.id = :commentId")
+	int incrementReplyCount(Long commentId);
+
+	/**
+	 * backfillThreadPaths method assigns the thread path of the comments which are
+	 * created before comments are threaded, they become top level comments.
+	 *
+	 * @return the int the no of updated comments.
+	 */
+	@Modifying
+	@Transactional
+	@Query(value = "update comment set thread_path = lpad(lower(conv(id, 10, 36)), 8, '0') "
+			+ "where thread_path is null", nativeQuery = true)
+	int backfillThreadPaths();
 }
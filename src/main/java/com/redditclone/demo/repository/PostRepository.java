@@ -1,7 +1,12 @@
 package com.redditclone.demo.repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -23,32 +28,237 @@ import com.redditclone.demo.model.User;
 public interface PostRepository extends JpaRepository<Post, Long> {
 
 	/**
-	 * findAllByUser method finds and returns the list of posts for given user.
-	 * 
-	 * @param the input user details which needs to be found.
-	 * @return the list of post details for given user.
+	 * findWithUserAndSubredditByPostId method finds and returns the post for given
+	 * post id along with it's author and related subreddit fetched in the same
+	 * query.
+	 *
+	 * @param postId the post id which needs to be found.
+	 * @return the optional post for given post id.
+	 */
+	@EntityGraph(attributePaths = { "user", "relatedSubreddit" })
+	Optional<Post> findWithUserAndSubredditByPostId(Long postId);
+
+	/**
+	 * findWithUserAndSubredditByPostIdIn method finds and returns the posts for
+	 * given post ids along with their author and related subreddit fetched in the
+	 * same query.
+	 *
+	 * @param postIds the post ids which needs to be found.
+	 * @return the list of posts in no specific order.
+	 */
+	@EntityGraph(attributePaths = { "user", "relatedSubreddit" })
+	List<Post> findWithUserAndSubredditByPostIdIn(Collection<Long> postIds);
+
+	/**
+	 * findWithUserAndSubredditByPostIdBetween method finds and returns the posts
+	 * which post id is with in the given range along with their author and
+	 * related subreddit.
+	 *
+	 * @param fromPostId the first post id of the range.
+	 * @param toPostId   the last post id of the range.
+	 * @return the list of posts with in the range.
+	 */
+	@EntityGraph(attributePaths = { "user", "relatedSubreddit" })
+	List<Post> findWithUserAndSubredditByPostIdBetween(Long fromPostId, Long toPostId);
+
+	/**
+	 * findLatestPosts method finds and returns the first page of latest posts
+	 * sorted by descending order of created date time and post id.
+	 *
+	 * @param pageable the pageable which limits the no of posts.
+	 * @return the list of latest posts.
+	 */
+	@EntityGraph(attributePaths = { "user", "relatedSubreddit" })
+	@Query("select p from Post p order by p.createdDateTime desc, p.postId desc")
+	List<Post> findLatestPosts(Pageable pageable);
+
+	/**
+	 * findLatestPostsBefore method finds and returns the page of latest posts which
+	 * are created before the given keyset of created date time and post id.
+	 *
+	 * @param createdDateTime the created date time of last post of previous page.
+	 * @param postId          the post id of last post of previous page.
+	 * @param pageable        the pageable which limits the no of posts.
+	 * @return the list of latest posts after the given keyset.
+	 */
+	@EntityGraph(attributePaths = { "user", "relatedSubreddit" })
+	@Query("select p from Post p where p.createdDateTime < :createdDateTime or (p.createdDateTime = :createdDateTime "
+			+ "and p.postId < :postId) order by p.createdDateTime desc, p.postId desc")
+	List<Post> findLatestPostsBefore(Instant createdDateTime, Long postId, Pageable pageable);
+
+	/**
+	 * findLatestPostsByRelatedSubreddit method finds and returns the first page of
+	 * latest posts related to given subreddit sorted by descending order of created
+	 * date time and post id.
+	 *
+	 * @param relatedSubreddit the related subreddit which posts needs to be found.
+	 * @param pageable         the pageable which limits the no of posts.
+	 * @return the list of latest posts related to the subreddit.
+	 */
+	@EntityGraph(attributePaths = { "user", "relatedSubreddit" })
+	@Query("select p from Post p where p.relatedSubreddit = :relatedSubreddit "
+			+ "order by p.createdDateTime desc, p.postId desc")
+	List<Post> findLatestPostsByRelatedSubreddit(Subreddit relatedSubreddit, Pageable pageable);
+
+	/**
+	 * findLatestPostsByRelatedSubredditBefore method finds and returns the page of
+	 * latest posts related to given subreddit which are created before the given
+	 * keyset of created date time and post id.
+	 *
+	 * @param relatedSubreddit the related subreddit which posts needs to be found.
+	 * @param createdDateTime  the created date time of last post of previous page.
+	 * @param postId           the post id of last post of previous page.
+	 * @param pageable         the pageable which limits the no of posts.
+	 * @return the list of latest posts related to the subreddit after the given
+	 *         keyset.
+	 */
+	@EntityGraph(attributePaths = { "user", "relatedSubreddit" })
+	@Query("select p from Post p where p.relatedSubreddit = :relatedSubreddit and (p.createdDateTime < :createdDateTime "
+			+ "or (p.createdDateTime = :createdDateTime and p.postId < :postId)) "
+			+ "order by p.createdDateTime desc, p.postId desc")
+	List<Post> findLatestPostsByRelatedSubredditBefore(Subreddit relatedSubreddit, Instant createdDateTime,
+			Long postId, Pageable pageable);
+
+	/**
+	 * findLatestPostsByUser method finds and returns the first page of latest
+	 * posts of given user sorted by descending order of created date time and post
+	 * id.
+	 *
+	 * @param user     the user [author] which posts needs to be found.
+	 * @param pageable the pageable which limits the no of posts.
+	 * @return the list of latest posts of the user.
+	 */
+	@EntityGraph(attributePaths = { "user", "relatedSubreddit" })
+	@Query("select p from Post p where p.user = :user order by p.createdDateTime desc, p.postId desc")
+	List<Post> findLatestPostsByUser(User user, Pageable pageable);
+
+	/**
+	 * findLatestPostsByUserBefore method finds and returns the page of latest posts
+	 * of given user which are created before the given keyset of created date time
+	 * and post id.
+	 *
+	 * @param user            the user [author] which posts needs to be found.
+	 * @param createdDateTime the created date time of last post of previous page.
+	 * @param postId          the post id of last post of previous page.
+	 * @param pageable        the pageable which limits the no of posts.
+	 * @return the list of latest posts of the user after the given keyset.
+	 */
+	@EntityGraph(attributePaths = { "user", "relatedSubreddit" })
+	@Query("select p from Post p where p.user = :user and (p.createdDateTime < :createdDateTime "
+			+ "or (p.createdDateTime = :createdDateTime and p.postId < :postId)) "
+			+ "order by p.createdDateTime desc, p.postId desc")
+	List<Post> findLatestPostsByUserBefore(User user, Instant createdDateTime, Long postId, Pageable pageable);
+
+	/**
+	 * incrementCommentCount method increments the comment count of the post by one
+	 * with in the database, so that concurrent comments doesn't override each
+	 * other.
+	 *
+	 * @param postId the post id of post which needs to be updated.
+	 * @return the int the update status.
+	 */
+	@Modifying
+	@Transactional
+	@Query("update Post p set p.commentCount = p.commentCount + 1 where p.postId = :postId")
+	int incrementCommentCount(Long postId);
+
+	/**
+	 * reconcileCommentCounts method corrects the comment count of the posts with
+	 * in the given post id range which doesn't match the actual count of comments
+	 * in the comment table.
+	 *
+	 * @param fromPostId the starting post id of the range.
+	 * @param toPostId   the ending post id of the range.
+	 * @return the int the no of posts which comment count is corrected.
+	 */
+	@Modifying
+	@Transactional
+	@Query(value = "update post p left join (select c.post_id, count(*) as comment_count from comment c "
+			+ "where c.post_id between :fromPostId and :toPostId group by c.post_id) post_comment "
+			+ "on post_comment.post_id = p.post_id set p.comment_count = coalesce(post_comment.comment_count, 0) "
+			+ "where p.post_id between :fromPostId and :toPostId "
+			+ "and p.comment_count <> coalesce(post_comment.comment_count, 0)", nativeQuery = true)
+	int reconcileCommentCounts(Long fromPostId, Long toPostId);
+
+	/**
+	 * recountVoteCounts method recounts the vote count of all the posts from the
+	 * votes of the vote table.
+	 *
+	 * @param upvoteType the ordinal of the upvote vote type.
+	 * @return the int the no of posts which vote count is updated.
+	 */
+	@Modifying
+	@Transactional
+	@Query(value = "update post p left join (select v.post_id, sum(case v.vote_type when :upvoteType then 1 else -1 end) "
+			+ "as vote_count from vote v group by v.post_id) post_vote on post_vote.post_id = p.post_id "
+			+ "set p.vote_count = coalesce(post_vote.vote_count, 0)", nativeQuery = true)
+	int recountVoteCounts(int upvoteType);
+
+	/**
+	 * findPostRankingSnapshotsAfter method finds and returns the page of ranking
+	 * details of the posts which post id is greater than the given post id, sorted
+	 * by ascending order of post id.
+	 *
+	 * @param afterPostId the post id of last post of previous page.
+	 * @param pageable    the pageable which limits the no of posts.
+	 * @return the list of ranking details of the posts.
 	 */
-	List<Post> findAllByUser(User searchInputuser);
+	@Query("select p.postId as postId, p.relatedSubreddit.id as subredditId, p.createdDateTime as createdDateTime, "
+			+ "p.voteCount as voteCount, p.commentCount as commentCount from Post p where p.postId > :afterPostId "
+			+ "order by p.postId")
+	List<PostRankingSnapshot> findPostRankingSnapshotsAfter(Long afterPostId, Pageable pageable);
 
 	/**
-	 * findAllBySubreddit methods finds and returns the all the posts related to for
-	 * given subreddit.
-	 * 
-	 * @param the input subreddit details which needs to be found.
-	 * @return the list of post details related to the subreddit.
+	 * findMaxPostId method finds and returns the maximum post id.
+	 *
+	 * @return the maximum post id, null if there is no post.
 	 */
-	List<Post> findAllByRelatedSubreddit(Subreddit searchInputSubreddit);
+	@Query("select max(p.postId) from Post p")
+	Long findMaxPostId();
 
 	/**
-	 * updateVoteCount method updates vote count to given updated vote count.
+	 * incrementVoteCount method increments the vote count of the post by the given
+	 * vote delta with in the database, so that concurrent updates of the vote
+	 * count doesn't override each other.
 	 *
-	 * @param postId           the post id of post which needs to be updated.
-	 * @param updatedVoteCount the updated vote count which needs to be updated.
+	 * @param postId    the post id of post which needs to be updated.
+	 * @param voteDelta the vote delta which needs to be added to vote count.
 	 * @return the int the update status.
 	 */
 	@Modifying
 	@Transactional
-	@Query("update Post set vote_count = :updatedVoteCount where post_id = :postId")
-	int updateVoteCount(Long postId, Integer updatedVoteCount);
+	@Query("update Post p set p.voteCount = p.voteCount + :voteDelta where p.postId = :postId")
+	int incrementVoteCount(Long postId, Integer voteDelta);
+
+	/**
+	 * PostRankingSnapshot projection holds the details of the post which are used
+	 * to rank the post.
+	 */
+	interface PostRankingSnapshot {
+
+		/**
+		 * @return the post id.
+		 */
+		Long getPostId();
+
+		/**
+		 * @return the id of the subreddit which post is related to.
+		 */
+		Long getSubredditId();
+
+		/**
+		 * @return the created date time of the post.
+		 */
+		Instant getCreatedDateTime();
+
+		/**
+		 * @return the vote count of the post.
+		 */
+		Integer getVoteCount();
 
-}
\ No newline at end of file
+		/**
+		 * @return the comment count of the post.
+		 */
+		Integer getCommentCount();
+	}
+}
@@ -1,17 +1,21 @@
 package com.redditclone.demo.repository;
 
+import java.time.Instant;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.redditclone.demo.model.RefreshToken;
-import com.redditclone.demo.model.VerificationToken;
 
 @Repository
 /**
  * RefreshTokenRepository provides database repository methods to find and
- * access authentication token details based on the input refresh token .
+ * access authentication token details based on the hash of the input refresh
+ * token .
  * 
  * @author Santhosh Kumar J
  *
@@ -19,21 +23,60 @@ import com.redditclone.demo.model.VerificationToken;
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
 
 	/**
-	 * findByToken method finds and returns the matching refresh token for given
-	 * input token.
+	 * findActiveTokenWithUser method finds and returns the matching refresh token
+	 * along with it's user for given token hash, only if it is issued to the given
+	 * user name and not expired yet. It is a single lookup by the unique index of
+	 * the token hash.
 	 * 
-	 * @param the input token details which needs to be found.
-	 * @return the optional refresh token for given input token, Holds the refresh
+	 * @param tokenHash       the hash of the input token which needs to be found.
+	 * @param username        the user name to which token needs to be issued.
+	 * @param currentDateTime the current date time.
+	 * @return the optional refresh token for given token hash, Holds the refresh
 	 *         token data if matching refresh token is found, if not,
 	 *         Optional.empty() is returned by default.
 	 */
-	Optional<RefreshToken> findByToken(String searchInputToken);
+	@Query("select refreshToken from RefreshToken refreshToken join fetch refreshToken.user user "
+			+ "where refreshToken.tokenHash = :tokenHash and user.username = :username "
+			+ "and refreshToken.expiryDateTime > :currentDateTime")
+	Optional<RefreshToken> findActiveTokenWithUser(String tokenHash, String username, Instant currentDateTime);
 
 	/**
-	 * deleteByToken method deletes the matching refresh token for given input
-	 * token.
+	 * deleteByRefreshTokenId method deletes the refresh token by id, so that
+	 * concurrent rotations of the same token can find which one consumed it.
 	 * 
-	 * @param the input token details which needs to be deleted.
+	 * @param refreshTokenId the id of the refresh token which needs to be deleted.
+	 * @return the int no of deleted refresh tokens.
 	 */
-	void deleteByToken(String searchInputToken);
+	@Modifying
+	@Transactional
+	@Query("delete from RefreshToken refreshToken where refreshToken.id = :refreshTokenId")
+	int deleteByRefreshTokenId(Long refreshTokenId);
+
+	/**
+	 * deleteByTokenHash method deletes the matching refresh token for given token
+	 * hash.
+	 * 
+	 * @param tokenHash the hash of the input token which needs to be deleted.
+	 * @return the int no of deleted refresh tokens.
+	 */
+	@Modifying
+	@Transactional
+	@Query("delete from RefreshToken refreshToken where refreshToken.tokenHash = :tokenHash")
+	int deleteByTokenHash(String tokenHash);
+
+	/**
+	 * deleteExpiredTokens method deletes a batch of expired refresh tokens, so that
+	 * each delete holds the locks of only a few rows. Refresh tokens without
+	 * expiry date time are deleted as well, these are the tokens issued before
+	 * the token hash, user and expiry were stored, which can never be used.
+	 * 
+	 * @param currentDateTime the current date time.
+	 * @param batchSize       the maximum no of refresh tokens to be deleted.
+	 * @return the int no of deleted refresh tokens.
+	 */
+	@Modifying
+	@Transactional
+	@Query(value = "delete from refresh_token where expiry_date_time <= :currentDateTime "
+			+ "or expiry_date_time is null limit :batchSize", nativeQuery = true)
+	int deleteExpiredTokens(Instant currentDateTime, int batchSize);
 }
@@ -0,0 +1,45 @@
+package com.redditclone.demo.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.redditclone.demo.model.RevokedAccessToken;
+
+@Repository
+/**
+ * RevokedAccessTokenRepository provides database repository methods to store
+ * and find the token ids of the revoked access tokens.
+ *
+ */
+public interface RevokedAccessTokenRepository extends JpaRepository<RevokedAccessToken, String> {
+
+	/**
+	 * findActiveTokenIds method finds and returns the token ids of the revoked
+	 * access tokens which are not expired yet.
+	 *
+	 * @param currentDateTime the current date time.
+	 * @return the token ids of the revoked access tokens which are not expired.
+	 */
+	@Query("select revokedAccessToken.tokenId from RevokedAccessToken revokedAccessToken "
+			+ "where revokedAccessToken.expiryDateTime > :currentDateTime")
+	List<String> findActiveTokenIds(Instant currentDateTime);
+
+	/**
+	 * deleteExpiredTokens method deletes the revoked access tokens which are
+	 * already expired.
+	 *
+	 * @param currentDateTime the current date time.
+	 * @return the int no of deleted revoked access tokens.
+	 */
+	@Modifying
+	@Transactional
+	@Query("delete from RevokedAccessToken revokedAccessToken "
+			+ "where revokedAccessToken.expiryDateTime <= :currentDateTime")
+	int deleteExpiredTokens(Instant currentDateTime);
+}
@@ -1,8 +1,12 @@
 package com.redditclone.demo.repository;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.redditclone.demo.model.Subreddit;
 
@@ -23,4 +27,82 @@ public interface SubredditRepository extends JpaRepository<Subreddit, Long> {
 	 * @return the subreddit details for given subreddit name.
 	 */
 	Optional<Subreddit> findByName(String inputSubredditName);
+
+	/**
+	 * findAllSubredditNames method finds and returns the id and name of all the
+	 * subreddits.
+	 *
+	 * @return the list of id and name of the subreddits.
+	 */
+	@Query("select s.id as id, s.name as name from Subreddit s")
+	List<SubredditNameSnapshot> findAllSubredditNames();
+
+	/**
+	 * findAllSubredditPostCounts method finds and returns the name and post count
+	 * of all the subreddits.
+	 *
+	 * @return the list of name and post count of the subreddits.
+	 */
+	@Query("select s.name as name, s.postCount as postCount from Subreddit s")
+	List<SubredditPostCountSnapshot> findAllSubredditPostCounts();
+
+	/**
+	 * incrementPostCount method increments the post count of the subreddit by one
+	 * with in the database, so that concurrent posts doesn't override each other.
+	 *
+	 * @param subredditId the id of subreddit which needs to be updated.
+	 * @return the int the update status.
+	 */
+	@Modifying
+	@Transactional
+	@Query("update Subreddit s set s.postCount = s.postCount + 1 where s.id = :subredditId")
+	int incrementPostCount(Long subredditId);
+
+	/**
+	 * reconcilePostCounts method corrects the post count of the subreddits which
+	 * doesn't match the actual count of related posts in the post table.
+	 *
+	 * @return the int the no of subreddits which post count is corrected.
+	 */
+	@Modifying
+	@Transactional
+	@Query(value = "update subreddit s left join (select p.subreddit_id, count(*) as post_count from post p "
+			+ "group by p.subreddit_id) subreddit_post on subreddit_post.subreddit_id = s.id "
+			+ "set s.post_count = coalesce(subreddit_post.post_count, 0) "
+			+ "where s.post_count <> coalesce(subreddit_post.post_count, 0)", nativeQuery = true)
+	int reconcilePostCounts();
+
+	/**
+	 * SubredditNameSnapshot projection holds the id and name of the subreddit
+	 * which are used to resolve the subreddit by it's name.
+	 */
+	interface SubredditNameSnapshot {
+
+		/**
+		 * @return the subreddit id.
+		 */
+		Long getId();
+
+		/**
+		 * @return the subreddit name.
+		 */
+		String getName();
+	}
+
+	/**
+	 * SubredditPostCountSnapshot projection holds the name and post count of the
+	 * subreddit which are used to rank the subreddit in suggestions.
+	 */
+	interface SubredditPostCountSnapshot {
+
+		/**
+		 * @return the subreddit name.
+		 */
+		String getName();
+
+		/**
+		 * @return the no of posts related to the subreddit.
+		 */
+		Integer getPostCount();
+	}
 }
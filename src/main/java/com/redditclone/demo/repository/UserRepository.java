@@ -1,5 +1,8 @@
 package com.redditclone.demo.repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -29,6 +32,57 @@ public interface UserRepository extends JpaRepository<User, Long> {
 	 */
 	Optional<User> findByUsername(String username);
 
+	/**
+	 * existsByUsername method checks whether user with the given user name exists.
+	 * 
+	 * @param username the input user name which needs to be checked.
+	 * @return true, if user name is already taken, otherwise return false.
+	 */
+	boolean existsByUsername(String username);
+
+	/**
+	 * findAllUserActivities method finds and returns the user name of all the
+	 * activated users along with the no of posts and comments made by them.
+	 *
+	 * @return the list of user names and their activity counts.
+	 */
+	@Query(value = "select u.username as username, (select count(*) from post p where p.user_id = u.user_id) "
+			+ "+ (select count(*) from comment c where c.user_id = u.user_id) as activityCount from user u "
+			+ "where u.is_user_enabled = true", nativeQuery = true)
+	List<UserActivitySnapshot> findAllUserActivities();
+
+	/**
+	 * findUnactivatedUsersWithoutToken method finds a batch of the user accounts
+	 * which are still not activated and have no verification token, registered
+	 * with in the given period, in the order of user id. These are the users whose
+	 * verification token was never issued or whose activation mail failed.
+	 *
+	 * @param afterUserId        the user id after which users are found.
+	 * @param registeredAfter    the date time after which users registered.
+	 * @param registeredNotAfter the date time until which users registered.
+	 * @param batchSize          the maximum no of users to be found.
+	 * @return the unactivated users without verification token.
+	 */
+	@Query(value = "select u.* from user u where u.user_id > :afterUserId and u.is_user_enabled = false "
+			+ "and u.created_date_time > :registeredAfter and u.created_date_time <= :registeredNotAfter "
+			+ "and not exists (select 1 from token t where t.related_user_user_id = u.user_id) "
+			+ "order by u.user_id limit :batchSize", nativeQuery = true)
+	List<User> findUnactivatedUsersWithoutToken(long afterUserId, Instant registeredAfter,
+			Instant registeredNotAfter, int batchSize);
+
+	/**
+	 * deleteUnactivatedUsersByIds method deletes the given user accounts which
+	 * are still not activated.
+	 *
+	 * @param userIds the user ids which needs to be deleted.
+	 * @return the int no of deleted user accounts.
+	 */
+	@Modifying
+	@Transactional
+	@Query("delete from User unactivatedUser where unactivatedUser.userId in :userIds "
+			+ "and unactivatedUser.isUserEnabled = false")
+	int deleteUnactivatedUsersByIds(Collection<Long> userIds);
+
 	/**
 	 * updateUserAccountStatusByUserId method updates user account enabled status to
 	 * given status by user id.
@@ -41,4 +95,34 @@ public interface UserRepository extends JpaRepository<User, Long> {
 	@Transactional
 	@Query("update User set is_user_enabled = :isUserEnabled where user_id = :userId")
 	int updateUserAccountStatusByUserId(Long userId, boolean isUserEnabled);
+
+	/**
+	 * updatePasswordByUsername method updates the encoded password of the user by
+	 * user name.
+	 *
+	 * @param username the user name of the user which needs to be updated.
+	 * @param password the encoded password.
+	 * @return the int the update status.
+	 */
+	@Modifying
+	@Transactional
+	@Query("update User set password = :password where username = :username")
+	int updatePasswordByUsername(String username, String password);
+
+	/**
+	 * UserActivitySnapshot projection holds the user name and the no of posts and
+	 * comments made by the user.
+	 */
+	interface UserActivitySnapshot {
+
+		/**
+		 * @return the user name.
+		 */
+		String getUsername();
+
+		/**
+		 * @return the no of posts and comments made by the user.
+		 */
+		Long getActivityCount();
+	}
 }
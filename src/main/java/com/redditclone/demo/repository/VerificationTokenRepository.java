@@ -1,10 +1,17 @@
 package com.redditclone.demo.repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.redditclone.demo.model.User;
 import com.redditclone.demo.model.VerificationToken;
 
 @Repository
@@ -27,4 +34,100 @@ public interface VerificationTokenRepository extends JpaRepository<VerificationT
 	 *         Optional.empty() is returned by default.
 	 */
 	Optional<VerificationToken> findByToken(String searchInputToken);
+
+	/**
+	 * findRelatedUserByToken method finds and returns the user related to the
+	 * given verification token.
+	 * 
+	 * @param token the verification token.
+	 * @return the optional user related to the token, Optional.empty() if token is
+	 *         not found.
+	 */
+	@Query("select verificationToken.relatedUser from VerificationToken verificationToken "
+			+ "where verificationToken.token = :token")
+	Optional<User> findRelatedUserByToken(String token);
+
+	/**
+	 * enableUserByActiveToken method enables the user account related to the given
+	 * token with a single update joined on the token, only if the token is not
+	 * expired.
+	 * 
+	 * @param token           the verification token.
+	 * @param currentDateTime the current date time.
+	 * @return the int no of enabled user accounts, 0 if token is not found, expired
+	 *         or user account is already enabled.
+	 */
+	@Modifying
+	@Transactional
+	@Query(value = "update user u join token t on t.related_user_user_id = u.user_id set u.is_user_enabled = true "
+			+ "where t.token = :token and t.expiry_date_time > :currentDateTime", nativeQuery = true)
+	int enableUserByActiveToken(String token, Instant currentDateTime);
+
+	/**
+	 * deleteByToken method deletes the matching verification token for given
+	 * input token.
+	 * 
+	 * @param token the verification token which needs to be deleted.
+	 * @return the int no of deleted verification tokens.
+	 */
+	@Modifying
+	@Transactional
+	@Query("delete from VerificationToken verificationToken where verificationToken.token = :token")
+	int deleteByToken(String token);
+
+	/**
+	 * backfillMissingExpiry method sets the expiry of the verification tokens
+	 * which are issued before expiry is set.
+	 * 
+	 * @param expiryDateTime the expiry date time to be set.
+	 * @return the int no of updated verification tokens.
+	 */
+	@Modifying
+	@Transactional
+	@Query("update VerificationToken verificationToken set verificationToken.expiryDateTime = :expiryDateTime "
+			+ "where verificationToken.expiryDateTime is null")
+	int backfillMissingExpiry(Instant expiryDateTime);
+
+	/**
+	 * findExpiredUnactivatedUserIds method finds a batch of user ids of the user
+	 * accounts which are never activated and whose verification tokens are
+	 * expired, along with the ones which never got a verification token and are
+	 * registered as long ago as a token expires.
+	 * 
+	 * @param currentDateTime   the current date time.
+	 * @param expiredRegistered the date time until which the users without token
+	 *                          are registered.
+	 * @param batchSize         the maximum no of user ids to be found.
+	 * @return the user ids of expired unactivated user accounts.
+	 */
+	@Query(value = "select u.user_id from user u where u.is_user_enabled = false and (exists (select 1 from token t "
+			+ "where t.related_user_user_id = u.user_id and t.expiry_date_time <= :currentDateTime) "
+			+ "or (u.created_date_time <= :expiredRegistered and not exists (select 1 from token t "
+			+ "where t.related_user_user_id = u.user_id))) limit :batchSize", nativeQuery = true)
+	List<Long> findExpiredUnactivatedUserIds(Instant currentDateTime, Instant expiredRegistered, int batchSize);
+
+	/**
+	 * deleteByRelatedUserIds method deletes the verification tokens of the given
+	 * users.
+	 * 
+	 * @param userIds the user ids which verification tokens needs to be deleted.
+	 * @return the int no of deleted verification tokens.
+	 */
+	@Modifying
+	@Transactional
+	@Query("delete from VerificationToken verificationToken where verificationToken.relatedUser.userId in :userIds")
+	int deleteByRelatedUserIds(Collection<Long> userIds);
+
+	/**
+	 * deleteExpiredTokens method deletes a batch of expired verification tokens.
+	 * 
+	 * @param currentDateTime the current date time.
+	 * @param batchSize       the maximum no of verification tokens to be deleted.
+	 * @return the int no of deleted verification tokens.
+	 */
+	@Modifying
+	@Transactional
+	@Query(value = "delete from token where expiry_date_time <= :currentDateTime limit :batchSize",
+			nativeQuery = true)
+	int deleteExpiredTokens(Instant currentDateTime, int batchSize);
 }
@@ -1,13 +1,16 @@
 package com.redditclone.demo.repository;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import com.redditclone.demo.model.Post;
-import com.redditclone.demo.model.User;
 import com.redditclone.demo.model.Vote;
+import com.redditclone.demo.model.VoteType;
 
 @Repository
 /**
@@ -20,15 +23,86 @@ import com.redditclone.demo.model.Vote;
 public interface VoteRepository extends JpaRepository<Vote, Long> {
 
 	/**
-	 * findTopByPostAndUserOrderByVoteIdDesc method finds and returns the top
-	 * matching vote with respective to the post,vote type and the user from the
-	 * votes which is sorted by descending order by vote id.
+	 * findVotersByPostIds method finds and returns the voters and their vote types
+	 * of all the given post ids in a single query.
 	 *
-	 * @param post        the post for which vote needs to be found.
-	 * @param currentUser the current user for which vote needs to be found.
-	 * @return the optional vote for given inputs, if matching result is
-	 *         found,returns vote data. if not, Optional.empty() is returned by
-	 *         default.
+	 * @param postIds the post ids for which voters needs to be found.
+	 * @return the list of voters of the posts.
 	 */
-	Optional<Vote> findTopByPostAndUserOrderByVoteIdDesc(Post post, User currentUser);
+	@Query("select v.post.postId as postId, v.user.userId as userId, v.voteType as voteType from Vote v "
+			+ "where v.post.postId in :postIds")
+	List<PostVoter> findVotersByPostIds(Collection<Long> postIds);
+
+	/**
+	 * upsertVote method inserts the vote of the user on the post or updates the
+	 * vote type of the existing vote with a single statement. The returned
+	 * affected rows status tells the previous vote of the user, 1 if there was no
+	 * previous vote, 2 if previous vote was of different vote type and 0 if
+	 * previous vote was of same vote type. It requires jdbc connection property
+	 * useAffectedRows to be enabled.
+	 *
+	 * @param postId   the post id of the voted post.
+	 * @param userId   the user id of the voted user.
+	 * @param voteType the ordinal of the vote type.
+	 * @return the int the affected rows status.
+	 */
+	@Modifying
+	@Transactional
+	@Query(value = "insert into vote (post_id, user_id, vote_type) values (:postId, :userId, :voteType) "
+			+ "on duplicate key update vote_type = values(vote_type)", nativeQuery = true)
+	int upsertVote(Long postId, Long userId, int voteType);
+
+	/**
+	 * countVoteLedgerUniqueConstraint method returns the count of unique
+	 * constraint on post and user of the vote table, which will be used to find
+	 * whether vote history is already migrated to one vote per user and post.
+	 *
+	 * @return the count of unique constraint.
+	 */
+	@Query(value = "select count(*) from information_schema.table_constraints where table_schema = database() "
+			+ "and table_name = 'vote' and constraint_name = 'uk_vote_post_user'", nativeQuery = true)
+	long countVoteLedgerUniqueConstraint();
+
+	/**
+	 * deleteSupersededVotes method deletes the votes of each user and post except
+	 * the latest vote.
+	 *
+	 * @return the int the no of deleted votes.
+	 */
+	@Modifying
+	@Transactional
+	@Query(value = "delete v from vote v join vote latest_vote on latest_vote.post_id = v.post_id "
+			+ "and latest_vote.user_id = v.user_id and latest_vote.vote_id > v.vote_id", nativeQuery = true)
+	int deleteSupersededVotes();
+
+	/**
+	 * addVoteLedgerUniqueConstraint method adds the unique constraint on post and
+	 * user of the vote table.
+	 */
+	@Modifying
+	@Transactional
+	@Query(value = "alter table vote add constraint uk_vote_post_user unique (post_id, user_id)", nativeQuery = true)
+	void addVoteLedgerUniqueConstraint();
+
+	/**
+	 * PostVoter projection holds the user and the vote type made by the user on
+	 * the post.
+	 */
+	interface PostVoter {
+
+		/**
+		 * @return the post id.
+		 */
+		Long getPostId();
+
+		/**
+		 * @return the user id of the voter.
+		 */
+		Long getUserId();
+
+		/**
+		 * @return the vote type made on the post.
+		 */
+		VoteType getVoteType();
+	}
 }
@@ -1,9 +1,6 @@
 package com.redditclone.demo.security;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
 import java.util.Objects;
 
 import javax.servlet.FilterChain;
@@ -12,7 +9,6 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -22,7 +18,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import com.redditclone.demo.constants.AuthEndPointConstants;
+import com.redditclone.demo.service.AccessTokenRevocationService;
 
 import io.jsonwebtoken.Claims;
 import lombok.AllArgsConstructor;
@@ -30,8 +26,8 @@ import lombok.AllArgsConstructor;
 /**
  * JwtAuthenticationFilter is http authentication filter class which
  * authenticate and filters each and every http request api request with valid
- * jwt. It skips the authentication for login,signup,logout, refresh token and
- * verification user account api request mappings.
+ * jwt. It skips the authentication for the public and swagger requests
+ * classified by the request route table.
  */
 @Component
 @AllArgsConstructor
@@ -44,32 +40,38 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 	private final JwtProvider jwtProvider;
 
 	/**
-	 * The Constant REQUEST_MAPPING_PATHS_TO_SKIP_AUTHENTICATION which contains
-	 * request mapping paths login,signup,logout, refresh token and verification
-	 * entry points which will be skipped from authentication.
+	 * The request route table which classifies the requests, the public and
+	 * swagger requests are skipped from authentication.
 	 */
-	private static final List<String> REQUEST_MAPPING_PATHS_TO_SKIP_AUTHENTICATION = Collections.unmodifiableList(Arrays
-			.asList(AuthEndPointConstants.AUTH_REQUEST_MAPPING + AuthEndPointConstants.SIGNUP_REQUEST_MAPPING_METHOD,
-					AuthEndPointConstants.AUTH_REQUEST_MAPPING + AuthEndPointConstants.LOGIN_REQUEST_MAPPING_METHOD,
-					AuthEndPointConstants.AUTH_REQUEST_MAPPING
-							+ AuthEndPointConstants.REFRESH_TOKEN_REQUEST_MAPPING_METHOD,
-					AuthEndPointConstants.AUTH_REQUEST_MAPPING + AuthEndPointConstants.lOG_OUT_REQUEST_MAPPING_METHOD,
-					"/v2/api-docs", "/configuration/ui", "/swagger-ui.html"));
+	private final RequestRouteTable requestRouteTable;
 
 	/**
 	 * The user details service which is used to fetch user details and prepare
-	 * authentication information.
+	 * authentication information for the tokens without user id claim.
 	 */
 	private final UserDetailsService userDetailsService;
 
+	/**
+	 * The verified token cache which is used to skip the signature verification of
+	 * the tokens which are already verified.
+	 */
+	private final VerifiedTokenCache verifiedTokenCache;
+
+	/**
+	 * The access token revocation service which is used to reject the tokens
+	 * revoked on logout.
+	 */
+	private final AccessTokenRevocationService accessTokenRevocationService;
+
 	@Override
 	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
 			throws ServletException, IOException {
 		String jwt = getJwtFroṁRequest(request);
-		Claims jwsClaims = jwtProvider.validateTokenAndGetJwsClaims(jwt);
-		if (StringUtils.hasText(jwt) && Objects.nonNull(jwsClaims)) {
-			String username = jwsClaims.getSubject();
-			UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+		Claims jwsClaims = StringUtils.hasText(jwt)
+				? verifiedTokenCache.getVerifiedClaims(jwt, jwtProvider::validateTokenAndGetJwsClaims)
+				: null;
+		if (Objects.nonNull(jwsClaims) && !accessTokenRevocationService.isRevoked(jwsClaims)) {
+			UserDetails userDetails = getUserDetailsFromClaims(jwsClaims);
 			UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails,
 					null, userDetails.getAuthorities());
 			authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -80,18 +82,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
 	@Override
 	protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
-		String currentRequestURI = request.getRequestURI();
-		List<String> allowedGetApiMethodList = Arrays.asList("/api/subreddit/", "/api/posts/", "/api/comments/");
-		boolean filterAndAllowGetApiMethods = request.getMethod().equals(HttpMethod.GET.name())
-				&& allowedGetApiMethodList.stream().filter(getApiMethod -> currentRequestURI.contains(getApiMethod))
-						.findFirst().isPresent();
-		boolean filterAndAllowSwaggerApiUrls = Arrays
-				.asList("/v2/api-docs", "/configuration/ui", "/configuration/security", "/swagger-ui.html")
-				.contains(currentRequestURI);
-		boolean allowedAuthApiUrls = REQUEST_MAPPING_PATHS_TO_SKIP_AUTHENTICATION.contains(currentRequestURI)
-		|| currentRequestURI.contains(AuthEndPointConstants.AUTH_REQUEST_MAPPING
-						+ AuthEndPointConstants.VERIFY_NEW_ACCOUNT_REQUEST_MAPPING_METHOD);
-		return filterAndAllowGetApiMethods || filterAndAllowSwaggerApiUrls || allowedAuthApiUrls;
+		return requestRouteTable.classifyRequest(request).isPermittedWithoutAuthentication();
+	}
+
+	/**
+	 * getUserDetailsFromClaims method builds the user principal from the user id,
+	 * username and enabled status claims of the token without querying the user
+	 * table. User details are loaded from the user table only for the tokens which
+	 * are generated without user id claim.
+	 *
+	 * @param jwsClaims the validated claims of the token.
+	 * @return the user details of the authenticated user.
+	 */
+	private UserDetails getUserDetailsFromClaims(Claims jwsClaims) {
+		Number userId = jwsClaims.get(JwtProvider.USER_ID_CLAIM, Number.class);
+		if (userId == null) {
+			return userDetailsService.loadUserByUsername(jwsClaims.getSubject());
+		}
+		return new RedditUserPrincipal(userId.longValue(), jwsClaims.getSubject(), "",
+				Boolean.TRUE.equals(jwsClaims.get(JwtProvider.ENABLED_CLAIM, Boolean.class)));
 	}
 
 	/**
@@ -101,12 +110,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 	 * @return the jwt
 	 */
 	private String getJwtFroṁRequest(HttpServletRequest request) {
-		String bearerToken = request.getHeader(HttpHeaders.AUTHORIZATION);
-		if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
-			return bearerToken.substring(7);
-		}
-		return bearerToken;
-
+		return JwtProvider.getJwtFromAuthorizationHeader(request.getHeader(HttpHeaders.AUTHORIZATION));
 	}
 
 }
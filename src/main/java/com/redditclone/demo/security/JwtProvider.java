@@ -5,40 +5,70 @@ package com.redditclone.demo.security;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.Key;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.security.UnrecoverableKeyException;
+import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
 import java.time.Instant;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 import javax.annotation.PostConstruct;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
+import com.redditclone.demo.event.JwtKeysRotatedEvent;
 import com.redditclone.demo.exceptions.RedditException;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * JwtProvider class provides methods to generate json web token which will be
  * used for authentication of user login.
  */
 @Service
+@Slf4j
+@RequiredArgsConstructor
 public class JwtProvider {
 
 	/**
-	 * The key store which contains java key store details which will be used to
-	 * generate token.
+	 * The Constant USER_ID_CLAIM the name of the claim which holds the user id of
+	 * the authenticated user.
 	 */
-	private KeyStore keyStore;
+	public static final String USER_ID_CLAIM = "userId";
+
+	/**
+	 * The Constant ENABLED_CLAIM the name of the claim which holds the enabled
+	 * status of the authenticated user account.
+	 */
+	public static final String ENABLED_CLAIM = "enabled";
 
 	/**
 	 * The jwt expiration time in millis which will be read from application.
@@ -48,72 +78,398 @@ public class JwtProvider {
 	@Getter
 	private Long jwtExpirationTimeInMillis;
 
+	/**
+	 * The resource loader which is used to load the java key store resource file.
+	 */
+	private final ResourceLoader resourceLoader;
+
+	/**
+	 * The application event publisher which is used to publish the rotation of the
+	 * keys.
+	 */
+	private final ApplicationEventPublisher applicationEventPublisher;
+
+	/**
+	 * The location of the java key store resource file, either class path or file
+	 * location.
+	 */
+	@Value("${jwt.key.store.location}")
+	private String keyStoreLocation;
+
+	/** The password of the java key store. */
+	@Value("${jwt.key.store.password}")
+	private String keyStorePassword;
+
+	/**
+	 * The password of the private key entries of the java key store, the private
+	 * key entry which signs the new tokens is resolved with it.
+	 */
+	@Value("${jwt.signing.key.password}")
+	private String signingKeyPassword;
+
+	/**
+	 * The keys resolved from the current java key store along with the jwt parser,
+	 * which are replaced together when the key store is modified or a staged
+	 * signing key becomes valid.
+	 */
+	private volatile JwtKeys jwtKeys;
+
 	/**
 	 * generateAuthenticationToken method generates authentication token[jwt] with
-	 * expiration time as jwtExpirationTimeInMillis by encrypting with private
-	 * signature key using SHA256withRSA algorithm with user name as token subject
+	 * expiration time as jwtExpirationTimeInMillis by signing with the cached
+	 * private sign key using the signature algorithm of the key with user name as
+	 * token subject, random uuid as token id and signing key alias as key id
+	 * header. Token id is used to revoke the token on logout. User id and enabled
+	 * status of the user are added as claims, so that the authenticated user can
+	 * be identified from the token without querying the user table.
 	 *
+	 * @param userId   the user id
 	 * @param username the username
+	 * @param enabled  the enabled status of the user account
 	 * @return the string the generated authentication token
 	 */
-	public String generateAuthenticationToken(String username) {
+	public String generateAuthenticationToken(Long userId, String username, boolean enabled) {
 		Instant currentInstantDateTime = Instant.now();
-		return Jwts.builder().setSubject(username).setIssuedAt(Date.from(currentInstantDateTime))
+		JwtKeys currentJwtKeys = jwtKeys;
+		return Jwts.builder().setHeaderParam(JwsHeader.KEY_ID, currentJwtKeys.signingKeyId).setSubject(username)
+				.setId(UUID.randomUUID().toString())
+				.claim(USER_ID_CLAIM, userId).claim(ENABLED_CLAIM, enabled)
+				.setIssuedAt(Date.from(currentInstantDateTime))
 				.setExpiration(Date.from(currentInstantDateTime.plusMillis(jwtExpirationTimeInMillis)))
-				.signWith(SignatureAlgorithm.RS256, getPrivateSignKey()).compact();
+				.signWith(currentJwtKeys.signatureAlgorithm, currentJwtKeys.privateSignKey).compact();
 	}
 
 	/**
-	 * initKeyStoreInstance method initializes and load the java key store instance
-	 * from java key store resource file.
+	 * initSignAndVerificationKeys method resolves the private sign key and the
+	 * public verification keys once from the java key store and builds the shared
+	 * jwt parser.
+	 *
+	 * throws RedditException if key store or keys can't be loaded, or if no valid
+	 * private key entry of a supported key type is found.
 	 */
 	@PostConstruct
-	public void initKeyStoreInstance() {
+	public void initSignAndVerificationKeys() {
+		jwtKeys = loadJwtKeys(null);
+	}
+
+	/**
+	 * reloadRotatedKeys method resolves the keys again if the java key store is
+	 * modified after the current keys are resolved or a staged signing key has
+	 * become valid, and publishes the jwt keys rotated event with the signing key
+	 * id of the new keys once they are in use. Current keys stay in use if the
+	 * modified key store can't be loaded.
+	 */
+	@Scheduled(initialDelayString = "${jwt.key.store.reload.interval.millis}",
+			fixedDelayString = "${jwt.key.store.reload.interval.millis}")
+	public void reloadRotatedKeys() {
+		JwtKeys currentJwtKeys = jwtKeys;
+		if (getKeyStoreLastModified() == currentJwtKeys.keyStoreLastModified
+				&& System.currentTimeMillis() < currentJwtKeys.nextSigningKeyValidFromMillis) {
+			return;
+		}
+		JwtKeys rotatedJwtKeys;
+		try {
+			rotatedJwtKeys = loadJwtKeys(currentJwtKeys);
+		} catch (RedditException exception) {
+			log.error("Rotated keystore could not be loaded, current keys are still in use", exception);
+			return;
+		}
+		jwtKeys = rotatedJwtKeys;
+		log.info("Rotated keys are loaded, signing key id is {}", rotatedJwtKeys.signingKeyId);
+		applicationEventPublisher.publishEvent(new JwtKeysRotatedEvent(rotatedJwtKeys.signingKeyId));
+	}
+
+	/**
+	 * validateTokenAndGetJwsClaims method validate jwt token from the request and
+	 * parse and return the jws claims with the shared jwts parser using the public
+	 * key of the key id of the token.
+	 *
+	 * @param jwtFroṁRequest the jwt froṁ request
+	 * @return the claims
+	 */
+	public Claims validateTokenAndGetJwsClaims(String jwtFroṁRequest) {
+		return jwtKeys.jwtParser.parseClaimsJws(jwtFroṁRequest).getBody();
+	}
+
+	/**
+	 * getJwtFromAuthorizationHeader method parses and returns jwt from the bearer
+	 * token of the authorization header.
+	 *
+	 * @param authorizationHeader the authorization header of the request.
+	 * @return the jwt, the header itself if it is not a bearer token.
+	 */
+	public static String getJwtFromAuthorizationHeader(String authorizationHeader) {
+		if (StringUtils.hasText(authorizationHeader) && authorizationHeader.startsWith("Bearer ")) {
+			return authorizationHeader.substring(7);
+		}
+		return authorizationHeader;
+	}
+
+	/**
+	 * resolveVerificationKey method resolves the public key which verifies the
+	 * token by the key id header. Tokens without key id are verified by the
+	 * signing key, as they are signed before key id is added.
+	 *
+	 * throws SignatureException if key id is unknown or retired, or signature
+	 * algorithm of the token doesn't match with the key.
+	 *
+	 * @param jwsHeader              the jws header of the token.
+	 * @param signingKeyId           the key id of the signing key.
+	 * @param verificationKeyByKeyId the verification keys mapped by key id.
+	 * @return the public key which verifies the token.
+	 */
+	private static Key resolveVerificationKey(JwsHeader<?> jwsHeader, String signingKeyId,
+			Map<String, VerificationKey> verificationKeyByKeyId) {
+		String keyId = jwsHeader.getKeyId() == null ? signingKeyId : jwsHeader.getKeyId();
+		VerificationKey verificationKey = verificationKeyByKeyId.get(keyId);
+		if (verificationKey == null) {
+			throw new SignatureException("Unknown key id " + keyId);
+		}
+		if (System.currentTimeMillis() > verificationKey.retainedUntilMillis) {
+			throw new SignatureException("Key id " + keyId + " is retired");
+		}
+		if (!verificationKey.signatureAlgorithm.getValue().equals(jwsHeader.getAlgorithm())) {
+			throw new SignatureException(
+					"Signature algorithm " + jwsHeader.getAlgorithm() + " doesn't match with key id " + keyId);
+		}
+		return verificationKey.publicKey;
+	}
+
+	/**
+	 * loadJwtKeys method loads the java key store instance from java key store
+	 * resource file, resolves the private sign key and the public verification
+	 * keys and builds the jwt parser which resolves the verification key by key
+	 * id. The public key of every certificate of a supported key type verifies
+	 * the tokens of it's alias. The private key entry which certificate became
+	 * valid last signs the new tokens, so that a new signing key can be staged in
+	 * the key store with a future validity start. Verification keys of the
+	 * previous keys which are removed from the key store are retained until the
+	 * tokens signed by them are expired.
+	 *
+	 * throws RedditException if key store or keys can't be loaded, or if no valid
+	 * private key entry of a supported key type is found.
+	 *
+	 * @param previousJwtKeys the keys which are in use, null on startup.
+	 * @return the resolved jwt keys.
+	 */
+	private JwtKeys loadJwtKeys(JwtKeys previousJwtKeys) {
+		long keyStoreLastModified = getKeyStoreLastModified();
+		long currentTimeMillis = System.currentTimeMillis();
+		KeyStore keyStore = loadKeyStore();
+		Map<String, VerificationKey> verificationKeys = new HashMap<>();
+		String signingKeyAlias = null;
+		long signingKeyValidFromMillis = Long.MIN_VALUE;
+		long nextSigningKeyValidFromMillis = Long.MAX_VALUE;
+		for (String alias : getAliases(keyStore)) {
+			Certificate certificate = getCertificate(keyStore, alias);
+			SignatureAlgorithm signatureAlgorithm = certificate == null ? null
+					: getSignatureAlgorithmOfKey(certificate.getPublicKey());
+			if (signatureAlgorithm == null) {
+				continue;
+			}
+			verificationKeys.put(alias,
+					new VerificationKey(certificate.getPublicKey(), signatureAlgorithm, Long.MAX_VALUE));
+			if (!isPrivateKeyEntry(keyStore, alias)) {
+				continue;
+			}
+			long validFromMillis = certificate instanceof X509Certificate
+					? ((X509Certificate) certificate).getNotBefore().getTime()
+					: 0;
+			if (validFromMillis > currentTimeMillis) {
+				nextSigningKeyValidFromMillis = Math.min(nextSigningKeyValidFromMillis, validFromMillis);
+			} else if (validFromMillis > signingKeyValidFromMillis || (validFromMillis == signingKeyValidFromMillis
+					&& alias.compareTo(signingKeyAlias) > 0)) {
+				signingKeyAlias = alias;
+				signingKeyValidFromMillis = validFromMillis;
+			}
+		}
+		if (signingKeyAlias == null) {
+			throw new RedditException("No valid private key entry of RSA or EC key is found in keystore");
+		}
+		if (previousJwtKeys != null) {
+			long retainedUntilMillis = currentTimeMillis + jwtExpirationTimeInMillis;
+			previousJwtKeys.verificationKeyByKeyId.forEach((keyId, verificationKey) -> {
+				if (!verificationKeys.containsKey(keyId) && verificationKey.retainedUntilMillis >= currentTimeMillis) {
+					verificationKeys.put(keyId, new VerificationKey(verificationKey.publicKey,
+							verificationKey.signatureAlgorithm,
+							Math.min(verificationKey.retainedUntilMillis, retainedUntilMillis)));
+				}
+			});
+		}
+		String signingKeyId = signingKeyAlias;
+		Map<String, VerificationKey> verificationKeyByKeyId = Collections.unmodifiableMap(verificationKeys);
+		JwtParser jwtParser = Jwts.parser().setSigningKeyResolver(new SigningKeyResolverAdapter() {
+			@Override
+			public Key resolveSigningKey(@SuppressWarnings("rawtypes") JwsHeader jwsHeader, Claims claims) {
+				return resolveVerificationKey(jwsHeader, signingKeyId, verificationKeyByKeyId);
+			}
+		});
+		return new JwtKeys(signingKeyId, getPrivateSignKey(keyStore, signingKeyId),
+				verificationKeyByKeyId.get(signingKeyId).signatureAlgorithm, verificationKeyByKeyId, jwtParser,
+				keyStoreLastModified, nextSigningKeyValidFromMillis);
+	}
+
+	/**
+	 * getKeyStoreLastModified method returns the last modified time of the java
+	 * key store resource file.
+	 *
+	 * @return the long the last modified time in millis, 0 if it can't be found.
+	 */
+	private long getKeyStoreLastModified() {
 		try {
-			keyStore = KeyStore.getInstance("JKS");
-			InputStream resourceAsStream = getClass().getResourceAsStream("/reddit-secret-key-store.jks");
-			keyStore.load(resourceAsStream, "reddit@secret$key%store".toCharArray());
+			return resourceLoader.getResource(keyStoreLocation).lastModified();
+		} catch (IOException exception) {
+			return 0;
+		}
+	}
+
+	/**
+	 * loadKeyStore method loads the java key store instance from java key store
+	 * resource file.
+	 *
+	 * @return the loaded key store.
+	 */
+	private KeyStore loadKeyStore() {
+		try (InputStream resourceAsStream = resourceLoader.getResource(keyStoreLocation).getInputStream()) {
+			KeyStore keyStore = KeyStore.getInstance("JKS");
+			keyStore.load(resourceAsStream, keyStorePassword.toCharArray());
+			return keyStore;
 		} catch (KeyStoreException | CertificateException | NoSuchAlgorithmException | IOException exception) {
 			throw new RedditException("Exception occured while loading keystore", exception);
 		}
 	}
 
+	/**
+	 * getAliases method returns all the aliases of the java key store instance.
+	 *
+	 * @param keyStore the loaded key store.
+	 * @return the list of aliases.
+	 */
+	private static List<String> getAliases(KeyStore keyStore) {
+		try {
+			return Collections.list(keyStore.aliases());
+		} catch (KeyStoreException exception) {
+			throw new RedditException("Exception occured while retrieving aliases from keystore", exception);
+		}
+	}
+
+	/**
+	 * isPrivateKeyEntry method checks whether the alias of the java key store
+	 * instance is a private key entry.
+	 *
+	 * @param keyStore the loaded key store.
+	 * @param alias    the alias of the entry.
+	 * @return true, if the entry holds a private key.
+	 */
+	private static boolean isPrivateKeyEntry(KeyStore keyStore, String alias) {
+		try {
+			return keyStore.entryInstanceOf(alias, KeyStore.PrivateKeyEntry.class);
+		} catch (KeyStoreException exception) {
+			throw new RedditException("Exception occured while retrieving entry from keystore", exception);
+		}
+	}
+
 	/**
 	 * getPrivateSignKey method gets and return the private sign key from java key
 	 * store instance.
 	 *
+	 * @param keyStore        the loaded key store.
+	 * @param signingKeyAlias the alias of the private key entry.
 	 * @return the private sign key which will be used for generation of json web
 	 *         token.
 	 */
-	private PrivateKey getPrivateSignKey() {
+	private PrivateKey getPrivateSignKey(KeyStore keyStore, String signingKeyAlias) {
 		try {
-			return (PrivateKey) keyStore.getKey("reddit-secret-key", "reddit%secret$key".toCharArray());
+			PrivateKey privateKey = (PrivateKey) keyStore.getKey(signingKeyAlias, signingKeyPassword.toCharArray());
+			if (privateKey == null) {
+				throw new RedditException("Private key " + signingKeyAlias + " is not found in keystore");
+			}
+			return privateKey;
 		} catch (KeyStoreException | NoSuchAlgorithmException | UnrecoverableKeyException exception) {
 			throw new RedditException("Exception occured while retrieving private key from keystore", exception);
 		}
 	}
 
 	/**
-	 * validateTokenAndGetJwsClaims method validate jwt token from the request and
-	 * parse and return the jws claims with jwts parser using public key.
+	 * getCertificate method gets and return the certificate of the alias from java
+	 * key store instance.
 	 *
-	 * @param jwtFroṁRequest the jwt froṁ request
-	 * @return the claims
+	 * @param keyStore the loaded key store.
+	 * @param alias    the alias of the certificate.
+	 * @return the certificate which public key will be used for validation of json
+	 *         web token, null if the entry holds no certificate.
 	 */
-	public Claims validateTokenAndGetJwsClaims(String jwtFroṁRequest) {
-		return Jwts.parser().setSigningKey(getPublicSignKey()).parseClaimsJws(jwtFroṁRequest).getBody();
+	private static Certificate getCertificate(KeyStore keyStore, String alias) {
+		try {
+			return keyStore.getCertificate(alias);
+		} catch (KeyStoreException exception) {
+			throw new RedditException("Exception occured while retrieving public key from keystore", exception);
+		}
 	}
+
 	/**
-	 * getPublicSignKey method gets and return the public sign key from java key
-	 * store instance's certificate.
+	 * getSignatureAlgorithmOfKey method returns the signature algorithm which is
+	 * verified by the public key, RS256 for RSA keys and ES256 for EC keys.
 	 *
-	 * @return the public which will be used for validation of json web token.
+	 * @param publicKey the public key.
+	 * @return the signature algorithm of the key, null if key algorithm is not
+	 *         supported.
 	 */
-	private PublicKey getPublicSignKey() {
-		try {
-			return keyStore.getCertificate("reddit-secret-key").getPublicKey();
-		} catch (KeyStoreException exception) {
-			throw new RedditException("Exception occured while retrieving public key from keystore", exception);
+	private static SignatureAlgorithm getSignatureAlgorithmOfKey(PublicKey publicKey) {
+		if (publicKey instanceof RSAPublicKey) {
+			return SignatureAlgorithm.RS256;
 		}
+		if (publicKey instanceof ECPublicKey) {
+			return SignatureAlgorithm.ES256;
+		}
+		log.warn("Key algorithm {} is not supported, key is skipped", publicKey.getAlgorithm());
+		return null;
+	}
+
+	/**
+	 * JwtKeys class holds the private sign key, the verification keys and the jwt
+	 * parser resolved from the same version of the java key store. The jwt parser
+	 * is configured once and only read while parsing, so that it is shared by all
+	 * the requests.
+	 */
+	@AllArgsConstructor
+	private static class JwtKeys {
+
+		/** The alias of the private sign key, it is the key id of the new tokens. */
+		private final String signingKeyId;
+
+		private final PrivateKey privateSignKey;
+
+		/** The signature algorithm of the private sign key [RS256, ES256]. */
+		private final SignatureAlgorithm signatureAlgorithm;
+
+		private final Map<String, VerificationKey> verificationKeyByKeyId;
+
+		private final JwtParser jwtParser;
+
+		/** The last modified time of the key store from which keys are resolved. */
+		private final long keyStoreLastModified;
+
+		/**
+		 * The validity start of the next staged private key entry, Long.MAX_VALUE if
+		 * none is staged.
+		 */
+		private final long nextSigningKeyValidFromMillis;
+	}
+
+	/**
+	 * VerificationKey class holds the public key and the signature algorithm of
+	 * the tokens verified by the key, along with the time until which the key is
+	 * retained after it is removed from the key store.
+	 */
+	@AllArgsConstructor
+	private static class VerificationKey {
+
+		private final PublicKey publicKey;
+
+		private final SignatureAlgorithm signatureAlgorithm;
+
+		/** The retained until time in millis, Long.MAX_VALUE while it is in store. */
+		private final long retainedUntilMillis;
 	}
 }
@@ -0,0 +1,82 @@
+package com.redditclone.demo.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.redditclone.demo.exceptions.PasswordHashingRejectedException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * PasswordHashingExecutor class runs the password hashing work such as login
+ * authentication on a dedicated fixed size thread pool with a bounded waiting
+ * queue, so that a spike of logins doesn't occupy the request threads. Work
+ * submitted while all the threads are busy and the queue is full is rejected
+ * immediately instead of waiting. Pool statistics are exposed as executor
+ * metrics named passwordHashing.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+	/** The thread pool which runs the password hashing work. */
+	private final ThreadPoolExecutor hashingThreadPool;
+
+	/**
+	 * Instantiates a new password hashing executor.
+	 *
+	 * @param meterRegistry the meter registry to which pool statistics are bound
+	 * @param poolSize      the no of password hashing threads
+	 * @param queueCapacity the maximum no of password hashing work waiting for a
+	 *                      thread
+	 */
+	public PasswordHashingExecutor(MeterRegistry meterRegistry, @Value("${password.hashing.pool.size}") int poolSize,
+			@Value("${password.hashing.queue.capacity}") int queueCapacity) {
+		AtomicInteger threadCount = new AtomicInteger();
+		this.hashingThreadPool = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+					Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+		ExecutorServiceMetrics.monitor(meterRegistry, hashingThreadPool, "passwordHashing");
+	}
+
+	/**
+	 * submit method submits the password hashing work to the thread pool and
+	 * returns the future of it's result.
+	 *
+	 * throws PasswordHashingRejectedException if all the threads are busy and the
+	 * queue is full.
+	 *
+	 * @param <T>         the type of the result
+	 * @param hashingWork the work which hashes the password.
+	 * @return the future which completes with the result of the work.
+	 */
+	public <T> CompletableFuture<T> submit(Supplier<T> hashingWork) {
+		try {
+			return CompletableFuture.supplyAsync(hashingWork, hashingThreadPool);
+		} catch (RejectedExecutionException exception) {
+			throw new PasswordHashingRejectedException("Too many login requests, please try again later", exception);
+		}
+	}
+
+	/**
+	 * shutdown method stops the password hashing threads once the queued work is
+	 * completed.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		hashingThreadPool.shutdown();
+	}
+}
@@ -0,0 +1,206 @@
+package com.redditclone.demo.security;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import com.redditclone.demo.constants.AuthEndPointConstants;
+import com.redditclone.demo.util.TokenBucketTable;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+
+/**
+ * RateLimitFilter is http filter class which limits the rate of the login, vote
+ * and comment creation api requests of each client before the request is
+ * authenticated. Each rate limited api has a token bucket per client ip
+ * address and per user, user being the login username or the user id of the
+ * verified bearer token of the request. Requests exceeding either bucket are
+ * rejected with too many requests status and the seconds after which request
+ * will be allowed as Retry-After header, written directly to the response so
+ * that the rejection is not dispatched to the error page.<br>
+ *
+ * Requests are matched by the decoded path with in the application without
+ * trailing slash, the same way as the request mappings match them, so that
+ * encoded or trailing slash paths of the rate limited apis are not skipped.<br>
+ *
+ * Buckets are held in fixed size token bucket tables, so that memory stays
+ * bounded under any no of distinct clients, and buckets which are idle long
+ * enough to be full again are reused by other clients. Each bucket is updated
+ * with a single compare and set without locks or allocation.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+	/** The Constant LOGIN_USERNAME_PARAMETER the username parameter of login. */
+	private static final String LOGIN_USERNAME_PARAMETER = "username";
+
+	/** The Constant TOO_MANY_REQUESTS_BODY the body of the rejected requests. */
+	private static final byte[] TOO_MANY_REQUESTS_BODY = ("{\"status\":429,\"error\":\"Too Many Requests\","
+			+ "\"message\":\"Too many requests, please try again later\"}").getBytes(StandardCharsets.UTF_8);
+
+	/** The rate limit rules of the rate limited apis. */
+	private final RateLimitRule[] rateLimitRules;
+
+	/** The jwt provider which is used to verify the bearer token on cache miss. */
+	private final JwtProvider jwtProvider;
+
+	/**
+	 * The verified token cache which is used to get the user id of the bearer
+	 * token without verifying it's signature again.
+	 */
+	private final VerifiedTokenCache verifiedTokenCache;
+
+	/**
+	 * Instantiates a new rate limit filter.
+	 *
+	 * @param jwtProvider            the jwt provider
+	 * @param verifiedTokenCache     the verified token cache
+	 * @param noOfBucketSlots        the no of bucket slots kept for each rate
+	 *                               limited api and client type
+	 * @param loginCapacity          the no of login requests allowed in a burst
+	 * @param loginRefillPerMinute   the no of login requests allowed per minute
+	 * @param voteCapacity           the no of vote requests allowed in a burst
+	 * @param voteRefillPerMinute    the no of vote requests allowed per minute
+	 * @param commentCapacity        the no of comment creation requests allowed in
+	 *                               a burst
+	 * @param commentRefillPerMinute the no of comment creation requests allowed
+	 *                               per minute
+	 */
+	public RateLimitFilter(JwtProvider jwtProvider, VerifiedTokenCache verifiedTokenCache,
+			@Value("${rate.limit.bucket.slots}") int noOfBucketSlots,
+			@Value("${rate.limit.login.capacity}") int loginCapacity,
+			@Value("${rate.limit.login.refill.per.minute}") int loginRefillPerMinute,
+			@Value("${rate.limit.vote.capacity}") int voteCapacity,
+			@Value("${rate.limit.vote.refill.per.minute}") int voteRefillPerMinute,
+			@Value("${rate.limit.comment.capacity}") int commentCapacity,
+			@Value("${rate.limit.comment.refill.per.minute}") int commentRefillPerMinute) {
+		this.jwtProvider = jwtProvider;
+		this.verifiedTokenCache = verifiedTokenCache;
+		this.rateLimitRules = new RateLimitRule[] {
+				new RateLimitRule(AuthEndPointConstants.AUTH_REQUEST_MAPPING
+						+ AuthEndPointConstants.LOGIN_REQUEST_MAPPING_METHOD, loginCapacity, loginRefillPerMinute,
+						noOfBucketSlots),
+				new RateLimitRule("/api/votes/register", voteCapacity, voteRefillPerMinute, noOfBucketSlots),
+				new RateLimitRule("/api/comments/create", commentCapacity, commentRefillPerMinute,
+						noOfBucketSlots) };
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		RateLimitRule rateLimitRule = findRateLimitRule(request);
+		if (rateLimitRule != null) {
+			long waitMillis = rateLimitRule.clientBuckets.tryAcquire(request.getRemoteAddr());
+			String userKey = getUserKey(request, rateLimitRule);
+			if (waitMillis == 0 && userKey != null) {
+				waitMillis = rateLimitRule.userBuckets.tryAcquire(userKey);
+			}
+			if (waitMillis > 0) {
+				response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+				response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString((waitMillis + 999) / 1000));
+				response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+				response.setContentLength(TOO_MANY_REQUESTS_BODY.length);
+				response.getOutputStream().write(TOO_MANY_REQUESTS_BODY);
+				return;
+			}
+		}
+		filterChain.doFilter(request, response);
+	}
+
+	/**
+	 * findRateLimitRule method finds the rate limit rule of the post request by
+	 * the decoded path with in the application, excluding the trailing slash.
+	 *
+	 * @param request the http request.
+	 * @return the rate limit rule, null if request is not rate limited.
+	 */
+	private RateLimitRule findRateLimitRule(HttpServletRequest request) {
+		if (!HttpMethod.POST.matches(request.getMethod())) {
+			return null;
+		}
+		String requestPath = UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+		int requestPathLength = requestPath.length();
+		if (requestPathLength > 1 && requestPath.charAt(requestPathLength - 1) == '/') {
+			requestPathLength--;
+		}
+		for (RateLimitRule rateLimitRule : rateLimitRules) {
+			if (rateLimitRule.requestPath.length() == requestPathLength
+					&& requestPath.startsWith(rateLimitRule.requestPath)) {
+				return rateLimitRule;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * getUserKey method returns the key of the user bucket, username for login
+	 * requests and user id of the verified bearer token for other requests, so
+	 * that all the tokens of the user share the same bucket. Subject is used for
+	 * the tokens generated without user id claim.
+	 *
+	 * @param request       the http request.
+	 * @param rateLimitRule the rate limit rule of the request.
+	 * @return the user key, null if request has no user or the token is invalid.
+	 */
+	private String getUserKey(HttpServletRequest request, RateLimitRule rateLimitRule) {
+		if (rateLimitRule == rateLimitRules[0]) {
+			return request.getParameter(LOGIN_USERNAME_PARAMETER);
+		}
+		String jwt = JwtProvider.getJwtFromAuthorizationHeader(request.getHeader(HttpHeaders.AUTHORIZATION));
+		if (!StringUtils.hasText(jwt)) {
+			return null;
+		}
+		try {
+			Claims jwsClaims = verifiedTokenCache.getVerifiedClaims(jwt, jwtProvider::validateTokenAndGetJwsClaims);
+			Number userId = jwsClaims.get(JwtProvider.USER_ID_CLAIM, Number.class);
+			return userId == null ? jwsClaims.getSubject() : "#" + userId.longValue();
+		} catch (JwtException exception) {
+			return null;
+		}
+	}
+
+	/**
+	 * RateLimitRule class holds the request path of the rate limited api and the
+	 * token buckets of the client ip addresses and users.
+	 */
+	private static final class RateLimitRule {
+
+		/** The request path of the rate limited api. */
+		private final String requestPath;
+
+		/** The token buckets of the client ip addresses. */
+		private final TokenBucketTable clientBuckets;
+
+		/** The token buckets of the users. */
+		private final TokenBucketTable userBuckets;
+
+		/**
+		 * Instantiates a new rate limit rule.
+		 *
+		 * @param requestPath     the request path of the rate limited api
+		 * @param capacity        the no of requests allowed in a burst
+		 * @param refillPerMinute the no of requests allowed per minute
+		 * @param noOfSlots       the no of bucket slots of each client type
+		 */
+		private RateLimitRule(String requestPath, int capacity, int refillPerMinute, int noOfSlots) {
+			this.requestPath = requestPath;
+			this.clientBuckets = new TokenBucketTable(noOfSlots, capacity, refillPerMinute);
+			this.userBuckets = new TokenBucketTable(noOfSlots, capacity, refillPerMinute);
+		}
+	}
+}
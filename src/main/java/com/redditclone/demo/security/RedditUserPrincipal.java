@@ -0,0 +1,54 @@
+package com.redditclone.demo.security;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * RedditUserPrincipal class holds the details of the authenticated user along
+ * with the user id, so that the logged in user can be identified from the
+ * security context without querying the user table.
+ */
+@Getter
+@EqualsAndHashCode(callSuper = true)
+public class RedditUserPrincipal extends User {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The Constant USER_ROLE the role of all the reddit users. */
+	public static final String USER_ROLE = "USER";
+
+	/** The user id of the authenticated user. */
+	private final Long userId;
+
+	/**
+	 * Instantiates a new reddit user principal.
+	 *
+	 * @param userId   the user id
+	 * @param username the username
+	 * @param password the encoded password, empty if the principal is built from
+	 *                 the authentication token.
+	 * @param enabled  the enabled status of the user account
+	 */
+	public RedditUserPrincipal(Long userId, String username, String password, boolean enabled) {
+		super(username, password, enabled, true, true, true, getAuthorities(USER_ROLE));
+		this.userId = userId;
+	}
+
+	/**
+	 * getAuthorities methods gets the list of authorities enabled or allowed for
+	 * this role of the user.
+	 *
+	 * @param role the role of the user which authorities needs to be returned.
+	 * @return the authorities allowed for the role of the user.
+	 */
+	private static Collection<? extends GrantedAuthority> getAuthorities(String role) {
+		return Collections.singletonList(new SimpleGrantedAuthority(role));
+	}
+}
@@ -0,0 +1,204 @@
+package com.redditclone.demo.security;
+
+import java.util.Arrays;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+
+import com.redditclone.demo.constants.AuthEndPointConstants;
+
+/**
+ * RequestRouteTable class holds the route types of the api request paths in a
+ * character trie which is built once at start up, and is shared by the jwt
+ * authentication filter and the http web security config, so that both
+ * classify the requests by the same rules. Each route is either an exact path
+ * or a path prefix ending with /** which matches the path itself and all the
+ * paths below it, optionally restricted to one http method. Exact route wins
+ * over prefix route and longer prefix wins over shorter prefix.<br>
+ *
+ * Requests are classified in one pass over the request uri without allocation.
+ * Trie is not modified after construction, so it is safely read by all the
+ * request threads.
+ */
+@Component
+public class RequestRouteTable {
+
+	/** The Constant PREFIX_ROUTE_SUFFIX the suffix of the path prefix routes. */
+	private static final String PREFIX_ROUTE_SUFFIX = "/**";
+
+	/** The Constant ANY_METHOD_INDEX the route index of routes of any method. */
+	private static final int ANY_METHOD_INDEX = HttpMethod.values().length;
+
+	/** The root node of the trie which matches empty path. */
+	private final RouteNode rootNode = new RouteNode();
+
+	/**
+	 * The request matcher which matches the routes permitted without
+	 * authentication.
+	 */
+	private final RequestMatcher permittedWithoutAuthenticationMatcher = request -> classifyRequest(request)
+			.isPermittedWithoutAuthentication();
+
+	/**
+	 * Instantiates a new request route table with the public routes of auth,
+	 * subreddit, post and comment apis and the swagger routes. All the other
+	 * requests are classified as authenticated.
+	 */
+	public RequestRouteTable() {
+		addRoute(null, AuthEndPointConstants.AUTH_REQUEST_MAPPING + PREFIX_ROUTE_SUFFIX, RequestRouteType.PUBLIC);
+		addRoute(HttpMethod.GET, "/api/subreddit/**", RequestRouteType.PUBLIC);
+		addRoute(HttpMethod.GET, "/api/posts/**", RequestRouteType.PUBLIC);
+		addRoute(HttpMethod.GET, "/api/comments/**", RequestRouteType.PUBLIC);
+		addRoute(HttpMethod.GET, "/api/autocomplete/**", RequestRouteType.PUBLIC);
+		addRoute(HttpMethod.GET, "/api/search", RequestRouteType.PUBLIC);
+		addRoute(null, "/v2/api-docs", RequestRouteType.SWAGGER);
+		addRoute(null, "/configuration/ui", RequestRouteType.SWAGGER);
+		addRoute(null, "/configuration/security", RequestRouteType.SWAGGER);
+		addRoute(null, "/swagger-ui.html", RequestRouteType.SWAGGER);
+		addRoute(null, "/swagger-resources/**", RequestRouteType.SWAGGER);
+		addRoute(null, "/webjars/**", RequestRouteType.SWAGGER);
+	}
+
+	/**
+	 * classifyRequest method classifies the request by it's method and the
+	 * request uri excluding the context path.
+	 *
+	 * @param request the http request.
+	 * @return the route type of the request.
+	 */
+	public RequestRouteType classifyRequest(HttpServletRequest request) {
+		return classify(request.getMethod(), request.getRequestURI(), request.getContextPath().length());
+	}
+
+	/**
+	 * getPermittedWithoutAuthenticationMatcher method returns the request matcher
+	 * which matches the public and swagger routes.
+	 *
+	 * @return the request matcher of routes permitted without authentication.
+	 */
+	public RequestMatcher getPermittedWithoutAuthenticationMatcher() {
+		return permittedWithoutAuthenticationMatcher;
+	}
+
+	/**
+	 * classify method walks the trie with the characters of the path from the
+	 * given index and returns the route type of the longest matching route of the
+	 * method. Prefix route of a node matches only if the path ends or continues
+	 * with '/' after the node.
+	 *
+	 * @param method     the http method name of the request.
+	 * @param path       the request path.
+	 * @param startIndex the index from which path is matched.
+	 * @return the route type of the request, authenticated if no route matches.
+	 */
+	RequestRouteType classify(String method, String path, int startIndex) {
+		HttpMethod httpMethod = HttpMethod.resolve(method);
+		int methodIndex = httpMethod == null ? -1 : httpMethod.ordinal();
+		RequestRouteType matchedRouteType = RequestRouteType.AUTHENTICATED;
+		RouteNode currentNode = rootNode;
+		for (int i = startIndex; currentNode != null; i++) {
+			boolean pathEnded = i == path.length();
+			if (pathEnded || path.charAt(i) == '/') {
+				RequestRouteType prefixRouteType = currentNode.getRouteType(currentNode.prefixRouteTypes, methodIndex);
+				if (prefixRouteType != null) {
+					matchedRouteType = prefixRouteType;
+				}
+			}
+			if (pathEnded) {
+				RequestRouteType exactRouteType = currentNode.getRouteType(currentNode.exactRouteTypes, methodIndex);
+				return exactRouteType == null ? matchedRouteType : exactRouteType;
+			}
+			currentNode = currentNode.getChild(path.charAt(i));
+		}
+		return matchedRouteType;
+	}
+
+	/**
+	 * addRoute method adds the route to the trie, routes ending with /** are added
+	 * as prefix routes of the path before it.
+	 *
+	 * @param httpMethod the http method of the route, null for any method.
+	 * @param route      the exact path or path prefix of the route.
+	 * @param routeType  the route type.
+	 */
+	void addRoute(HttpMethod httpMethod, String route, RequestRouteType routeType) {
+		boolean prefixRoute = route.endsWith(PREFIX_ROUTE_SUFFIX);
+		String path = prefixRoute ? route.substring(0, route.length() - PREFIX_ROUTE_SUFFIX.length()) : route;
+		RouteNode currentNode = rootNode;
+		for (int i = 0; i < path.length(); i++) {
+			currentNode = currentNode.getOrAddChild(path.charAt(i));
+		}
+		RequestRouteType[] routeTypes = prefixRoute ? currentNode.prefixRouteTypes : currentNode.exactRouteTypes;
+		routeTypes[httpMethod == null ? ANY_METHOD_INDEX : httpMethod.ordinal()] = routeType;
+	}
+
+	/**
+	 * RouteNode class holds the children of a path character and the exact and
+	 * prefix route types of the path up to the node, indexed by http method
+	 * ordinal with any method route at the end.
+	 */
+	private static class RouteNode {
+
+		/** The characters of the children, in the order of children. */
+		private char[] childCharacters = new char[0];
+
+		/** The child nodes. */
+		private RouteNode[] children = new RouteNode[0];
+
+		/** The route types of the exact path up to the node. */
+		private final RequestRouteType[] exactRouteTypes = new RequestRouteType[ANY_METHOD_INDEX + 1];
+
+		/** The route types of the path prefix up to the node. */
+		private final RequestRouteType[] prefixRouteTypes = new RequestRouteType[ANY_METHOD_INDEX + 1];
+
+		/**
+		 * getChild method returns the child node of the character.
+		 *
+		 * @param character the next path character.
+		 * @return the child node, null if there is no route with the character.
+		 */
+		private RouteNode getChild(char character) {
+			for (int i = 0; i < childCharacters.length; i++) {
+				if (childCharacters[i] == character) {
+					return children[i];
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * getOrAddChild method returns the child node of the character, adding it if
+		 * it is not present.
+		 *
+		 * @param character the next path character.
+		 * @return the child node.
+		 */
+		private RouteNode getOrAddChild(char character) {
+			RouteNode child = getChild(character);
+			if (child == null) {
+				int noOfChildren = childCharacters.length;
+				childCharacters = Arrays.copyOf(childCharacters, noOfChildren + 1);
+				children = Arrays.copyOf(children, noOfChildren + 1);
+				childCharacters[noOfChildren] = character;
+				child = children[noOfChildren] = new RouteNode();
+			}
+			return child;
+		}
+
+		/**
+		 * getRouteType method returns the route type of the method, the route type
+		 * of any method is returned if there is no route of the method.
+		 *
+		 * @param routeTypes  the exact or prefix route types of the node.
+		 * @param methodIndex the ordinal of the http method, -1 if unknown.
+		 * @return the route type, null if no route matches.
+		 */
+		private RequestRouteType getRouteType(RequestRouteType[] routeTypes, int methodIndex) {
+			RequestRouteType routeType = methodIndex < 0 ? null : routeTypes[methodIndex];
+			return routeType == null ? routeTypes[ANY_METHOD_INDEX] : routeType;
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package com.redditclone.demo.security;
+
+/**
+ * RequestRouteType enum holds the types of the api request routes by which
+ * authentication of the request is decided.
+ */
+public enum RequestRouteType {
+
+	/** The route which is permitted without authentication. */
+	PUBLIC,
+
+	/** The route which is permitted only for authenticated requests. */
+	AUTHENTICATED,
+
+	/**
+	 * The route of the swagger api documentation, which is permitted without
+	 * authentication.
+	 */
+	SWAGGER;
+
+	/**
+	 * isPermittedWithoutAuthentication method checks whether route type is
+	 * permitted without authentication.
+	 *
+	 * @return true, if route type is public or swagger, otherwise return false.
+	 */
+	public boolean isPermittedWithoutAuthentication() {
+		return this != AUTHENTICATED;
+	}
+}
@@ -0,0 +1,137 @@
+package com.redditclone.demo.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.redditclone.demo.event.JwtKeysRotatedEvent;
+import com.redditclone.demo.exceptions.RedditException;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * VerifiedTokenCache class provides bounded cache of the claims of the tokens
+ * which are already verified, so that signature of the token is verified once
+ * instead of on every request. Claims are cached by the sha-256 hash of the
+ * token, so that raw tokens are not held in memory, and each cached claims
+ * expires at the expiration time of its token. Cache is flushed once the keys
+ * are rotated, as the tokens verified by the previous keys need to be verified
+ * again. Hit, miss and eviction statistics are exposed as cache metrics named
+ * verifiedTokens.
+ */
+@Component
+@Slf4j
+public class VerifiedTokenCache {
+
+	/** The Constant TOKEN_HASH_ALGORITHM the digest algorithm of the cache key. */
+	private static final String TOKEN_HASH_ALGORITHM = "SHA-256";
+
+	/**
+	 * The Constant TOKEN_DIGEST the message digest of each thread, so that digest
+	 * is not created for each request.
+	 */
+	private static final ThreadLocal<MessageDigest> TOKEN_DIGEST = ThreadLocal.withInitial(() -> {
+		try {
+			return MessageDigest.getInstance(TOKEN_HASH_ALGORITHM);
+		} catch (NoSuchAlgorithmException exception) {
+			throw new RedditException("Token hash algorithm is not available", exception);
+		}
+	});
+
+	/** The verified claims mapped by the hash of the token. */
+	private final Cache<String, Claims> verifiedClaimsByTokenHash;
+
+	/**
+	 * Instantiates a new verified token cache.
+	 *
+	 * @param meterRegistry the meter registry to which cache statistics are bound
+	 * @param maximumSize   the maximum no of verified tokens to be cached
+	 */
+	public VerifiedTokenCache(MeterRegistry meterRegistry,
+			@Value("${jwt.verified.token.cache.maximum.size}") long maximumSize) {
+		this.verifiedClaimsByTokenHash = Caffeine.newBuilder().maximumSize(maximumSize)
+				.expireAfter(new TokenExpirationExpiry()).recordStats().build();
+		CaffeineCacheMetrics.monitor(meterRegistry, verifiedClaimsByTokenHash, "verifiedTokens");
+	}
+
+	/**
+	 * getVerifiedClaims method returns the cached claims of the token, the token
+	 * is verified by the verifier and its claims are cached on cache miss. Tokens
+	 * which fail the verification are not cached, so that the exception of the
+	 * verifier is thrown for each request.
+	 *
+	 * @param token    the raw token from the request.
+	 * @param verifier the verifier which verifies the token and returns its claims.
+	 * @return the verified claims of the token.
+	 */
+	public Claims getVerifiedClaims(String token, Function<String, Claims> verifier) {
+		return verifiedClaimsByTokenHash.get(hashToken(token), tokenHash -> verifier.apply(token));
+	}
+
+	/**
+	 * flushVerifiedTokens method discards all the cached claims once the keys are
+	 * rotated, so that the tokens are verified by the current keys.
+	 *
+	 * @param jwtKeysRotatedEvent the jwt keys rotated event
+	 */
+	@EventListener
+	public void flushVerifiedTokens(JwtKeysRotatedEvent jwtKeysRotatedEvent) {
+		verifiedClaimsByTokenHash.invalidateAll();
+		log.info("Verified token cache is flushed, signing key id is {}", jwtKeysRotatedEvent.getSigningKeyId());
+	}
+
+	/**
+	 * hashToken method returns the base64 encoded sha-256 hash of the token which
+	 * is used as cache key.
+	 *
+	 * @param token the raw token.
+	 * @return the hash of the token.
+	 */
+	private String hashToken(String token) {
+		MessageDigest tokenDigest = TOKEN_DIGEST.get();
+		tokenDigest.reset();
+		return Base64.getEncoder().encodeToString(tokenDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * TokenExpirationExpiry class expires each cached claims at the expiration
+	 * time of its token. Claims of tokens without expiration time are not
+	 * retained.
+	 */
+	private static class TokenExpirationExpiry implements Expiry<String, Claims> {
+
+		@Override
+		public long expireAfterCreate(String tokenHash, Claims claims, long currentTime) {
+			Date expiration = claims.getExpiration();
+			if (expiration == null) {
+				return 0;
+			}
+			return Math.max(0, TimeUnit.MILLISECONDS.toNanos(expiration.getTime() - System.currentTimeMillis()));
+		}
+
+		@Override
+		public long expireAfterUpdate(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+
+		@Override
+		public long expireAfterRead(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+	}
+
+}
@@ -0,0 +1,43 @@
+package com.redditclone.demo.security;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * WorkFactorBCryptPasswordEncoder class is a bcrypt password encoder which
+ * reports every stored hash whose work factor differs from the target work
+ * factor as to be upgraded, not only the weaker ones. Along with the user
+ * details password service, stored hash is re-encoded with the target work
+ * factor on the next successful login, so that work factor can be raised or
+ * lowered without resetting the passwords.
+ */
+public class WorkFactorBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+	/** The Constant BCRYPT_HASH_PATTERN the pattern of the bcrypt hash. */
+	private static final Pattern BCRYPT_HASH_PATTERN = Pattern
+			.compile("\\A\\$2(a|y|b)?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+	/** The work factor with which passwords are encoded. */
+	private final int targetWorkFactor;
+
+	/**
+	 * Instantiates a new work factor bcrypt password encoder.
+	 *
+	 * @param targetWorkFactor the log rounds with which passwords are encoded
+	 */
+	public WorkFactorBCryptPasswordEncoder(int targetWorkFactor) {
+		super(targetWorkFactor);
+		this.targetWorkFactor = targetWorkFactor;
+	}
+
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		if (encodedPassword == null) {
+			return false;
+		}
+		Matcher bcryptHashMatcher = BCRYPT_HASH_PATTERN.matcher(encodedPassword);
+		return bcryptHashMatcher.find() && Integer.parseInt(bcryptHashMatcher.group(2)) != targetWorkFactor;
+	}
+}
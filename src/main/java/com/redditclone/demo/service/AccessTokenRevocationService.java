@@ -0,0 +1,170 @@
+package com.redditclone.demo.service;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.redditclone.demo.model.RevokedAccessToken;
+import com.redditclone.demo.repository.RevokedAccessTokenRepository;
+import com.redditclone.demo.security.JwtProvider;
+import com.redditclone.demo.security.VerifiedTokenCache;
+import com.redditclone.demo.util.BloomFilter;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * AccessTokenRevocationService class provides methods to revoke the access
+ * tokens on logout and to check whether the access token is revoked. Token ids
+ * of the revoked access tokens are stored in the revoked access token table
+ * until their expiry, and a bloom filter of them is held in memory, so that the
+ * table is queried only for the tokens which might have been revoked. Bloom
+ * filter is rebuilt from the table periodically, which drops the expired tokens
+ * and adds the tokens revoked by other instances of the application.
+ */
+@Service
+@Slf4j
+public class AccessTokenRevocationService {
+
+	/**
+	 * The revoked access token repository which is used to store and find the
+	 * revoked access tokens.
+	 */
+	private final RevokedAccessTokenRepository revokedAccessTokenRepository;
+
+	/** The jwt provider which is used to verify the revoked access token. */
+	private final JwtProvider jwtProvider;
+
+	/**
+	 * The verified token cache which is used to skip the verification of the
+	 * access token which is already verified.
+	 */
+	private final VerifiedTokenCache verifiedTokenCache;
+
+	/** The minimum no of token ids for which bloom filter is sized. */
+	private final long expectedNoOfRevokedTokens;
+
+	/** The false positive probability of the bloom filter. */
+	private final double falsePositiveProbability;
+
+	/**
+	 * The bloom filter of the token ids of the revoked access tokens, null until
+	 * it is built for the first time.
+	 */
+	private volatile BloomFilter revokedTokenFilter;
+
+	/**
+	 * The bloom filter which is being rebuilt, the tokens revoked while rebuilding
+	 * are added to it as well, so that they are not lost once it is swapped in.
+	 */
+	private volatile BloomFilter rebuildingTokenFilter;
+
+	/**
+	 * Instantiates a new access token revocation service.
+	 *
+	 * @param revokedAccessTokenRepository the revoked access token repository
+	 * @param jwtProvider                  the jwt provider
+	 * @param verifiedTokenCache           the verified token cache
+	 * @param expectedNoOfRevokedTokens    the minimum no of token ids for which
+	 *                                     bloom filter is sized
+	 * @param falsePositiveProbability     the false positive probability of the
+	 *                                     bloom filter
+	 */
+	public AccessTokenRevocationService(RevokedAccessTokenRepository revokedAccessTokenRepository,
+			JwtProvider jwtProvider, VerifiedTokenCache verifiedTokenCache,
+			@Value("${jwt.revocation.filter.expected.size}") long expectedNoOfRevokedTokens,
+			@Value("${jwt.revocation.filter.false.positive.probability}") double falsePositiveProbability) {
+		this.revokedAccessTokenRepository = revokedAccessTokenRepository;
+		this.jwtProvider = jwtProvider;
+		this.verifiedTokenCache = verifiedTokenCache;
+		this.expectedNoOfRevokedTokens = expectedNoOfRevokedTokens;
+		this.falsePositiveProbability = falsePositiveProbability;
+	}
+
+	/**
+	 * revokeAccessToken method stores the token id of the access token until it's
+	 * expiry and adds it to the bloom filter. Access tokens which are already
+	 * expired or invalid are not stored, as they are rejected by the
+	 * verification.
+	 *
+	 * @param accessToken the access token to be revoked.
+	 */
+	public void revokeAccessToken(String accessToken) {
+		Claims jwsClaims;
+		try {
+			jwsClaims = verifiedTokenCache.getVerifiedClaims(accessToken, jwtProvider::validateTokenAndGetJwsClaims);
+		} catch (JwtException | IllegalArgumentException exception) {
+			return;
+		}
+		if (jwsClaims.getId() == null || jwsClaims.getExpiration() == null) {
+			return;
+		}
+		revokedAccessTokenRepository
+				.save(new RevokedAccessToken(jwsClaims.getId(), jwsClaims.getExpiration().toInstant()));
+		addToTokenFilters(jwsClaims.getId());
+	}
+
+	/**
+	 * isRevoked method checks whether the access token of the claims is revoked.
+	 * Revoked access token table is queried only if the bloom filter reports that
+	 * the token id might have been revoked, or if the bloom filter is not built
+	 * yet.
+	 *
+	 * @param jwsClaims the verified claims of the access token.
+	 * @return true, if access token is revoked, otherwise return false.
+	 */
+	public boolean isRevoked(Claims jwsClaims) {
+		String tokenId = jwsClaims.getId();
+		if (tokenId == null) {
+			return false;
+		}
+		BloomFilter currentTokenFilter = revokedTokenFilter;
+		if (currentTokenFilter != null && !currentTokenFilter.mightContain(tokenId)) {
+			return false;
+		}
+		return revokedAccessTokenRepository.existsById(tokenId);
+	}
+
+	/**
+	 * rebuildRevokedTokenFilter method deletes the expired revoked access tokens
+	 * and rebuilds the bloom filter from the remaining token ids. Bloom filter is
+	 * sized for twice the no of remaining token ids, so that tokens revoked until
+	 * the next rebuild keep the false positive probability.
+	 */
+	@Scheduled(fixedDelayString = "${jwt.revocation.filter.rebuild.interval.millis}")
+	public void rebuildRevokedTokenFilter() {
+		Instant currentDateTime = Instant.now();
+		int noOfDeletedTokens = revokedAccessTokenRepository.deleteExpiredTokens(currentDateTime);
+		BloomFilter newTokenFilter = new BloomFilter(
+				Math.max(expectedNoOfRevokedTokens, 2 * revokedAccessTokenRepository.count()),
+				falsePositiveProbability);
+		rebuildingTokenFilter = newTokenFilter;
+		List<String> activeTokenIds = revokedAccessTokenRepository.findActiveTokenIds(currentDateTime);
+		activeTokenIds.forEach(newTokenFilter::add);
+		revokedTokenFilter = newTokenFilter;
+		rebuildingTokenFilter = null;
+		log.debug("Revoked token filter rebuilt with {} tokens, deleted {} expired tokens", activeTokenIds.size(),
+				noOfDeletedTokens);
+	}
+
+	/**
+	 * addToTokenFilters method adds the token id to the current bloom filter and
+	 * to the bloom filter which is being rebuilt.
+	 *
+	 * @param tokenId the token id of the revoked access token.
+	 */
+	private void addToTokenFilters(String tokenId) {
+		BloomFilter currentTokenFilter = revokedTokenFilter;
+		if (currentTokenFilter != null) {
+			currentTokenFilter.add(tokenId);
+		}
+		BloomFilter newTokenFilter = rebuildingTokenFilter;
+		if (newTokenFilter != null) {
+			newTokenFilter.add(tokenId);
+		}
+	}
+}
@@ -0,0 +1,198 @@
+package com.redditclone.demo.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.redditclone.demo.event.UserRegisteredEvent;
+import com.redditclone.demo.model.NotificationEmailInfo;
+import com.redditclone.demo.model.User;
+import com.redditclone.demo.repository.UserRepository;
+import com.redditclone.demo.repository.VerificationTokenRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * AccountActivationService class provides the asynchronous stage of signup. It
+ * queues the users once their registration is committed, and periodically
+ * drains the queue to issue the verification tokens of all the queued users in
+ * a single batched insert, after which the account activation mails are sent.
+ * Signup request therefore waits only for the user insert. As the queue is not
+ * durable, the unactivated users left without verification token by a crash,
+ * a failed batch or a failed mail are periodically found in the user table and
+ * queued again.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class AccountActivationService {
+
+	/** The Constant ACCOUNT_ACTIVATION_MAIL_NOTIFICATION_BODY. */
+	public static final String ACCOUNT_ACTIVATION_MAIL_NOTIFICATION_BODY = "\"Thank you for signing up to Reddit, \" +\r\n"
+			+ "                \"please click on the below url to activate your account : \" +\r\n"
+			+ "                \"http://localhost:8080/api/auth/verifyNewAccount/";
+
+	/**
+	 * The Constant INSERT_VERIFICATION_TOKEN_SQL the insert statement of a
+	 * verification token.
+	 */
+	private static final String INSERT_VERIFICATION_TOKEN_SQL = "insert into token "
+			+ "(token, related_user_user_id, expiry_date_time) values (?, ?, ?)";
+
+	/**
+	 * The registered users waiting for the verification token, in the order of
+	 * registration.
+	 */
+	private final BlockingQueue<UserRegisteredEvent> pendingActivations = new LinkedBlockingQueue<>();
+
+	/** The jdbc template which is used to batch the verification token inserts. */
+	private final JdbcTemplate jdbcTemplate;
+
+	/**
+	 * The transaction template which commits each batch of verification tokens
+	 * before the mails are sent.
+	 */
+	private final TransactionTemplate transactionTemplate;
+
+	/** The mail sender service which is used to send mail notification. */
+	private final MailSenderService mailSenderService;
+
+	/**
+	 * The user repository which is used to find the unactivated users without
+	 * verification token.
+	 */
+	private final UserRepository userRepository;
+
+	/**
+	 * The verification token repository which is used to delete the verification
+	 * token whose activation mail failed, so that it is issued again.
+	 */
+	private final VerificationTokenRepository verificationTokenRepository;
+
+	/** The maximum no of verification tokens inserted in a single batch. */
+	@Value("${signup.activation.batch.size}")
+	private int activationBatchSize;
+
+	/** The time in millis after which verification token expires. */
+	@Value("${verification.token.expiration.time.millis}")
+	private long verificationTokenExpirationTimeInMillis;
+
+	/**
+	 * The time in millis after which the unactivated users without verification
+	 * token are queued again, users registered with in this time are left to the
+	 * queue.
+	 */
+	@Value("${signup.activation.recovery.interval.millis}")
+	private long activationRecoveryIntervalInMillis;
+
+	/**
+	 * queueAccountActivation method queues the registered user for the
+	 * verification token once the user is committed.
+	 *
+	 * @param userRegisteredEvent the user registered event
+	 */
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void queueAccountActivation(UserRegisteredEvent userRegisteredEvent) {
+		pendingActivations.add(userRegisteredEvent);
+	}
+
+	/**
+	 * issueQueuedVerificationTokens method drains the queued users batch by batch,
+	 * inserts the verification tokens of each batch in one transaction with a
+	 * single jdbc batch, and sends the account activation mails of the batch after
+	 * it is committed. Users of a failed batch are left without token, so that
+	 * they are queued again by the recovery.
+	 */
+	@Scheduled(fixedDelayString = "${signup.activation.drain.interval.millis}")
+	public void issueQueuedVerificationTokens() {
+		List<UserRegisteredEvent> activationBatch = new ArrayList<>(activationBatchSize);
+		while (pendingActivations.drainTo(activationBatch, activationBatchSize) > 0) {
+			List<Object[]> verificationTokenRows = new ArrayList<>(activationBatch.size());
+			Timestamp expiryDateTime = Timestamp
+					.from(Instant.now().plusMillis(verificationTokenExpirationTimeInMillis));
+			for (UserRegisteredEvent userRegisteredEvent : activationBatch) {
+				verificationTokenRows.add(new Object[] { UUID.randomUUID().toString(), userRegisteredEvent.getUserId(),
+						expiryDateTime });
+			}
+			try {
+				transactionTemplate.executeWithoutResult(
+						status -> jdbcTemplate.batchUpdate(INSERT_VERIFICATION_TOKEN_SQL, verificationTokenRows));
+			} catch (RuntimeException exception) {
+				log.error("Issuing {} verification tokens failed, they will be issued again by the recovery",
+						activationBatch.size(), exception);
+				activationBatch.clear();
+				continue;
+			}
+			for (int i = 0; i < activationBatch.size(); i++) {
+				sendAccountActivationMailNotification(activationBatch.get(i).getEmail(),
+						(String) verificationTokenRows.get(i)[0]);
+			}
+			log.debug("Issued {} verification tokens", activationBatch.size());
+			activationBatch.clear();
+		}
+	}
+
+	/**
+	 * recoverPendingActivations method queues again the unactivated users which
+	 * are registered before the last recovery interval and still have no
+	 * verification token, batch by batch. Users registered as long ago as a token
+	 * expires are left to the verification token purge. It runs once on startup
+	 * to recover the users queued before a crash.
+	 */
+	@Scheduled(fixedDelayString = "${signup.activation.recovery.interval.millis}")
+	public void recoverPendingActivations() {
+		Instant currentDateTime = Instant.now();
+		Instant registeredAfter = currentDateTime.minusMillis(verificationTokenExpirationTimeInMillis);
+		Instant registeredNotAfter = currentDateTime.minusMillis(activationRecoveryIntervalInMillis);
+		long afterUserId = 0;
+		int noOfRecoveredUsers = 0;
+		List<User> unactivatedUsers;
+		do {
+			unactivatedUsers = userRepository.findUnactivatedUsersWithoutToken(afterUserId, registeredAfter,
+					registeredNotAfter, activationBatchSize);
+			for (User unactivatedUser : unactivatedUsers) {
+				pendingActivations.add(new UserRegisteredEvent(unactivatedUser.getUserId(),
+						unactivatedUser.getUsername(), unactivatedUser.getEmail()));
+				afterUserId = unactivatedUser.getUserId();
+			}
+			noOfRecoveredUsers += unactivatedUsers.size();
+		} while (unactivatedUsers.size() == activationBatchSize);
+		if (noOfRecoveredUsers > 0) {
+			log.warn("Queued {} unactivated users without verification token again", noOfRecoveredUsers);
+		}
+	}
+
+	/**
+	 * sendAccountActivationMailNotification method sends account activation mail
+	 * notification for newly registered user. If the mail fails, the verification
+	 * token is deleted, so that a new token and mail are issued by the recovery.
+	 *
+	 * @param email             the email address of the new user.
+	 * @param verificationToken the verification token of the new user.
+	 */
+	private void sendAccountActivationMailNotification(String email, String verificationToken) {
+		NotificationEmailInfo notificationEmailInfo = new NotificationEmailInfo();
+		notificationEmailInfo.setMailSubject("Please activate your new reddit account");
+		notificationEmailInfo.setMessageBody(ACCOUNT_ACTIVATION_MAIL_NOTIFICATION_BODY + verificationToken);
+		notificationEmailInfo.setRecipientEmailAddress(email);
+		mailSenderService.sendMailNotification(notificationEmailInfo).exceptionally(exception -> {
+			log.error("Account activation mail to {} failed, it will be sent again by the recovery", email,
+					exception);
+			verificationTokenRepository.deleteByToken(verificationToken);
+			return null;
+		});
+	}
+}
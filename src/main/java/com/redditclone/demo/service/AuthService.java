@@ -1,33 +1,43 @@
 package com.redditclone.demo.service;
 
 import java.time.Instant;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import javax.validation.Valid;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import com.redditclone.demo.dto.AuthenticationResponse;
 import com.redditclone.demo.dto.RefreshTokenRequest;
 import com.redditclone.demo.dto.UserSignupRequestInfo;
+import com.redditclone.demo.event.UserActivatedEvent;
+import com.redditclone.demo.event.UserRegisteredEvent;
+import com.redditclone.demo.exceptions.PasswordHashingRejectedException;
 import com.redditclone.demo.exceptions.RedditException;
-import com.redditclone.demo.model.NotificationEmailInfo;
 import com.redditclone.demo.model.User;
-import com.redditclone.demo.model.VerificationToken;
 import com.redditclone.demo.repository.UserRepository;
 import com.redditclone.demo.repository.VerificationTokenRepository;
 import com.redditclone.demo.security.JwtProvider;
+import com.redditclone.demo.security.PasswordHashingExecutor;
+import com.redditclone.demo.security.RedditUserPrincipal;
 
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * AuthService class is provide service methods prepare and register user
@@ -36,9 +46,33 @@ import lombok.AllArgsConstructor;
  * @author Santhosh Kumar J
  */
 @Service
+@Slf4j
 @AllArgsConstructor
 public class AuthService {
 
+	/**
+	 * The Constant CURRENT_LOGGED_IN_USER_ATTRIBUTE the name of the request
+	 * attribute which holds the current logged in user queried with in the
+	 * request.
+	 */
+	private static final String CURRENT_LOGGED_IN_USER_ATTRIBUTE = AuthService.class.getName()
+			+ ".currentLoggedInUser";
+
+	/**
+	 * The Constant USER_NOT_FOUND_ENCODED_PASSWORD the bcrypt hash of
+	 * userNotFoundPassword against which the password of an unknown user is
+	 * verified, so that login of an unknown user takes as long as a wrong
+	 * password.
+	 */
+	private static final String USER_NOT_FOUND_ENCODED_PASSWORD = "$2a$10$"
+			+ "9Hoz.kDRnTFhfMcrp92Or.t6NdCRnJobAcDhPfNmoA24T8YEemMiO";
+
+	/**
+	 * The Constant ACCOUNT_STATUS_CHECKER which rejects the login of locked,
+	 * disabled and expired user accounts.
+	 */
+	private static final AccountStatusUserDetailsChecker ACCOUNT_STATUS_CHECKER = new AccountStatusUserDetailsChecker();
+
 	/**
 	 * The password encoder which is used encrypt the password text given by user.
 	 */
@@ -56,11 +90,33 @@ public class AuthService {
 	 */
 	private final VerificationTokenRepository verificationTokenRepository;
 
-	/** The mail sender service which is used to send mail notification. */
-	private final MailSenderService mailSenderService;
+	/**
+	 * The application event publisher which is used to publish the registered
+	 * users to the account activation.
+	 */
+	private final ApplicationEventPublisher applicationEventPublisher;
+
+	/** The user details service which loads the user of the login request. */
+	private final UserDetailsService userDetailsService;
 
-	/** The authentication manager which authenticates active user login. */
-	private final AuthenticationManager authenticationManager;
+	/**
+	 * The user details password service which stores the password re-encoded with
+	 * the target work factor.
+	 */
+	private final UserDetailsPasswordService userDetailsPasswordService;
+
+	/**
+	 * The password hashing executor which encodes and verifies the passwords off
+	 * the request threads. Only the bcrypt work is submitted to it, so that it's
+	 * threads are never blocked on the database.
+	 */
+	private final PasswordHashingExecutor passwordHashingExecutor;
+
+	/**
+	 * The application task executor on which the work following the bcrypt work,
+	 * such as saving the new user and issuing the tokens, is continued.
+	 */
+	private final ThreadPoolTaskExecutor applicationTaskExecutor;
 
 	/** The jwt provider which provides token to authenticate. */
 	private final JwtProvider jwtProvider;
@@ -71,139 +127,183 @@ public class AuthService {
 	 */
 	private final RefreshTokenService refreshTokenService;
 
-	/** The Constant ACCOUNT_ACTIVATION_MAIL_NOTIFICATION_BODY. */
-	public static final String ACCOUNT_ACTIVATION_MAIL_NOTIFICATION_BODY = "\"Thank you for signing up to Reddit, \" +\r\n"
-			+ "                \"please click on the below url to activate your account : \" +\r\n"
-			+ "                \"http://localhost:8080/api/auth/verifyNewAccount/";
-
 	/**
 	 * signup method is used to process the new user registration request and do the
-	 * process for it.
+	 * process for it. Request is rejected early if username is already taken, then
+	 * password is encoded on the password hashing executor and the new user is
+	 * saved in a single short transaction on the application task executor.
+	 * Verification token and activation mail are issued asynchronously once the
+	 * user is committed.
+	 *
+	 * throws RedditException if username is already taken.
 	 *
 	 * @param userSignupRequestInfo the user signup request information which is
 	 *                              used to do the user signup process.
+	 * @return the future which completes once the new user is saved.
 	 */
-	@Transactional
-	public void doSignupProcess(UserSignupRequestInfo userSignupRequestInfo) {
-		User newUserInfo = prepareAndSaveNewUserRegistrationInfo(userSignupRequestInfo);
-		sendAccountActivationMailNotification(userSignupRequestInfo, newUserInfo);
-
+	public CompletableFuture<Void> doSignupProcess(UserSignupRequestInfo userSignupRequestInfo) {
+		if (userRepository.existsByUsername(userSignupRequestInfo.getUsername())) {
+			throw new RedditException("Username is already taken - " + userSignupRequestInfo.getUsername());
+		}
+		return passwordHashingExecutor.submit(() -> passwordEncoder.encode(userSignupRequestInfo.getPassword()))
+				.thenAcceptAsync(encodedPassword -> prepareAndSaveNewUserRegistrationInfo(userSignupRequestInfo,
+						encodedPassword), applicationTaskExecutor);
 	}
 
 	/**
 	 * prepareAndSaveNewUserRegistrationInfo methods prepares and saves new user
 	 * information into user table from request data provided from the user via
-	 * signup form input.
+	 * signup form input, and publishes the user registered event.
+	 *
+	 * throws RedditException if username is taken by concurrent signup.
 	 *
 	 * @param userSignupRequestInfo the user signup request information which is
 	 *                              used to prepare and save new user account
 	 *                              details.
+	 * @param encodedPassword       the encoded password of the new user.
 	 */
-	private User prepareAndSaveNewUserRegistrationInfo(UserSignupRequestInfo userSignupRequestInfo) {
+	private void prepareAndSaveNewUserRegistrationInfo(UserSignupRequestInfo userSignupRequestInfo,
+			String encodedPassword) {
 		User newUserInfo = new User();
 		newUserInfo.setUsername(userSignupRequestInfo.getUsername());
 		newUserInfo.setEmail(userSignupRequestInfo.getEmail());
-		newUserInfo.setPassword(passwordEncoder.encode(userSignupRequestInfo.getPassword()));
+		newUserInfo.setPassword(encodedPassword);
 		newUserInfo.setCreatedDateTime(Instant.now());
 		newUserInfo.setUserEnabled(false);
-		userRepository.save(newUserInfo);
-		return newUserInfo;
+		try {
+			userRepository.save(newUserInfo);
+		} catch (DataIntegrityViolationException exception) {
+			throw new RedditException("Username is already taken - " + userSignupRequestInfo.getUsername(),
+					exception);
+		}
+		applicationEventPublisher.publishEvent(
+				new UserRegisteredEvent(newUserInfo.getUserId(), newUserInfo.getUsername(), newUserInfo.getEmail()));
 	}
 
 	/**
-	 * sendAccountActivationMailNotification method sends account activation mail
-	 * notification for newly registered user.
+	 * verifyNewUserAccount method verifies the new user account by verification
+	 * token and enables it with a single update joined on the token, only if the
+	 * token is not expired yet. Consumed verification token is deleted in the same
+	 * transaction, and user activated event is published so that the user name is
+	 * suggested once the activation is committed.
+	 *
+	 * throws RedditException if verification token is not found or expired.
 	 *
-	 * @param userSignupRequestInfo the user signup request information which will
-	 *                              be used to send account verification
-	 *                              notification mail.
-	 * @param newUserInfo           the new user information which will be used to
-	 *                              link the verification token to related user.
+	 * @param verificationToken the verification token which will be used to verify
+	 *                          the new user account.
 	 */
-	private void sendAccountActivationMailNotification(UserSignupRequestInfo userSignupRequestInfo, User newUserInfo) {
-		NotificationEmailInfo notificationEmailInfo = new NotificationEmailInfo();
-		String verificationToken = generateAndSaveNewUserVerificationToken(newUserInfo);
-		notificationEmailInfo.setMailSubject("Please activate your new reddit account");
-		notificationEmailInfo.setMessageBody(ACCOUNT_ACTIVATION_MAIL_NOTIFICATION_BODY + verificationToken);
-		notificationEmailInfo.setRecipientEmailAddress(userSignupRequestInfo.getEmail());
-		mailSenderService.sendMailNotification(notificationEmailInfo);
+	@Transactional
+	public void verifyNewUserAccount(String verificationToken) {
+		if (verificationTokenRepository.enableUserByActiveToken(verificationToken, Instant.now()) == 0) {
+			throw new RedditException("Invalid or Expired Verification Token");
+		}
+		User activatedUser = verificationTokenRepository.findRelatedUserByToken(verificationToken)
+				.orElseThrow(() -> new RedditException("Invalid or Expired Verification Token"));
+		verificationTokenRepository.deleteByToken(verificationToken);
+		applicationEventPublisher
+				.publishEvent(new UserActivatedEvent(activatedUser.getUserId(), activatedUser.getUsername()));
 	}
 
 	/**
-	 * generateAndSaveNewUserVerificationToken methods generate and save
-	 * verification token for new user in verification token table.
+	 * verifyLoginRequestAndGetAuthenticationInfo method verify the login request
+	 * and returns the future of the authentication response if verification is
+	 * success. User is loaded and account status is checked on the request
+	 * thread, only the password is verified on the password hashing executor, and
+	 * the jwt and refresh token are issued on the application task executor.
+	 * authentication response contains jwt and refresh token which will be used to
+	 * authenticate active logged in user account. Stored password whose work
+	 * factor differs from the target work factor is re-encoded in the background.
+	 *
+	 * throws PasswordHashingRejectedException if password hashing executor is
+	 * saturated, AccountStatusException if user account is locked, disabled or
+	 * expired, and the future completes with BadCredentialsException if username
+	 * or password is wrong.
 	 *
-	 * @param relatedUser the related user details for which generated verification
-	 *                    token is saved.
-	 * @return the verification token.
+	 * @param username the user name of the user.
+	 * @param password the password of the user.
+	 * @return the future of authentication response information [jwt] which will
+	 *         be used by client for upcoming api requests.
 	 */
-	private String generateAndSaveNewUserVerificationToken(User relatedUser) {
-		String verificationTokenUUIDString = UUID.randomUUID().toString();
-		VerificationToken newUserVerificationToken = new VerificationToken();
-		newUserVerificationToken.setToken(verificationTokenUUIDString);
-		newUserVerificationToken.setRelatedUser(relatedUser);
-		verificationTokenRepository.save(newUserVerificationToken);
-		return verificationTokenUUIDString;
+	public CompletableFuture<AuthenticationResponse> verifyLoginRequestAndGetAuthenticationInfo(String username,
+			String password) {
+		RedditUserPrincipal principal = loadLoginUserPrincipal(username);
+		if (principal != null) {
+			ACCOUNT_STATUS_CHECKER.check(principal);
+		}
+		String encodedPassword = principal == null ? USER_NOT_FOUND_ENCODED_PASSWORD : principal.getPassword();
+		return passwordHashingExecutor.submit(() -> passwordEncoder.matches(password, encodedPassword))
+				.thenApplyAsync(passwordMatches -> {
+					if (principal == null || !passwordMatches) {
+						throw new BadCredentialsException("Bad credentials");
+					}
+					if (passwordEncoder.upgradeEncoding(encodedPassword)) {
+						reencodePassword(principal, password);
+					}
+					return prepareAuthenticationResponse(principal);
+				}, applicationTaskExecutor);
 	}
 
 	/**
-	 * verifyNewUserAccount method verifies the new user account by verification
-	 * token and enables if it is valid token.
+	 * loadLoginUserPrincipal method loads the user principal of the login request
+	 * by user name.
 	 *
-	 * @param verificationToken the verification token which will be used to verify
-	 *                          the new user account.
+	 * @param username the user name of the user.
+	 * @return the user principal, null if user is not found.
 	 */
-	public void verifyNewUserAccount(String verificationToken) {
-		Optional<VerificationToken> verificationTokenInfo = verificationTokenRepository.findByToken(verificationToken);
-		if (verificationTokenInfo.isPresent()) {
-			fetchAndEnableUserAccount(verificationTokenInfo.get().getRelatedUser().getUsername());
-		} else {
-			throw new RedditException("Invalid Verification Token");
+	private RedditUserPrincipal loadLoginUserPrincipal(String username) {
+		try {
+			return (RedditUserPrincipal) userDetailsService.loadUserByUsername(username);
+		} catch (UsernameNotFoundException exception) {
+			return null;
 		}
 	}
 
 	/**
-	 * fetchAndEnableUserAccount method fetch user account information by username
-	 * and enables the account status.
+	 * reencodePassword method encodes the verified password with the target work
+	 * factor on the password hashing executor and stores it on the application
+	 * task executor. Re-encoding is skipped if password hashing executor is
+	 * saturated, it is retried on the next login.
 	 *
-	 * @param username the username which needs to enabled.
+	 * @param principal the user principal of the verified login request.
+	 * @param password  the verified password of the user.
 	 */
-	@Transactional
-	private void fetchAndEnableUserAccount(String username) {
-		Optional<User> relatedUserInfoOptional = userRepository.findByUsername(username);
-		if (relatedUserInfoOptional.isPresent()) {
-			User relatedUserInfo = relatedUserInfoOptional.get();
-			userRepository.updateUserAccountStatusByUserId(relatedUserInfo.getUserId(), true);
-		} else {
-			throw new RedditException("User account details not found with the name:  " + username);
+	private void reencodePassword(RedditUserPrincipal principal, String password) {
+		try {
+			passwordHashingExecutor.submit(() -> passwordEncoder.encode(password))
+					.thenAcceptAsync(reencodedPassword -> userDetailsPasswordService.updatePassword(principal,
+							reencodedPassword), applicationTaskExecutor)
+					.exceptionally(exception -> {
+						log.error("Password of user {} could not be re-encoded", principal.getUsername(), exception);
+						return null;
+					});
+		} catch (PasswordHashingRejectedException exception) {
+			log.warn("Password of user {} is not re-encoded, password hashing executor is saturated",
+					principal.getUsername());
 		}
 	}
 
 	/**
-	 * verifyLoginRequestAndGetAuthenticationInfo method verify the login request
-	 * and returns the authentication response if verification is success.
-	 * authentication response contains jwt and refresh token which will be used to
-	 * authenticate active logged in user account.
+	 * prepareAuthenticationResponse method generates jwt and refresh token for the
+	 * authenticated user and returns the authentication response.
 	 *
-	 * @param username the user name of the user.
-	 * @param password the password of the user.
-	 * @return the authentication response information [jwt] which will be used by
-	 *         client for upcoming api requests.
-	 */
-	public AuthenticationResponse verifyLoginRequestAndGetAuthenticationInfo(String username, String password) {
-		Authentication authentication = authenticationManager
-				.authenticate(new UsernamePasswordAuthenticationToken(username, password));
-		SecurityContextHolder.getContext().setAuthentication(authentication);
-		String authenticationToken = jwtProvider.generateAuthenticationToken(authentication.getName());
-		return AuthenticationResponse.builder().username(username).authenticationToken(authenticationToken)
-				.refreshToken(refreshTokenService.generateAndSaveRefreshToken().getToken())
+	 * @param principal the user principal of the verified login request.
+	 * @return the authentication response information [jwt].
+	 */
+	private AuthenticationResponse prepareAuthenticationResponse(RedditUserPrincipal principal) {
+		String authenticationToken = jwtProvider.generateAuthenticationToken(principal.getUserId(),
+				principal.getUsername(), principal.isEnabled());
+		return AuthenticationResponse.builder().username(principal.getUsername())
+				.authenticationToken(authenticationToken)
+				.refreshToken(refreshTokenService
+						.generateAndSaveRefreshToken(userRepository.getOne(principal.getUserId())))
 				.expiryDateTime(Instant.now().plusMillis(jwtProvider.getJwtExpirationTimeInMillis())).build();
 	}
 
 	/**
 	 * getCurrentLoggedInUser method get the currently logged in user details from
-	 * the security context and the user table. throws UsernameNotFoundException if
-	 * related user information is not found.
+	 * the user table by the user id of the security context principal. User is
+	 * queried at most once per request, subsequent calls with in the same request
+	 * return the same user.
 	 *
 	 * throws UsernameNotFoundException if related user information is not found.
 	 *
@@ -213,10 +313,54 @@ public class AuthService {
 	 */
 	@Transactional(readOnly = true)
 	public User getCurrentLoggedInUser() {
-		org.springframework.security.core.userdetails.User principal = (org.springframework.security.core.userdetails.User) SecurityContextHolder
-				.getContext().getAuthentication().getPrincipal();
-		return userRepository.findByUsername(principal.getUsername())
+		RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+		if (requestAttributes != null) {
+			User currentLoggedInUser = (User) requestAttributes.getAttribute(CURRENT_LOGGED_IN_USER_ATTRIBUTE,
+					RequestAttributes.SCOPE_REQUEST);
+			if (currentLoggedInUser != null) {
+				return currentLoggedInUser;
+			}
+		}
+		RedditUserPrincipal principal = getCurrentLoggedInUserPrincipal();
+		User currentLoggedInUser = userRepository.findById(principal.getUserId())
 				.orElseThrow(() -> new UsernameNotFoundException("User name not found - " + principal.getUsername()));
+		if (requestAttributes != null) {
+			requestAttributes.setAttribute(CURRENT_LOGGED_IN_USER_ATTRIBUTE, currentLoggedInUser,
+					RequestAttributes.SCOPE_REQUEST);
+		}
+		return currentLoggedInUser;
+	}
+
+	/**
+	 * getCurrentLoggedInUserId method get the user id of currently logged in user
+	 * from the security context principal without querying the user table.
+	 *
+	 * @return the user id of the current user who is logged in.
+	 */
+	public Long getCurrentLoggedInUserId() {
+		return getCurrentLoggedInUserPrincipal().getUserId();
+	}
+
+	/**
+	 * getCurrentLoggedInUserReference method get the reference of currently logged
+	 * in user which is not loaded from the user table until any field other than
+	 * user id is accessed. It will be used to relate the logged in user with other
+	 * entities.
+	 *
+	 * @return the reference of the current user who is logged in.
+	 */
+	public User getCurrentLoggedInUserReference() {
+		return userRepository.getOne(getCurrentLoggedInUserId());
+	}
+
+	/**
+	 * getCurrentLoggedInUserPrincipal method get the principal of currently logged
+	 * in user from the security context.
+	 *
+	 * @return the principal of the current user who is logged in.
+	 */
+	private RedditUserPrincipal getCurrentLoggedInUserPrincipal() {
+		return (RedditUserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 	}
 
 	/**
@@ -224,7 +368,8 @@ public class AuthService {
 	 * with a new refresh using previously generated refresh token to validate
 	 * authentication token after token is expired which is generated at initial
 	 * login.It will also used to generate and refresh token at regular interval in
-	 * order to avoid authentication token becoming invalid.
+	 * order to avoid authentication token becoming invalid. Previous refresh token
+	 * is consumed and replaced with the new refresh token in the same transaction.
 	 *
 	 * @param refreshTokenRequest the refresh token request which contains refresh
 	 *                            token and username of the previous authentication
@@ -233,11 +378,14 @@ public class AuthService {
 	 * 
 	 * @return the authentication response
 	 */
+	@Transactional
 	public AuthenticationResponse generateAndGetRefreshToken(@Valid RefreshTokenRequest refreshTokenRequest) {
-		refreshTokenService.validateRefreshToken(refreshTokenRequest.getRefreshToken());
-		String authenticationToken = jwtProvider.generateAuthenticationToken(refreshTokenRequest.getUsername());
+		User user = refreshTokenService.consumeRefreshToken(refreshTokenRequest.getRefreshToken(),
+				refreshTokenRequest.getUsername());
+		String authenticationToken = jwtProvider.generateAuthenticationToken(user.getUserId(), user.getUsername(),
+				user.isUserEnabled());
 		return AuthenticationResponse.builder().authenticationToken(authenticationToken)
-				.refreshToken(refreshTokenRequest.getRefreshToken())
+				.refreshToken(refreshTokenService.generateAndSaveRefreshToken(user))
 				.expiryDateTime(Instant.now().plusMillis(jwtProvider.getJwtExpirationTimeInMillis()))
 				.username(refreshTokenRequest.getUsername()).build();
 	}
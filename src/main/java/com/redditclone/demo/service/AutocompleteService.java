@@ -0,0 +1,183 @@
+package com.redditclone.demo.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.redditclone.demo.event.SubredditCreatedEvent;
+import com.redditclone.demo.event.UserActivatedEvent;
+import com.redditclone.demo.repository.SubredditRepository;
+import com.redditclone.demo.repository.SubredditRepository.SubredditPostCountSnapshot;
+import com.redditclone.demo.repository.UserRepository;
+import com.redditclone.demo.repository.UserRepository.UserActivitySnapshot;
+import com.redditclone.demo.util.AutocompleteTrie;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * AutocompleteService class provides methods to suggest the subreddit names and
+ * user names which start with the given prefix. Names are held in memory in
+ * autocomplete tries ranked by popularity, subreddits by their post count and
+ * users by the no of posts and comments made by them. Tries are built once
+ * application is started and rebuilt periodically, which updates the ranks and
+ * adds the names created by other instances of the application. Subreddits
+ * created by this instance are added once they are committed, and users once
+ * their account is activated, so that unactivated accounts are never
+ * suggested.
+ */
+@Service
+@Slf4j
+public class AutocompleteService {
+
+	/**
+	 * The subreddit repository which is used to load the subreddit names with
+	 * their post counts.
+	 */
+	private final SubredditRepository subredditRepository;
+
+	/**
+	 * The user repository which is used to load the user names with their activity
+	 * counts.
+	 */
+	private final UserRepository userRepository;
+
+	/** The maximum no of suggestions returned for a prefix. */
+	private final int maximumSuggestions;
+
+	/** The autocomplete trie of the subreddit names. */
+	private volatile AutocompleteTrie subredditNameTrie;
+
+	/** The autocomplete trie of the user names. */
+	private volatile AutocompleteTrie usernameTrie;
+
+	/**
+	 * The autocomplete trie of the subreddit names which is being rebuilt, the
+	 * subreddits created while rebuilding are added to it as well, so that they
+	 * are not lost once it is swapped in.
+	 */
+	private volatile AutocompleteTrie rebuildingSubredditNameTrie;
+
+	/**
+	 * The autocomplete trie of the user names which is being rebuilt, the users
+	 * activated while rebuilding are added to it as well, so that they are not
+	 * lost once it is swapped in.
+	 */
+	private volatile AutocompleteTrie rebuildingUsernameTrie;
+
+	/**
+	 * Instantiates a new autocomplete service.
+	 *
+	 * @param subredditRepository the subreddit repository
+	 * @param userRepository      the user repository
+	 * @param maximumSuggestions  the maximum no of suggestions returned for a
+	 *                            prefix
+	 */
+	public AutocompleteService(SubredditRepository subredditRepository, UserRepository userRepository,
+			@Value("${autocomplete.maximum.suggestions}") int maximumSuggestions) {
+		this.subredditRepository = subredditRepository;
+		this.userRepository = userRepository;
+		this.maximumSuggestions = maximumSuggestions;
+		this.subredditNameTrie = new AutocompleteTrie(maximumSuggestions);
+		this.usernameTrie = new AutocompleteTrie(maximumSuggestions);
+	}
+
+	/**
+	 * findSubredditNames method finds and returns the most popular subreddit names
+	 * which start with the prefix.
+	 *
+	 * @param prefix the prefix of the subreddit names.
+	 * @param limit  the maximum no of subreddit names to be returned.
+	 * @return the list of subreddit names in the descending order of post count.
+	 */
+	public List<String> findSubredditNames(String prefix, int limit) {
+		return subredditNameTrie.findTopSuggestions(prefix, limit);
+	}
+
+	/**
+	 * findUsernames method finds and returns the most active user names which
+	 * start with the prefix.
+	 *
+	 * @param prefix the prefix of the user names.
+	 * @param limit  the maximum no of user names to be returned.
+	 * @return the list of user names in the descending order of activity.
+	 */
+	public List<String> findUsernames(String prefix, int limit) {
+		return usernameTrie.findTopSuggestions(prefix, limit);
+	}
+
+	/**
+	 * addCreatedSubreddit method adds the subreddit name once the subreddit is
+	 * committed.
+	 *
+	 * @param subredditCreatedEvent the subreddit created event which holds the
+	 *                              subreddit details.
+	 */
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void addCreatedSubreddit(SubredditCreatedEvent subredditCreatedEvent) {
+		addName(subredditNameTrie, rebuildingSubredditNameTrie, subredditCreatedEvent.getName(), 0);
+	}
+
+	/**
+	 * addActivatedUser method adds the user name once the activation of the user
+	 * account is committed.
+	 *
+	 * @param userActivatedEvent the user activated event which holds the user
+	 *                           details.
+	 */
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void addActivatedUser(UserActivatedEvent userActivatedEvent) {
+		addName(usernameTrie, rebuildingUsernameTrie, userActivatedEvent.getUsername(), 0);
+	}
+
+	/**
+	 * rebuildAutocompleteTries method loads the subreddit names and user names
+	 * with their current popularity into new tries and swaps them in.
+	 */
+	@Scheduled(fixedDelayString = "${autocomplete.rebuild.interval.millis}")
+	public void rebuildAutocompleteTries() {
+		AutocompleteTrie newSubredditNameTrie = new AutocompleteTrie(maximumSuggestions);
+		rebuildingSubredditNameTrie = newSubredditNameTrie;
+		for (SubredditPostCountSnapshot subredditPostCountSnapshot : subredditRepository
+				.findAllSubredditPostCounts()) {
+			addName(newSubredditNameTrie, null, subredditPostCountSnapshot.getName(),
+					subredditPostCountSnapshot.getPostCount());
+		}
+		subredditNameTrie = newSubredditNameTrie;
+		rebuildingSubredditNameTrie = null;
+
+		AutocompleteTrie newUsernameTrie = new AutocompleteTrie(maximumSuggestions);
+		rebuildingUsernameTrie = newUsernameTrie;
+		for (UserActivitySnapshot userActivitySnapshot : userRepository.findAllUserActivities()) {
+			addName(newUsernameTrie, null, userActivitySnapshot.getUsername(),
+					userActivitySnapshot.getActivityCount());
+		}
+		usernameTrie = newUsernameTrie;
+		rebuildingUsernameTrie = null;
+		log.debug("Autocomplete tries rebuilt with {} subreddit names and {} user names",
+				newSubredditNameTrie.size(), newUsernameTrie.size());
+	}
+
+	/**
+	 * addName method adds the name to the current trie and to the trie which is
+	 * being rebuilt, empty names are skipped.
+	 *
+	 * @param currentTrie    the current trie.
+	 * @param rebuildingTrie the trie which is being rebuilt, null if none.
+	 * @param name           the name which needs to be added.
+	 * @param score          the score by which name is ranked.
+	 */
+	private static void addName(AutocompleteTrie currentTrie, AutocompleteTrie rebuildingTrie, String name,
+			long score) {
+		if (name == null || name.isEmpty()) {
+			return;
+		}
+		currentTrie.add(name, score);
+		if (rebuildingTrie != null) {
+			rebuildingTrie.add(name, score);
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.redditclone.demo.service;
+
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.redditclone.demo.repository.PostRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * CommentCountReconciliationService class provides method to backfill and
+ * reconcile the comment count maintained on each post with the actual count of
+ * comments. It runs shortly after start up to backfill the comment count of
+ * existing posts and then periodically to correct any drift.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CommentCountReconciliationService {
+
+	/**
+	 * The post repository which is used to reconcile the comment count of the
+	 * posts.
+	 */
+	private final PostRepository postRepository;
+
+	/**
+	 * The no of posts which comment count is reconciled with in a single
+	 * transaction.
+	 */
+	@Value("${post.comment.count.reconciliation.batch.size}")
+	private Long reconciliationBatchSize;
+
+	/**
+	 * reconcileCommentCounts method reconciles the comment count of all the posts
+	 * batch by batch of post id range, so that each transaction locks only the
+	 * small range of posts.
+	 */
+	@Scheduled(initialDelayString = "${post.comment.count.reconciliation.initial.delay.millis}",
+			fixedDelayString = "${post.comment.count.reconciliation.interval.millis}")
+	public void reconcileCommentCounts() {
+		Long maxPostId = postRepository.findMaxPostId();
+		if (Objects.isNull(maxPostId)) {
+			return;
+		}
+		int noOfCorrectedPosts = 0;
+		for (long fromPostId = 1; fromPostId <= maxPostId; fromPostId += reconciliationBatchSize) {
+			noOfCorrectedPosts += postRepository.reconcileCommentCounts(fromPostId,
+					fromPostId + reconciliationBatchSize - 1);
+		}
+		log.info("Comment count reconciliation completed, corrected comment count of {} posts", noOfCorrectedPosts);
+	}
+}
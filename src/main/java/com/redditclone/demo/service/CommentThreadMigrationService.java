@@ -0,0 +1,37 @@
+package com.redditclone.demo.service;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.redditclone.demo.repository.CommentRepository;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * CommentThreadMigrationService class provides method to thread the comments
+ * which are created before comments are threaded. It runs once after start up
+ * and assigns the thread path of such comments as top level comments of their
+ * posts.
+ */
+@Service
+@Slf4j
+@AllArgsConstructor
+public class CommentThreadMigrationService {
+
+	/** The comment repository which is used to assign the thread paths. */
+	private final CommentRepository commentRepository;
+
+	/**
+	 * migrateUnthreadedComments method assigns the thread path of the comments
+	 * which doesn't have thread path.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void migrateUnthreadedComments() {
+		int noOfThreadedComments = commentRepository.backfillThreadPaths();
+		if (noOfThreadedComments > 0) {
+			log.info("Assigned thread path of {} unthreaded comments as top level comments", noOfThreadedComments);
+		}
+	}
+}
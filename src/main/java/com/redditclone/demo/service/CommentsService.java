@@ -3,12 +3,20 @@ package com.redditclone.demo.service;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.redditclone.demo.constants.PaginationConstants;
 import com.redditclone.demo.dto.CommentDto;
+import com.redditclone.demo.dto.CommentPageCursor;
+import com.redditclone.demo.dto.CursorPageResponse;
+import com.redditclone.demo.event.CommentCreatedEvent;
+import com.redditclone.demo.exceptions.CommentNotFoundException;
 import com.redditclone.demo.exceptions.PostNotFoundException;
+import com.redditclone.demo.exceptions.RedditException;
 import com.redditclone.demo.mapper.CommentMapper;
 import com.redditclone.demo.model.Comment;
 import com.redditclone.demo.model.NotificationEmailInfo;
@@ -29,6 +37,18 @@ import lombok.AllArgsConstructor;
 @AllArgsConstructor
 public class CommentsService {
 
+	/**
+	 * The Constant THREAD_PATH_SEGMENT_LENGTH the no of base 36 digits of each
+	 * comment id in the thread path.
+	 */
+	private static final int THREAD_PATH_SEGMENT_LENGTH = 8;
+
+	/**
+	 * The Constant MAXIMUM_REPLY_DEPTH the maximum depth of the reply, so that
+	 * thread path of the deepest reply fits in the thread path column.
+	 */
+	private static final int MAXIMUM_REPLY_DEPTH = 29;
+
 	/** The comment mapper which used to map between comment model and dto. */
 	private final CommentMapper commentMapper;
 
@@ -59,17 +79,32 @@ public class CommentsService {
 	 */
 	private final UserRepository userRepository;
 
+	/**
+	 * The application event publisher which is used to publish the created
+	 * comments to the in memory views of the posts.
+	 */
+	private final ApplicationEventPublisher applicationEventPublisher;
+
 	/**
 	 * createAndSaveNewComment method create and save new comment information into
 	 * comment table in the database.It returns the the created comment info if
 	 * creation is successful. Also it notifies the author of the commented post via
-	 * email. <br>
+	 * email. Comment count of the related post is incremented with in the same
+	 * transaction and comment created event is published. <br>
 	 * 
 	 * For creation of comment it finds and use related post information by it's
 	 * name. Also it uses logged in user details as input.<br>
 	 * 
+	 * Reply is threaded under the parent comment, the thread path of the comment
+	 * is assigned once it's id is generated and the reply count of the parent
+	 * comment is incremented with in the same transaction.<br>
+	 * 
 	 * throws PostNotFoundException if related post information is not found.
 	 * 
+	 * throws CommentNotFoundException if parent comment is not found on the post.
+	 * 
+	 * throws RedditException if parent comment is at the maximum reply depth.
+	 * 
 	 * @param newCommentCreationRequest the comment dto information which needs to
 	 *                                  be created and saved.
 	 * @return the comment dto after saved into the table.
@@ -80,23 +115,73 @@ public class CommentsService {
 				.orElseThrow(() -> new PostNotFoundException(newCommentCreationRequest.getPostId().toString()));
 		Comment newlyCreatedCommentModel = commentMapper.mapCommentModelFromDto(newCommentCreationRequest, relatedPost,
 				authService.getCurrentLoggedInUser());
+		String parentThreadPath = "";
+		if (newCommentCreationRequest.getParentCommentId() != null) {
+			Comment parentComment = findParentComment(newCommentCreationRequest.getParentCommentId(),
+					relatedPost.getPostId());
+			newlyCreatedCommentModel.setDepth(parentComment.getDepth() + 1);
+			parentThreadPath = parentComment.getThreadPath();
+		}
+		Comment savedComment = commentRepository.save(newlyCreatedCommentModel);
+		savedComment.setThreadPath(parentThreadPath + toThreadPathSegment(savedComment.getId()));
+		if (savedComment.getParentCommentId() != null) {
+			commentRepository.incrementReplyCount(savedComment.getParentCommentId());
+		}
+		postRepository.incrementCommentCount(relatedPost.getPostId());
+		applicationEventPublisher
+				.publishEvent(new CommentCreatedEvent(relatedPost.getPostId(), savedComment.getId()));
 		sendCommentNotification(relatedPost, relatedPost.getUser());
-		return commentMapper.mapCommentDtoFromModel(commentRepository.save(newlyCreatedCommentModel));
+		return commentMapper.mapCommentDtoFromModel(savedComment);
 	}
 
 	/**
-	 * getCommentsByPostId method gets the matching comments information by post id
-	 * and returns it .
+	 * getCommentsByPostId method gets the page of comments of the post in thread
+	 * order, where each comment is followed by it's replies. Replies deeper than
+	 * the requested depth are not loaded, they can be loaded by the reply count
+	 * of their parent comment.
+	 *
+	 * throws PostNotFoundException if post is not found.
 	 *
-	 * @param postId the id of post which related comments needs to be found.
-	 * @return List<CommentDto> the matching list of comments information.
+	 * @param postId       the id of post which related comments needs to be
+	 *                     found.
+	 * @param pageCursor   the opaque page cursor returned with previous page, null
+	 *                     to fetch the first page.
+	 * @param pageSize     the no of comments to be returned in the page.
+	 * @param commentDepth the no of levels of the thread to be loaded.
+	 * @return CursorPageResponse<CommentDto> the page of comments in thread order.
 	 */
 	@Transactional(readOnly = true)
-	public List<CommentDto> getCommentsByPostId(Long postId) {
-		Post relatedPost = postRepository.findById(postId)
-				.orElseThrow(() -> new PostNotFoundException(postId.toString()));
-		return commentRepository.findAllByPost(relatedPost).stream().map(commentMapper::mapCommentDtoFromModel)
-				.collect(Collectors.toList());
+	public CursorPageResponse<CommentDto> getCommentsByPostId(Long postId, String pageCursor, int pageSize,
+			int commentDepth) {
+		CursorPageResponse<CommentDto> commentPage = getThreadPage(postId, "",
+				PaginationConstants.resolveCommentDepth(commentDepth) - 1, pageCursor, pageSize);
+		if (commentPage.getItems().isEmpty() && pageCursor == null && !postRepository.existsById(postId)) {
+			throw new PostNotFoundException(postId.toString());
+		}
+		return commentPage;
+	}
+
+	/**
+	 * getCommentReplies method gets the page of replies of the comment in thread
+	 * order, where each reply is followed by it's replies. Replies deeper than
+	 * the requested depth below the comment are not loaded.
+	 *
+	 * throws CommentNotFoundException if comment is not found.
+	 *
+	 * @param commentId    the id of comment which replies needs to be found.
+	 * @param pageCursor   the opaque page cursor returned with previous page, null
+	 *                     to fetch the first page.
+	 * @param pageSize     the no of replies to be returned in the page.
+	 * @param commentDepth the no of levels of the thread to be loaded.
+	 * @return CursorPageResponse<CommentDto> the page of replies in thread order.
+	 */
+	@Transactional(readOnly = true)
+	public CursorPageResponse<CommentDto> getCommentReplies(Long commentId, String pageCursor, int pageSize,
+			int commentDepth) {
+		Comment comment = commentRepository.findById(commentId)
+				.orElseThrow(() -> new CommentNotFoundException(commentId.toString()));
+		return getThreadPage(comment.getPost().getPostId(), comment.getThreadPath(),
+				comment.getDepth() + PaginationConstants.resolveCommentDepth(commentDepth), pageCursor, pageSize);
 	}
 
 	/**
@@ -114,6 +199,75 @@ public class CommentsService {
 				.collect(Collectors.toList());
 	}
 
+	/**
+	 * getThreadPage method gets the page of comments of the post under the thread
+	 * path prefix after the thread path of the page cursor by a single range of
+	 * the thread path index.
+	 *
+	 * @param postId           the id of post which comments needs to be found.
+	 * @param threadPathPrefix the thread path of the comment which replies needs
+	 *                         to be found, empty for all the comments of the post.
+	 * @param maximumDepth     the maximum depth of the comments.
+	 * @param pageCursor       the opaque page cursor returned with previous page,
+	 *                         null to fetch the first page.
+	 * @param pageSize         the no of comments to be returned in the page.
+	 * @return CursorPageResponse<CommentDto> the page of comments in thread order.
+	 */
+	private CursorPageResponse<CommentDto> getThreadPage(Long postId, String threadPathPrefix, int maximumDepth,
+			String pageCursor, int pageSize) {
+		int resolvedPageSize = PaginationConstants.resolvePageSize(pageSize);
+		String afterThreadPath = pageCursor == null ? threadPathPrefix
+				: CommentPageCursor.decodeCommentPageCursor(pageCursor).getThreadPath();
+		List<Comment> comments = commentRepository.findThreadCommentsAfter(postId, threadPathPrefix,
+				afterThreadPath, maximumDepth, PageRequest.of(0, resolvedPageSize + 1));
+		String nextCursor = null;
+		if (comments.size() > resolvedPageSize) {
+			comments = comments.subList(0, resolvedPageSize);
+			nextCursor = new CommentPageCursor(comments.get(resolvedPageSize - 1).getThreadPath())
+					.encodeCommentPageCursor();
+		}
+		return new CursorPageResponse<>(
+				comments.stream().map(commentMapper::mapCommentDtoFromModel).collect(Collectors.toList()),
+				nextCursor);
+	}
+
+	/**
+	 * findParentComment method finds the parent comment of the reply on the post.
+	 *
+	 * throws CommentNotFoundException if parent comment is not found on the post.
+	 *
+	 * throws RedditException if parent comment is at the maximum reply depth.
+	 *
+	 * @param parentCommentId the id of the parent comment.
+	 * @param postId          the id of the post on which reply is made.
+	 * @return the parent comment.
+	 */
+	private Comment findParentComment(Long parentCommentId, Long postId) {
+		Comment parentComment = commentRepository.findById(parentCommentId)
+				.filter(comment -> comment.getPost().getPostId().equals(postId))
+				.orElseThrow(() -> new CommentNotFoundException(parentCommentId.toString()));
+		if (parentComment.getDepth() >= MAXIMUM_REPLY_DEPTH) {
+			throw new RedditException("Maximum reply depth is reached for comment - " + parentCommentId);
+		}
+		return parentComment;
+	}
+
+	/**
+	 * toThreadPathSegment method returns the fixed width base 36 id of the comment
+	 * which is appended to the thread path of it's parent.
+	 *
+	 * @param commentId the id of the comment.
+	 * @return the thread path segment of the comment.
+	 */
+	private static String toThreadPathSegment(Long commentId) {
+		String base36CommentId = Long.toString(commentId, Character.MAX_RADIX);
+		StringBuilder threadPathSegment = new StringBuilder(THREAD_PATH_SEGMENT_LENGTH);
+		for (int index = base36CommentId.length(); index < THREAD_PATH_SEGMENT_LENGTH; index++) {
+			threadPathSegment.append('0');
+		}
+		return threadPathSegment.append(base36CommentId).toString();
+	}
+
 	/**
 	 * sendCommentNotification method builds content and send comment notification
 	 * to the author of the commented post via email.
@@ -1,5 +1,7 @@
 package com.redditclone.demo.service;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.springframework.mail.MailException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
@@ -33,9 +35,11 @@ public class MailSenderService {
 	 * email verification and activation of account.
 	 *
 	 * @param notificationEmailInfo the email notification info
+	 * @return the future which completes once the mail is sent, exceptionally with
+	 *         RedditException if mail can't be sent.
 	 */
 	@Async
-	public void sendMailNotification(NotificationEmailInfo notificationEmailInfo) {
+	public CompletableFuture<Void> sendMailNotification(NotificationEmailInfo notificationEmailInfo) {
 		MimeMessagePreparator mimeMessagePreparator = mimeMessage -> {
 			MimeMessageHelper mimeMessageHelper = new MimeMessageHelper(mimeMessage);
 			mimeMessageHelper.setFrom("user_verification@reddit.com");
@@ -59,6 +63,6 @@ public class MailSenderService {
 					"Exception occurred when sending mail to " + notificationEmailInfo.getRecipientEmailAddress(),
 					mailException);
 		}
-
+		return CompletableFuture.completedFuture(null);
 	}
 }
@@ -0,0 +1,300 @@
+package com.redditclone.demo.service;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.redditclone.demo.dto.CachedPost;
+import com.redditclone.demo.dto.PostDto;
+import com.redditclone.demo.event.CommentCreatedEvent;
+import com.redditclone.demo.event.PostCreatedEvent;
+import com.redditclone.demo.event.VoteCountsFlushedEvent;
+import com.redditclone.demo.mapper.PostMapper;
+import com.redditclone.demo.repository.PostRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * PostCacheService class provides read through cache of the part of post dto
+ * which is same for all the users. Cache is bounded by the approximate size of
+ * the cached posts and evicts by W-TinyLFU policy, so that frequently read
+ * posts stay in memory. Cached posts are updated in place once the vote counts
+ * are flushed and comments are committed. Loaded posts are cached only when no
+ * update of the post was being committed or got committed while loading, so
+ * that a load never overwrites a newer count update. Hit, miss and eviction
+ * statistics are exposed as cache metrics named posts.
+ */
+@Service
+public class PostCacheService {
+
+	/**
+	 * The Constant CACHED_POST_OVERHEAD_BYTES the approximate no of bytes of a
+	 * cached post excluding the text fields.
+	 */
+	private static final int CACHED_POST_OVERHEAD_BYTES = 256;
+
+	/**
+	 * The Constant NO_OF_UPDATE_STRIPES the no of stripes among which the posts
+	 * are distributed to track the committing updates, it must be a power of 2.
+	 */
+	private static final int NO_OF_UPDATE_STRIPES = 1024;
+
+	/** The post repository which is used to load the posts on cache miss. */
+	private final PostRepository postRepository;
+
+	/** The post mapper which is used to map the loaded posts to cached posts. */
+	private final PostMapper postMapper;
+
+	/** The cached posts mapped by post id. */
+	private final Cache<Long, CachedPost> cachedPostByPostId;
+
+	/**
+	 * The no of updates of the posts of the stripe which are being committed, the
+	 * loaded posts of the stripe are not cached while it is not zero.
+	 */
+	private final AtomicIntegerArray committingUpdates = new AtomicIntegerArray(NO_OF_UPDATE_STRIPES);
+
+	/**
+	 * The versions of the stripes which are incremented once an update of a post
+	 * of the stripe is completed, before the committing update count is
+	 * decremented.
+	 */
+	private final AtomicLongArray updateVersions = new AtomicLongArray(NO_OF_UPDATE_STRIPES);
+
+	/**
+	 * Instantiates a new post cache service.
+	 *
+	 * @param postRepository          the post repository
+	 * @param postMapper              the post mapper
+	 * @param meterRegistry           the meter registry to which cache statistics
+	 *                                are bound
+	 * @param maximumSizeInBytes      the maximum approximate size of cached posts
+	 * @param expireAfterWriteSeconds the seconds after which cached post is
+	 *                                reloaded from the post table
+	 */
+	public PostCacheService(PostRepository postRepository, PostMapper postMapper, MeterRegistry meterRegistry,
+			@Value("${post.cache.maximum.size.bytes}") long maximumSizeInBytes,
+			@Value("${post.cache.expire.after.write.seconds}") long expireAfterWriteSeconds) {
+		this.postRepository = postRepository;
+		this.postMapper = postMapper;
+		this.cachedPostByPostId = Caffeine.newBuilder().maximumWeight(maximumSizeInBytes)
+				.weigher((Long postId, CachedPost cachedPost) -> getSizeInBytes(cachedPost))
+				.expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds)).recordStats().build();
+		CaffeineCacheMetrics.monitor(meterRegistry, cachedPostByPostId, "posts");
+	}
+
+	/**
+	 * getCachedPost method returns the cached post of the post id, the post is
+	 * loaded along with it's author and related subreddit on cache miss.
+	 *
+	 * @param postId the post id which needs to be found.
+	 * @return the optional cached post, Optional.empty() if post is not found.
+	 */
+	public Optional<CachedPost> getCachedPost(Long postId) {
+		CachedPost cachedPost = cachedPostByPostId.getIfPresent(postId);
+		if (cachedPost != null) {
+			return Optional.of(cachedPost);
+		}
+		return Optional.ofNullable(loadCachedPosts(Collections.singletonList(postId)).get(postId));
+	}
+
+	/**
+	 * getCachedPosts method returns the cached posts of the post ids in the same
+	 * order, all the missing posts are loaded together with a single query. Post
+	 * ids which are not found are skipped.
+	 *
+	 * @param postIds the post ids which needs to be found.
+	 * @return the list of cached posts.
+	 */
+	public List<CachedPost> getCachedPosts(List<Long> postIds) {
+		Map<Long, CachedPost> cachedPostByRequestedPostId = new HashMap<>(cachedPostByPostId.getAllPresent(postIds));
+		List<Long> missingPostIds = postIds.stream()
+				.filter(postId -> !cachedPostByRequestedPostId.containsKey(postId)).distinct()
+				.collect(Collectors.toList());
+		if (!missingPostIds.isEmpty()) {
+			cachedPostByRequestedPostId.putAll(loadCachedPosts(missingPostIds));
+		}
+		return postIds.stream().map(cachedPostByRequestedPostId::get).filter(Objects::nonNull)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * evictCreatedPost method evicts the post id once the post is committed, so
+	 * that next read loads the committed post.
+	 *
+	 * @param postCreatedEvent the post created event which holds the post details.
+	 */
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void evictCreatedPost(PostCreatedEvent postCreatedEvent) {
+		cachedPostByPostId.invalidate(postCreatedEvent.getPostId());
+	}
+
+	/**
+	 * startFlushingVoteCounts method marks the vote count updates of the flushed
+	 * posts as committing, it is invoked with in the flush transaction.
+	 *
+	 * @param voteCountsFlushedEvent the vote counts flushed event which holds the
+	 *                               flushed vote deltas.
+	 */
+	@EventListener
+	public void startFlushingVoteCounts(VoteCountsFlushedEvent voteCountsFlushedEvent) {
+		voteCountsFlushedEvent.getFlushedVoteDeltaByPostId().keySet().forEach(this::startCommittingUpdate);
+	}
+
+	/**
+	 * updateFlushedVoteCounts method adds the flushed vote deltas to the vote count
+	 * of the cached posts once the flush is committed. It is ordered before the
+	 * completion of the update, so that no post is loaded in between.
+	 *
+	 * @param voteCountsFlushedEvent the vote counts flushed event which holds the
+	 *                               flushed vote deltas.
+	 */
+	@Order(0)
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+	public void updateFlushedVoteCounts(VoteCountsFlushedEvent voteCountsFlushedEvent) {
+		voteCountsFlushedEvent.getFlushedVoteDeltaByPostId()
+				.forEach((postId, voteDelta) -> cachedPostByPostId.asMap().computeIfPresent(postId,
+						(id, cachedPost) -> cachedPost.withVoteDelta(voteDelta)));
+	}
+
+	/**
+	 * completeFlushingVoteCounts method completes the vote count updates of the
+	 * flushed posts once the flush is committed or rolled back.
+	 *
+	 * @param voteCountsFlushedEvent the vote counts flushed event which holds the
+	 *                               flushed vote deltas.
+	 */
+	@Order(1)
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+	public void completeFlushingVoteCounts(VoteCountsFlushedEvent voteCountsFlushedEvent) {
+		voteCountsFlushedEvent.getFlushedVoteDeltaByPostId().keySet().forEach(this::completeCommittingUpdate);
+	}
+
+	/**
+	 * startCommentCountUpdate method marks the comment count update of the
+	 * commented post as committing, it is invoked with in the comment transaction.
+	 *
+	 * @param commentCreatedEvent the comment created event which holds the comment
+	 *                            details.
+	 */
+	@EventListener
+	public void startCommentCountUpdate(CommentCreatedEvent commentCreatedEvent) {
+		startCommittingUpdate(commentCreatedEvent.getPostId());
+	}
+
+	/**
+	 * updateCommentCount method increments the comment count of the cached post
+	 * once the comment is committed. It is ordered before the completion of the
+	 * update, so that no post is loaded in between.
+	 *
+	 * @param commentCreatedEvent the comment created event which holds the comment
+	 *                            details.
+	 */
+	@Order(0)
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+	public void updateCommentCount(CommentCreatedEvent commentCreatedEvent) {
+		cachedPostByPostId.asMap().computeIfPresent(commentCreatedEvent.getPostId(),
+				(postId, cachedPost) -> cachedPost.withCommentDelta(1));
+	}
+
+	/**
+	 * completeCommentCountUpdate method completes the comment count update of the
+	 * commented post once the comment is committed or rolled back.
+	 *
+	 * @param commentCreatedEvent the comment created event which holds the comment
+	 *                            details.
+	 */
+	@Order(1)
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+	public void completeCommentCountUpdate(CommentCreatedEvent commentCreatedEvent) {
+		completeCommittingUpdate(commentCreatedEvent.getPostId());
+	}
+
+	/**
+	 * loadCachedPosts method loads the posts of the post ids with a single query
+	 * and maps them to cached posts. A loaded post is cached only if the post is
+	 * still not cached and no update of it's stripe was committing or got
+	 * completed since the load started, otherwise the load could overwrite a
+	 * newer count update.
+	 *
+	 * @param postIds the post ids which needs to be loaded.
+	 * @return the loaded cached posts mapped by post id.
+	 */
+	private Map<Long, CachedPost> loadCachedPosts(List<Long> postIds) {
+		Map<Long, Long> updateVersionByPostId = new HashMap<>();
+		postIds.forEach(postId -> updateVersionByPostId.put(postId, updateVersions.get(getUpdateStripe(postId))));
+		Map<Long, CachedPost> loadedCachedPostByPostId = postRepository.findWithUserAndSubredditByPostIdIn(postIds)
+				.stream().map(postMapper::mapCachedPostFromModel)
+				.collect(Collectors.toMap(cachedPost -> cachedPost.getSharedPostDto().getPostId(), Function.identity()));
+		loadedCachedPostByPostId.forEach((postId, loadedCachedPost) -> cachedPostByPostId.asMap().compute(postId,
+				(id, cachedPost) -> cachedPost != null || !isNotUpdatedSince(id, updateVersionByPostId.get(id))
+						? cachedPost
+						: loadedCachedPost));
+		return loadedCachedPostByPostId;
+	}
+
+	/**
+	 * isNotUpdatedSince method checks whether no update of the stripe of the post
+	 * is committing and no update got completed after the update version was
+	 * read.
+	 *
+	 * @param postId        the post id
+	 * @param updateVersion the update version of the stripe read before loading
+	 *                      the post.
+	 * @return true, if the loaded post can be cached.
+	 */
+	private boolean isNotUpdatedSince(Long postId, long updateVersion) {
+		int updateStripe = getUpdateStripe(postId);
+		return committingUpdates.get(updateStripe) == 0 && updateVersions.get(updateStripe) == updateVersion;
+	}
+
+	private void startCommittingUpdate(Long postId) {
+		committingUpdates.incrementAndGet(getUpdateStripe(postId));
+	}
+
+	private void completeCommittingUpdate(Long postId) {
+		int updateStripe = getUpdateStripe(postId);
+		updateVersions.incrementAndGet(updateStripe);
+		committingUpdates.decrementAndGet(updateStripe);
+	}
+
+	private static int getUpdateStripe(Long postId) {
+		return Long.hashCode(postId) & (NO_OF_UPDATE_STRIPES - 1);
+	}
+
+	/**
+	 * getSizeInBytes method returns the approximate size of the cached post which
+	 * is used to bound the memory of the cache.
+	 *
+	 * @param cachedPost the cached post
+	 * @return the int the approximate size in bytes.
+	 */
+	private static int getSizeInBytes(CachedPost cachedPost) {
+		PostDto sharedPostDto = cachedPost.getSharedPostDto();
+		return CACHED_POST_OVERHEAD_BYTES + 2 * (getLength(sharedPostDto.getPostName())
+				+ getLength(sharedPostDto.getPostUrl()) + getLength(sharedPostDto.getDescription())
+				+ getLength(sharedPostDto.getSubredditName()) + getLength(sharedPostDto.getUsername()));
+	}
+
+	private static int getLength(String text) {
+		return text == null ? 0 : text.length();
+	}
+}
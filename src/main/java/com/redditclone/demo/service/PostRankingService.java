@@ -0,0 +1,679 @@
+package com.redditclone.demo.service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.redditclone.demo.dto.RankedPostPageCursor;
+import com.redditclone.demo.event.CommentCreatedEvent;
+import com.redditclone.demo.event.PostCreatedEvent;
+import com.redditclone.demo.event.VoteRegisteredEvent;
+import com.redditclone.demo.model.PostSortType;
+import com.redditclone.demo.repository.PostRepository;
+import com.redditclone.demo.repository.PostRepository.PostRankingSnapshot;
+import com.redditclone.demo.util.OffHeapPostStateTable;
+import com.redditclone.demo.util.OffHeapRankedFeed;
+
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * PostRankingService class ranks the posts by hot, top and rising scores which
+ * are computed from vote count, comment count and created date time of the
+ * posts. It materializes the feed of top ranked post ids and scores of all the
+ * posts and of each subreddit, which are loaded at start up and updated in
+ * place on post creation, vote and comment, so that a page of ranked posts is
+ * read from the feed without sorting the post table.<br>
+ *
+ * Committed posts, votes and comments are only queued on the request threads.
+ * They are applied to the ranking state and the feeds by a single writer at
+ * short intervals, so that voters never wait on each other or on the rebuild
+ * of the feeds. Each queued update gets the next ranking update sequence, and
+ * the posts loaded from the database remember the sequence read before the
+ * load, so that the updates already reflected in the loaded counts are skipped
+ * instead of being counted twice.<br>
+ *
+ * The ranking state is reconciled periodically with the vote count and comment
+ * count of the posts in the database, so that the state which drifted by an
+ * update lost or counted twice in the short window between commit and queue is
+ * corrected.<br>
+ *
+ * Ranking state of the posts and the feeds are held in direct buffers outside
+ * of the java heap, so that feeds of all the subreddits stay resident without
+ * adding objects per post to the heap which serves the requests. Feeds hold only
+ * the configured no of top ranked posts and are rebuilt periodically from the
+ * ranking state, so that posts which dropped out of a feed get back once the
+ * posts ranked above them lose rank. Feeds are rebuilt from a copy of the
+ * ranking state outside of the ranking write lock and swapped in, after the
+ * posts updated during the rebuild are offered to them again. The copy of the
+ * ranking state and the swapped out feeds are kept and refilled by the next
+ * rebuild, so that a rebuild doesn't allocate new direct buffers. Ranked pages
+ * of a feed end after the configured no of top ranked posts, like the listings
+ * of reddit.<br>
+ *
+ * Posts of a user are not materialized in feeds, so they are listed only by
+ * new sort type.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PostRankingService {
+
+	/**
+	 * The Constant SCORE_EPOCH_SECONDS the epoch seconds from which the age of the
+	 * posts is counted in hot and rising scores.
+	 */
+	private static final long SCORE_EPOCH_SECONDS = 1134028003L;
+
+	/**
+	 * The Constant HOT_SCORE_TIME_WEIGHT_SECONDS the seconds by which a newer post
+	 * gets the same hot score of ten times more votes.
+	 */
+	private static final double HOT_SCORE_TIME_WEIGHT_SECONDS = 45000d;
+
+	/**
+	 * The Constant RISING_SCORE_TIME_WEIGHT_SECONDS the seconds by which a newer
+	 * post gets the same rising score of ten times more votes and comments.
+	 */
+	private static final double RISING_SCORE_TIME_WEIGHT_SECONDS = 11250d;
+
+	/**
+	 * The Constant RANKED_SORT_TYPES the sort types which are ranked in feeds, the
+	 * index of the sort type is the segment of the feed.
+	 */
+	private static final PostSortType[] RANKED_SORT_TYPES = { PostSortType.HOT, PostSortType.TOP,
+			PostSortType.RISING };
+
+	/**
+	 * The Constant INITIAL_POST_STATE_CAPACITY the initial no of slots of the post
+	 * ranking state table.
+	 */
+	private static final int INITIAL_POST_STATE_CAPACITY = 1 << 16;
+
+	/** The post repository which is used to load the ranking details of posts. */
+	private final PostRepository postRepository;
+
+	/**
+	 * The vote aggregator service which is used to find the vote count changes of
+	 * the posts which are not yet flushed while loading.
+	 */
+	private final VoteAggregatorService voteAggregatorService;
+
+	/**
+	 * The ranking write lock which serializes the updates of the post ranking
+	 * state and the feeds, so that a feed is never updated with an older score.
+	 * It is held only by the loading, the queued updates and the swap of the
+	 * rebuilt feeds, never by the request threads.
+	 */
+	private final ReentrantLock rankingWriteLock = new ReentrantLock();
+
+	/** The ranking updates of the committed events which are not yet applied. */
+	private final Queue<RankingUpdate> queuedRankingUpdates = new ConcurrentLinkedQueue<>();
+
+	/** The sequence of the last queued ranking update. */
+	private final AtomicLong rankingUpdateSequence = new AtomicLong();
+
+	/**
+	 * The post ids which are updated while the feeds are rebuilt, null if feeds
+	 * are not being rebuilt. It is guarded by the ranking write lock.
+	 */
+	private Set<Long> postIdsUpdatedWhileRebuilding;
+
+	/** The ranking state of all the posts. */
+	private final OffHeapPostStateTable postStateTable = new OffHeapPostStateTable(INITIAL_POST_STATE_CAPACITY);
+
+	/**
+	 * The copy of the ranking state from which the feeds are rebuilt, reused by
+	 * each rebuild.
+	 */
+	private final OffHeapPostStateTable rebuildPostStateTable = new OffHeapPostStateTable(
+			INITIAL_POST_STATE_CAPACITY);
+
+	/** The feed of all the posts. */
+	private volatile PostFeed globalPostFeed;
+
+	/** The feed of the posts of each subreddit mapped by subreddit id. */
+	private volatile Map<Long, PostFeed> postFeedBySubredditId = new ConcurrentHashMap<>();
+
+	/**
+	 * The feed of all the posts swapped out by the last rebuild, which is refilled
+	 * by the next rebuild, null before the first rebuild.
+	 */
+	private PostFeed spareGlobalPostFeed;
+
+	/**
+	 * The feeds of the subreddits swapped out by the last rebuild, which are
+	 * refilled by the next rebuild.
+	 */
+	private Map<Long, PostFeed> sparePostFeedBySubredditId = new ConcurrentHashMap<>();
+
+	/** The no of posts which ranking details are loaded with a single query. */
+	@Value("${post.ranking.load.batch.size}")
+	private int loadBatchSize;
+
+	/** The maximum no of posts held in the feed of all the posts. */
+	@Value("${post.feed.global.capacity}")
+	private int globalFeedCapacity;
+
+	/** The maximum no of posts held in the feed of a subreddit. */
+	@Value("${post.feed.subreddit.capacity}")
+	private int subredditFeedCapacity;
+
+	/**
+	 * createGlobalPostFeed method creates the empty feed of all the posts.
+	 */
+	@PostConstruct
+	public void createGlobalPostFeed() {
+		globalPostFeed = new PostFeed(globalFeedCapacity);
+	}
+
+	/**
+	 * loadPostRanks method loads the ranking details of all the posts batch by
+	 * batch of post id and ranks them once application is started.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadPostRanks() {
+		loadRankingSnapshots();
+		log.info("Post ranks loaded for {} posts", postStateTable.size());
+	}
+
+	/**
+	 * reconcilePostRanks method reloads the ranking details of all the posts and
+	 * corrects the ranking state of the posts which drifted from their vote count
+	 * and comment count in the database.
+	 */
+	@Scheduled(initialDelayString = "${post.ranking.reconciliation.interval.millis}",
+			fixedDelayString = "${post.ranking.reconciliation.interval.millis}")
+	public void reconcilePostRanks() {
+		int noOfCorrectedPosts = loadRankingSnapshots();
+		log.info("Post ranking reconciliation completed, corrected ranking state of {} posts", noOfCorrectedPosts);
+	}
+
+	/**
+	 * loadRankingSnapshots method loads the ranking details of all the posts batch
+	 * by batch of post id. Posts which are not ranked yet are ranked, and the
+	 * ranking state of the ranked posts is replaced by the loaded counts unless an
+	 * update queued after the batch is read is already applied to them. The
+	 * ranking update sequence is read before each batch, so that the queued
+	 * updates of the votes and comments committed before the batch is read are
+	 * skipped once the loaded counts are applied.
+	 *
+	 * @return the int the no of ranked posts which ranking state is corrected.
+	 */
+	private int loadRankingSnapshots() {
+		int noOfCorrectedPosts = 0;
+		long afterPostId = 0;
+		List<PostRankingSnapshot> postRankingSnapshots;
+		do {
+			long loadedSequence = rankingUpdateSequence.get();
+			postRankingSnapshots = postRepository.findPostRankingSnapshotsAfter(afterPostId,
+					PageRequest.of(0, loadBatchSize));
+			rankingWriteLock.lock();
+			try {
+				for (PostRankingSnapshot postRankingSnapshot : postRankingSnapshots) {
+					if (applyRankingSnapshot(postRankingSnapshot, loadedSequence)) {
+						noOfCorrectedPosts++;
+					}
+					afterPostId = postRankingSnapshot.getPostId();
+				}
+			} finally {
+				rankingWriteLock.unlock();
+			}
+		} while (postRankingSnapshots.size() == loadBatchSize);
+		return noOfCorrectedPosts;
+	}
+
+	/**
+	 * queueCreatedPost method queues the newly created post to be ranked once it
+	 * is committed.
+	 *
+	 * @param postCreatedEvent the post created event which holds the post
+	 *                         details.
+	 */
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void queueCreatedPost(PostCreatedEvent postCreatedEvent) {
+		queueRankingUpdate(postCreatedEvent.getPostId(), true, postCreatedEvent.getSubredditId(),
+				postCreatedEvent.getCreatedDateTime().getEpochSecond(), 0, 0);
+	}
+
+	/**
+	 * queueVotedPost method queues the vote delta of the voted post to be reranked
+	 * once the vote is committed. It runs after the vote delta is added to the
+	 * pending vote deltas, so that a load which reads the sequence of the update
+	 * also finds it's vote delta.
+	 *
+	 * @param voteRegisteredEvent the vote registered event which holds the vote
+	 *                            details.
+	 */
+	@Order(1)
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void queueVotedPost(VoteRegisteredEvent voteRegisteredEvent) {
+		queueRankingUpdate(voteRegisteredEvent.getPostId(), false, 0, 0, voteRegisteredEvent.getVoteDelta(), 0);
+	}
+
+	/**
+	 * queueCommentedPost method queues the commented post to be reranked once the
+	 * comment is committed.
+	 *
+	 * @param commentCreatedEvent the comment created event which holds the comment
+	 *                            details.
+	 */
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void queueCommentedPost(CommentCreatedEvent commentCreatedEvent) {
+		queueRankingUpdate(commentCreatedEvent.getPostId(), false, 0, 0, 0, 1);
+	}
+
+	/**
+	 * queueRankingUpdate method queues the ranking update of the post with the
+	 * next ranking update sequence.
+	 *
+	 * @param postId              the post id of the changed post.
+	 * @param createdPost         whether the post is newly created.
+	 * @param subredditId         the subreddit id of the newly created post.
+	 * @param createdEpochSeconds the created epoch seconds of the newly created
+	 *                            post.
+	 * @param voteDelta           the change in vote count of the post.
+	 * @param commentDelta        the change in comment count of the post.
+	 */
+	private void queueRankingUpdate(long postId, boolean createdPost, long subredditId, long createdEpochSeconds,
+			int voteDelta, int commentDelta) {
+		queuedRankingUpdates.add(new RankingUpdate(rankingUpdateSequence.incrementAndGet(), postId, createdPost,
+				subredditId, createdEpochSeconds, voteDelta, commentDelta));
+	}
+
+	/**
+	 * applyQueuedRankingUpdates method applies the queued ranking updates to the
+	 * ranking state and the feeds in the order they are committed. A failed
+	 * update is logged and skipped, so that it doesn't hold the updates queued
+	 * after it.
+	 */
+	@Scheduled(fixedDelayString = "${post.ranking.update.interval.millis}")
+	public void applyQueuedRankingUpdates() {
+		if (queuedRankingUpdates.isEmpty()) {
+			return;
+		}
+		rankingWriteLock.lock();
+		try {
+			RankingUpdate rankingUpdate;
+			while ((rankingUpdate = queuedRankingUpdates.poll()) != null) {
+				try {
+					applyRankingUpdate(rankingUpdate);
+				} catch (RuntimeException exception) {
+					log.error("Ranking update of post {} failed", rankingUpdate.postId, exception);
+				}
+			}
+		} finally {
+			rankingWriteLock.unlock();
+		}
+	}
+
+	/**
+	 * rebuildPostFeeds method rebuilds the feeds from a copy of the ranking state
+	 * of all the posts without holding the ranking write lock. Posts updated
+	 * while rebuilding are offered again to the rebuilt feeds before they replace
+	 * the current feeds, so that their changes are not lost. The feeds swapped out
+	 * by the last rebuild are cleared and refilled instead of allocating new
+	 * feeds. Rebuilds run one at a time.
+	 */
+	@Scheduled(initialDelayString = "${post.feed.rebuild.interval.millis}",
+			fixedDelayString = "${post.feed.rebuild.interval.millis}")
+	public synchronized void rebuildPostFeeds() {
+		rankingWriteLock.lock();
+		try {
+			postStateTable.copyTo(rebuildPostStateTable);
+			postIdsUpdatedWhileRebuilding = new HashSet<>();
+		} finally {
+			rankingWriteLock.unlock();
+		}
+		PostFeed rebuiltGlobalPostFeed = spareGlobalPostFeed == null ? new PostFeed(globalFeedCapacity)
+				: spareGlobalPostFeed;
+		Map<Long, PostFeed> rebuiltPostFeedBySubredditId = sparePostFeedBySubredditId;
+		try {
+			rebuiltGlobalPostFeed.clear();
+			rebuiltPostFeedBySubredditId.values().forEach(PostFeed::clear);
+			for (int slot = 0; slot < rebuildPostStateTable.getSlotCapacity(); slot++) {
+				if (rebuildPostStateTable.getPostId(slot) != 0) {
+					offerPostRanks(rebuildPostStateTable, slot, rebuiltGlobalPostFeed,
+							rebuiltPostFeedBySubredditId.computeIfAbsent(rebuildPostStateTable.getSubredditId(slot),
+									subredditId -> new PostFeed(subredditFeedCapacity)));
+				}
+			}
+		} catch (RuntimeException exception) {
+			rankingWriteLock.lock();
+			try {
+				postIdsUpdatedWhileRebuilding = null;
+			} finally {
+				rankingWriteLock.unlock();
+			}
+			throw exception;
+		}
+		rankingWriteLock.lock();
+		try {
+			Set<Long> updatedPostIds = postIdsUpdatedWhileRebuilding;
+			postIdsUpdatedWhileRebuilding = null;
+			spareGlobalPostFeed = globalPostFeed;
+			sparePostFeedBySubredditId = postFeedBySubredditId;
+			globalPostFeed = rebuiltGlobalPostFeed;
+			postFeedBySubredditId = rebuiltPostFeedBySubredditId;
+			for (Long postId : updatedPostIds) {
+				int slot = postStateTable.findSlot(postId);
+				if (slot >= 0) {
+					offerPostRanks(slot);
+				}
+			}
+		} finally {
+			rankingWriteLock.unlock();
+		}
+	}
+
+	/**
+	 * getRankedPostIds method copies the post ids and scores of the page after the
+	 * given page cursor in the order of the sort type into the given arrays. It
+	 * reads only the requested no of entries from the feed without creating any
+	 * object per entry.
+	 *
+	 * @param postSortType the ranked sort type of the page.
+	 * @param subredditId  the subreddit id of the posts, null for all the posts.
+	 * @param pageCursor   the page cursor of the last post of the previous page,
+	 *                     null for the first page.
+	 * @param postIds      the array to which post ids are copied, it's length
+	 *                     limits the no of posts.
+	 * @param scores       the array to which scores are copied.
+	 * @return the int the no of copied posts.
+	 */
+	public int getRankedPostIds(PostSortType postSortType, Long subredditId, RankedPostPageCursor pageCursor,
+			long[] postIds, double[] scores) {
+		PostFeed postFeed = subredditId == null ? globalPostFeed : postFeedBySubredditId.get(subredditId);
+		if (postFeed == null) {
+			return 0;
+		}
+		int segment = getFeedSegment(postSortType);
+		long stamp = postFeed.feedLock.readLock();
+		try {
+			if (pageCursor == null) {
+				return postFeed.rankedFeed.read(segment, true, 0, 0, postIds, scores);
+			}
+			return postFeed.rankedFeed.read(segment, false, pageCursor.getScore(), pageCursor.getPostId(), postIds,
+					scores);
+		} finally {
+			postFeed.feedLock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * applyRankingSnapshot method ranks the post of the loaded ranking snapshot
+	 * if it is not ranked yet, or replaces the counts of the ranked post by the
+	 * loaded counts if no update queued after the loaded sequence is applied to
+	 * it. The loaded vote count includes the vote deltas which are not yet
+	 * flushed. Caller needs to hold the ranking write lock.
+	 *
+	 * @param postRankingSnapshot the loaded ranking snapshot of the post.
+	 * @param loadedSequence      the ranking update sequence read before the
+	 *                            snapshot is loaded.
+	 * @return true, if the counts of the ranked post are corrected.
+	 */
+	private boolean applyRankingSnapshot(PostRankingSnapshot postRankingSnapshot, long loadedSequence) {
+		long postId = postRankingSnapshot.getPostId();
+		int voteCount = Math.toIntExact(
+				postRankingSnapshot.getVoteCount() + voteAggregatorService.getPendingVoteDelta(postId));
+		int commentCount = postRankingSnapshot.getCommentCount();
+		int slot = postStateTable.findSlot(postId);
+		if (slot < 0) {
+			rankNewPost(postId, postRankingSnapshot.getSubredditId(),
+					postRankingSnapshot.getCreatedDateTime().getEpochSecond(), voteCount, commentCount,
+					loadedSequence);
+			return false;
+		}
+		if (postStateTable.getUpdatedSequence(slot) > loadedSequence) {
+			return false;
+		}
+		postStateTable.setLoadedSequence(slot, loadedSequence);
+		postStateTable.setUpdatedSequence(slot, loadedSequence);
+		if (postStateTable.getVoteCount(slot) == voteCount && postStateTable.getCommentCount(slot) == commentCount) {
+			return false;
+		}
+		postStateTable.setVoteCount(slot, voteCount);
+		postStateTable.setCommentCount(slot, commentCount);
+		offerPostRanks(slot);
+		return true;
+	}
+
+	/**
+	 * applyRankingUpdate method applies the ranking update to the ranking state
+	 * and offers the ranks of the post to the feeds. Updates of the posts which
+	 * are not ranked yet are ignored, as they are loaded with their latest counts,
+	 * and so are the updates which sequence is not after the loaded sequence of
+	 * the post, as they are already reflected in the loaded counts. Caller needs
+	 * to hold the ranking write lock.
+	 *
+	 * @param rankingUpdate the ranking update which needs to be applied.
+	 */
+	private void applyRankingUpdate(RankingUpdate rankingUpdate) {
+		if (rankingUpdate.createdPost) {
+			rankNewPost(rankingUpdate.postId, rankingUpdate.subredditId, rankingUpdate.createdEpochSeconds, 0, 0,
+					rankingUpdate.sequence);
+			return;
+		}
+		int slot = postStateTable.findSlot(rankingUpdate.postId);
+		if (slot >= 0 && rankingUpdate.sequence > postStateTable.getLoadedSequence(slot)) {
+			postStateTable.addVoteCount(slot, rankingUpdate.voteDelta);
+			postStateTable.addCommentCount(slot, rankingUpdate.commentDelta);
+			postStateTable.setUpdatedSequence(slot,
+					Math.max(postStateTable.getUpdatedSequence(slot), rankingUpdate.sequence));
+			offerPostRanks(slot);
+		}
+	}
+
+	/**
+	 * rankNewPost method adds the ranking state of the post and offers it's ranks
+	 * to the feeds if the post is not already ranked. Caller needs to hold the
+	 * ranking write lock.
+	 *
+	 * @param postId              the post id
+	 * @param subredditId         the subreddit id of the post.
+	 * @param createdEpochSeconds the created epoch seconds of the post.
+	 * @param voteCount           the vote count of the post.
+	 * @param commentCount        the comment count of the post.
+	 * @param sequence            the ranking update sequence up to which the
+	 *                            updates are reflected in the counts.
+	 */
+	private void rankNewPost(long postId, long subredditId, long createdEpochSeconds, int voteCount,
+			int commentCount, long sequence) {
+		int slot = postStateTable.putIfAbsent(postId, subredditId, createdEpochSeconds, voteCount, commentCount);
+		if (slot >= 0) {
+			postStateTable.setLoadedSequence(slot, sequence);
+			postStateTable.setUpdatedSequence(slot, sequence);
+			offerPostRanks(slot);
+		}
+	}
+
+	/**
+	 * offerPostRanks method offers the ranks of the post of the slot to the
+	 * current feeds, and records the post if the feeds are being rebuilt. Caller
+	 * needs to hold the ranking write lock.
+	 *
+	 * @param slot the slot of the post in the ranking state table.
+	 */
+	private void offerPostRanks(int slot) {
+		offerPostRanks(postStateTable, slot, globalPostFeed, postFeedBySubredditId.computeIfAbsent(
+				postStateTable.getSubredditId(slot), subredditId -> new PostFeed(subredditFeedCapacity)));
+		if (postIdsUpdatedWhileRebuilding != null) {
+			postIdsUpdatedWhileRebuilding.add(postStateTable.getPostId(slot));
+		}
+	}
+
+	/**
+	 * offerPostRanks method computes the scores of the post of the slot of the
+	 * given ranking state and offers them to the given feeds.
+	 *
+	 * @param rankingState      the ranking state table of the posts.
+	 * @param slot              the slot of the post in the ranking state table.
+	 * @param globalFeed        the feed of all the posts.
+	 * @param subredditPostFeed the feed of the subreddit of the post.
+	 */
+	private static void offerPostRanks(OffHeapPostStateTable rankingState, int slot, PostFeed globalFeed,
+			PostFeed subredditPostFeed) {
+		long postId = rankingState.getPostId(slot);
+		long createdEpochSeconds = rankingState.getCreatedEpochSeconds(slot);
+		int voteCount = rankingState.getVoteCount(slot);
+		int commentCount = rankingState.getCommentCount(slot);
+		for (int segment = 0; segment < RANKED_SORT_TYPES.length; segment++) {
+			double score = computeScore(RANKED_SORT_TYPES[segment], createdEpochSeconds, voteCount, commentCount);
+			globalFeed.offer(segment, postId, score);
+			subredditPostFeed.offer(segment, postId, score);
+		}
+	}
+
+	/**
+	 * getFeedSegment method returns the segment of the feed which holds the ranks
+	 * of the sort type.
+	 *
+	 * @param postSortType the ranked sort type.
+	 * @return the int the segment of the feed.
+	 */
+	private static int getFeedSegment(PostSortType postSortType) {
+		for (int segment = 0; segment < RANKED_SORT_TYPES.length; segment++) {
+			if (RANKED_SORT_TYPES[segment] == postSortType) {
+				return segment;
+			}
+		}
+		throw new IllegalArgumentException("Post sort type " + postSortType + " is not ranked");
+	}
+
+	/**
+	 * computeScore method computes the score of the post for the sort type.<br>
+	 *
+	 * hot score is the order of magnitude of the vote count signed by the vote
+	 * count, plus the age of the post weighted so that a post which is 12.5 hours
+	 * newer needs ten times less votes.<br>
+	 *
+	 * top score is the vote count.<br>
+	 *
+	 * rising score is the order of magnitude of the positive vote count and the
+	 * comment count, plus the age of the post weighted four times more than hot.
+	 *
+	 * @param postSortType        the ranked sort type.
+	 * @param createdEpochSeconds the created epoch seconds of the post.
+	 * @param voteCount           the vote count of the post.
+	 * @param commentCount        the comment count of the post.
+	 * @return the double the score of the post.
+	 */
+	static double computeScore(PostSortType postSortType, long createdEpochSeconds, int voteCount,
+			int commentCount) {
+		long ageSeconds = createdEpochSeconds - SCORE_EPOCH_SECONDS;
+		switch (postSortType) {
+		case HOT:
+			return Integer.signum(voteCount) * Math.log10(Math.max(Math.abs(voteCount), 1))
+					+ ageSeconds / HOT_SCORE_TIME_WEIGHT_SECONDS;
+		case TOP:
+			return voteCount;
+		case RISING:
+			return Math.log10(Math.max(Math.max(voteCount, 0) + commentCount, 1))
+					+ ageSeconds / RISING_SCORE_TIME_WEIGHT_SECONDS;
+		default:
+			throw new IllegalArgumentException("Post sort type " + postSortType + " is not ranked");
+		}
+	}
+
+	/**
+	 * PostFeed class holds the off heap ranked feed of a subreddit or all the
+	 * posts with one segment per ranked sort type, guarded by a lock of it's own
+	 * which lets the page reads run concurrently.
+	 */
+	private static class PostFeed {
+
+		/** The ranked feed which holds one segment per ranked sort type. */
+		private final OffHeapRankedFeed rankedFeed;
+
+		/** The feed lock which guards the ranked feed of this feed only. */
+		private final StampedLock feedLock = new StampedLock();
+
+		/**
+		 * Instantiates a new post feed.
+		 *
+		 * @param feedCapacity the maximum no of posts held in each segment
+		 */
+		PostFeed(int feedCapacity) {
+			this.rankedFeed = new OffHeapRankedFeed(RANKED_SORT_TYPES.length, feedCapacity);
+		}
+
+		/**
+		 * offer method offers the score of the post to the segment of the ranked
+		 * feed under the write lock of the feed.
+		 *
+		 * @param segment the segment of the ranked sort type.
+		 * @param postId  the post id.
+		 * @param score   the score of the post for the ranked sort type.
+		 */
+		void offer(int segment, long postId, double score) {
+			long stamp = feedLock.writeLock();
+			try {
+				rankedFeed.offer(segment, postId, score);
+			} finally {
+				feedLock.unlockWrite(stamp);
+			}
+		}
+
+		/**
+		 * clear method removes all the posts of the ranked feed under the write lock
+		 * of the feed.
+		 */
+		void clear() {
+			long stamp = feedLock.writeLock();
+			try {
+				rankedFeed.clear();
+			} finally {
+				feedLock.unlockWrite(stamp);
+			}
+		}
+	}
+
+	/**
+	 * RankingUpdate class holds the change of the ranking state of a post made by
+	 * a committed post, vote or comment.
+	 */
+	@AllArgsConstructor
+	private static class RankingUpdate {
+
+		/** The ranking update sequence of the update. */
+		private final long sequence;
+
+		/** The post id of the changed post. */
+		private final long postId;
+
+		/** Whether the post is newly created. */
+		private final boolean createdPost;
+
+		/** The subreddit id of the newly created post. */
+		private final long subredditId;
+
+		/** The created epoch seconds of the newly created post. */
+		private final long createdEpochSeconds;
+
+		/** The change in vote count of the post. */
+		private final int voteDelta;
+
+		/** The change in comment count of the post. */
+		private final int commentDelta;
+	}
+}
@@ -1,17 +1,30 @@
 package com.redditclone.demo.service;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.redditclone.demo.constants.PaginationConstants;
+import com.redditclone.demo.dto.CachedPost;
+import com.redditclone.demo.dto.CursorPageResponse;
 import com.redditclone.demo.dto.PostDto;
+import com.redditclone.demo.dto.PostPageCursor;
+import com.redditclone.demo.dto.RankedPostPageCursor;
+import com.redditclone.demo.event.PostCreatedEvent;
 import com.redditclone.demo.exceptions.PostNotFoundException;
+import com.redditclone.demo.exceptions.RedditException;
 import com.redditclone.demo.exceptions.SubredditNotFoundException;
 import com.redditclone.demo.mapper.PostMapper;
 import com.redditclone.demo.model.Post;
+import com.redditclone.demo.model.PostSortType;
 import com.redditclone.demo.model.Subreddit;
 import com.redditclone.demo.model.User;
 import com.redditclone.demo.repository.PostRepository;
@@ -47,20 +60,44 @@ public class PostService {
 	 */
 	private final SubredditRepository subredditRepository;
 
+	/**
+	 * The subreddit name index service which is used to resolve the subreddit for
+	 * which post is related to by it's name without querying the subreddit table.
+	 */
+	private final SubredditNameIndexService subredditNameIndexService;
+
 	/**
 	 * The user repository which is used to find the user information from the user
 	 * table in the database by username.
 	 */
 	private final UserRepository userRepository;
 
+	/**
+	 * The post ranking service which is used to find the ranked pages of posts
+	 * for hot, top and rising sort types.
+	 */
+	private final PostRankingService postRankingService;
+
+	/**
+	 * The application event publisher which is used to publish the created posts
+	 * to the in memory views of the posts.
+	 */
+	private final ApplicationEventPublisher applicationEventPublisher;
+
+	/**
+	 * The post cache service which is used to read the posts through the cache of
+	 * the part of post dto same for all the users.
+	 */
+	private final PostCacheService postCacheService;
 
 	/**
 	 * createAndSaveNewPost method create and save new post information into post
 	 * table in the database.It returns the the created post info if creation is
 	 * successful. <br>
 	 * 
-	 * For creation of post it finds and use related subreddit information by it's
-	 * name. Also it uses logged in user details as input.<br>
+	 * For creation of post it resolves the related subreddit by it's name from the
+	 * subreddit name index and increments the post count of the subreddit. Also it
+	 * uses logged in user details as input.<br>
 	 * 
 	 * throws SubredditNotFoundException if related subreddit information is not
 	 * found.
@@ -71,68 +108,191 @@ public class PostService {
 	 */
 	@Transactional
 	public PostDto createAndSaveNewPost(PostDto newPostCreationRequest) {
-		Subreddit relatedSubreddit = subredditRepository.findByName(newPostCreationRequest.getSubredditName())
+		Subreddit relatedSubreddit = subredditNameIndexService
+				.getSubredditReference(newPostCreationRequest.getSubredditName())
 				.orElseThrow(() -> new SubredditNotFoundException(newPostCreationRequest.getSubredditName()));
 		Post newlyCreatedPostModel = postMapper.mapPostModelFromDto(newPostCreationRequest, relatedSubreddit,
 				authService.getCurrentLoggedInUser());
-		return postMapper.mapPostDtoFromModel(postRepository.save(newlyCreatedPostModel));
+		Post savedPost = postRepository.save(newlyCreatedPostModel);
+		subredditRepository.incrementPostCount(relatedSubreddit.getId());
+		applicationEventPublisher.publishEvent(
+				new PostCreatedEvent(savedPost.getPostId(), relatedSubreddit.getId(), savedPost.getCreatedDateTime()));
+		return postMapper.mapPostDtoFromModel(savedPost);
 	}
 
 	/**
-	 * getPost method get and returns the post by id.
+	 * getPost method get and returns the post by id. Post is read through the post
+	 * cache and the fields which change with time and logged in user are applied
+	 * after the cache lookup.
 	 *
 	 * throws PostNotFoundException if matching post is not found.
 	 * 
 	 * @param id the id which related post needs to be found.
 	 * @return the post which is related to id.
 	 */
-	@Transactional(readOnly = true)
 	public PostDto getPost(Long id) {
-		Post relatedPost = postRepository.findById(id).orElseThrow(() -> new PostNotFoundException(id.toString()));
-		return postMapper.mapPostDtoFromModel(relatedPost);
+		CachedPost cachedPost = postCacheService.getCachedPost(id)
+				.orElseThrow(() -> new PostNotFoundException(id.toString()));
+		return postMapper.mapPostDtoListFromCachedPosts(Collections.singletonList(cachedPost)).get(0);
 	}
 
 	/**
-	 * getAllPosts method fetches and returns all posts.
+	 * getAllPosts method fetches and returns the page of posts in the order of the
+	 * sort type after the given page cursor. Latest posts are fetched from the post
+	 * table and ranked posts are fetched from the feed of all the posts, which holds
+	 * only the configured no of top ranked posts. Last page of the feed has no
+	 * next page cursor.
 	 *
-	 * @return List<PostDto> the all posts.
+	 * @param postSortType the sort type of the posts.
+	 * @param pageCursor   the opaque page cursor returned with previous page, null
+	 *                     to fetch the first page.
+	 * @param pageSize     the no of posts to be returned in the page.
+	 * @return CursorPageResponse<PostDto> the page of sorted posts.
 	 */
 	@Transactional(readOnly = true)
-	public List<PostDto> getAllPosts() {
-		return postRepository.findAll().stream().map(postMapper::mapPostDtoFromModel).collect(Collectors.toList());
+	public CursorPageResponse<PostDto> getAllPosts(PostSortType postSortType, String pageCursor, int pageSize) {
+		if (postSortType != PostSortType.NEW) {
+			return prepareRankedPostPage(postSortType, null, pageCursor, pageSize);
+		}
+		Pageable pageable = getKeysetPageable(pageSize);
+		if (pageCursor == null) {
+			return preparePostPage(postRepository.findLatestPosts(pageable), pageable);
+		}
+		PostPageCursor postPageCursor = PostPageCursor.decodePostPageCursor(pageCursor);
+		return preparePostPage(postRepository.findLatestPostsBefore(postPageCursor.getCreatedDateTime(),
+				postPageCursor.getPostId(), pageable), pageable);
 	}
 
 	/**
-	 * getPostsBySubredditId method gets the matching posts information by related
-	 * subreddit id and returns it .
+	 * getPostsBySubredditId method gets the page of posts related to subreddit id
+	 * in the order of the sort type after the given page cursor and returns it .
+	 * Ranked posts are fetched from the feed of the subreddit, which holds only the
+	 * configured no of top ranked posts. Last page of the feed has no next page
+	 * cursor.
 	 *
 	 * throws SubredditNotFoundException if related subreddit information is not
 	 * found.
 	 * 
-	 * @param subredditId the id of subreddit which related posts needs to be found.
-	 * @return List<PostDto> the list of matching post dto's.
+	 * @param subredditId  the id of subreddit which related posts needs to be
+	 *                     found.
+	 * @param postSortType the sort type of the posts.
+	 * @param pageCursor   the opaque page cursor returned with previous page, null
+	 *                     to fetch the first page.
+	 * @param pageSize     the no of posts to be returned in the page.
+	 * @return CursorPageResponse<PostDto> the page of matching post dto's.
 	 */
 	@Transactional(readOnly = true)
-	public List<PostDto> getPostsBySubredditId(Long subredditId) {
+	public CursorPageResponse<PostDto> getPostsBySubredditId(Long subredditId, PostSortType postSortType,
+			String pageCursor, int pageSize) {
 		Subreddit relatedSubreddit = subredditRepository.findById(subredditId)
 				.orElseThrow(() -> new SubredditNotFoundException(subredditId.toString()));
-		return postRepository.findAllByRelatedSubreddit(relatedSubreddit).stream().map(postMapper::mapPostDtoFromModel)
-				.collect(Collectors.toList());
+		if (postSortType != PostSortType.NEW) {
+			return prepareRankedPostPage(postSortType, subredditId, pageCursor, pageSize);
+		}
+		Pageable pageable = getKeysetPageable(pageSize);
+		if (pageCursor == null) {
+			return preparePostPage(postRepository.findLatestPostsByRelatedSubreddit(relatedSubreddit, pageable),
+					pageable);
+		}
+		PostPageCursor postPageCursor = PostPageCursor.decodePostPageCursor(pageCursor);
+		return preparePostPage(postRepository.findLatestPostsByRelatedSubredditBefore(relatedSubreddit,
+				postPageCursor.getCreatedDateTime(), postPageCursor.getPostId(), pageable), pageable);
 	}
 
 	/**
-	 * getPostsByUserName method get the matching posts information by username and
-	 * returns it .
+	 * getPostsByUserName method get the page of latest posts of the user after the
+	 * given page cursor and returns it . Posts of a user are not materialized in
+	 * feeds, so they are listed only by new sort type.
+	 *
+	 * throws RedditException if sort type is not new.
 	 *
-	 * @param username the username of which related posts needs to be found.
-	 * @return List<PostDto> the list of matching post dto's.
+	 * @param username     the username of which related posts needs to be found.
+	 * @param postSortType the sort type of the posts, only new is supported.
+	 * @param pageCursor   the opaque page cursor returned with previous page, null
+	 *                     to fetch the first page.
+	 * @param pageSize     the no of posts to be returned in the page.
+	 * @return CursorPageResponse<PostDto> the page of matching post dto's.
 	 */
 	@Transactional(readOnly = true)
-	public List<PostDto> getPostsByUserName(String username) {
+	public CursorPageResponse<PostDto> getPostsByUserName(String username, PostSortType postSortType,
+			String pageCursor, int pageSize) {
 		User user = userRepository.findByUsername(username)
 				.orElseThrow(() -> new UsernameNotFoundException("User name not found - " + username));
-		return postRepository.findAllByUser(user).stream()
-				.map(postMapper::mapPostDtoFromModel).collect(Collectors.toList());
+		if (postSortType != PostSortType.NEW) {
+			throw new RedditException("Post sort type " + postSortType + " is not supported for the posts of a user");
+		}
+		Pageable pageable = getKeysetPageable(pageSize);
+		if (pageCursor == null) {
+			return preparePostPage(postRepository.findLatestPostsByUser(user, pageable), pageable);
+		}
+		PostPageCursor postPageCursor = PostPageCursor.decodePostPageCursor(pageCursor);
+		return preparePostPage(postRepository.findLatestPostsByUserBefore(user, postPageCursor.getCreatedDateTime(),
+				postPageCursor.getPostId(), pageable), pageable);
+	}
+
+	/**
+	 * getKeysetPageable method returns the pageable which fetches one post more
+	 * than the bounded page size, so that presence of next page can be found
+	 * without a separate count query.
+	 *
+	 * @param pageSize the no of posts requested for the page.
+	 * @return the pageable which will be used for keyset queries.
+	 */
+	private Pageable getKeysetPageable(int pageSize) {
+		return PageRequest.of(0, PaginationConstants.resolvePageSize(pageSize) + 1);
+	}
+
+	/**
+	 * preparePostPage method maps the fetched posts into post page and prepares
+	 * the next page cursor from the last post of the page if there is next page.
+	 *
+	 * @param fetchedPosts the posts fetched with keyset pageable.
+	 * @param pageable     the keyset pageable used to fetch the posts.
+	 * @return CursorPageResponse<PostDto> the page of post dto's.
+	 */
+	private CursorPageResponse<PostDto> preparePostPage(List<Post> fetchedPosts, Pageable pageable) {
+		int pageSize = pageable.getPageSize() - 1;
+		boolean hasNextPage = fetchedPosts.size() > pageSize;
+		List<Post> pagePosts = hasNextPage ? fetchedPosts.subList(0, pageSize) : fetchedPosts;
+		String nextCursor = hasNextPage ? PostPageCursor.encodePostPageCursor(pagePosts.get(pagePosts.size() - 1))
+				: null;
+		return CursorPageResponse.<PostDto>builder()
+				.items(postMapper.mapPostDtoListFromModels(pagePosts)).nextCursor(nextCursor).build();
+	}
+
+	/**
+	 * prepareRankedPostPage method reads the post ids of the page from the feed of
+	 * the sort type, reads the ranked posts through the post cache and prepares
+	 * the next page cursor from the score of last post of the page if there is
+	 * next page.
+	 *
+	 * @param postSortType the ranked sort type of the posts.
+	 * @param subredditId  the id of subreddit which related posts needs to be
+	 *                     ranked, null for all the posts.
+	 * @param pageCursor   the opaque page cursor returned with previous page, null
+	 *                     to fetch the first page.
+	 * @param pageSize     the no of posts requested for the page.
+	 * @return CursorPageResponse<PostDto> the page of ranked post dto's.
+	 */
+	private CursorPageResponse<PostDto> prepareRankedPostPage(PostSortType postSortType, Long subredditId,
+			String pageCursor, int pageSize) {
+		int resolvedPageSize = PaginationConstants.resolvePageSize(pageSize);
+		RankedPostPageCursor rankedPostPageCursor = pageCursor == null ? null
+				: RankedPostPageCursor.decodeRankedPostPageCursor(pageCursor);
+		long[] rankedPostIds = new long[resolvedPageSize + 1];
+		double[] rankedScores = new double[resolvedPageSize + 1];
+		int noOfRankedPosts = postRankingService.getRankedPostIds(postSortType, subredditId, rankedPostPageCursor,
+				rankedPostIds, rankedScores);
+		boolean hasNextPage = noOfRankedPosts > resolvedPageSize;
+		int noOfPagePosts = Math.min(noOfRankedPosts, resolvedPageSize);
+		List<CachedPost> pageCachedPosts = postCacheService.getCachedPosts(
+				Arrays.stream(rankedPostIds, 0, noOfPagePosts).boxed().collect(Collectors.toList()));
+		String nextCursor = hasNextPage
+				? new RankedPostPageCursor(rankedScores[noOfPagePosts - 1], rankedPostIds[noOfPagePosts - 1])
+						.encodeRankedPostPageCursor()
+				: null;
+		return CursorPageResponse.<PostDto>builder()
+				.items(postMapper.mapPostDtoListFromCachedPosts(pageCachedPosts)).nextCursor(nextCursor).build();
 	}
 
 }
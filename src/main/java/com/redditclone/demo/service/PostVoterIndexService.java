@@ -0,0 +1,235 @@
+package com.redditclone.demo.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.redditclone.demo.event.VoteRegisteredEvent;
+import com.redditclone.demo.model.VoteType;
+import com.redditclone.demo.repository.VoteRepository;
+import com.redditclone.demo.repository.VoteRepository.PostVoter;
+
+/**
+ * PostVoterIndexService class holds the upvoters and downvoters of each post
+ * in compressed bitmaps of user ids, so that the vote type made by the logged
+ * in user on a page of posts can be found from memory. Voters of a post are
+ * loaded lazily on first lookup, kept current from the registered votes and
+ * evicted when the total size of the bitmaps exceeds the configured limit.
+ */
+@Service
+public class PostVoterIndexService {
+
+	/**
+	 * The Constant NO_OF_VERSION_STRIPES no of stripes of the version counters
+	 * which are used to find whether the voters of a post are changed while they
+	 * are being loaded.
+	 */
+	private static final int NO_OF_VERSION_STRIPES = 1024;
+
+	/** The vote repository which is used to load the voters of the posts. */
+	private final VoteRepository voteRepository;
+
+	/**
+	 * The transaction template which is used to load the voters of the posts with
+	 * in a new transaction, so that loaded voters are not older than the version
+	 * counters read before loading.
+	 */
+	private final TransactionTemplate transactionTemplate;
+
+	/** The voters of each post mapped by post id. */
+	private final Cache<Long, PostVoters> postVotersByPostId;
+
+	/**
+	 * The version counters which are incremented on every vote registered on a
+	 * post of the respective stripe.
+	 */
+	private final AtomicLongArray voterVersions = new AtomicLongArray(NO_OF_VERSION_STRIPES);
+
+	/**
+	 * Instantiates a new post voter index service.
+	 *
+	 * @param voteRepository     the vote repository
+	 * @param transactionManager the transaction manager
+	 * @param maximumSizeInBytes the maximum total size of the voter bitmaps held
+	 *                           in memory
+	 */
+	public PostVoterIndexService(VoteRepository voteRepository, PlatformTransactionManager transactionManager,
+			@Value("${post.voter.index.maximum.size.bytes}") long maximumSizeInBytes) {
+		this.voteRepository = voteRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.transactionTemplate.setReadOnly(true);
+		this.postVotersByPostId = Caffeine.newBuilder().maximumWeight(maximumSizeInBytes)
+				.weigher((Long postId, PostVoters postVoters) -> postVoters.getSizeInBytes()).build();
+	}
+
+	/**
+	 * getVoteTypeByPostId method finds the vote type made by the user on each
+	 * given post. Voters of the posts which are not in memory are loaded together
+	 * with a single query.
+	 *
+	 * @param userId  the user id for which vote types needs to be found.
+	 * @param postIds the post ids for which vote types needs to be found.
+	 * @return the vote type made by the user mapped by post id, posts without any
+	 *         vote of the user are not mapped.
+	 */
+	public Map<Long, VoteType> getVoteTypeByPostId(Long userId, Collection<Long> postIds) {
+		Map<Long, PostVoters> postVotersByRequestedPostId = new HashMap<>(postVotersByPostId.getAllPresent(postIds));
+		if (postVotersByRequestedPostId.size() < postIds.size()) {
+			List<Long> missingPostIds = new ArrayList<>();
+			postIds.stream().filter(postId -> !postVotersByRequestedPostId.containsKey(postId))
+					.forEach(missingPostIds::add);
+			postVotersByRequestedPostId.putAll(loadPostVoters(missingPostIds));
+		}
+		int voterId = Math.toIntExact(userId);
+		Map<Long, VoteType> voteTypeByPostId = new HashMap<>();
+		postVotersByRequestedPostId.forEach((postId, postVoters) -> {
+			VoteType voteType = postVoters.getVoteType(voterId);
+			if (voteType != null) {
+				voteTypeByPostId.put(postId, voteType);
+			}
+		});
+		return voteTypeByPostId;
+	}
+
+	/**
+	 * registerVoter method moves the user to the voters of the registered vote
+	 * type of the post once the vote is committed. It is ignored if the voters of
+	 * the post are not in memory, as they will be loaded with the vote on next
+	 * lookup.
+	 *
+	 * @param voteRegisteredEvent the vote registered event which holds the vote
+	 *                            details.
+	 */
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void registerVoter(VoteRegisteredEvent voteRegisteredEvent) {
+		Long postId = voteRegisteredEvent.getPostId();
+		int voterId = Math.toIntExact(voteRegisteredEvent.getUserId());
+		// incremented before the update, so that loads which may have missed the vote are not cached
+		voterVersions.incrementAndGet(getVersionStripe(postId));
+		postVotersByPostId.asMap().computeIfPresent(postId, (id, postVoters) -> {
+			postVoters.setVoteType(voterId, voteRegisteredEvent.getVoteType());
+			return postVoters;
+		});
+	}
+
+	/**
+	 * loadPostVoters method loads the voters of the given posts with a single
+	 * query and puts them in memory. Version of each post is read before the
+	 * query, and loaded voters of a post are not put in memory if the version is
+	 * changed by any vote registered on the post while loading, but still used
+	 * for the current lookup.
+	 *
+	 * @param postIds the post ids for which voters needs to be loaded.
+	 * @return the loaded voters mapped by post id.
+	 */
+	private Map<Long, PostVoters> loadPostVoters(List<Long> postIds) {
+		Map<Long, Long> versionByPostId = new HashMap<>();
+		Map<Long, PostVoters> loadedPostVotersByPostId = new HashMap<>();
+		for (Long postId : postIds) {
+			versionByPostId.put(postId, voterVersions.get(getVersionStripe(postId)));
+			loadedPostVotersByPostId.put(postId, new PostVoters());
+		}
+		List<PostVoter> postVoters = transactionTemplate
+				.execute(status -> voteRepository.findVotersByPostIds(postIds));
+		postVoters.forEach(postVoter -> loadedPostVotersByPostId.get(postVoter.getPostId())
+				.setVoteType(Math.toIntExact(postVoter.getUserId()), postVoter.getVoteType()));
+		loadedPostVotersByPostId.forEach((postId, loadedPostVoters) -> {
+			loadedPostVoters.optimize();
+			postVotersByPostId.asMap().compute(postId, (id, presentPostVoters) -> {
+				if (presentPostVoters != null
+						|| voterVersions.get(getVersionStripe(postId)) != versionByPostId.get(postId)) {
+					return presentPostVoters;
+				}
+				return loadedPostVoters;
+			});
+		});
+		return loadedPostVotersByPostId;
+	}
+
+	/**
+	 * getVersionStripe method returns the stripe of the version counter of the
+	 * post.
+	 *
+	 * @param postId the post id
+	 * @return the int the index of the version counter.
+	 */
+	private static int getVersionStripe(Long postId) {
+		return (int) (postId & (NO_OF_VERSION_STRIPES - 1));
+	}
+
+	/**
+	 * PostVoters class holds the upvoters and downvoters of a post as compressed
+	 * bitmaps of user ids.
+	 */
+	private static class PostVoters {
+
+		/** The user ids of the upvoters. */
+		private final RoaringBitmap upvoters = new RoaringBitmap();
+
+		/** The user ids of the downvoters. */
+		private final RoaringBitmap downvoters = new RoaringBitmap();
+
+		/**
+		 * getVoteType method returns the vote type made by the user.
+		 *
+		 * @param voterId the user id of the voter.
+		 * @return the vote type made by the user, null if user has not voted.
+		 */
+		synchronized VoteType getVoteType(int voterId) {
+			if (upvoters.contains(voterId)) {
+				return VoteType.UPVOTE;
+			}
+			return downvoters.contains(voterId) ? VoteType.DOWNVOTE : null;
+		}
+
+		/**
+		 * setVoteType method moves the user to the voters of the given vote type.
+		 *
+		 * @param voterId  the user id of the voter.
+		 * @param voteType the vote type made by the user.
+		 */
+		synchronized void setVoteType(int voterId, VoteType voteType) {
+			if (VoteType.UPVOTE.equals(voteType)) {
+				downvoters.remove(voterId);
+				upvoters.add(voterId);
+			} else {
+				upvoters.remove(voterId);
+				downvoters.add(voterId);
+			}
+		}
+
+		/**
+		 * optimize method compresses the runs of consecutive user ids of the
+		 * bitmaps.
+		 */
+		synchronized void optimize() {
+			upvoters.runOptimize();
+			downvoters.runOptimize();
+		}
+
+		/**
+		 * getSizeInBytes method returns the approximate size of the bitmaps which
+		 * is used to bound the memory of the index.
+		 *
+		 * @return the int the size in bytes.
+		 */
+		synchronized int getSizeInBytes() {
+			return upvoters.getSizeInBytes() + downvoters.getSizeInBytes();
+		}
+	}
+}
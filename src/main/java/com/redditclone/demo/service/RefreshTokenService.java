@@ -1,59 +1,94 @@
 package com.redditclone.demo.service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.time.Instant;
-import java.util.UUID;
+import java.util.Base64;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.redditclone.demo.exceptions.RedditException;
 import com.redditclone.demo.model.RefreshToken;
+import com.redditclone.demo.model.User;
 import com.redditclone.demo.repository.RefreshTokenRepository;
 
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
 
 /**
  * RefreshTokenService which provides service methods to perform all kind of
  * operations on refresh token such as creation,fetch and validate and delete of
- * refresh tokens.
+ * refresh tokens. Only the sha-256 hash of the refresh token is stored, along
+ * with the user to which it is issued and it's expiry.
  */
 @Service
-@AllArgsConstructor
+@RequiredArgsConstructor
 @Transactional
 public class RefreshTokenService {
 
+	/** The Constant REFRESH_TOKEN_BYTES the no of random bytes of a token. */
+	private static final int REFRESH_TOKEN_BYTES = 32;
+
+	/** The Constant TOKEN_HASH_ALGORITHM the digest algorithm of the token. */
+	private static final String TOKEN_HASH_ALGORITHM = "SHA-256";
+
+	/** The secure random which generates the refresh tokens. */
+	private final SecureRandom secureRandom = new SecureRandom();
+
 	/**
 	 * The refresh token repository which is used to perform CRUD operations on data
 	 * from the refresh token table in the database..
 	 */
-	private RefreshTokenRepository refreshTokenRepository;
+	private final RefreshTokenRepository refreshTokenRepository;
+
+	/** The time in millis after which refresh token expires. */
+	@Value("${refresh.token.expiration.time.millis}")
+	private Long refreshTokenExpirationTimeInMillis;
 
 	/**
-	 * generateAndSaveRefreshToken method generates random refresh token by
-	 * generating random uuid and returns refresh token after saving into database.
+	 * generateAndSaveRefreshToken method generates random refresh token for the
+	 * user and returns refresh token after saving the hash of it into database.
 	 *
-	 * @return the refresh token information after save operation.
+	 * @param relatedUser the user to which refresh token is issued.
+	 * @return the raw refresh token which is returned to the client.
 	 */
-	public RefreshToken generateAndSaveRefreshToken() {
+	public String generateAndSaveRefreshToken(User relatedUser) {
+		byte[] randomTokenBytes = new byte[REFRESH_TOKEN_BYTES];
+		secureRandom.nextBytes(randomTokenBytes);
+		String newRefreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(randomTokenBytes);
+		Instant currentDateTime = Instant.now();
 		RefreshToken refreshToken = new RefreshToken();
-		refreshToken.setToken(UUID.randomUUID().toString());
-		refreshToken.setCreatedDateTime(Instant.now());
-		return refreshTokenRepository.save(refreshToken);
+		refreshToken.setTokenHash(hashRefreshToken(newRefreshToken));
+		refreshToken.setUser(relatedUser);
+		refreshToken.setCreatedDateTime(currentDateTime);
+		refreshToken.setExpiryDateTime(currentDateTime.plusMillis(refreshTokenExpirationTimeInMillis));
+		refreshTokenRepository.save(refreshToken);
+		return newRefreshToken;
 	}
 
 	/**
-	 * validateRefreshToke method fetches the refresh token information to validate
-	 * refresh token using refresh token from the database.
+	 * consumeRefreshToken method validates the refresh token against the user name
+	 * and expiry with single lookup by token hash, and deletes it so that each
+	 * refresh token is used only once. Caller issues the rotated refresh token.
 	 *
 	 * throws RedditException with invalid refresh token message if refresh token
-	 * information is not found.
+	 * is not found, expired, issued to another user or already consumed.
 	 *
-	 * @param refreshToken the refresh token to validate.
+	 * @param refreshToken the raw refresh token to validate.
+	 * @param username     the user name to which refresh token needs to be issued.
+	 * @return the user to which refresh token is issued.
 	 */
-	@Transactional(readOnly = true)
-	public void validateRefreshToken(String refreshToken) {
-		refreshTokenRepository.findByToken(refreshToken)
+	public User consumeRefreshToken(String refreshToken, String username) {
+		RefreshToken validRefreshToken = refreshTokenRepository
+				.findActiveTokenWithUser(hashRefreshToken(refreshToken), username, Instant.now())
 				.orElseThrow(() -> new RedditException("Invalid refresh token"));
+		if (refreshTokenRepository.deleteByRefreshTokenId(validRefreshToken.getId()) == 0) {
+			throw new RedditException("Invalid refresh token");
+		}
+		return validRefreshToken.getUser();
 	}
 
 	/**
@@ -63,6 +98,29 @@ public class RefreshTokenService {
 	 * @param refreshToken the refresh token
 	 */
 	public void deleteRefreshToken(String refreshToken) {
-		refreshTokenRepository.deleteByToken(refreshToken);
+		refreshTokenRepository.deleteByTokenHash(hashRefreshToken(refreshToken));
+	}
+
+	/**
+	 * hashRefreshToken method returns the hex encoded sha-256 hash of the refresh
+	 * token. Refresh tokens are random, so they are hashed without salt and the
+	 * hash is looked up directly.
+	 *
+	 * @param refreshToken the raw refresh token.
+	 * @return the hash of the refresh token.
+	 */
+	private String hashRefreshToken(String refreshToken) {
+		try {
+			byte[] tokenHash = MessageDigest.getInstance(TOKEN_HASH_ALGORITHM)
+					.digest(refreshToken.getBytes(StandardCharsets.UTF_8));
+			StringBuilder tokenHashHex = new StringBuilder(tokenHash.length * 2);
+			for (byte tokenHashByte : tokenHash) {
+				tokenHashHex.append(Character.forDigit((tokenHashByte >> 4) & 0xf, 16))
+						.append(Character.forDigit(tokenHashByte & 0xf, 16));
+			}
+			return tokenHashHex.toString();
+		} catch (NoSuchAlgorithmException exception) {
+			throw new RedditException("Refresh token hash algorithm is not available", exception);
+		}
 	}
 }
@@ -0,0 +1,53 @@
+package com.redditclone.demo.service;
+
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.redditclone.demo.repository.RefreshTokenRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * RefreshTokenSweeperService class provides method to delete the expired
+ * refresh tokens and the tokens without expiry periodically, so that refresh
+ * token table holds only the active tokens.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class RefreshTokenSweeperService {
+
+	/**
+	 * The refresh token repository which is used to delete the expired refresh
+	 * tokens.
+	 */
+	private final RefreshTokenRepository refreshTokenRepository;
+
+	/** The no of expired refresh tokens deleted with in a single transaction. */
+	@Value("${refresh.token.sweep.batch.size}")
+	private int sweepBatchSize;
+
+	/**
+	 * sweepExpiredRefreshTokens method deletes the expired refresh tokens batch by
+	 * batch until a batch deletes less than the batch size, so that each
+	 * transaction locks only a few rows of the refresh token table.
+	 */
+	@Scheduled(initialDelayString = "${refresh.token.sweep.interval.millis}",
+			fixedDelayString = "${refresh.token.sweep.interval.millis}")
+	public void sweepExpiredRefreshTokens() {
+		Instant currentDateTime = Instant.now();
+		long noOfDeletedTokens = 0;
+		int noOfDeletedBatchTokens;
+		do {
+			noOfDeletedBatchTokens = refreshTokenRepository.deleteExpiredTokens(currentDateTime, sweepBatchSize);
+			noOfDeletedTokens += noOfDeletedBatchTokens;
+		} while (noOfDeletedBatchTokens == sweepBatchSize);
+		if (noOfDeletedTokens > 0) {
+			log.info("Deleted {} expired refresh tokens", noOfDeletedTokens);
+		}
+	}
+}
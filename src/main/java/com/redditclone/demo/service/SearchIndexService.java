@@ -0,0 +1,645 @@
+package com.redditclone.demo.service;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.redditclone.demo.constants.PaginationConstants;
+import com.redditclone.demo.dto.CursorPageResponse;
+import com.redditclone.demo.dto.SearchPageCursor;
+import com.redditclone.demo.dto.SearchResultDto;
+import com.redditclone.demo.event.CommentCreatedEvent;
+import com.redditclone.demo.event.PostCreatedEvent;
+import com.redditclone.demo.exceptions.RedditException;
+import com.redditclone.demo.model.Comment;
+import com.redditclone.demo.model.Post;
+import com.redditclone.demo.repository.CommentRepository;
+import com.redditclone.demo.repository.PostRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * SearchIndexService class provides full text search over the name and
+ * description of the posts and the text of the comments. Posts and comments are
+ * held in an embedded lucene index on the local disk and ranked by BM25
+ * relevance of the query terms, where matches in the post name weigh more than
+ * matches in the text.<br>
+ *
+ * Posts and comments are queued once they are committed and indexed in batches
+ * periodically, after which they are visible to the search. Index is rebuilt
+ * from the post and comment tables in parallel batches of id range when it is
+ * empty on start up, or when application is started with the --search.reindex
+ * argument. Otherwise the posts and comments created after the last indexed
+ * ids stored with the last commit of the index are indexed on start up, so
+ * that the posts and comments queued but not committed to the index before the
+ * application was stopped are not lost.
+ */
+@Service
+@Slf4j
+public class SearchIndexService {
+
+	/** The Constant REINDEX_ARGUMENT the argument which requests the reindex. */
+	private static final String REINDEX_ARGUMENT = "search.reindex";
+
+	/** The Constant POST_TYPE the type of the post documents. */
+	private static final String POST_TYPE = "post";
+
+	/** The Constant COMMENT_TYPE the type of the comment documents. */
+	private static final String COMMENT_TYPE = "comment";
+
+	/** The Constant LAST_INDEXED_POST_ID_KEY the commit data key of post id. */
+	private static final String LAST_INDEXED_POST_ID_KEY = "lastIndexedPostId";
+
+	/** The Constant LAST_INDEXED_COMMENT_ID_KEY the commit data key of comment id. */
+	private static final String LAST_INDEXED_COMMENT_ID_KEY = "lastIndexedCommentId";
+
+	/** The Constant DOCUMENT_KEY_FIELD the unique key of each document. */
+	private static final String DOCUMENT_KEY_FIELD = "documentKey";
+
+	/** The Constant TYPE_FIELD the type of the document [post, comment]. */
+	private static final String TYPE_FIELD = "type";
+
+	/** The Constant POST_ID_FIELD the id of the post. */
+	private static final String POST_ID_FIELD = "postId";
+
+	/** The Constant COMMENT_ID_FIELD the id of the comment. */
+	private static final String COMMENT_ID_FIELD = "commentId";
+
+	/** The Constant SUBREDDIT_ID_FIELD the id of the subreddit of the post. */
+	private static final String SUBREDDIT_ID_FIELD = "subredditId";
+
+	/** The Constant USERNAME_FIELD the lower case user name of the author. */
+	private static final String USERNAME_FIELD = "username";
+
+	/** The Constant AUTHOR_FIELD the stored user name of the author. */
+	private static final String AUTHOR_FIELD = "author";
+
+	/** The Constant POST_NAME_FIELD the name of the post. */
+	private static final String POST_NAME_FIELD = "postName";
+
+	/** The Constant TITLE_FIELD the analyzed name of the post document. */
+	private static final String TITLE_FIELD = "title";
+
+	/** The Constant TEXT_FIELD the analyzed description or comment text. */
+	private static final String TEXT_FIELD = "text";
+
+	/** The Constant EXCERPT_FIELD the stored leading part of the text. */
+	private static final String EXCERPT_FIELD = "excerpt";
+
+	/** The Constant EXCERPT_LENGTH the maximum no of characters of the excerpt. */
+	private static final int EXCERPT_LENGTH = 200;
+
+	/** The Constant TITLE_BOOST the weight of the matches in the post name. */
+	private static final float TITLE_BOOST = 2f;
+
+	/** The Constant MAXIMUM_QUERY_TERMS the maximum no of terms searched. */
+	private static final int MAXIMUM_QUERY_TERMS = 32;
+
+	/**
+	 * The Constant RELEVANCE_SORT the order of search results by descending score
+	 * and then by document key, so that the order is same for each page.
+	 */
+	private static final Sort RELEVANCE_SORT = new Sort(SortField.FIELD_SCORE,
+			new SortField(DOCUMENT_KEY_FIELD, SortField.Type.STRING));
+
+	/** The post repository which is used to load the posts to be indexed. */
+	private final PostRepository postRepository;
+
+	/** The comment repository which is used to load the comments to be indexed. */
+	private final CommentRepository commentRepository;
+
+	/** The path of the directory of the index on the local disk. */
+	private final String indexDirectoryPath;
+
+	/** The maximum no of queued posts or comments indexed in a batch. */
+	private final int indexBatchSize;
+
+	/** The no of posts or comments of the id range of a reindex batch. */
+	private final int reindexBatchSize;
+
+	/** The no of threads which index the reindex batches in parallel. */
+	private final int reindexThreads;
+
+	/** The analyzer which splits the text and query into lower case terms. */
+	private final Analyzer analyzer = new StandardAnalyzer();
+
+	/** The post ids queued to be indexed, in the order of creation. */
+	private final BlockingQueue<Long> pendingPostIds = new LinkedBlockingQueue<>();
+
+	/** The comment ids queued to be indexed, in the order of creation. */
+	private final BlockingQueue<Long> pendingCommentIds = new LinkedBlockingQueue<>();
+
+	/** The highest post id which is indexed from the queue or by the reindex. */
+	private final AtomicLong lastIndexedPostId = new AtomicLong();
+
+	/** The highest comment id which is indexed from the queue or by the reindex. */
+	private final AtomicLong lastIndexedCommentId = new AtomicLong();
+
+	/** The directory of the index. */
+	private Directory indexDirectory;
+
+	/** The index writer which adds the documents to the index. */
+	private IndexWriter indexWriter;
+
+	/** The searcher manager which provides the searcher of the latest index. */
+	private SearcherManager searcherManager;
+
+	/**
+	 * Instantiates a new search index service.
+	 *
+	 * @param postRepository     the post repository
+	 * @param commentRepository  the comment repository
+	 * @param indexDirectoryPath the path of the directory of the index
+	 * @param indexBatchSize     the maximum no of queued posts or comments
+	 *                           indexed in a batch
+	 * @param reindexBatchSize   the no of posts or comments of the id range of a
+	 *                           reindex batch
+	 * @param reindexThreads     the no of threads which index the reindex
+	 *                           batches in parallel
+	 */
+	public SearchIndexService(PostRepository postRepository, CommentRepository commentRepository,
+			@Value("${search.index.directory}") String indexDirectoryPath,
+			@Value("${search.index.batch.size}") int indexBatchSize,
+			@Value("${search.reindex.batch.size}") int reindexBatchSize,
+			@Value("${search.reindex.threads}") int reindexThreads) {
+		this.postRepository = postRepository;
+		this.commentRepository = commentRepository;
+		this.indexDirectoryPath = indexDirectoryPath;
+		this.indexBatchSize = indexBatchSize;
+		this.reindexBatchSize = reindexBatchSize;
+		this.reindexThreads = reindexThreads;
+	}
+
+	/**
+	 * openIndex method opens the index in the index directory, creating it if it
+	 * doesn't exist, and reads the last indexed ids stored with its last commit.
+	 *
+	 * @throws IOException Signals that the index could not be opened.
+	 */
+	@PostConstruct
+	public void openIndex() throws IOException {
+		indexDirectory = FSDirectory.open(Paths.get(indexDirectoryPath));
+		indexWriter = new IndexWriter(indexDirectory,
+				new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+		searcherManager = new SearcherManager(indexWriter, null);
+		Iterable<Map.Entry<String, String>> commitData = indexWriter.getLiveCommitData();
+		if (commitData != null) {
+			for (Map.Entry<String, String> commitDataEntry : commitData) {
+				if (LAST_INDEXED_POST_ID_KEY.equals(commitDataEntry.getKey())) {
+					lastIndexedPostId.set(Long.parseLong(commitDataEntry.getValue()));
+				} else if (LAST_INDEXED_COMMENT_ID_KEY.equals(commitDataEntry.getKey())) {
+					lastIndexedCommentId.set(Long.parseLong(commitDataEntry.getValue()));
+				}
+			}
+		}
+	}
+
+	/**
+	 * closeIndex method commits the indexed documents and closes the index.
+	 *
+	 * @throws IOException Signals that the index could not be closed.
+	 */
+	@PreDestroy
+	public void closeIndex() throws IOException {
+		searcherManager.close();
+		indexWriter.close();
+		indexDirectory.close();
+	}
+
+	/**
+	 * reindexOnStartup method rebuilds the index in the background once
+	 * application is started, if the index is empty or if reindex is requested by
+	 * the application argument, otherwise indexes the posts and comments created
+	 * after the last indexed ids of the last commit.
+	 *
+	 * @param applicationReadyEvent the application ready event which holds the
+	 *                              application arguments.
+	 */
+	@Async
+	@EventListener
+	public void reindexOnStartup(ApplicationReadyEvent applicationReadyEvent) {
+		try {
+			if (indexWriter.getDocStats().numDocs == 0 || new DefaultApplicationArguments(
+					applicationReadyEvent.getArgs()).containsOption(REINDEX_ARGUMENT)) {
+				reindexAll();
+			} else {
+				reindexFrom(lastIndexedPostId.get() + 1, lastIndexedCommentId.get() + 1);
+			}
+		} catch (RedditException exception) {
+			log.error("Search index could not be caught up on start up", exception);
+		}
+	}
+
+	/**
+	 * queueCreatedPost method queues the post to be indexed once it is committed.
+	 *
+	 * @param postCreatedEvent the post created event which holds the post details.
+	 */
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void queueCreatedPost(PostCreatedEvent postCreatedEvent) {
+		pendingPostIds.offer(postCreatedEvent.getPostId());
+	}
+
+	/**
+	 * queueCreatedComment method queues the comment to be indexed once it is
+	 * committed.
+	 *
+	 * @param commentCreatedEvent the comment created event which holds the comment
+	 *                            details.
+	 */
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void queueCreatedComment(CommentCreatedEvent commentCreatedEvent) {
+		pendingCommentIds.offer(commentCreatedEvent.getCommentId());
+	}
+
+	/**
+	 * indexQueuedDocuments method drains the queued posts and comments batch by
+	 * batch, indexes them and makes them visible to the search. Batch which fails
+	 * to be loaded or indexed is queued again, so that it is retried on next
+	 * interval and last indexed id stored with the commit stays below it.
+	 */
+	@Scheduled(fixedDelayString = "${search.index.refresh.interval.millis}")
+	public synchronized void indexQueuedDocuments() {
+		List<Long> postIds = new ArrayList<>(indexBatchSize);
+		List<Long> commentIds = new ArrayList<>(indexBatchSize);
+		try {
+			while (pendingPostIds.drainTo(postIds, indexBatchSize) > 0) {
+				indexPosts(postRepository.findWithUserAndSubredditByPostIdIn(postIds));
+				advanceLastIndexedId(lastIndexedPostId, postIds);
+				postIds.clear();
+			}
+			while (pendingCommentIds.drainTo(commentIds, indexBatchSize) > 0) {
+				indexComments(commentRepository.findWithUserAndPostByIdIn(commentIds));
+				advanceLastIndexedId(lastIndexedCommentId, commentIds);
+				commentIds.clear();
+			}
+			searcherManager.maybeRefresh();
+		} catch (IOException | RuntimeException exception) {
+			pendingPostIds.addAll(postIds);
+			pendingCommentIds.addAll(commentIds);
+			log.error("Queued posts and comments could not be indexed, they are queued again", exception);
+		}
+	}
+
+	/**
+	 * commitIndex method commits the indexed documents to the disk along with the
+	 * last indexed ids, so that they are not lost once the application is stopped.
+	 * Last indexed id is stored below the lowest queued id, so that the queued
+	 * posts and comments are indexed by the catch up on next start up.
+	 *
+	 * @throws IOException Signals that the index could not be committed.
+	 */
+	@Scheduled(fixedDelayString = "${search.index.commit.interval.millis}")
+	public synchronized void commitIndex() throws IOException {
+		if (indexWriter.hasUncommittedChanges()) {
+			Map<String, String> commitData = new HashMap<>();
+			commitData.put(LAST_INDEXED_POST_ID_KEY,
+					Long.toString(lastCommittedId(lastIndexedPostId.get(), pendingPostIds)));
+			commitData.put(LAST_INDEXED_COMMENT_ID_KEY,
+					Long.toString(lastCommittedId(lastIndexedCommentId.get(), pendingCommentIds)));
+			indexWriter.setLiveCommitData(commitData.entrySet());
+			indexWriter.commit();
+		}
+	}
+
+	/**
+	 * reindexAll method indexes all the posts and comments again from the post and
+	 * comment tables.
+	 *
+	 * throws RedditException if reindex fails.
+	 */
+	public void reindexAll() {
+		reindexFrom(1, 1);
+	}
+
+	/**
+	 * reindexFrom method indexes the posts and comments from the given ids up to
+	 * the maximum ids of the post and comment tables. Id ranges of the posts and
+	 * comments are loaded and indexed in parallel batches, each document replaces
+	 * it's previous version, so that search keeps working while reindexing.
+	 *
+	 * throws RedditException if reindex fails.
+	 *
+	 * @param firstPostId    the first post id to be indexed.
+	 * @param firstCommentId the first comment id to be indexed.
+	 */
+	private void reindexFrom(long firstPostId, long firstCommentId) {
+		long startTimeMillis = System.currentTimeMillis();
+		ExecutorService reindexExecutor = Executors.newFixedThreadPool(reindexThreads);
+		try {
+			List<Future<Integer>> reindexBatches = new ArrayList<>();
+			long maximumPostId = nullToZero(postRepository.findMaxPostId());
+			for (long fromPostId = firstPostId; fromPostId <= maximumPostId; fromPostId += reindexBatchSize) {
+				long batchFromPostId = fromPostId;
+				reindexBatches.add(reindexExecutor.submit(() -> indexPosts(postRepository
+						.findWithUserAndSubredditByPostIdBetween(batchFromPostId,
+								batchFromPostId + reindexBatchSize - 1))));
+			}
+			long maximumCommentId = nullToZero(commentRepository.findMaxCommentId());
+			for (long fromCommentId = firstCommentId; fromCommentId <= maximumCommentId;
+					fromCommentId += reindexBatchSize) {
+				long batchFromCommentId = fromCommentId;
+				reindexBatches.add(reindexExecutor.submit(() -> indexComments(commentRepository
+						.findWithUserAndPostByIdBetween(batchFromCommentId,
+								batchFromCommentId + reindexBatchSize - 1))));
+			}
+			int noOfIndexedDocuments = 0;
+			for (Future<Integer> reindexBatch : reindexBatches) {
+				noOfIndexedDocuments += reindexBatch.get();
+			}
+			lastIndexedPostId.accumulateAndGet(maximumPostId, Math::max);
+			lastIndexedCommentId.accumulateAndGet(maximumCommentId, Math::max);
+			commitIndex();
+			searcherManager.maybeRefresh();
+			log.info("Search index reindexed with {} posts and comments in {} ms", noOfIndexedDocuments,
+					System.currentTimeMillis() - startTimeMillis);
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new RedditException("Search reindex is interrupted", exception);
+		} catch (ExecutionException | IOException exception) {
+			throw new RedditException("Search reindex failed", exception);
+		} finally {
+			reindexExecutor.shutdownNow();
+		}
+	}
+
+	/**
+	 * search method finds and returns the page of posts and comments which match
+	 * any of the terms of the search query in the descending order of relevance
+	 * after the given page cursor. Results are ordered by document key for the
+	 * same score, which is unique, so the doc id of the page cursor never decides
+	 * the order and is set to the last doc id of the index.
+	 *
+	 * throws RedditException if search fails.
+	 *
+	 * @param searchQuery the search query typed by the user.
+	 * @param subredditId the subreddit id to which results are limited, null for
+	 *                    all the subreddits.
+	 * @param username    the user name of the author to which results are
+	 *                    limited, null for all the users.
+	 * @param pageCursor  the opaque page cursor returned with previous page, null
+	 *                    to fetch the first page.
+	 * @param pageSize    the no of results to be returned in the page.
+	 * @return CursorPageResponse<SearchResultDto> the page of search results.
+	 */
+	public CursorPageResponse<SearchResultDto> search(String searchQuery, Long subredditId, String username,
+			String pageCursor, int pageSize) {
+		Set<String> queryTerms = analyzeQueryTerms(searchQuery);
+		if (queryTerms.isEmpty()) {
+			return new CursorPageResponse<>(new ArrayList<>(), null);
+		}
+		BooleanQuery.Builder queryBuilder = new BooleanQuery.Builder().setMinimumNumberShouldMatch(1);
+		for (String queryTerm : queryTerms) {
+			queryBuilder.add(new BoostQuery(new TermQuery(new Term(TITLE_FIELD, queryTerm)), TITLE_BOOST),
+					Occur.SHOULD);
+			queryBuilder.add(new TermQuery(new Term(TEXT_FIELD, queryTerm)), Occur.SHOULD);
+		}
+		if (subredditId != null) {
+			queryBuilder.add(new TermQuery(new Term(SUBREDDIT_ID_FIELD, subredditId.toString())), Occur.FILTER);
+		}
+		if (username != null) {
+			queryBuilder.add(new TermQuery(new Term(USERNAME_FIELD, username.toLowerCase(Locale.ROOT))),
+					Occur.FILTER);
+		}
+		int resolvedPageSize = PaginationConstants.resolvePageSize(pageSize);
+		try {
+			IndexSearcher indexSearcher = searcherManager.acquire();
+			try {
+				TopDocs topDocs;
+				int maximumDocId = indexSearcher.getIndexReader().maxDoc() - 1;
+				if (pageCursor == null || maximumDocId < 0) {
+					topDocs = indexSearcher.search(queryBuilder.build(), resolvedPageSize + 1, RELEVANCE_SORT, true);
+				} else {
+					SearchPageCursor searchPageCursor = SearchPageCursor.decodeSearchPageCursor(pageCursor);
+					FieldDoc afterFieldDoc = new FieldDoc(maximumDocId, searchPageCursor.getScore(),
+							new Object[] { searchPageCursor.getScore(),
+									new BytesRef(searchPageCursor.getDocumentKey()) });
+					topDocs = indexSearcher.searchAfter(afterFieldDoc, queryBuilder.build(), resolvedPageSize + 1,
+							RELEVANCE_SORT, true);
+				}
+				return prepareSearchResultPage(indexSearcher, topDocs.scoreDocs, resolvedPageSize);
+			} finally {
+				searcherManager.release(indexSearcher);
+			}
+		} catch (IOException exception) {
+			throw new RedditException("Search failed for query - " + searchQuery, exception);
+		}
+	}
+
+	/**
+	 * prepareSearchResultPage method maps the matching documents to the page of
+	 * search results, the next cursor is returned only if there are more matching
+	 * documents than the page size.
+	 *
+	 * @param indexSearcher the index searcher which found the documents.
+	 * @param scoreDocs     the matching documents, one more than the page size
+	 *                      if there is next page.
+	 * @param pageSize      the no of results to be returned in the page.
+	 * @return CursorPageResponse<SearchResultDto> the page of search results.
+	 * @throws IOException Signals that the stored fields could not be read.
+	 */
+	private CursorPageResponse<SearchResultDto> prepareSearchResultPage(IndexSearcher indexSearcher,
+			ScoreDoc[] scoreDocs, int pageSize) throws IOException {
+		int noOfResults = Math.min(scoreDocs.length, pageSize);
+		List<SearchResultDto> searchResults = new ArrayList<>(noOfResults);
+		String lastDocumentKey = null;
+		for (int index = 0; index < noOfResults; index++) {
+			Document document = indexSearcher.doc(scoreDocs[index].doc);
+			String commentId = document.get(COMMENT_ID_FIELD);
+			searchResults.add(SearchResultDto.builder().type(document.get(TYPE_FIELD))
+					.postId(Long.valueOf(document.get(POST_ID_FIELD)))
+					.commentId(commentId == null ? null : Long.valueOf(commentId))
+					.postName(document.get(POST_NAME_FIELD)).excerpt(document.get(EXCERPT_FIELD))
+					.subredditId(Long.valueOf(document.get(SUBREDDIT_ID_FIELD)))
+					.username(document.get(AUTHOR_FIELD)).score(scoreDocs[index].score).build());
+			lastDocumentKey = document.get(DOCUMENT_KEY_FIELD);
+		}
+		String nextCursor = scoreDocs.length > pageSize
+				? new SearchPageCursor(scoreDocs[pageSize - 1].score, lastDocumentKey).encodeSearchPageCursor()
+				: null;
+		return new CursorPageResponse<>(searchResults, nextCursor);
+	}
+
+	/**
+	 * analyzeQueryTerms method splits the search query into the distinct terms by
+	 * the same analyzer which splits the indexed text.
+	 *
+	 * @param searchQuery the search query typed by the user.
+	 * @return the distinct terms of the search query.
+	 */
+	private Set<String> analyzeQueryTerms(String searchQuery) {
+		Set<String> queryTerms = new LinkedHashSet<>();
+		if (searchQuery == null) {
+			return queryTerms;
+		}
+		try (TokenStream tokenStream = analyzer.tokenStream(TEXT_FIELD, searchQuery)) {
+			CharTermAttribute termAttribute = tokenStream.addAttribute(CharTermAttribute.class);
+			tokenStream.reset();
+			while (queryTerms.size() < MAXIMUM_QUERY_TERMS && tokenStream.incrementToken()) {
+				queryTerms.add(termAttribute.toString());
+			}
+			tokenStream.end();
+		} catch (IOException exception) {
+			throw new RedditException("Search query could not be analyzed - " + searchQuery, exception);
+		}
+		return queryTerms;
+	}
+
+	/**
+	 * indexPosts method adds or replaces the documents of the posts.
+	 *
+	 * @param posts the posts loaded along with their author and subreddit.
+	 * @return the int the no of indexed posts.
+	 * @throws IOException Signals that the posts could not be indexed.
+	 */
+	private int indexPosts(Collection<Post> posts) throws IOException {
+		for (Post post : posts) {
+			String documentKey = POST_TYPE + ":" + post.getPostId();
+			Document document = prepareDocument(documentKey, POST_TYPE, post, post.getUser().getUsername(),
+					post.getDescription());
+			document.add(new TextField(TITLE_FIELD, post.getPostName(), Field.Store.NO));
+			indexWriter.updateDocument(new Term(DOCUMENT_KEY_FIELD, documentKey), document);
+		}
+		return posts.size();
+	}
+
+	/**
+	 * indexComments method adds or replaces the documents of the comments.
+	 *
+	 * @param comments the comments loaded along with their author and post.
+	 * @return the int the no of indexed comments.
+	 * @throws IOException Signals that the comments could not be indexed.
+	 */
+	private int indexComments(Collection<Comment> comments) throws IOException {
+		for (Comment comment : comments) {
+			String documentKey = COMMENT_TYPE + ":" + comment.getId();
+			Document document = prepareDocument(documentKey, COMMENT_TYPE, comment.getPost(),
+					comment.getUser().getUsername(), comment.getCommentedText());
+			document.add(new StoredField(COMMENT_ID_FIELD, comment.getId().toString()));
+			indexWriter.updateDocument(new Term(DOCUMENT_KEY_FIELD, documentKey), document);
+		}
+		return comments.size();
+	}
+
+	/**
+	 * prepareDocument method prepares the document with the fields which are same
+	 * for posts and comments.
+	 *
+	 * @param documentKey the unique key of the document.
+	 * @param type        the type of the document.
+	 * @param post        the post or the post which comment is made on.
+	 * @param username    the user name of the author.
+	 * @param text        the description of the post or the comment text.
+	 * @return the document.
+	 */
+	private Document prepareDocument(String documentKey, String type, Post post, String username, String text) {
+		String documentText = text == null ? "" : text;
+		Document document = new Document();
+		document.add(new StringField(DOCUMENT_KEY_FIELD, documentKey, Field.Store.YES));
+		document.add(new SortedDocValuesField(DOCUMENT_KEY_FIELD, new BytesRef(documentKey)));
+		document.add(new StoredField(TYPE_FIELD, type));
+		document.add(new StoredField(POST_ID_FIELD, post.getPostId().toString()));
+		document.add(new StoredField(POST_NAME_FIELD, post.getPostName()));
+		document.add(new StringField(SUBREDDIT_ID_FIELD, post.getRelatedSubreddit().getId().toString(),
+				Field.Store.YES));
+		document.add(new StringField(USERNAME_FIELD, username.toLowerCase(Locale.ROOT), Field.Store.NO));
+		document.add(new StoredField(AUTHOR_FIELD, username));
+		document.add(new TextField(TEXT_FIELD, documentText, Field.Store.NO));
+		document.add(new StoredField(EXCERPT_FIELD,
+				documentText.substring(0, Math.min(documentText.length(), EXCERPT_LENGTH))));
+		return document;
+	}
+
+	/**
+	 * advanceLastIndexedId method advances the last indexed id to the highest of
+	 * the indexed ids.
+	 *
+	 * @param lastIndexedId the last indexed id.
+	 * @param indexedIds    the ids which are indexed.
+	 */
+	private static void advanceLastIndexedId(AtomicLong lastIndexedId, List<Long> indexedIds) {
+		for (Long indexedId : indexedIds) {
+			lastIndexedId.accumulateAndGet(indexedId, Math::max);
+		}
+	}
+
+	/**
+	 * lastCommittedId method returns the last indexed id to be stored with the
+	 * commit, which is below all the ids still queued to be indexed.
+	 *
+	 * @param lastIndexedId the last indexed id.
+	 * @param pendingIds    the ids queued to be indexed.
+	 * @return the long the last indexed id to be stored with the commit.
+	 */
+	private static long lastCommittedId(long lastIndexedId, Collection<Long> pendingIds) {
+		long lastCommittedId = lastIndexedId;
+		for (Long pendingId : pendingIds) {
+			lastCommittedId = Math.min(lastCommittedId, pendingId - 1);
+		}
+		return lastCommittedId;
+	}
+
+	/**
+	 * nullToZero method returns zero for the null id.
+	 *
+	 * @param id the id.
+	 * @return the long the id or zero.
+	 */
+	private static long nullToZero(Long id) {
+		return id == null ? 0 : id;
+	}
+}
@@ -0,0 +1,272 @@
+package com.redditclone.demo.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.redditclone.demo.constants.PaginationConstants;
+import com.redditclone.demo.dto.CursorPageResponse;
+import com.redditclone.demo.dto.SubredditDto;
+import com.redditclone.demo.dto.SubredditPageCursor;
+import com.redditclone.demo.event.PostCreatedEvent;
+import com.redditclone.demo.event.SubredditCreatedEvent;
+import com.redditclone.demo.mapper.SubredditMapper;
+import com.redditclone.demo.model.Subreddit;
+import com.redditclone.demo.model.SubredditSortType;
+import com.redditclone.demo.repository.SubredditRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * SubredditDirectoryService class serves the subreddit directory from an
+ * immutable snapshot which holds the subreddit dto's sorted in each of the
+ * subreddit sort types. A page of the directory is a slice of the sorted array
+ * of the current snapshot, read without locks or database queries. Slice starts
+ * after the sort keys of the page cursor, which are found by binary search in
+ * the sorted array.<br>
+ *
+ * Snapshot is marked stale once a subreddit or post is committed by this
+ * instance and is rebuilt in the background on the next refresh, and it is
+ * rebuilt after the maximum age anyway, which adds the subreddits and posts
+ * created by other instances of the application.
+ */
+@Service
+@Slf4j
+public class SubredditDirectoryService {
+
+	/**
+	 * The Constant SUBREDDIT_COMPARATORS the comparators of the subreddits for
+	 * each sort type. Subreddit ids are assigned in the order of creation, so the
+	 * newest subreddits are the ones with highest id.
+	 */
+	private static final Map<SubredditSortType, Comparator<SubredditDto>> SUBREDDIT_COMPARATORS = new EnumMap<>(
+			SubredditSortType.class);
+
+	static {
+		SUBREDDIT_COMPARATORS.put(SubredditSortType.NAME,
+				Comparator.comparing(SubredditDto::getName, String.CASE_INSENSITIVE_ORDER)
+						.thenComparing(SubredditDto::getId));
+		SUBREDDIT_COMPARATORS.put(SubredditSortType.SIZE,
+				Comparator.comparing(SubredditDto::getNoOfRelatedPosts, Comparator.reverseOrder())
+						.thenComparing(SubredditDto::getName, String.CASE_INSENSITIVE_ORDER)
+						.thenComparing(SubredditDto::getId));
+		SUBREDDIT_COMPARATORS.put(SubredditSortType.NEW,
+				Comparator.comparing(SubredditDto::getId, Comparator.reverseOrder()));
+	}
+
+	/** The subreddit repository which is used to load all the subreddits. */
+	private final SubredditRepository subredditRepository;
+
+	/** The subreddit mapper which is used to map the loaded subreddits to dto. */
+	private final SubredditMapper subredditMapper;
+
+	/**
+	 * The transaction template which loads the subreddits with in read only
+	 * transaction.
+	 */
+	private final TransactionTemplate transactionTemplate;
+
+	/** The millis after which snapshot is rebuilt even if it is not stale. */
+	private final long maximumAgeMillis;
+
+	/** Whether the subreddits or their post counts changed after the snapshot. */
+	private final AtomicBoolean snapshotStale = new AtomicBoolean(true);
+
+	/** The current snapshot, null until it is built for the first time. */
+	private volatile DirectorySnapshot directorySnapshot;
+
+	/**
+	 * Instantiates a new subreddit directory service.
+	 *
+	 * @param subredditRepository the subreddit repository
+	 * @param subredditMapper     the subreddit mapper
+	 * @param transactionTemplate the transaction template
+	 * @param maximumAgeMillis    the millis after which snapshot is rebuilt even
+	 *                            if it is not stale
+	 */
+	public SubredditDirectoryService(SubredditRepository subredditRepository, SubredditMapper subredditMapper,
+			TransactionTemplate transactionTemplate,
+			@Value("${subreddit.directory.maximum.age.millis}") long maximumAgeMillis) {
+		this.subredditRepository = subredditRepository;
+		this.subredditMapper = subredditMapper;
+		this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+		this.transactionTemplate.setReadOnly(true);
+		this.maximumAgeMillis = maximumAgeMillis;
+	}
+
+	/**
+	 * getSubredditPage method returns the page of subreddits in the order of the
+	 * sort type after the sort keys of the page cursor.
+	 *
+	 * @param subredditSortType the sort type of the subreddits.
+	 * @param pageCursor        the opaque page cursor returned with previous page,
+	 *                          null to fetch the first page.
+	 * @param pageSize          the no of subreddits to be returned in the page.
+	 * @return CursorPageResponse<SubredditDto> the page of sorted subreddits.
+	 */
+	public CursorPageResponse<SubredditDto> getSubredditPage(SubredditSortType subredditSortType, String pageCursor,
+			int pageSize) {
+		List<SubredditDto> sortedSubreddits = getDirectorySnapshot().sortedSubredditsBySortType
+				.get(subredditSortType);
+		int fromIndex = 0;
+		if (pageCursor != null) {
+			SubredditPageCursor subredditPageCursor = SubredditPageCursor.decodeSubredditPageCursor(pageCursor);
+			SubredditDto cursorSubreddit = SubredditDto.builder().id(subredditPageCursor.getSubredditId())
+					.name(subredditPageCursor.getName()).noOfRelatedPosts(subredditPageCursor.getPostCount()).build();
+			int cursorIndex = Collections.binarySearch(sortedSubreddits, cursorSubreddit,
+					SUBREDDIT_COMPARATORS.get(subredditSortType));
+			fromIndex = cursorIndex >= 0 ? cursorIndex + 1 : -cursorIndex - 1;
+		}
+		int toIndex = Math.min(fromIndex + PaginationConstants.resolvePageSize(pageSize), sortedSubreddits.size());
+		List<SubredditDto> pageSubreddits = sortedSubreddits.subList(fromIndex, toIndex);
+		String nextCursor = null;
+		if (toIndex < sortedSubreddits.size()) {
+			SubredditDto lastSubreddit = pageSubreddits.get(pageSubreddits.size() - 1);
+			nextCursor = new SubredditPageCursor(lastSubreddit.getNoOfRelatedPosts(), lastSubreddit.getName(),
+					lastSubreddit.getId()).encodeSubredditPageCursor();
+		}
+		return new CursorPageResponse<>(pageSubreddits, nextCursor);
+	}
+
+	/**
+	 * getAllSubreddits method returns all the subreddits sorted by name.
+	 *
+	 * @return List<SubredditDto> the unmodifiable list of all the subreddits.
+	 */
+	public List<SubredditDto> getAllSubreddits() {
+		return getDirectorySnapshot().sortedSubredditsBySortType.get(SubredditSortType.NAME);
+	}
+
+	/**
+	 * findSubreddit method finds the subreddit by id from the current snapshot.
+	 *
+	 * @param subredditId the id of the subreddit which needs to be found.
+	 * @return the optional subreddit dto, Optional.empty() if the subreddit is not
+	 *         in the current snapshot.
+	 */
+	public Optional<SubredditDto> findSubreddit(Long subredditId) {
+		return Optional.ofNullable(getDirectorySnapshot().subredditById.get(subredditId));
+	}
+
+	/**
+	 * markCreatedSubreddit method marks the snapshot stale once the subreddit is
+	 * committed.
+	 *
+	 * @param subredditCreatedEvent the subreddit created event.
+	 */
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void markCreatedSubreddit(SubredditCreatedEvent subredditCreatedEvent) {
+		snapshotStale.set(true);
+	}
+
+	/**
+	 * markCreatedPost method marks the snapshot stale once the post is committed,
+	 * as the post count of it's subreddit is changed.
+	 *
+	 * @param postCreatedEvent the post created event.
+	 */
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void markCreatedPost(PostCreatedEvent postCreatedEvent) {
+		snapshotStale.set(true);
+	}
+
+	/**
+	 * refreshDirectorySnapshot method rebuilds the snapshot if it is stale or
+	 * older than the maximum age.
+	 */
+	@Scheduled(fixedDelayString = "${subreddit.directory.refresh.interval.millis}")
+	public void refreshDirectorySnapshot() {
+		DirectorySnapshot currentSnapshot = directorySnapshot;
+		if (currentSnapshot == null || snapshotStale.get()
+				|| System.currentTimeMillis() - currentSnapshot.builtTimeMillis >= maximumAgeMillis) {
+			rebuildDirectorySnapshot();
+		}
+	}
+
+	/**
+	 * getDirectorySnapshot method returns the current snapshot, building it if it
+	 * is not built yet.
+	 *
+	 * @return the current directory snapshot.
+	 */
+	private DirectorySnapshot getDirectorySnapshot() {
+		DirectorySnapshot currentSnapshot = directorySnapshot;
+		return currentSnapshot != null ? currentSnapshot : rebuildDirectorySnapshot();
+	}
+
+	/**
+	 * rebuildDirectorySnapshot method loads all the subreddits, sorts them in each
+	 * of the sort types and swaps in the new snapshot. Stale mark is cleared
+	 * before loading, so that changes committed while loading mark the new
+	 * snapshot stale.
+	 *
+	 * @return the new directory snapshot.
+	 */
+	private synchronized DirectorySnapshot rebuildDirectorySnapshot() {
+		snapshotStale.set(false);
+		long builtTimeMillis = System.currentTimeMillis();
+		List<Subreddit> subreddits = transactionTemplate.execute(status -> subredditRepository.findAll());
+		Map<Long, SubredditDto> subredditById = new HashMap<>();
+		for (Subreddit subreddit : subreddits) {
+			subredditById.put(subreddit.getId(), subredditMapper.mapSubredditDtoFromModel(subreddit));
+		}
+		Map<SubredditSortType, List<SubredditDto>> sortedSubredditsBySortType = new EnumMap<>(
+				SubredditSortType.class);
+		for (SubredditSortType subredditSortType : SubredditSortType.values()) {
+			SubredditDto[] sortedSubredditDtos = subredditById.values().toArray(new SubredditDto[0]);
+			Arrays.sort(sortedSubredditDtos, SUBREDDIT_COMPARATORS.get(subredditSortType));
+			sortedSubredditsBySortType.put(subredditSortType,
+					Collections.unmodifiableList(Arrays.asList(sortedSubredditDtos)));
+		}
+		DirectorySnapshot newSnapshot = new DirectorySnapshot(sortedSubredditsBySortType, subredditById,
+				builtTimeMillis);
+		directorySnapshot = newSnapshot;
+		log.debug("Subreddit directory snapshot rebuilt with {} subreddits", subreddits.size());
+		return newSnapshot;
+	}
+
+	/**
+	 * DirectorySnapshot class holds the subreddits sorted in each of the sort types
+	 * and the subreddits mapped by id, it is never modified once it is built.
+	 */
+	private static final class DirectorySnapshot {
+
+		/** The unmodifiable lists of sorted subreddits mapped by sort type. */
+		private final Map<SubredditSortType, List<SubredditDto>> sortedSubredditsBySortType;
+
+		/** The subreddits mapped by id. */
+		private final Map<Long, SubredditDto> subredditById;
+
+		/** The time millis at which snapshot is built. */
+		private final long builtTimeMillis;
+
+		/**
+		 * Instantiates a new directory snapshot.
+		 *
+		 * @param sortedSubredditsBySortType the unmodifiable lists of sorted
+		 *                                   subreddits mapped by sort type
+		 * @param subredditById              the subreddits mapped by id
+		 * @param builtTimeMillis            the time millis at which snapshot is
+		 *                                   built
+		 */
+		private DirectorySnapshot(Map<SubredditSortType, List<SubredditDto>> sortedSubredditsBySortType,
+				Map<Long, SubredditDto> subredditById, long builtTimeMillis) {
+			this.sortedSubredditsBySortType = sortedSubredditsBySortType;
+			this.subredditById = subredditById;
+			this.builtTimeMillis = builtTimeMillis;
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package com.redditclone.demo.service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.redditclone.demo.event.SubredditCreatedEvent;
+import com.redditclone.demo.model.Subreddit;
+import com.redditclone.demo.repository.SubredditRepository;
+import com.redditclone.demo.repository.SubredditRepository.SubredditNameSnapshot;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * SubredditNameIndexService class provides in memory index of the subreddit ids
+ * by their names, so that posts can be related to the subreddit without
+ * querying the subreddit table. Index is loaded once application is started and
+ * reloaded periodically, which adds the subreddits created by other instances
+ * of the application. Subreddits created by this instance are added once they
+ * are committed, and names which are not found in the index are looked up from
+ * the subreddit table and added to it.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SubredditNameIndexService {
+
+	/**
+	 * The subreddit repository which is used to load the subreddit names into the
+	 * index.
+	 */
+	private final SubredditRepository subredditRepository;
+
+	/**
+	 * The id of the subreddits mapped by lower case name, as subreddit names are
+	 * compared case insensitive by the subreddit table.
+	 */
+	private volatile Map<String, Long> subredditIdByLowerCaseName = new ConcurrentHashMap<>();
+
+	/**
+	 * getSubredditReference method resolves the subreddit by it's name and returns
+	 * the subreddit reference of the persistence context for the resolved id, so
+	 * it can be related to the new post without loading the subreddit.
+	 *
+	 * @param subredditName the name of the subreddit which needs to be resolved.
+	 * @return the optional subreddit reference, Optional.empty() if subreddit is
+	 *         not found.
+	 */
+	public Optional<Subreddit> getSubredditReference(String subredditName) {
+		if (subredditName == null) {
+			return Optional.empty();
+		}
+		Long subredditId = subredditIdByLowerCaseName.get(toLowerCaseName(subredditName));
+		if (subredditId == null) {
+			Optional<Subreddit> subreddit = subredditRepository.findByName(subredditName);
+			subreddit.ifPresent(foundSubreddit -> addToIndex(foundSubreddit.getId(), foundSubreddit.getName()));
+			return subreddit;
+		}
+		return Optional.of(subredditRepository.getOne(subredditId));
+	}
+
+	/**
+	 * addCreatedSubreddit method adds the subreddit to the index once it is
+	 * committed.
+	 *
+	 * @param subredditCreatedEvent the subreddit created event which holds the
+	 *                              subreddit details.
+	 */
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void addCreatedSubreddit(SubredditCreatedEvent subredditCreatedEvent) {
+		addToIndex(subredditCreatedEvent.getSubredditId(), subredditCreatedEvent.getName());
+	}
+
+	/**
+	 * reloadSubredditNames method loads the id and name of all the subreddits into
+	 * the new index and swaps it in. Subreddits added to the previous index while
+	 * reloading are found again on their next lookup.
+	 */
+	@Scheduled(fixedDelayString = "${subreddit.name.index.reload.interval.millis}")
+	public void reloadSubredditNames() {
+		Map<String, Long> newSubredditIdByLowerCaseName = new ConcurrentHashMap<>();
+		for (SubredditNameSnapshot subredditNameSnapshot : subredditRepository.findAllSubredditNames()) {
+			newSubredditIdByLowerCaseName.put(toLowerCaseName(subredditNameSnapshot.getName()),
+					subredditNameSnapshot.getId());
+		}
+		subredditIdByLowerCaseName = newSubredditIdByLowerCaseName;
+		log.debug("Subreddit name index reloaded with {} subreddits", newSubredditIdByLowerCaseName.size());
+	}
+
+	/**
+	 * addToIndex method adds the id of the subreddit to the index by it's name.
+	 *
+	 * @param subredditId   the id of the subreddit.
+	 * @param subredditName the name of the subreddit.
+	 */
+	private void addToIndex(Long subredditId, String subredditName) {
+		subredditIdByLowerCaseName.put(toLowerCaseName(subredditName), subredditId);
+	}
+
+	/**
+	 * toLowerCaseName method returns the lower case name which is used as key of
+	 * the index.
+	 *
+	 * @param subredditName the name of the subreddit.
+	 * @return the lower case name of the subreddit.
+	 */
+	private static String toLowerCaseName(String subredditName) {
+		return subredditName.toLowerCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,39 @@
+package com.redditclone.demo.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.redditclone.demo.repository.SubredditRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * SubredditPostCountReconciliationService class provides method to backfill
+ * and reconcile the post count maintained on each subreddit with the actual
+ * count of related posts. It runs shortly after start up to backfill the post
+ * count of existing subreddits and then periodically to correct any drift.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SubredditPostCountReconciliationService {
+
+	/**
+	 * The subreddit repository which is used to reconcile the post count of the
+	 * subreddits.
+	 */
+	private final SubredditRepository subredditRepository;
+
+	/**
+	 * reconcilePostCounts method reconciles the post count of all the subreddits
+	 * with a single grouped count of the post table.
+	 */
+	@Scheduled(initialDelayString = "${subreddit.post.count.reconciliation.initial.delay.millis}",
+			fixedDelayString = "${subreddit.post.count.reconciliation.interval.millis}")
+	public void reconcilePostCounts() {
+		int noOfCorrectedSubreddits = subredditRepository.reconcilePostCounts();
+		log.info("Post count reconciliation completed, corrected post count of {} subreddits",
+				noOfCorrectedSubreddits);
+	}
+}
@@ -2,14 +2,17 @@ package com.redditclone.demo.service;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.redditclone.demo.dto.CursorPageResponse;
 import com.redditclone.demo.dto.SubredditDto;
+import com.redditclone.demo.event.SubredditCreatedEvent;
 import com.redditclone.demo.mapper.SubredditMapper;
 import com.redditclone.demo.model.Subreddit;
+import com.redditclone.demo.model.SubredditSortType;
 import com.redditclone.demo.repository.SubredditRepository;
 
 import lombok.AllArgsConstructor;
@@ -30,10 +33,24 @@ public class SubredditService {
 	 * from the subreddit table in the database.
 	 */
 	private final SubredditRepository subredditRepository;
+
+	/**
+	 * The application event publisher which is used to publish the created
+	 * subreddits to the subreddit name index.
+	 */
+	private final ApplicationEventPublisher applicationEventPublisher;
+
+	/**
+	 * The subreddit directory service which is used to read the subreddits from
+	 * the directory snapshot.
+	 */
+	private final SubredditDirectoryService subredditDirectoryService;
+
 	/**
 	 * createandSaveSubreddit method create and save subreddit information into
 	 * subreddit table in the database.It returns the the created subreddit info if
-	 * creation is successful.
+	 * creation is successful. Created subreddit is added to the subreddit name
+	 * index once it is committed.
 	 *
 	 * @param subredditDto the subreddit dto information which needs to be saved.
 	 * @return the subreddit dto after saved into the table.
@@ -43,33 +60,52 @@ public class SubredditService {
 		Subreddit subreddit = subredditMapper.mapSubredditModelFromDto(subredditDto);
 		Subreddit subredditAfterSave = subredditRepository.save(subreddit);
 		subredditDto.setId(subredditAfterSave.getId());
+		applicationEventPublisher
+				.publishEvent(new SubredditCreatedEvent(subredditAfterSave.getId(), subredditAfterSave.getName()));
 		return subredditDto;
 	}
 
 	/**
-	 * getSubreddit method get and returns the subreddit by id.
+	 * getSubreddit method get and returns the subreddit by id. Subreddit is read
+	 * from the directory snapshot and from the subreddit table only if it is
+	 * created after the snapshot.
 	 *
 	 * @param id the id which related subreddit needs to be found.
 	 * @return the subreddit which is related to id, returns empty new subreddit
 	 *         instance if matching subreddit is not found.
 	 */
+	@Transactional(readOnly = true)
 	public SubredditDto getSubreddit(Long id) {
-		Optional<Subreddit> subredditOptional = subredditRepository.findById(id);
-		SubredditDto subredditDto = new SubredditDto();
-		if (subredditOptional.isPresent()) {
-			subredditDto = subredditMapper.mapSubredditDtoFromModel(subredditOptional.get());
+		Optional<SubredditDto> subredditDtoOptional = subredditDirectoryService.findSubreddit(id);
+		if (subredditDtoOptional.isPresent()) {
+			return subredditDtoOptional.get();
 		}
-		return subredditDto;
+		return subredditRepository.findById(id).map(subredditMapper::mapSubredditDtoFromModel)
+				.orElseGet(SubredditDto::new);
 	}
 
 	/**
-	 * getAllSubreddits method fetches and returns all subreddits.
+	 * getAllSubreddits method returns all subreddits sorted by name from the
+	 * directory snapshot.
 	 *
 	 * @return List<SubredditDto> the all subreddits.
 	 */
-	@Transactional(readOnly = true)
 	public List<SubredditDto> getAllSubreddits() {
-		return subredditRepository.findAll().stream().map(subredditMapper::mapSubredditDtoFromModel)
-				.collect(Collectors.toList());
+		return subredditDirectoryService.getAllSubreddits();
+	}
+
+	/**
+	 * getSubredditDirectoryPage method returns the page of subreddits in the order
+	 * of the sort type from the directory snapshot.
+	 *
+	 * @param subredditSortType the sort type of the subreddits.
+	 * @param pageCursor        the opaque page cursor returned with previous page,
+	 *                          null to fetch the first page.
+	 * @param pageSize          the no of subreddits to be returned in the page.
+	 * @return CursorPageResponse<SubredditDto> the page of sorted subreddits.
+	 */
+	public CursorPageResponse<SubredditDto> getSubredditDirectoryPage(SubredditSortType subredditSortType,
+			String pageCursor, int pageSize) {
+		return subredditDirectoryService.getSubredditPage(subredditSortType, pageCursor, pageSize);
 	}
 }
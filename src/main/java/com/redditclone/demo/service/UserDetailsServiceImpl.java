@@ -1,12 +1,9 @@
 package com.redditclone.demo.service;
 
-import java.util.Collection;
-import java.util.Collections;
 import java.util.Optional;
 
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -14,17 +11,20 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.redditclone.demo.model.User;
 import com.redditclone.demo.repository.UserRepository;
+import com.redditclone.demo.security.RedditUserPrincipal;
 
 import lombok.AllArgsConstructor;
 
 /**
  * UserDetailsServiceImpl which implements logic to fetch user details by
  * implementing overridden loadUserByUsername method of UserDetailsService class
- * which will be used for authentication of user.
+ * which will be used for authentication of user. It also updates the encoded
+ * password once the password encoder reports that the stored password needs to
+ * be re-encoded after a successful authentication.
  */
 @Service
 @AllArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
 	/**
 	 * The user repository which is used to fetch user details from the user table
@@ -36,26 +36,23 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 	@Transactional(readOnly = true)
 	public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 		Optional<User> userOptional = userRepository.findByUsername(username);
-		org.springframework.security.core.userdetails.User userDetails = null;
+		RedditUserPrincipal userDetails = null;
 		if (userOptional.isPresent()) {
 			User user = userOptional.get();
-			userDetails = new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(),
-					user.isUserEnabled(), true, true, true, getAuthorities("USER"));
+			userDetails = new RedditUserPrincipal(user.getUserId(), user.getUsername(), user.getPassword(),
+					user.isUserEnabled());
 		} else {
 			throw new UsernameNotFoundException("No User Details " + "Found with username : " + username);
 		}
 		return userDetails;
 	}
 
-	/**
-	 * getAuthorities methods gets the list of authorities enabled or allowed for
-	 * this role of the user.
-	 *
-	 * @param role the role of the user which authorities needs to be returned.
-	 * @return the authorities allowed for the role of the user.
-	 */
-	private Collection<? extends GrantedAuthority> getAuthorities(String role) {
-		return Collections.singletonList(new SimpleGrantedAuthority(role));
+	@Override
+	public UserDetails updatePassword(UserDetails user, String newPassword) {
+		userRepository.updatePasswordByUsername(user.getUsername(), newPassword);
+		RedditUserPrincipal principal = (RedditUserPrincipal) user;
+		return new RedditUserPrincipal(principal.getUserId(), principal.getUsername(), newPassword,
+				principal.isEnabled());
 	}
 
 }
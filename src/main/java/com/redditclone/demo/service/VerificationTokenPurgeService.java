@@ -0,0 +1,92 @@
+package com.redditclone.demo.service;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.redditclone.demo.repository.UserRepository;
+import com.redditclone.demo.repository.VerificationTokenRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * VerificationTokenPurgeService class provides method to purge the expired
+ * verification tokens along with the user accounts which are never activated
+ * before their verification token is expired or which never got a token with
+ * in the token expiration time, so that the token table holds only the tokens
+ * which can still activate an account.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class VerificationTokenPurgeService {
+
+	/**
+	 * The verification token repository which is used to delete the expired
+	 * verification tokens.
+	 */
+	private final VerificationTokenRepository verificationTokenRepository;
+
+	/**
+	 * The user repository which is used to delete the never activated user
+	 * accounts.
+	 */
+	private final UserRepository userRepository;
+
+	/**
+	 * The transaction template which deletes each batch of user accounts along
+	 * with their verification tokens in a single transaction.
+	 */
+	private final TransactionTemplate transactionTemplate;
+
+	/** The no of user accounts or tokens deleted with in a single transaction. */
+	@Value("${verification.token.purge.batch.size}")
+	private int purgeBatchSize;
+
+	/** The time in millis after which verification token expires. */
+	@Value("${verification.token.expiration.time.millis}")
+	private long verificationTokenExpirationTimeInMillis;
+
+	/**
+	 * purgeExpiredVerificationTokens method sets the expiry of the tokens issued
+	 * before expiry is set, then deletes the never activated user accounts with
+	 * expired tokens or without token batch by batch, and finally deletes the
+	 * remaining expired tokens batch by batch.
+	 */
+	@Scheduled(initialDelayString = "${verification.token.purge.interval.millis}",
+			fixedDelayString = "${verification.token.purge.interval.millis}")
+	public void purgeExpiredVerificationTokens() {
+		Instant currentDateTime = Instant.now();
+		Instant expiredRegistered = currentDateTime.minusMillis(verificationTokenExpirationTimeInMillis);
+		verificationTokenRepository
+				.backfillMissingExpiry(currentDateTime.plusMillis(verificationTokenExpirationTimeInMillis));
+		long noOfDeletedUsers = 0;
+		List<Long> expiredUserIds;
+		do {
+			expiredUserIds = verificationTokenRepository.findExpiredUnactivatedUserIds(currentDateTime,
+					expiredRegistered, purgeBatchSize);
+			if (!expiredUserIds.isEmpty()) {
+				List<Long> userIds = expiredUserIds;
+				noOfDeletedUsers += transactionTemplate.execute(status -> {
+					verificationTokenRepository.deleteByRelatedUserIds(userIds);
+					return userRepository.deleteUnactivatedUsersByIds(userIds);
+				});
+			}
+		} while (expiredUserIds.size() == purgeBatchSize);
+		long noOfDeletedTokens = 0;
+		int noOfDeletedBatchTokens;
+		do {
+			noOfDeletedBatchTokens = verificationTokenRepository.deleteExpiredTokens(currentDateTime, purgeBatchSize);
+			noOfDeletedTokens += noOfDeletedBatchTokens;
+		} while (noOfDeletedBatchTokens == purgeBatchSize);
+		if (noOfDeletedUsers > 0 || noOfDeletedTokens > 0) {
+			log.info("Purged {} unactivated user accounts and {} other expired verification tokens",
+					noOfDeletedUsers, noOfDeletedTokens);
+		}
+	}
+}
@@ -0,0 +1,374 @@
+package com.redditclone.demo.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.redditclone.demo.event.VoteCountsFlushedEvent;
+import com.redditclone.demo.event.VoteRegisteredEvent;
+import com.redditclone.demo.repository.PostRepository;
+
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * VoteAggregatorService class accumulates the vote count changes of each post
+ * in memory and writes them behind to the post table in batches of relative
+ * increments, so that concurrent voters of the same post don't wait on the
+ * same post row lock. Pending vote count changes are striped across cells of a
+ * LongAdder per post, so that voting throughput of a hot post scales with no
+ * of cores.<br>
+ *
+ * A vote delta is moved from the unflushed to the flushing vote delta in one
+ * step under the flush lock of the post, and it is removed from the flushing
+ * vote delta before the flush is committed. So the vote count read from the
+ * post table or the post cache plus the pending vote delta never counts a
+ * flushed vote delta twice, it can only miss it until the flush is committed
+ * and the post cache is updated.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class VoteAggregatorService {
+
+	/**
+	 * The Constant IDLE_FLUSH_COUNT_TO_RETIRE no of consecutive flushes after
+	 * which pending vote delta of a post without any vote is removed from memory.
+	 */
+	private static final int IDLE_FLUSH_COUNT_TO_RETIRE = 2;
+
+	/**
+	 * The post repository which is used to increment vote count of the posts.
+	 */
+	private final PostRepository postRepository;
+
+	/**
+	 * The transaction template which is used to flush each batch of vote count
+	 * changes with in a single transaction.
+	 */
+	private final TransactionTemplate transactionTemplate;
+
+	/**
+	 * The application event publisher which is used to publish the vote count
+	 * changes committed by each flushed batch.
+	 */
+	private final ApplicationEventPublisher applicationEventPublisher;
+
+	/** The pending vote delta of each post mapped by post id. */
+	private final Map<Long, PendingVoteDelta> pendingVoteDeltaByPostId = new ConcurrentHashMap<>();
+
+	/**
+	 * The pending vote deltas which are removed from the map at the previous
+	 * flush. Their residual vote delta is flushed at the next flush, which gives
+	 * voters who still hold the reference a full flush interval to complete.
+	 */
+	private List<RetiredVoteDelta> retiredVoteDeltas = new ArrayList<>();
+
+	/**
+	 * The maximum no of post vote count changes which are flushed with in a single
+	 * transaction.
+	 */
+	@Value("${vote.aggregator.flush.batch.size}")
+	private int flushBatchSize;
+
+	/**
+	 * registerVoteDelta method adds the vote delta of the registered vote to the
+	 * pending vote delta of the voted post once the vote is committed, so that a
+	 * vote which is rolled back is never written to the post table. It runs
+	 * before the vote is queued for ranking, so that the vote delta of a queued
+	 * ranking update is always found by the loading of the post ranks.
+	 *
+	 * @param voteRegisteredEvent the vote registered event which holds the vote
+	 *                            details.
+	 */
+	@Order(0)
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void registerVoteDelta(VoteRegisteredEvent voteRegisteredEvent) {
+		addVoteDelta(voteRegisteredEvent.getPostId(), voteRegisteredEvent.getVoteDelta());
+	}
+
+	/**
+	 * addVoteDelta method adds the vote delta to the pending vote delta of the
+	 * post which will be written to the post table at next flush.
+	 *
+	 * @param postId    the post id of the voted post.
+	 * @param voteDelta the vote delta which needs to be added to vote count.
+	 */
+	private void addVoteDelta(Long postId, long voteDelta) {
+		PendingVoteDelta pendingVoteDelta = pendingVoteDeltaByPostId.get(postId);
+		if (pendingVoteDelta == null) {
+			pendingVoteDelta = pendingVoteDeltaByPostId.computeIfAbsent(postId, id -> new PendingVoteDelta());
+		}
+		addToPendingVoteDelta(postId, pendingVoteDelta, voteDelta);
+	}
+
+	/**
+	 * addToPendingVoteDelta method adds the vote delta to the given pending vote
+	 * delta of the post. Pending vote delta is checked again after the vote delta
+	 * is added, and if it is retired meanwhile, it's unflushed vote delta is moved
+	 * to the current pending vote delta of the post, so that a vote added after
+	 * the residual vote delta of the retired one is requeued is not lost.
+	 *
+	 * @param postId           the post id of the voted post.
+	 * @param pendingVoteDelta the pending vote delta of the post.
+	 * @param voteDelta        the vote delta which needs to be added to vote
+	 *                         count.
+	 */
+	private void addToPendingVoteDelta(Long postId, PendingVoteDelta pendingVoteDelta, long voteDelta) {
+		pendingVoteDelta.unflushedVoteDelta.add(voteDelta);
+		if (pendingVoteDelta.retired) {
+			long residualVoteDelta = pendingVoteDelta.unflushedVoteDelta.sumThenReset();
+			if (residualVoteDelta != 0) {
+				addVoteDelta(postId, residualVoteDelta);
+			}
+		}
+	}
+
+	/**
+	 * getPendingVoteDelta method returns the vote delta of the post which is not
+	 * yet committed to the post table. It needs to be added to vote count read
+	 * from the post table to get the current vote count.
+	 *
+	 * @param postId the post id which pending vote delta needs to be found.
+	 * @return the pending vote delta of the post.
+	 */
+	public long getPendingVoteDelta(Long postId) {
+		PendingVoteDelta pendingVoteDelta = pendingVoteDeltaByPostId.get(postId);
+		return pendingVoteDelta == null ? 0 : pendingVoteDelta.getVoteDelta();
+	}
+
+	/**
+	 * flushPendingVoteDeltas method writes the pending vote delta of all the posts
+	 * to the post table as relative increments in batches. Vote deltas of the
+	 * failed batch are added back, so that they are retried at the next flush.
+	 */
+	@Scheduled(fixedDelayString = "${vote.aggregator.flush.interval.millis}")
+	public synchronized void flushPendingVoteDeltas() {
+		requeueRetiredVoteDeltas();
+		List<FlushingVoteDelta> flushingVoteDeltas = new ArrayList<>();
+		pendingVoteDeltaByPostId.forEach((postId, pendingVoteDelta) -> {
+			long voteDelta = pendingVoteDelta.startFlushing();
+			if (voteDelta == 0) {
+				retireIfIdle(postId, pendingVoteDelta);
+				return;
+			}
+			pendingVoteDelta.idleFlushCount = 0;
+			flushingVoteDeltas.add(new FlushingVoteDelta(postId, pendingVoteDelta, voteDelta));
+		});
+		for (int fromIndex = 0; fromIndex < flushingVoteDeltas.size(); fromIndex += flushBatchSize) {
+			flushBatch(flushingVoteDeltas.subList(fromIndex,
+					Math.min(fromIndex + flushBatchSize, flushingVoteDeltas.size())));
+		}
+	}
+
+	/**
+	 * flushPendingVoteDeltasOnShutdown method flushes the pending vote deltas
+	 * before application is shutdown, so that accumulated votes are not lost.
+	 */
+	@PreDestroy
+	public void flushPendingVoteDeltasOnShutdown() {
+		flushPendingVoteDeltas();
+	}
+
+	/**
+	 * flushBatch method increments the vote count of the batch of posts with in a
+	 * single transaction and publishes the flushed vote count changes with in the
+	 * transaction, so that the listeners can act on commit of the flush. Vote
+	 * deltas are removed from the flushing vote deltas just before the commit,
+	 * and moved back to the unflushed vote deltas if the flush fails.
+	 *
+	 * @param flushingVoteDeltas the batch of vote deltas which needs to be flushed.
+	 */
+	private void flushBatch(List<FlushingVoteDelta> flushingVoteDeltas) {
+		AtomicBoolean flushingCompleted = new AtomicBoolean();
+		try {
+			transactionTemplate.executeWithoutResult(transactionStatus -> {
+				Map<Long, Long> flushedVoteDeltaByPostId = new HashMap<>();
+				flushingVoteDeltas.forEach(flushingVoteDelta -> {
+					postRepository.incrementVoteCount(flushingVoteDelta.postId,
+							Math.toIntExact(flushingVoteDelta.voteDelta));
+					flushedVoteDeltaByPostId.put(flushingVoteDelta.postId, flushingVoteDelta.voteDelta);
+				});
+				applicationEventPublisher.publishEvent(new VoteCountsFlushedEvent(flushedVoteDeltaByPostId));
+				flushingVoteDeltas.forEach(flushingVoteDelta -> flushingVoteDelta.pendingVoteDelta
+						.completeFlushing(flushingVoteDelta.voteDelta, false));
+				flushingCompleted.set(true);
+			});
+		} catch (RuntimeException exception) {
+			log.error("Flushing vote count of {} posts failed, it will be retried at next flush",
+					flushingVoteDeltas.size(), exception);
+			if (flushingCompleted.get()) {
+				flushingVoteDeltas.forEach(flushingVoteDelta -> flushingVoteDelta.pendingVoteDelta.unflushedVoteDelta
+						.add(flushingVoteDelta.voteDelta));
+			} else {
+				flushingVoteDeltas.forEach(flushingVoteDelta -> flushingVoteDelta.pendingVoteDelta
+						.completeFlushing(flushingVoteDelta.voteDelta, true));
+			}
+		}
+	}
+
+	/**
+	 * retireIfIdle method removes the pending vote delta of the post from memory
+	 * if post is not voted for the consecutive flushes, and marks it retired so
+	 * that the voters who still hold it move their vote delta to the current one.
+	 *
+	 * @param postId           the post id of pending vote delta.
+	 * @param pendingVoteDelta the pending vote delta of the post.
+	 */
+	private void retireIfIdle(Long postId, PendingVoteDelta pendingVoteDelta) {
+		if (++pendingVoteDelta.idleFlushCount >= IDLE_FLUSH_COUNT_TO_RETIRE
+				&& pendingVoteDeltaByPostId.remove(postId, pendingVoteDelta)) {
+			pendingVoteDelta.retired = true;
+			retiredVoteDeltas.add(new RetiredVoteDelta(postId, pendingVoteDelta));
+		}
+	}
+
+	/**
+	 * requeueRetiredVoteDeltas method adds the residual vote delta of the pending
+	 * vote deltas retired at previous flush back to the current pending vote
+	 * deltas.
+	 */
+	private void requeueRetiredVoteDeltas() {
+		List<RetiredVoteDelta> previouslyRetiredVoteDeltas = retiredVoteDeltas;
+		retiredVoteDeltas = new ArrayList<>();
+		previouslyRetiredVoteDeltas.forEach(retiredVoteDelta -> {
+			long residualVoteDelta = retiredVoteDelta.pendingVoteDelta.unflushedVoteDelta.sumThenReset();
+			if (residualVoteDelta != 0) {
+				addVoteDelta(retiredVoteDelta.postId, residualVoteDelta);
+			}
+		});
+	}
+
+	/**
+	 * PendingVoteDelta class holds the vote delta of a post which is not yet
+	 * committed to the post table. Voters add to the unflushed vote delta without
+	 * locking, only the flushing thread takes the flush lock to move the vote
+	 * delta between the unflushed and flushing vote deltas, and the readers
+	 * validate their read of both against it.
+	 */
+	private static class PendingVoteDelta {
+
+		/** The vote delta accumulated after the last flush. */
+		private final LongAdder unflushedVoteDelta = new LongAdder();
+
+		/** The flush lock which guards the flushing vote delta. */
+		private final StampedLock flushLock = new StampedLock();
+
+		/** The vote delta which is being flushed at the moment. */
+		private long flushingVoteDelta;
+
+		/** Whether the pending vote delta is removed from memory. */
+		private volatile boolean retired;
+
+		/**
+		 * The no of consecutive flushes without any vote, it is accessed only by the
+		 * flushing thread.
+		 */
+		private int idleFlushCount;
+
+		/**
+		 * getVoteDelta method returns the sum of the unflushed and flushing vote
+		 * deltas read with in the same flush lock stamp.
+		 *
+		 * @return the long the pending vote delta.
+		 */
+		private long getVoteDelta() {
+			long stamp = flushLock.tryOptimisticRead();
+			long voteDelta = flushingVoteDelta + unflushedVoteDelta.sum();
+			if (flushLock.validate(stamp)) {
+				return voteDelta;
+			}
+			stamp = flushLock.readLock();
+			try {
+				return flushingVoteDelta + unflushedVoteDelta.sum();
+			} finally {
+				flushLock.unlockRead(stamp);
+			}
+		}
+
+		/**
+		 * startFlushing method moves the unflushed vote delta to the flushing vote
+		 * delta in one step under the flush lock.
+		 *
+		 * @return the long the vote delta which needs to be flushed, 0 if none.
+		 */
+		private long startFlushing() {
+			long stamp = flushLock.writeLock();
+			try {
+				long voteDelta = unflushedVoteDelta.sum();
+				unflushedVoteDelta.add(-voteDelta);
+				flushingVoteDelta += voteDelta;
+				return voteDelta;
+			} finally {
+				flushLock.unlockWrite(stamp);
+			}
+		}
+
+		/**
+		 * completeFlushing method removes the flushed vote delta from the flushing
+		 * vote delta under the flush lock, and moves it back to the unflushed vote
+		 * delta if the flush failed.
+		 *
+		 * @param voteDelta   the vote delta which is flushed.
+		 * @param flushFailed whether the flush failed.
+		 */
+		private void completeFlushing(long voteDelta, boolean flushFailed) {
+			long stamp = flushLock.writeLock();
+			try {
+				flushingVoteDelta -= voteDelta;
+				if (flushFailed) {
+					unflushedVoteDelta.add(voteDelta);
+				}
+			} finally {
+				flushLock.unlockWrite(stamp);
+			}
+		}
+	}
+
+	/**
+	 * FlushingVoteDelta class holds the vote delta of a post taken for flushing.
+	 */
+	@AllArgsConstructor
+	private static class FlushingVoteDelta {
+
+		/** The post id of the flushing vote delta. */
+		private final Long postId;
+
+		/** The pending vote delta from which vote delta is taken. */
+		private final PendingVoteDelta pendingVoteDelta;
+
+		/** The vote delta which needs to be flushed. */
+		private final long voteDelta;
+	}
+
+	/**
+	 * RetiredVoteDelta class holds the pending vote delta of a post which is
+	 * removed from memory.
+	 */
+	@AllArgsConstructor
+	private static class RetiredVoteDelta {
+
+		/** The post id of the retired vote delta. */
+		private final Long postId;
+
+		/** The retired pending vote delta. */
+		private final PendingVoteDelta pendingVoteDelta;
+	}
+}
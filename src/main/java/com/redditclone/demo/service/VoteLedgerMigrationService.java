@@ -0,0 +1,56 @@
+package com.redditclone.demo.service;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+
+import com.redditclone.demo.model.VoteType;
+import com.redditclone.demo.repository.PostRepository;
+import com.redditclone.demo.repository.VoteRepository;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * VoteLedgerMigrationService class provides method to migrate the vote table
+ * from history of every vote change into one vote per user and post. It runs
+ * on start up until the unique constraint on post and user is added to the
+ * vote table, once all the beans are created but before the web server is
+ * started and the post counts are loaded, so that no vote is registered or
+ * counted before the migration. Start up fails if the migration fails.
+ */
+@Service
+@Slf4j
+@AllArgsConstructor
+public class VoteLedgerMigrationService implements SmartInitializingSingleton {
+
+	/** The vote repository which is used to collapse the vote history. */
+	private final VoteRepository voteRepository;
+
+	/**
+	 * The post repository which is used to recount the vote count of the posts
+	 * from collapsed votes.
+	 */
+	private final PostRepository postRepository;
+
+	/**
+	 * migrateVoteHistoryToLedger method deletes all the votes of each user and
+	 * post except the latest one, recounts the vote count of the posts from the
+	 * remaining votes and adds the unique constraint on post and user to the vote
+	 * table.
+	 */
+	public void migrateVoteHistoryToLedger() {
+		if (voteRepository.countVoteLedgerUniqueConstraint() > 0) {
+			return;
+		}
+		int noOfDeletedVotes = voteRepository.deleteSupersededVotes();
+		postRepository.recountVoteCounts(VoteType.UPVOTE.ordinal());
+		voteRepository.addVoteLedgerUniqueConstraint();
+		log.info("Vote history migrated to one vote per user and post, deleted {} superseded votes",
+				noOfDeletedVotes);
+	}
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		migrateVoteHistoryToLedger();
+	}
+}
@@ -1,16 +1,15 @@
 package com.redditclone.demo.service;
 
-import java.util.Optional;
-
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.redditclone.demo.dto.VoteDto;
+import com.redditclone.demo.event.VoteRegisteredEvent;
 import com.redditclone.demo.exceptions.PostNotFoundException;
 import com.redditclone.demo.exceptions.RedditException;
-import com.redditclone.demo.mapper.VoteMapper;
 import com.redditclone.demo.model.Post;
-import com.redditclone.demo.model.User;
-import com.redditclone.demo.model.Vote;
+import com.redditclone.demo.model.VoteType;
 import com.redditclone.demo.repository.PostRepository;
 import com.redditclone.demo.repository.VoteRepository;
 
@@ -24,9 +23,6 @@ import lombok.AllArgsConstructor;
 @AllArgsConstructor
 public class VoteService {
 
-	/** The vote mapper which used to map between vote model and dto. */
-	private VoteMapper voteMapper;
-
 	/**
 	 * The vote repository which is used to perform CRUD operations on data from the
 	 * vote table in the database.
@@ -42,12 +38,22 @@ public class VoteService {
 	/** The auth service which will be used to get logged in user details */
 	private AuthService authService;
 
+	/**
+	 * The application event publisher which is used to publish the registered
+	 * votes to the in memory views of the votes.
+	 */
+	private final ApplicationEventPublisher applicationEventPublisher;
+
 	/**
 	 * registerVote method register a vote given by user for the respective post. It
-	 * also updates the vote count for the respective post
+	 * keeps only one vote per user and post, so inserts the vote or updates the
+	 * vote type of existing vote with single upsert statement. It publishes the
+	 * vote registered event with the difference between new and previous vote
+	 * value, which is added to the pending vote count of the respective post by
+	 * vote aggregator service only once the vote is committed.
 	 * 
 	 * For creation of vote it finds and use related post information by post id.
-	 * Also it uses logged in user details as input.<br>
+	 * Also it uses logged in user id as input.<br>
 	 * 
 	 * throws RedditException with error message if user already registered a vote
 	 * on same vote type.
@@ -55,19 +61,25 @@ public class VoteService {
 	 * @param voteRegisterRequest the vote register request which contains details
 	 *                            to vote.
 	 */
+	@Transactional
 	public void registerVote(VoteDto voteRegisterRequest) {
-		User currentLoggedInUser = authService.getCurrentLoggedInUser();
+		Long currentLoggedInUserId = authService.getCurrentLoggedInUserId();
 		Post votedPost = postRepository.findById(voteRegisterRequest.getPostId())
 				.orElseThrow(() -> new PostNotFoundException(voteRegisterRequest.getPostId().toString()));
-		Optional<Vote> recentVote = voteRepository.findTopByPostAndUserOrderByVoteIdDesc(votedPost,
-				currentLoggedInUser);
-		if (recentVote.isPresent() && voteRegisterRequest.getVoteType().equals(recentVote.get().getVoteType())) {
-			throw new RedditException("You have already " + voteRegisterRequest.getVoteType() + "D for this post ["
-					+ votedPost.getPostName() + "]");
+		VoteType voteType = voteRegisterRequest.getVoteType();
+		int upsertStatus = voteRepository.upsertVote(votedPost.getPostId(), currentLoggedInUserId,
+				voteType.ordinal());
+		if (upsertStatus == 0) {
+			throw new RedditException(
+					"You have already " + voteType + "D for this post [" + votedPost.getPostName() + "]");
+		}
+		int previousVoteValue = 0;
+		if (upsertStatus == 2) {
+			previousVoteValue = -voteType.getVoteValue();
 		}
-		int updatedVoteCount = votedPost.getVoteCount() + voteRegisterRequest.getVoteType().getVoteValue();
-		postRepository.updateVoteCount(votedPost.getPostId(), updatedVoteCount);
-		voteRepository.save(voteMapper.mapVoteModelFromDto(voteRegisterRequest, votedPost, currentLoggedInUser));
+		int voteDelta = voteType.getVoteValue() - previousVoteValue;
+		applicationEventPublisher.publishEvent(
+				new VoteRegisteredEvent(votedPost.getPostId(), currentLoggedInUserId, voteType, voteDelta));
 	}
 
 }
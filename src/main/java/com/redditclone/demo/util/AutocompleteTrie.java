@@ -0,0 +1,335 @@
+package com.redditclone.demo.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * AutocompleteTrie class holds the names in a compressed trie keyed by their
+ * lower case characters, where each node holds the top scored names under it
+ * in the descending order of score. So the top suggestions of a prefix are
+ * found by walking the characters of the prefix, without visiting the names
+ * under the prefix.<br>
+ *
+ * Nodes are never modified after they are reachable except by replacing their
+ * children and top suggestions with new arrays, so lookups read the trie
+ * without locks while names are added. Names are expected to be unique case
+ * insensitively, a name is not added again once it's lower case name is in the
+ * trie. Top suggestions are not lowered once a name is added, so the trie is
+ * rebuilt to reflect the changed scores.<br>
+ *
+ * This class is thread safe.
+ */
+public class AutocompleteTrie {
+
+	/** The Constant NO_CHILDREN the children of the leaf node. */
+	private static final Node[] NO_CHILDREN = {};
+
+	/** The Constant NO_SUGGESTIONS the top suggestions of the empty node. */
+	private static final Suggestion[] NO_SUGGESTIONS = {};
+
+	/** The maximum no of top suggestions held in each node. */
+	private final int maximumSuggestions;
+
+	/** The root node which label is empty. */
+	private final Node root = new Node(new char[0], NO_CHILDREN, NO_SUGGESTIONS, null);
+
+	/** The no of names in the trie. */
+	private volatile int size;
+
+	/**
+	 * Instantiates a new autocomplete trie.
+	 *
+	 * @param maximumSuggestions the maximum no of top suggestions held in each
+	 *                           node
+	 */
+	public AutocompleteTrie(int maximumSuggestions) {
+		this.maximumSuggestions = Math.max(1, maximumSuggestions);
+	}
+
+	/**
+	 * add method adds the name with it's score to the trie, and to the top
+	 * suggestions of the nodes on it's path if it is scored above them.
+	 *
+	 * @param name  the name which needs to be added.
+	 * @param score the score by which name is ranked.
+	 * @return true, if name is added, false if the name is already in the trie.
+	 */
+	public synchronized boolean add(String name, long score) {
+		char[] key = toKey(name);
+		Suggestion suggestion = new Suggestion(name, score);
+		List<Node> path = new ArrayList<>();
+		Node node = root;
+		int keyIndex = 0;
+		while (true) {
+			path.add(node);
+			if (keyIndex == key.length) {
+				if (node.suggestion != null) {
+					return false;
+				}
+				node.suggestion = suggestion;
+				break;
+			}
+			Node child = node.findChild(key[keyIndex]);
+			if (child == null) {
+				node.addChild(new Node(Arrays.copyOfRange(key, keyIndex, key.length), NO_CHILDREN,
+						new Suggestion[] { suggestion }, suggestion));
+				break;
+			}
+			int commonLength = getCommonLength(child.label, key, keyIndex);
+			if (commonLength < child.label.length) {
+				Node lowerChild = new Node(Arrays.copyOfRange(child.label, commonLength, child.label.length),
+						child.children, child.topSuggestions, child.suggestion);
+				Node middleChild = new Node(Arrays.copyOf(child.label, commonLength), new Node[] { lowerChild },
+						child.topSuggestions, null);
+				node.replaceChild(child, middleChild);
+				child = middleChild;
+			}
+			node = child;
+			keyIndex += commonLength;
+		}
+		for (Node pathNode : path) {
+			pathNode.offer(suggestion, maximumSuggestions);
+		}
+		size++;
+		return true;
+	}
+
+	/**
+	 * findTopSuggestions method finds and returns the top scored names which
+	 * start with the prefix case insensitively.
+	 *
+	 * @param prefix the prefix of the names.
+	 * @param limit  the maximum no of names to be returned, it is capped by the no
+	 *               of top suggestions held in each node.
+	 * @return the list of names in the descending order of score.
+	 */
+	public List<String> findTopSuggestions(String prefix, int limit) {
+		char[] key = toKey(prefix);
+		Node node = root;
+		int keyIndex = 0;
+		while (keyIndex < key.length) {
+			Node child = node.findChild(key[keyIndex]);
+			if (child == null) {
+				return Collections.emptyList();
+			}
+			int commonLength = getCommonLength(child.label, key, keyIndex);
+			if (keyIndex + commonLength < key.length && commonLength < child.label.length) {
+				return Collections.emptyList();
+			}
+			node = child;
+			keyIndex += commonLength;
+		}
+		Suggestion[] topSuggestions = node.topSuggestions;
+		int noOfSuggestions = Math.min(Math.max(0, limit), topSuggestions.length);
+		List<String> names = new ArrayList<>(noOfSuggestions);
+		for (int index = 0; index < noOfSuggestions; index++) {
+			names.add(topSuggestions[index].name);
+		}
+		return names;
+	}
+
+	/**
+	 * size method returns the no of names in the trie.
+	 *
+	 * @return the int the no of names.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * toKey method returns the lower case characters of the name by which it is
+	 * keyed in the trie.
+	 *
+	 * @param name the name.
+	 * @return the key of the name.
+	 */
+	private static char[] toKey(String name) {
+		return name.toLowerCase(Locale.ROOT).toCharArray();
+	}
+
+	/**
+	 * getCommonLength method returns the no of leading characters of the label
+	 * which are same as the key from the key index.
+	 *
+	 * @param label    the label of the node.
+	 * @param key      the key.
+	 * @param keyIndex the index of the key from which it is compared.
+	 * @return the int the no of common characters.
+	 */
+	private static int getCommonLength(char[] label, char[] key, int keyIndex) {
+		int maximumLength = Math.min(label.length, key.length - keyIndex);
+		int commonLength = 0;
+		while (commonLength < maximumLength && label[commonLength] == key[keyIndex + commonLength]) {
+			commonLength++;
+		}
+		return commonLength;
+	}
+
+	/**
+	 * Suggestion class holds the name and it's score.
+	 */
+	private static final class Suggestion {
+
+		/** The name. */
+		private final String name;
+
+		/** The score of the name. */
+		private final long score;
+
+		/**
+		 * Instantiates a new suggestion.
+		 *
+		 * @param name  the name
+		 * @param score the score of the name
+		 */
+		private Suggestion(String name, long score) {
+			this.name = name;
+			this.score = score;
+		}
+
+		/**
+		 * isRankedAbove method checks whether this suggestion is ranked above the
+		 * other suggestion, by higher score and then by name.
+		 *
+		 * @param otherSuggestion the other suggestion.
+		 * @return true, if this suggestion is ranked above, otherwise return false.
+		 */
+		private boolean isRankedAbove(Suggestion otherSuggestion) {
+			return score != otherSuggestion.score ? score > otherSuggestion.score
+					: name.compareTo(otherSuggestion.name) < 0;
+		}
+	}
+
+	/**
+	 * Node class holds the label of the edge from it's parent, it's children
+	 * sorted by the first character of their label and the top suggestions under
+	 * it.
+	 */
+	private static final class Node {
+
+		/** The characters of the edge from the parent node. */
+		private final char[] label;
+
+		/** The children sorted by the first character of their label. */
+		private volatile Node[] children;
+
+		/** The top suggestions under this node in descending order of score. */
+		private volatile Suggestion[] topSuggestions;
+
+		/** The suggestion of the name which ends at this node, null if none. */
+		private volatile Suggestion suggestion;
+
+		/**
+		 * Instantiates a new node.
+		 *
+		 * @param label          the characters of the edge from the parent node
+		 * @param children       the children sorted by the first character of
+		 *                       their label
+		 * @param topSuggestions the top suggestions under the node
+		 * @param suggestion     the suggestion of the name which ends at the node
+		 */
+		private Node(char[] label, Node[] children, Suggestion[] topSuggestions, Suggestion suggestion) {
+			this.label = label;
+			this.children = children;
+			this.topSuggestions = topSuggestions;
+			this.suggestion = suggestion;
+		}
+
+		/**
+		 * findChild method finds the child which label starts with the character by
+		 * binary search.
+		 *
+		 * @param firstCharacter the first character of the label.
+		 * @return the child node, null if not found.
+		 */
+		private Node findChild(char firstCharacter) {
+			Node[] currentChildren = children;
+			int index = findChildIndex(currentChildren, firstCharacter);
+			return index >= 0 ? currentChildren[index] : null;
+		}
+
+		/**
+		 * addChild method adds the new child in the order of the first character of
+		 * it's label.
+		 *
+		 * @param child the child node which needs to be added.
+		 */
+		private void addChild(Node child) {
+			Node[] currentChildren = children;
+			int insertionIndex = -findChildIndex(currentChildren, child.label[0]) - 1;
+			Node[] newChildren = new Node[currentChildren.length + 1];
+			System.arraycopy(currentChildren, 0, newChildren, 0, insertionIndex);
+			newChildren[insertionIndex] = child;
+			System.arraycopy(currentChildren, insertionIndex, newChildren, insertionIndex + 1,
+					currentChildren.length - insertionIndex);
+			children = newChildren;
+		}
+
+		/**
+		 * replaceChild method replaces the child with the new child which label
+		 * starts with the same character.
+		 *
+		 * @param child    the child node which needs to be replaced.
+		 * @param newChild the new child node.
+		 */
+		private void replaceChild(Node child, Node newChild) {
+			Node[] newChildren = children.clone();
+			newChildren[findChildIndex(newChildren, child.label[0])] = newChild;
+			children = newChildren;
+		}
+
+		/**
+		 * offer method adds the suggestion to the top suggestions if it is ranked
+		 * above any of them or if there are less than maximum suggestions.
+		 *
+		 * @param newSuggestion      the suggestion which needs to be offered.
+		 * @param maximumSuggestions the maximum no of top suggestions.
+		 */
+		private void offer(Suggestion newSuggestion, int maximumSuggestions) {
+			Suggestion[] currentSuggestions = topSuggestions;
+			int insertionIndex = currentSuggestions.length;
+			while (insertionIndex > 0 && newSuggestion.isRankedAbove(currentSuggestions[insertionIndex - 1])) {
+				insertionIndex--;
+			}
+			if (insertionIndex >= maximumSuggestions) {
+				return;
+			}
+			Suggestion[] newSuggestions = new Suggestion[Math.min(currentSuggestions.length + 1,
+					maximumSuggestions)];
+			System.arraycopy(currentSuggestions, 0, newSuggestions, 0, insertionIndex);
+			newSuggestions[insertionIndex] = newSuggestion;
+			System.arraycopy(currentSuggestions, insertionIndex, newSuggestions, insertionIndex + 1,
+					newSuggestions.length - insertionIndex - 1);
+			topSuggestions = newSuggestions;
+		}
+
+		/**
+		 * findChildIndex method finds the index of the child which label starts with
+		 * the character by binary search.
+		 *
+		 * @param currentChildren the children sorted by the first character.
+		 * @param firstCharacter  the first character of the label.
+		 * @return the index of the child, (-(insertion index) - 1) if not found.
+		 */
+		private static int findChildIndex(Node[] currentChildren, char firstCharacter) {
+			int lowIndex = 0;
+			int highIndex = currentChildren.length - 1;
+			while (lowIndex <= highIndex) {
+				int middleIndex = (lowIndex + highIndex) >>> 1;
+				char middleCharacter = currentChildren[middleIndex].label[0];
+				if (middleCharacter < firstCharacter) {
+					lowIndex = middleIndex + 1;
+				} else if (middleCharacter > firstCharacter) {
+					highIndex = middleIndex - 1;
+				} else {
+					return middleIndex;
+				}
+			}
+			return -(lowIndex + 1);
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package com.redditclone.demo.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * BloomFilter class holds a fixed size bit set of the added keys, which tells
+ * whether the key might have been added or definitely has not been added. No of
+ * bits and no of hash functions are derived from the expected no of keys and
+ * the false positive probability. Bit indexes of each key are derived from two
+ * 64 bit hashes of the key by double hashing.<br>
+ *
+ * This class is thread safe, keys can be added while other threads read it.
+ */
+public class BloomFilter {
+
+	/** The Constant FNV_OFFSET_BASIS the offset basis of 64 bit fnv-1a hash. */
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+	/** The Constant FNV_PRIME the prime of 64 bit fnv-1a hash. */
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	/** The bits of the filter, 64 bits in each word. */
+	private final AtomicLongArray bitWords;
+
+	/** The no of bits of the filter. */
+	private final long noOfBits;
+
+	/** The no of bit indexes set for each key. */
+	private final int noOfHashFunctions;
+
+	/**
+	 * Instantiates a new bloom filter sized for the expected no of keys and the
+	 * false positive probability.
+	 *
+	 * @param expectedNoOfKeys         the expected no of keys to be added
+	 * @param falsePositiveProbability the probability of reporting a key which is
+	 *                                 not added
+	 */
+	public BloomFilter(long expectedNoOfKeys, double falsePositiveProbability) {
+		long noOfKeys = Math.max(1, expectedNoOfKeys);
+		long noOfBitWords = Math.max(1,
+				(long) Math.ceil(-noOfKeys * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2))
+						/ Long.SIZE));
+		this.bitWords = new AtomicLongArray(Math.toIntExact(noOfBitWords));
+		this.noOfBits = noOfBitWords * Long.SIZE;
+		this.noOfHashFunctions = Math.max(1, (int) Math.round((double) noOfBits / noOfKeys * Math.log(2)));
+	}
+
+	/**
+	 * add method sets the bit indexes of the key.
+	 *
+	 * @param key the key to be added.
+	 */
+	public void add(CharSequence key) {
+		long firstHash = hash(key);
+		long secondHash = mix(firstHash) | 1;
+		for (int i = 0; i < noOfHashFunctions; i++) {
+			long bitIndex = Math.floorMod(firstHash + i * secondHash, noOfBits);
+			int wordIndex = (int) (bitIndex >>> 6);
+			long bitMask = 1L << bitIndex;
+			long word = bitWords.get(wordIndex);
+			while ((word & bitMask) == 0 && !bitWords.compareAndSet(wordIndex, word, word | bitMask)) {
+				word = bitWords.get(wordIndex);
+			}
+		}
+	}
+
+	/**
+	 * mightContain method checks whether all the bit indexes of the key are set.
+	 *
+	 * @param key the key to be checked.
+	 * @return false if key is definitely not added, true if key might have been
+	 *         added.
+	 */
+	public boolean mightContain(CharSequence key) {
+		long firstHash = hash(key);
+		long secondHash = mix(firstHash) | 1;
+		for (int i = 0; i < noOfHashFunctions; i++) {
+			long bitIndex = Math.floorMod(firstHash + i * secondHash, noOfBits);
+			if ((bitWords.get((int) (bitIndex >>> 6)) & (1L << bitIndex)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * hash method returns the 64 bit fnv-1a hash of the characters of the key.
+	 *
+	 * @param key the key.
+	 * @return the hash of the key.
+	 */
+	private static long hash(CharSequence key) {
+		long hash = FNV_OFFSET_BASIS;
+		for (int i = 0; i < key.length(); i++) {
+			hash = (hash ^ key.charAt(i)) * FNV_PRIME;
+		}
+		return hash;
+	}
+
+	/**
+	 * mix method derives the second hash from the first hash with the 64 bit
+	 * finalizer of murmur3 hash.
+	 *
+	 * @param hash the first hash.
+	 * @return the second hash.
+	 */
+	private static long mix(long hash) {
+		hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+		hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return hash ^ (hash >>> 33);
+	}
+}
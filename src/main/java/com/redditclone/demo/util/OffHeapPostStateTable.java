@@ -0,0 +1,296 @@
+package com.redditclone.demo.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * OffHeapPostStateTable class holds the ranking state of the posts, which are
+ * subreddit id, created epoch seconds, vote count, comment count and the
+ * sequences of the ranking updates reflected in the state, in an open
+ * addressing hash table of fixed size slots in a direct byte buffer outside of
+ * the java heap. Post id 0 marks an empty slot. The table doubles it's capacity
+ * when it is half full, up to the largest no of slots which fits in a direct
+ * buffer.<br>
+ *
+ * This class is not thread safe, the owner needs to guard the access. Slots
+ * returned by findSlot are valid only until the next post is added.
+ */
+public class OffHeapPostStateTable {
+
+	/** The Constant SLOT_BYTES the no of bytes of a slot. */
+	private static final int SLOT_BYTES = 48;
+
+	/**
+	 * The Constant MAXIMUM_SLOT_CAPACITY the largest power of two no of slots
+	 * which size in bytes fits in an int.
+	 */
+	public static final int MAXIMUM_SLOT_CAPACITY = Integer.highestOneBit(Integer.MAX_VALUE / SLOT_BYTES);
+
+	private static final int POST_ID_OFFSET = 0;
+
+	private static final int SUBREDDIT_ID_OFFSET = 8;
+
+	private static final int CREATED_EPOCH_SECONDS_OFFSET = 16;
+
+	private static final int VOTE_COUNT_OFFSET = 24;
+
+	private static final int COMMENT_COUNT_OFFSET = 28;
+
+	private static final int LOADED_SEQUENCE_OFFSET = 32;
+
+	private static final int UPDATED_SEQUENCE_OFFSET = 40;
+
+	/** The direct buffer which holds the slots. */
+	private ByteBuffer slots;
+
+	/** The no of slots, which is always a power of two. */
+	private int slotCapacity;
+
+	/** The no of posts held in the table. */
+	private int size;
+
+	/**
+	 * Instantiates a new off heap post state table.
+	 *
+	 * throws IllegalArgumentException if initial no of slots exceeds the maximum
+	 * no of slots.
+	 *
+	 * @param initialSlotCapacity the initial no of slots, rounded up to a power of
+	 *                            two.
+	 */
+	public OffHeapPostStateTable(int initialSlotCapacity) {
+		if (initialSlotCapacity > MAXIMUM_SLOT_CAPACITY) {
+			throw new IllegalArgumentException("Post state table can't have more than " + MAXIMUM_SLOT_CAPACITY
+					+ " slots, requested " + initialSlotCapacity);
+		}
+		this.slotCapacity = Integer.highestOneBit(Math.max(initialSlotCapacity - 1, 1)) << 1;
+		this.slots = allocateSlots(slotCapacity);
+	}
+
+	/**
+	 * copy method returns a copy of the table, which can be read while this table
+	 * is updated.
+	 *
+	 * @return the copied off heap post state table.
+	 */
+	public OffHeapPostStateTable copy() {
+		return copyTo(new OffHeapPostStateTable(slotCapacity));
+	}
+
+	/**
+	 * copyTo method copies the table into the given table, reusing it's direct
+	 * buffer if it has the same no of slots, so that a table which is copied
+	 * periodically doesn't allocate a new buffer each time.
+	 *
+	 * @param copiedTable the table into which this table is copied.
+	 * @return the copied off heap post state table.
+	 */
+	public OffHeapPostStateTable copyTo(OffHeapPostStateTable copiedTable) {
+		if (copiedTable.slotCapacity != slotCapacity) {
+			copiedTable.slots = allocateSlots(slotCapacity);
+			copiedTable.slotCapacity = slotCapacity;
+		}
+		ByteBuffer copiedSlots = slots.duplicate();
+		copiedSlots.clear();
+		copiedTable.slots.put(copiedSlots);
+		copiedTable.slots.clear();
+		copiedTable.size = size;
+		return copiedTable;
+	}
+
+	/**
+	 * putIfAbsent method adds the state of the post if the post is not already
+	 * present.
+	 *
+	 * throws IllegalStateException if the table is full at the maximum no of
+	 * slots.
+	 *
+	 * @param postId              the post id, which must be positive.
+	 * @param subredditId         the subreddit id of the post.
+	 * @param createdEpochSeconds the created epoch seconds of the post.
+	 * @param voteCount           the vote count of the post.
+	 * @param commentCount        the comment count of the post.
+	 * @return the int the slot of the added post, -1 if post is already present.
+	 */
+	public int putIfAbsent(long postId, long subredditId, long createdEpochSeconds, int voteCount,
+			int commentCount) {
+		if ((size + 1) * 2 > slotCapacity) {
+			grow();
+		}
+		int slot = getHomeSlot(postId);
+		long slotPostId;
+		while ((slotPostId = getPostId(slot)) != 0) {
+			if (slotPostId == postId) {
+				return -1;
+			}
+			slot = (slot + 1) & (slotCapacity - 1);
+		}
+		int offset = slot * SLOT_BYTES;
+		slots.putLong(offset + POST_ID_OFFSET, postId);
+		slots.putLong(offset + SUBREDDIT_ID_OFFSET, subredditId);
+		slots.putLong(offset + CREATED_EPOCH_SECONDS_OFFSET, createdEpochSeconds);
+		slots.putInt(offset + VOTE_COUNT_OFFSET, voteCount);
+		slots.putInt(offset + COMMENT_COUNT_OFFSET, commentCount);
+		size++;
+		return slot;
+	}
+
+	/**
+	 * findSlot method finds the slot of the post.
+	 *
+	 * @param postId the post id
+	 * @return the int the slot of the post, -1 if post is not present.
+	 */
+	public int findSlot(long postId) {
+		int slot = getHomeSlot(postId);
+		long slotPostId;
+		while ((slotPostId = getPostId(slot)) != 0) {
+			if (slotPostId == postId) {
+				return slot;
+			}
+			slot = (slot + 1) & (slotCapacity - 1);
+		}
+		return -1;
+	}
+
+	public int getSlotCapacity() {
+		return slotCapacity;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * getPostId method returns the post id of the slot.
+	 *
+	 * @param slot the slot
+	 * @return the long the post id, 0 if the slot is empty.
+	 */
+	public long getPostId(int slot) {
+		return slots.getLong(slot * SLOT_BYTES + POST_ID_OFFSET);
+	}
+
+	public long getSubredditId(int slot) {
+		return slots.getLong(slot * SLOT_BYTES + SUBREDDIT_ID_OFFSET);
+	}
+
+	public long getCreatedEpochSeconds(int slot) {
+		return slots.getLong(slot * SLOT_BYTES + CREATED_EPOCH_SECONDS_OFFSET);
+	}
+
+	public int getVoteCount(int slot) {
+		return slots.getInt(slot * SLOT_BYTES + VOTE_COUNT_OFFSET);
+	}
+
+	public int getCommentCount(int slot) {
+		return slots.getInt(slot * SLOT_BYTES + COMMENT_COUNT_OFFSET);
+	}
+
+	public void addVoteCount(int slot, int voteDelta) {
+		slots.putInt(slot * SLOT_BYTES + VOTE_COUNT_OFFSET, getVoteCount(slot) + voteDelta);
+	}
+
+	public void addCommentCount(int slot, int commentDelta) {
+		slots.putInt(slot * SLOT_BYTES + COMMENT_COUNT_OFFSET, getCommentCount(slot) + commentDelta);
+	}
+
+	public void setVoteCount(int slot, int voteCount) {
+		slots.putInt(slot * SLOT_BYTES + VOTE_COUNT_OFFSET, voteCount);
+	}
+
+	public void setCommentCount(int slot, int commentCount) {
+		slots.putInt(slot * SLOT_BYTES + COMMENT_COUNT_OFFSET, commentCount);
+	}
+
+	/**
+	 * getLoadedSequence method returns the sequence up to which the ranking
+	 * updates are reflected in the counts loaded into the slot.
+	 *
+	 * @param slot the slot
+	 * @return the long the loaded sequence.
+	 */
+	public long getLoadedSequence(int slot) {
+		return slots.getLong(slot * SLOT_BYTES + LOADED_SEQUENCE_OFFSET);
+	}
+
+	public void setLoadedSequence(int slot, long loadedSequence) {
+		slots.putLong(slot * SLOT_BYTES + LOADED_SEQUENCE_OFFSET, loadedSequence);
+	}
+
+	/**
+	 * getUpdatedSequence method returns the highest sequence of the ranking
+	 * updates which are loaded into or applied to the slot.
+	 *
+	 * @param slot the slot
+	 * @return the long the updated sequence.
+	 */
+	public long getUpdatedSequence(int slot) {
+		return slots.getLong(slot * SLOT_BYTES + UPDATED_SEQUENCE_OFFSET);
+	}
+
+	public void setUpdatedSequence(int slot, long updatedSequence) {
+		slots.putLong(slot * SLOT_BYTES + UPDATED_SEQUENCE_OFFSET, updatedSequence);
+	}
+
+	/**
+	 * allocateSlots method allocates the direct buffer of the given no of slots.
+	 *
+	 * throws IllegalStateException if the size of the slots in bytes overflows an
+	 * int.
+	 *
+	 * @param slotCapacity the no of slots.
+	 * @return the allocated direct buffer.
+	 */
+	private static ByteBuffer allocateSlots(int slotCapacity) {
+		try {
+			return ByteBuffer.allocateDirect(Math.multiplyExact(slotCapacity, SLOT_BYTES));
+		} catch (ArithmeticException exception) {
+			throw new IllegalStateException("Post state table can't allocate " + slotCapacity + " slots", exception);
+		}
+	}
+
+	/**
+	 * getHomeSlot method returns the first slot to be probed for the post, post
+	 * ids are mixed so that sequential post ids spread across the table.
+	 *
+	 * @param postId the post id
+	 * @return the int the home slot.
+	 */
+	private int getHomeSlot(long postId) {
+		long mixedPostId = postId * 0x9E3779B97F4A7C15L;
+		return (int) (mixedPostId ^ (mixedPostId >>> 32)) & (slotCapacity - 1);
+	}
+
+	/**
+	 * grow method doubles the no of slots and rehashes the posts into a new
+	 * direct buffer.
+	 *
+	 * throws IllegalStateException if the table is already at the maximum no of
+	 * slots.
+	 */
+	private void grow() {
+		if (slotCapacity >= MAXIMUM_SLOT_CAPACITY) {
+			throw new IllegalStateException(
+					"Post state table can't grow beyond " + MAXIMUM_SLOT_CAPACITY + " slots to hold " + size + " posts");
+		}
+		ByteBuffer previousSlots = slots;
+		int previousSlotCapacity = slotCapacity;
+		ByteBuffer grownSlots = allocateSlots(previousSlotCapacity * 2);
+		slotCapacity = previousSlotCapacity * 2;
+		slots = grownSlots;
+		for (int previousSlot = 0; previousSlot < previousSlotCapacity; previousSlot++) {
+			int previousOffset = previousSlot * SLOT_BYTES;
+			long postId = previousSlots.getLong(previousOffset + POST_ID_OFFSET);
+			if (postId == 0) {
+				continue;
+			}
+			int slot = getHomeSlot(postId);
+			while (getPostId(slot) != 0) {
+				slot = (slot + 1) & (slotCapacity - 1);
+			}
+			for (int byteOffset = 0; byteOffset < SLOT_BYTES; byteOffset += Long.BYTES) {
+				slots.putLong(slot * SLOT_BYTES + byteOffset, previousSlots.getLong(previousOffset + byteOffset));
+			}
+		}
+	}
+}
@@ -0,0 +1,388 @@
+package com.redditclone.demo.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * OffHeapRankedFeed class holds one or more segments of ranked entries in a
+ * direct byte buffer outside of the java heap. Each entry is a double score and
+ * a long id, and entries of each segment are sorted by descending order of
+ * score and id. Each segment holds only the given maximum no of top ranked
+ * entries, the buffer starts small and grows up to the maximum as entries are
+ * added.<br>
+ *
+ * Score of each entry is also indexed by it's id in an open addressing hash
+ * table of each segment in a second direct buffer, so that the current entry
+ * of an id is found by binary search on it's score instead of scanning the
+ * segment. Id 0 marks an empty index slot, so ids must not be 0.<br>
+ *
+ * This class is not thread safe, the owner needs to guard the access.
+ */
+public class OffHeapRankedFeed {
+
+	/** The Constant ENTRY_BYTES the no of bytes of score and id of an entry. */
+	private static final int ENTRY_BYTES = Double.BYTES + Long.BYTES;
+
+	/** The Constant INDEX_SLOT_BYTES the no of bytes of id and score of an index slot. */
+	private static final int INDEX_SLOT_BYTES = Long.BYTES + Double.BYTES;
+
+	/** The Constant INITIAL_SEGMENT_CAPACITY the initial capacity of a segment. */
+	private static final int INITIAL_SEGMENT_CAPACITY = 16;
+
+	/** The no of segments. */
+	private final int noOfSegments;
+
+	/** The maximum no of entries held by a segment. */
+	private final int maximumSegmentCapacity;
+
+	/** The no of entries of each segment. */
+	private final int[] segmentSizes;
+
+	/** The current capacity of each segment in the buffer. */
+	private int segmentCapacity;
+
+	/** The direct buffer which holds the entries of all the segments. */
+	private ByteBuffer entries;
+
+	/**
+	 * The no of index slots of each segment, which is a power of two at least
+	 * twice the segment capacity.
+	 */
+	private int indexCapacity;
+
+	/** The direct buffer which holds the index slots of all the segments. */
+	private ByteBuffer index;
+
+	/**
+	 * Instantiates a new off heap ranked feed.
+	 *
+	 * @param noOfSegments           the no of segments
+	 * @param maximumSegmentCapacity the maximum no of entries held by a segment
+	 */
+	public OffHeapRankedFeed(int noOfSegments, int maximumSegmentCapacity) {
+		this.noOfSegments = noOfSegments;
+		this.maximumSegmentCapacity = maximumSegmentCapacity;
+		this.segmentSizes = new int[noOfSegments];
+		this.segmentCapacity = Math.min(INITIAL_SEGMENT_CAPACITY, maximumSegmentCapacity);
+		this.entries = allocate(segmentCapacity, ENTRY_BYTES);
+		this.indexCapacity = getIndexCapacity(segmentCapacity);
+		this.index = allocate(indexCapacity, INDEX_SLOT_BYTES);
+	}
+
+	/**
+	 * offer method adds or moves the entry of the id to it's rank in the segment.
+	 * An entry which is already held is moved by shifting only the entries
+	 * between it's previous and new rank. Last entry is dropped if the segment is
+	 * full, and the entry itself is dropped if it ranks after all the entries of a
+	 * full segment.
+	 *
+	 * @param segment the segment of the entry.
+	 * @param id      the id of the entry, which must not be 0.
+	 * @param score   the score of the entry.
+	 * @return true, if entry is held in the segment, otherwise return false.
+	 */
+	public boolean offer(int segment, long id, double score) {
+		int indexSlot = findIndexSlot(segment, id);
+		if (indexSlot >= 0) {
+			moveEntry(segment, findEntryIndex(segment, getIndexedScore(segment, indexSlot), id), id, score);
+			index.putDouble(getIndexOffset(segment, indexSlot) + Long.BYTES, score);
+			return true;
+		}
+		int insertionIndex = findIndexAfter(segment, score, id);
+		if (insertionIndex >= maximumSegmentCapacity) {
+			return false;
+		}
+		if (segmentSizes[segment] == segmentCapacity && segmentCapacity < maximumSegmentCapacity) {
+			grow();
+		}
+		int size = segmentSizes[segment];
+		if (size == segmentCapacity) {
+			removeIndexSlot(segment, findIndexSlot(segment, getId(segment, size - 1)));
+			size--;
+		}
+		for (int entryIndex = size; entryIndex > insertionIndex; entryIndex--) {
+			copyEntry(segment, entryIndex - 1, entryIndex);
+		}
+		putEntry(segment, insertionIndex, score, id);
+		segmentSizes[segment] = size + 1;
+		putIndexSlot(segment, id, score);
+		return true;
+	}
+
+	/**
+	 * clear method removes the entries of all the segments and keeps the grown
+	 * buffers, so that the feed is filled again without allocation.
+	 */
+	public void clear() {
+		for (int segment = 0; segment < noOfSegments; segment++) {
+			segmentSizes[segment] = 0;
+			for (int indexSlot = 0; indexSlot < indexCapacity; indexSlot++) {
+				index.putLong(getIndexOffset(segment, indexSlot), 0);
+			}
+		}
+	}
+
+	/**
+	 * remove method removes the entry of the id from the segment if present.
+	 *
+	 * @param segment the segment of the entry.
+	 * @param id      the id of the entry.
+	 */
+	public void remove(int segment, long id) {
+		int indexSlot = findIndexSlot(segment, id);
+		if (indexSlot < 0) {
+			return;
+		}
+		int size = segmentSizes[segment];
+		int removalIndex = findEntryIndex(segment, getIndexedScore(segment, indexSlot), id);
+		for (int entryIndex = removalIndex + 1; entryIndex < size; entryIndex++) {
+			copyEntry(segment, entryIndex, entryIndex - 1);
+		}
+		segmentSizes[segment] = size - 1;
+		removeIndexSlot(segment, indexSlot);
+	}
+
+	/**
+	 * read method copies the entries of the segment which rank after the given
+	 * score and id into the given arrays, without creating any object per entry.
+	 *
+	 * @param segment    the segment of the entries.
+	 * @param fromStart  true to copy from the first entry ignoring the given
+	 *                   score and id.
+	 * @param afterScore the score of the entry after which entries are copied.
+	 * @param afterId    the id of the entry after which entries are copied.
+	 * @param ids        the array to which ids are copied, it's length limits the
+	 *                   no of copied entries.
+	 * @param scores     the array to which scores are copied.
+	 * @return the int the no of copied entries.
+	 */
+	public int read(int segment, boolean fromStart, double afterScore, long afterId, long[] ids, double[] scores) {
+		int fromIndex = fromStart ? 0 : findIndexAfter(segment, afterScore, afterId);
+		int noOfEntries = Math.max(0, Math.min(ids.length, segmentSizes[segment] - fromIndex));
+		for (int entry = 0; entry < noOfEntries; entry++) {
+			ids[entry] = getId(segment, fromIndex + entry);
+			scores[entry] = getScore(segment, fromIndex + entry);
+		}
+		return noOfEntries;
+	}
+
+	/**
+	 * moveEntry method moves the entry of the id from it's current index to the
+	 * rank of it's new score, by shifting the entries in between by one.
+	 *
+	 * @param segment   the segment of the entry.
+	 * @param fromIndex the current index of the entry.
+	 * @param id        the id of the entry.
+	 * @param score     the new score of the entry.
+	 */
+	private void moveEntry(int segment, int fromIndex, long id, double score) {
+		int toIndex = findIndexAfter(segment, score, id);
+		if (toIndex > fromIndex) {
+			// the entry itself ranks before the new score, so it is not counted once moved
+			toIndex--;
+		}
+		for (int entryIndex = fromIndex; entryIndex < toIndex; entryIndex++) {
+			copyEntry(segment, entryIndex + 1, entryIndex);
+		}
+		for (int entryIndex = fromIndex; entryIndex > toIndex; entryIndex--) {
+			copyEntry(segment, entryIndex - 1, entryIndex);
+		}
+		putEntry(segment, toIndex, score, id);
+	}
+
+	/**
+	 * findEntryIndex method finds the index of the entry of the segment which has
+	 * the given score and id by binary search.
+	 *
+	 * @param segment the segment of the entry.
+	 * @param score   the score of the entry.
+	 * @param id      the id of the entry.
+	 * @return the int the index of the entry.
+	 */
+	private int findEntryIndex(int segment, double score, long id) {
+		return findIndexAfter(segment, score, id) - 1;
+	}
+
+	/**
+	 * findIndexAfter method finds the index of the first entry of the segment which
+	 * ranks after the given score and id by binary search.
+	 *
+	 * @param segment the segment of the entries.
+	 * @param score   the score to be compared.
+	 * @param id      the id to be compared.
+	 * @return the int the index of the first entry ranked after.
+	 */
+	private int findIndexAfter(int segment, double score, long id) {
+		int lowIndex = 0;
+		int highIndex = segmentSizes[segment];
+		while (lowIndex < highIndex) {
+			int middleIndex = (lowIndex + highIndex) >>> 1;
+			int scoreComparison = Double.compare(getScore(segment, middleIndex), score);
+			if (scoreComparison > 0 || (scoreComparison == 0 && getId(segment, middleIndex) >= id)) {
+				lowIndex = middleIndex + 1;
+			} else {
+				highIndex = middleIndex;
+			}
+		}
+		return lowIndex;
+	}
+
+	/**
+	 * grow method doubles the capacity of the segments up to the maximum by
+	 * copying the entries into a new direct buffer, and rebuilds the index with
+	 * twice the grown capacity.
+	 */
+	private void grow() {
+		int grownSegmentCapacity = Math.min(segmentCapacity * 2, maximumSegmentCapacity);
+		ByteBuffer grownEntries = allocate(grownSegmentCapacity, ENTRY_BYTES);
+		for (int segment = 0; segment < noOfSegments; segment++) {
+			ByteBuffer segmentEntries = entries.duplicate();
+			segmentEntries.limit((segment * segmentCapacity + segmentSizes[segment]) * ENTRY_BYTES);
+			segmentEntries.position(segment * segmentCapacity * ENTRY_BYTES);
+			grownEntries.position(segment * grownSegmentCapacity * ENTRY_BYTES);
+			grownEntries.put(segmentEntries);
+		}
+		grownEntries.clear();
+		entries = grownEntries;
+		segmentCapacity = grownSegmentCapacity;
+		indexCapacity = getIndexCapacity(grownSegmentCapacity);
+		index = allocate(indexCapacity, INDEX_SLOT_BYTES);
+		for (int segment = 0; segment < noOfSegments; segment++) {
+			for (int entryIndex = 0; entryIndex < segmentSizes[segment]; entryIndex++) {
+				putIndexSlot(segment, getId(segment, entryIndex), getScore(segment, entryIndex));
+			}
+		}
+	}
+
+	/**
+	 * findIndexSlot method finds the index slot of the id in the index of the
+	 * segment.
+	 *
+	 * @param segment the segment of the entry.
+	 * @param id      the id of the entry.
+	 * @return the int the index slot of the id, -1 if the id is not held.
+	 */
+	private int findIndexSlot(int segment, long id) {
+		int indexSlot = getHomeIndexSlot(id);
+		long slotId;
+		while ((slotId = getIndexedId(segment, indexSlot)) != 0) {
+			if (slotId == id) {
+				return indexSlot;
+			}
+			indexSlot = (indexSlot + 1) & (indexCapacity - 1);
+		}
+		return -1;
+	}
+
+	/**
+	 * putIndexSlot method adds the score of the id which is not held yet to the
+	 * index of the segment.
+	 *
+	 * @param segment the segment of the entry.
+	 * @param id      the id of the entry.
+	 * @param score   the score of the entry.
+	 */
+	private void putIndexSlot(int segment, long id, double score) {
+		int indexSlot = getHomeIndexSlot(id);
+		while (getIndexedId(segment, indexSlot) != 0) {
+			indexSlot = (indexSlot + 1) & (indexCapacity - 1);
+		}
+		int offset = getIndexOffset(segment, indexSlot);
+		index.putLong(offset, id);
+		index.putDouble(offset + Long.BYTES, score);
+	}
+
+	/**
+	 * removeIndexSlot method empties the index slot and shifts back the following
+	 * slots of the probe sequence which can take it's place, so that no removed
+	 * marker is needed.
+	 *
+	 * @param segment   the segment of the entry.
+	 * @param indexSlot the index slot which needs to be emptied.
+	 */
+	private void removeIndexSlot(int segment, int indexSlot) {
+		int emptySlot = indexSlot;
+		int nextSlot = (emptySlot + 1) & (indexCapacity - 1);
+		long nextId;
+		while ((nextId = getIndexedId(segment, nextSlot)) != 0) {
+			int homeSlot = getHomeIndexSlot(nextId);
+			if (((nextSlot - homeSlot) & (indexCapacity - 1)) >= ((nextSlot - emptySlot) & (indexCapacity - 1))) {
+				int offset = getIndexOffset(segment, emptySlot);
+				index.putLong(offset, nextId);
+				index.putDouble(offset + Long.BYTES, getIndexedScore(segment, nextSlot));
+				emptySlot = nextSlot;
+			}
+			nextSlot = (nextSlot + 1) & (indexCapacity - 1);
+		}
+		index.putLong(getIndexOffset(segment, emptySlot), 0);
+	}
+
+	/**
+	 * getHomeIndexSlot method returns the first index slot to be probed for the
+	 * id, ids are mixed so that sequential ids spread across the index.
+	 *
+	 * @param id the id of the entry.
+	 * @return the int the home index slot.
+	 */
+	private int getHomeIndexSlot(long id) {
+		long mixedId = id * 0x9E3779B97F4A7C15L;
+		return (int) (mixedId ^ (mixedId >>> 32)) & (indexCapacity - 1);
+	}
+
+	/**
+	 * allocate method allocates the direct buffer for the given no of entries of
+	 * all the segments.
+	 *
+	 * throws IllegalStateException if the buffer size exceeds the maximum size of
+	 * a direct buffer.
+	 *
+	 * @param capacity   the no of entries of each segment.
+	 * @param entryBytes the no of bytes of an entry.
+	 * @return the allocated direct buffer.
+	 */
+	private ByteBuffer allocate(int capacity, int entryBytes) {
+		try {
+			return ByteBuffer.allocateDirect(Math.multiplyExact(Math.multiplyExact(noOfSegments, capacity), entryBytes));
+		} catch (ArithmeticException exception) {
+			throw new IllegalStateException("Ranked feed of " + noOfSegments + " segments can't hold " + capacity
+					+ " entries per segment", exception);
+		}
+	}
+
+	private static int getIndexCapacity(int segmentCapacity) {
+		return Integer.highestOneBit(segmentCapacity) << 2;
+	}
+
+	private int getOffset(int segment, int entryIndex) {
+		return (segment * segmentCapacity + entryIndex) * ENTRY_BYTES;
+	}
+
+	private double getScore(int segment, int entryIndex) {
+		return entries.getDouble(getOffset(segment, entryIndex));
+	}
+
+	private long getId(int segment, int entryIndex) {
+		return entries.getLong(getOffset(segment, entryIndex) + Double.BYTES);
+	}
+
+	private void putEntry(int segment, int entryIndex, double score, long id) {
+		int offset = getOffset(segment, entryIndex);
+		entries.putDouble(offset, score);
+		entries.putLong(offset + Double.BYTES, id);
+	}
+
+	private void copyEntry(int segment, int fromEntryIndex, int toEntryIndex) {
+		putEntry(segment, toEntryIndex, getScore(segment, fromEntryIndex), getId(segment, fromEntryIndex));
+	}
+
+	private int getIndexOffset(int segment, int indexSlot) {
+		return (segment * indexCapacity + indexSlot) * INDEX_SLOT_BYTES;
+	}
+
+	private long getIndexedId(int segment, int indexSlot) {
+		return index.getLong(getIndexOffset(segment, indexSlot));
+	}
+
+	private double getIndexedScore(int segment, int indexSlot) {
+		return index.getDouble(getIndexOffset(segment, indexSlot) + Long.BYTES);
+	}
+}
@@ -0,0 +1,67 @@
+package com.redditclone.demo.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.springframework.util.StringUtils;
+
+import com.redditclone.demo.exceptions.RedditException;
+
+/**
+ * PageCursorCodec class provides methods to encode and decode the opaque page
+ * cursors which are returned to the client to fetch the next page of
+ * paginated api requests. Cursor values are joined with a separator and
+ * encoded as url safe base64 text so that client never depends on the
+ * cursor format.
+ */
+public final class PageCursorCodec {
+
+	/** The Constant CURSOR_VALUE_SEPARATOR which separates the cursor values. */
+	private static final String CURSOR_VALUE_SEPARATOR = "|";
+
+	private PageCursorCodec() {
+	}
+
+	/**
+	 * encodePageCursor method joins the given cursor values and encodes it as
+	 * opaque page cursor.
+	 *
+	 * @param cursorValues the cursor values which needs to be encoded.
+	 * @return the encoded opaque page cursor.
+	 */
+	public static String encodePageCursor(Object... cursorValues) {
+		StringBuilder cursorText = new StringBuilder();
+		for (Object cursorValue : cursorValues) {
+			if (cursorText.length() > 0) {
+				cursorText.append(CURSOR_VALUE_SEPARATOR);
+			}
+			cursorText.append(cursorValue);
+		}
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(cursorText.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * decodePageCursor method decodes the opaque page cursor and returns the
+	 * cursor values.
+	 *
+	 * throws RedditException with invalid page cursor message if page cursor is
+	 * malformed or it doesn't contain expected no of values.
+	 *
+	 * @param pageCursor          the opaque page cursor which needs to be decoded.
+	 * @param expectedNoOfValues the expected no of values in the page cursor.
+	 * @return the decoded cursor values.
+	 */
+	public static String[] decodePageCursor(String pageCursor, int expectedNoOfValues) {
+		try {
+			String cursorText = new String(Base64.getUrlDecoder().decode(pageCursor), StandardCharsets.UTF_8);
+			String[] cursorValues = StringUtils.delimitedListToStringArray(cursorText, CURSOR_VALUE_SEPARATOR);
+			if (cursorValues.length == expectedNoOfValues) {
+				return cursorValues;
+			}
+		} catch (IllegalArgumentException exception) {
+			throw new RedditException("Invalid page cursor: " + pageCursor, exception);
+		}
+		throw new RedditException("Invalid page cursor: " + pageCursor);
+	}
+}
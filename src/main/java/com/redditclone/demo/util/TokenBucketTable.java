@@ -0,0 +1,133 @@
+package com.redditclone.demo.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * TokenBucketTable class holds the token buckets of many keys in a fixed size
+ * open addressing table, so that memory stays bounded however many distinct
+ * keys are seen. Each bucket is kept with generic cell rate algorithm as a
+ * single long slot which packs a 24 bit fingerprint of the key and the 40 bit
+ * theoretical arrival time in millis, and is updated with compare and set
+ * without locks or allocation.<br>
+ *
+ * A bucket whose theoretical arrival time has passed is full again, so it's
+ * slot is reused by any other key which probes it. If all the probed slots are
+ * held by active buckets of other keys, the bucket which is nearest to full is
+ * replaced.<br>
+ *
+ * This class is thread safe.
+ */
+public class TokenBucketTable {
+
+	/** The Constant MAXIMUM_PROBES the no of slots probed for each key. */
+	private static final int MAXIMUM_PROBES = 4;
+
+	/** The Constant TIME_BITS the no of bits of the theoretical arrival time. */
+	private static final int TIME_BITS = 40;
+
+	/** The Constant TIME_MASK the mask of the theoretical arrival time. */
+	private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+
+	/** The slots of the buckets, 0 for the slot which never held a bucket. */
+	private final AtomicLongArray bucketSlots;
+
+	/** The mask of the slot index. */
+	private final int slotIndexMask;
+
+	/** The millis after which one more request is allowed. */
+	private final long emissionIntervalMillis;
+
+	/** The millis by which a bucket can be ahead of time, the burst allowance. */
+	private final long burstToleranceMillis;
+
+	/** The nano time from which the millis of the buckets are measured. */
+	private final long startNanos = System.nanoTime();
+
+	/**
+	 * Instantiates a new token bucket table.
+	 *
+	 * @param noOfSlots       the no of slots, rounded up to power of two
+	 * @param capacity        the no of requests allowed in a burst
+	 * @param refillPerMinute the no of requests allowed per minute
+	 */
+	public TokenBucketTable(int noOfSlots, int capacity, int refillPerMinute) {
+		int tableSize = Integer.highestOneBit(Math.max(MAXIMUM_PROBES, noOfSlots - 1)) << 1;
+		this.bucketSlots = new AtomicLongArray(tableSize);
+		this.slotIndexMask = tableSize - 1;
+		this.emissionIntervalMillis = Math.max(1, 60_000L / refillPerMinute);
+		this.burstToleranceMillis = emissionIntervalMillis * (Math.max(1, capacity) - 1);
+	}
+
+	/**
+	 * tryAcquire method takes one request from the bucket of the key if it is not
+	 * empty.
+	 *
+	 * @param key the key of the bucket.
+	 * @return the long 0 if request is allowed, otherwise the millis after which
+	 *         request will be allowed.
+	 */
+	public long tryAcquire(String key) {
+		long currentTimeMillis = (System.nanoTime() - startNanos) / 1_000_000 + 1;
+		long keyHash = mix(key.hashCode());
+		long fingerprint = (keyHash >>> TIME_BITS) | 1;
+		int firstSlotIndex = (int) keyHash;
+		while (true) {
+			int reusableSlotIndex = -1;
+			long reusableSlot = 0;
+			long reusableArrivalTime = Long.MAX_VALUE;
+			for (int probe = 0; probe < MAXIMUM_PROBES; probe++) {
+				int slotIndex = (firstSlotIndex + probe) & slotIndexMask;
+				long bucketSlot = bucketSlots.get(slotIndex);
+				long arrivalTime = bucketSlot & TIME_MASK;
+				if ((bucketSlot >>> TIME_BITS) == fingerprint) {
+					long nextArrivalTime = Math.max(arrivalTime, currentTimeMillis);
+					long waitMillis = nextArrivalTime - currentTimeMillis - burstToleranceMillis;
+					if (waitMillis > 0) {
+						return waitMillis;
+					}
+					if (bucketSlots.compareAndSet(slotIndex, bucketSlot,
+							pack(fingerprint, nextArrivalTime + emissionIntervalMillis))) {
+						return 0;
+					}
+					reusableSlotIndex = -2;
+					break;
+				}
+				if (arrivalTime < reusableArrivalTime) {
+					reusableArrivalTime = arrivalTime;
+					reusableSlotIndex = slotIndex;
+					reusableSlot = bucketSlot;
+				}
+			}
+			// slot of a full bucket or of the bucket nearest to full is taken over by the key
+			if (reusableSlotIndex >= 0 && bucketSlots.compareAndSet(reusableSlotIndex, reusableSlot,
+					pack(fingerprint, currentTimeMillis + emissionIntervalMillis))) {
+				return 0;
+			}
+		}
+	}
+
+	/**
+	 * pack method packs the fingerprint and the theoretical arrival time into a
+	 * slot.
+	 *
+	 * @param fingerprint the fingerprint of the key.
+	 * @param arrivalTime the theoretical arrival time in millis.
+	 * @return the slot.
+	 */
+	private static long pack(long fingerprint, long arrivalTime) {
+		return (fingerprint << TIME_BITS) | (arrivalTime & TIME_MASK);
+	}
+
+	/**
+	 * mix method spreads the hash code of the key into 64 bits with the 64 bit
+	 * finalizer of murmur3 hash.
+	 *
+	 * @param hashCode the hash code of the key.
+	 * @return the mixed hash.
+	 */
+	private static long mix(long hashCode) {
+		long hash = (hashCode ^ (hashCode >>> 33)) * 0xff51afd7ed558ccdL;
+		hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return hash ^ (hash >>> 33);
+	}
+}
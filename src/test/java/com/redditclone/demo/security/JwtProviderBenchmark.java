@@ -0,0 +1,80 @@
+package com.redditclone.demo.security;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * JwtProviderBenchmark class measures the cost of signing and verifying a token
+ * with the cached keys and the shared jwt parser, for RS256 and ES256 keys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JwtProviderBenchmark {
+
+	@Param({ "rsa-key-store.jks", "ec-key-store.jks" })
+	private String keyStoreName;
+
+	private Path keyStorePath;
+
+	private JwtProvider jwtProvider;
+
+	private String token;
+
+	@Setup
+	public void createJwtProvider() throws IOException {
+		keyStorePath = Files.createTempFile("key-store", ".jks");
+		try (InputStream keyStoreStream = getClass().getResourceAsStream("/jwt/" + keyStoreName)) {
+			Files.copy(keyStoreStream, keyStorePath, StandardCopyOption.REPLACE_EXISTING);
+		}
+		ApplicationEventPublisher applicationEventPublisher = event -> {
+		};
+		jwtProvider = new JwtProvider(new DefaultResourceLoader(), applicationEventPublisher);
+		ReflectionTestUtils.setField(jwtProvider, "jwtExpirationTimeInMillis", 900000L);
+		ReflectionTestUtils.setField(jwtProvider, "keyStoreLocation", keyStorePath.toUri().toString());
+		ReflectionTestUtils.setField(jwtProvider, "keyStorePassword", "store-password");
+		ReflectionTestUtils.setField(jwtProvider, "signingKeyPassword", "key-password");
+		jwtProvider.initSignAndVerificationKeys();
+		token = jwtProvider.generateAuthenticationToken(1L, "user", true);
+	}
+
+	@TearDown
+	public void deleteKeyStore() throws IOException {
+		Files.deleteIfExists(keyStorePath);
+	}
+
+	@Benchmark
+	public String generateAuthenticationToken() {
+		return jwtProvider.generateAuthenticationToken(1L, "user", true);
+	}
+
+	@Benchmark
+	public Claims validateTokenAndGetJwsClaims() {
+		return jwtProvider.validateTokenAndGetJwsClaims(token);
+	}
+}
@@ -0,0 +1,114 @@
+package com.redditclone.demo.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Base64;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.redditclone.demo.event.JwtKeysRotatedEvent;
+
+import io.jsonwebtoken.SignatureException;
+
+/**
+ * JwtProviderTest class tests the resolution of the signing key from the java
+ * key store and the verification of the tokens across key rotations.
+ */
+@ExtendWith(MockitoExtension.class)
+class JwtProviderTest {
+
+	@TempDir
+	Path keyStoreDirectory;
+
+	@Mock
+	private ApplicationEventPublisher applicationEventPublisher;
+
+	private Path keyStorePath;
+
+	private long keyStoreLastModifiedSeconds;
+
+	@BeforeEach
+	void createKeyStorePath() {
+		keyStorePath = keyStoreDirectory.resolve("key-store.jks");
+	}
+
+	@Test
+	void rotatedSigningKeyIsUsedAndRemovedKeyStillVerifiesItsTokens() throws IOException {
+		JwtProvider jwtProvider = createJwtProvider("rsa-key-store.jks");
+		String rsaToken = jwtProvider.generateAuthenticationToken(1L, "user", true);
+		assertEquals("RS256", getHeaderValue(rsaToken, "alg"));
+		assertEquals("rsa-key", getHeaderValue(rsaToken, "kid"));
+
+		useKeyStore("rotated-key-store.jks");
+		jwtProvider.reloadRotatedKeys();
+		ArgumentCaptor<JwtKeysRotatedEvent> rotatedEventCaptor = ArgumentCaptor.forClass(JwtKeysRotatedEvent.class);
+		verify(applicationEventPublisher).publishEvent(rotatedEventCaptor.capture());
+		assertEquals("ec-key", rotatedEventCaptor.getValue().getSigningKeyId());
+		String ecToken = jwtProvider.generateAuthenticationToken(1L, "user", true);
+		assertEquals("ES256", getHeaderValue(ecToken, "alg"));
+		assertEquals("ec-key", getHeaderValue(ecToken, "kid"));
+
+		useKeyStore("ec-key-store.jks");
+		jwtProvider.reloadRotatedKeys();
+		assertEquals("user", jwtProvider.validateTokenAndGetJwsClaims(rsaToken).getSubject());
+		assertEquals("user", jwtProvider.validateTokenAndGetJwsClaims(ecToken).getSubject());
+	}
+
+	@Test
+	void stagedSigningKeyIsNotUsedBeforeItIsValid() throws IOException {
+		JwtProvider jwtProvider = createJwtProvider("staged-key-store.jks");
+
+		assertEquals("ec-key", getHeaderValue(jwtProvider.generateAuthenticationToken(1L, "user", true), "kid"));
+	}
+
+	@Test
+	void tokenOfUnknownKeyIdIsRejected() throws IOException {
+		String rsaToken = createJwtProvider("rsa-key-store.jks").generateAuthenticationToken(1L, "user", true);
+		JwtProvider jwtProvider = createJwtProvider("ec-key-store.jks");
+
+		assertThrows(SignatureException.class, () -> jwtProvider.validateTokenAndGetJwsClaims(rsaToken));
+	}
+
+	private JwtProvider createJwtProvider(String keyStoreName) throws IOException {
+		useKeyStore(keyStoreName);
+		JwtProvider jwtProvider = new JwtProvider(new DefaultResourceLoader(), applicationEventPublisher);
+		ReflectionTestUtils.setField(jwtProvider, "jwtExpirationTimeInMillis", 900000L);
+		ReflectionTestUtils.setField(jwtProvider, "keyStoreLocation", keyStorePath.toUri().toString());
+		ReflectionTestUtils.setField(jwtProvider, "keyStorePassword", "store-password");
+		ReflectionTestUtils.setField(jwtProvider, "signingKeyPassword", "key-password");
+		jwtProvider.initSignAndVerificationKeys();
+		return jwtProvider;
+	}
+
+	private void useKeyStore(String keyStoreName) throws IOException {
+		try (InputStream keyStoreStream = getClass().getResourceAsStream("/jwt/" + keyStoreName)) {
+			Files.copy(keyStoreStream, keyStorePath, StandardCopyOption.REPLACE_EXISTING);
+		}
+		Files.setLastModifiedTime(keyStorePath, FileTime.fromMillis(++keyStoreLastModifiedSeconds * 1000));
+	}
+
+	private static String getHeaderValue(String token, String headerName) {
+		String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))),
+				StandardCharsets.UTF_8);
+		int valueStart = header.indexOf("\"" + headerName + "\":\"") + headerName.length() + 4;
+		return header.substring(valueStart, header.indexOf('"', valueStart));
+	}
+}
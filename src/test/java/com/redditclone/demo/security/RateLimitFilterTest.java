@@ -0,0 +1,103 @@
+package com.redditclone.demo.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.impl.DefaultClaims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * RateLimitFilterTest class tests that the rate limited apis are matched the
+ * same way as their request mappings, that user buckets are kept per user id
+ * of the verified token and that rejected requests get too many requests
+ * status without error dispatch.
+ */
+@ExtendWith(MockitoExtension.class)
+class RateLimitFilterTest {
+
+	@Mock
+	private JwtProvider jwtProvider;
+
+	private RateLimitFilter rateLimitFilter;
+
+	@BeforeEach
+	void createRateLimitFilter() {
+		rateLimitFilter = new RateLimitFilter(jwtProvider, new VerifiedTokenCache(new SimpleMeterRegistry(), 100),
+				1024, 1, 1, 1, 1, 1, 1);
+	}
+
+	@Test
+	void loginIsLimitedByTrailingSlashEncodedAndContextPaths() throws Exception {
+		assertEquals(200, filter(newLoginRequest("10.0.0.1", "/api/auth/login")).getStatus());
+		assertEquals(429, filter(newLoginRequest("10.0.0.1", "/api/auth/login/")).getStatus());
+		assertEquals(429, filter(newLoginRequest("10.0.0.1", "/api/auth/%6Cogin")).getStatus());
+		MockHttpServletRequest contextPathRequest = newLoginRequest("10.0.0.1", "/reddit/api/auth/login");
+		contextPathRequest.setContextPath("/reddit");
+		assertEquals(429, filter(contextPathRequest).getStatus());
+		assertEquals(200, filter(newLoginRequest("10.0.0.1", "/api/auth/logins")).getStatus());
+	}
+
+	@Test
+	void rejectedRequestIsWrittenWithRetryAfterWithoutErrorDispatch() throws Exception {
+		filter(newLoginRequest("10.0.0.1", "/api/auth/login"));
+
+		MockHttpServletResponse response = filter(newLoginRequest("10.0.0.1", "/api/auth/login"));
+
+		assertEquals(429, response.getStatus());
+		assertNull(response.getErrorMessage());
+		assertEquals("60", response.getHeader(HttpHeaders.RETRY_AFTER));
+		assertTrue(response.getContentAsString().contains("Too Many Requests"), response.getContentAsString());
+	}
+
+	@Test
+	void votesOfAllTokensOfUserShareUserBucket() throws Exception {
+		when(jwtProvider.validateTokenAndGetJwsClaims("first-token")).thenReturn(newClaims(42L));
+		when(jwtProvider.validateTokenAndGetJwsClaims("second-token")).thenReturn(newClaims(42L));
+
+		assertEquals(200, filter(newVoteRequest("10.0.0.1", "first-token")).getStatus());
+		assertEquals(429, filter(newVoteRequest("10.0.0.2", "second-token")).getStatus());
+	}
+
+	private MockHttpServletResponse filter(MockHttpServletRequest request) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		rateLimitFilter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+
+	private static MockHttpServletRequest newLoginRequest(String remoteAddress, String requestURI) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", requestURI);
+		request.setRemoteAddr(remoteAddress);
+		request.setParameter("username", "user");
+		return request;
+	}
+
+	private static MockHttpServletRequest newVoteRequest(String remoteAddress, String token) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/votes/register/");
+		request.setRemoteAddr(remoteAddress);
+		request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+		return request;
+	}
+
+	private static Claims newClaims(Long userId) {
+		Claims claims = new DefaultClaims();
+		claims.put(JwtProvider.USER_ID_CLAIM, userId);
+		claims.setSubject("user");
+		claims.setExpiration(new Date(System.currentTimeMillis() + 60000));
+		return claims;
+	}
+}
@@ -0,0 +1,98 @@
+package com.redditclone.demo.security;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.redditclone.demo.constants.AuthEndPointConstants;
+
+/**
+ * RequestRouteTableBenchmark class measures the per request cost of
+ * classifying the requests with the route table against the list and stream
+ * based checks which the jwt authentication filter used before the route table.
+ * Run it with -prof gc to compare the allocation per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RequestRouteTableBenchmark {
+
+	/** The paths which the filter skipped before the route table. */
+	private static final List<String> REQUEST_MAPPING_PATHS_TO_SKIP_AUTHENTICATION = Collections.unmodifiableList(Arrays
+			.asList(AuthEndPointConstants.AUTH_REQUEST_MAPPING + AuthEndPointConstants.SIGNUP_REQUEST_MAPPING_METHOD,
+					AuthEndPointConstants.AUTH_REQUEST_MAPPING + AuthEndPointConstants.LOGIN_REQUEST_MAPPING_METHOD,
+					AuthEndPointConstants.AUTH_REQUEST_MAPPING
+							+ AuthEndPointConstants.REFRESH_TOKEN_REQUEST_MAPPING_METHOD,
+					AuthEndPointConstants.AUTH_REQUEST_MAPPING + AuthEndPointConstants.lOG_OUT_REQUEST_MAPPING_METHOD,
+					"/v2/api-docs", "/configuration/ui", "/swagger-ui.html"));
+
+	/** The representative requests of public, authenticated and swagger routes. */
+	private final HttpServletRequest[] requests = {
+			new MockHttpServletRequest("POST", "/api/auth/login"),
+			new MockHttpServletRequest("POST", "/api/auth/signup"),
+			new MockHttpServletRequest("GET", "/api/auth/verifyNewAccount/token"),
+			new MockHttpServletRequest("GET", "/api/posts/"),
+			new MockHttpServletRequest("GET", "/api/posts/by-subreddit/12"),
+			new MockHttpServletRequest("GET", "/api/subreddit/"),
+			new MockHttpServletRequest("GET", "/api/comments/by-post/42"),
+			new MockHttpServletRequest("POST", "/api/posts/"),
+			new MockHttpServletRequest("POST", "/api/votes/register"),
+			new MockHttpServletRequest("POST", "/api/comments/create"),
+			new MockHttpServletRequest("POST", "/api/subreddit/"),
+			new MockHttpServletRequest("GET", "/v2/api-docs"),
+			new MockHttpServletRequest("GET", "/swagger-ui.html"),
+			new MockHttpServletRequest("GET", "/configuration/ui") };
+
+	private final RequestRouteTable requestRouteTable = new RequestRouteTable();
+
+	@Benchmark
+	@OperationsPerInvocation(14)
+	public void classifyRequest(Blackhole blackhole) {
+		for (HttpServletRequest request : requests) {
+			blackhole.consume(requestRouteTable.classifyRequest(request));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(14)
+	public void shouldNotFilterWithLists(Blackhole blackhole) {
+		for (HttpServletRequest request : requests) {
+			blackhole.consume(shouldNotFilterWithLists(request));
+		}
+	}
+
+	private static boolean shouldNotFilterWithLists(HttpServletRequest request) {
+		String currentRequestURI = request.getRequestURI();
+		List<String> allowedGetApiMethodList = Arrays.asList("/api/subreddit/", "/api/posts/", "/api/comments/");
+		boolean filterAndAllowGetApiMethods = request.getMethod().equals(HttpMethod.GET.name())
+				&& allowedGetApiMethodList.stream().filter(getApiMethod -> currentRequestURI.contains(getApiMethod))
+						.findFirst().isPresent();
+		boolean filterAndAllowSwaggerApiUrls = Arrays
+				.asList("/v2/api-docs", "/configuration/ui", "/configuration/security", "/swagger-ui.html")
+				.contains(currentRequestURI);
+		boolean allowedAuthApiUrls = REQUEST_MAPPING_PATHS_TO_SKIP_AUTHENTICATION.contains(currentRequestURI)
+				|| currentRequestURI.contains(AuthEndPointConstants.AUTH_REQUEST_MAPPING
+						+ AuthEndPointConstants.VERIFY_NEW_ACCOUNT_REQUEST_MAPPING_METHOD);
+		return filterAndAllowGetApiMethods || filterAndAllowSwaggerApiUrls || allowedAuthApiUrls;
+	}
+}
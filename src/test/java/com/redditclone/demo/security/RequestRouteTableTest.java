@@ -0,0 +1,69 @@
+package com.redditclone.demo.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/**
+ * RequestRouteTableTest class tests the classification of the requests by the
+ * method and the path boundaries of the routes.
+ */
+class RequestRouteTableTest {
+
+	private final RequestRouteTable requestRouteTable = new RequestRouteTable();
+
+	@Test
+	void methodRoutesApplyOnlyToTheirMethodAndAnyMethodRoutesToAll() {
+		assertEquals(RequestRouteType.PUBLIC, classify("GET", "/api/posts/"));
+		assertEquals(RequestRouteType.AUTHENTICATED, classify("POST", "/api/posts/"));
+		assertEquals(RequestRouteType.AUTHENTICATED, classify("DELETE", "/api/comments/5"));
+		assertEquals(RequestRouteType.PUBLIC, classify("POST", "/api/auth/login"));
+		assertEquals(RequestRouteType.SWAGGER, classify("PUT", "/v2/api-docs"));
+	}
+
+	@Test
+	void prefixRoutesMatchOnlyAtPathSegmentBoundaries() {
+		assertEquals(RequestRouteType.PUBLIC, classify("POST", "/api/auth"));
+		assertEquals(RequestRouteType.AUTHENTICATED, classify("POST", "/api/authx"));
+		assertEquals(RequestRouteType.PUBLIC, classify("GET", "/api/posts"));
+		assertEquals(RequestRouteType.AUTHENTICATED, classify("GET", "/api/postsx/1"));
+		assertEquals(RequestRouteType.AUTHENTICATED, classify("GET", "/api/search/all"));
+		assertEquals(RequestRouteType.AUTHENTICATED, classify("GET", "/v2/api-docs/x"));
+	}
+
+	@Test
+	void exactRouteWinsOverPrefixRouteAndLongerPrefixOverShorterPrefix() {
+		requestRouteTable.addRoute(HttpMethod.GET, "/api/posts/drafts", RequestRouteType.AUTHENTICATED);
+		requestRouteTable.addRoute(null, "/api/posts/private/**", RequestRouteType.AUTHENTICATED);
+
+		assertEquals(RequestRouteType.AUTHENTICATED, classify("GET", "/api/posts/drafts"));
+		assertEquals(RequestRouteType.PUBLIC, classify("GET", "/api/posts/drafts/1"));
+		assertEquals(RequestRouteType.PUBLIC, classify("GET", "/api/posts/draftsx"));
+		assertEquals(RequestRouteType.AUTHENTICATED, classify("GET", "/api/posts/private"));
+		assertEquals(RequestRouteType.AUTHENTICATED, classify("GET", "/api/posts/private/1"));
+		assertEquals(RequestRouteType.PUBLIC, classify("GET", "/api/posts/privates"));
+	}
+
+	@Test
+	void contextPathIsStrippedBeforeClassifying() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/reddit/api/posts/1");
+		request.setContextPath("/reddit");
+		MockHttpServletRequest requestWithoutContextPath = new MockHttpServletRequest("GET", "/reddit/api/posts/1");
+
+		assertEquals(RequestRouteType.PUBLIC, requestRouteTable.classifyRequest(request));
+		assertEquals(RequestRouteType.AUTHENTICATED, requestRouteTable.classifyRequest(requestWithoutContextPath));
+	}
+
+	@Test
+	void unknownMethodsMatchOnlyAnyMethodRoutes() {
+		assertEquals(RequestRouteType.AUTHENTICATED, classify("PROPFIND", "/api/posts/1"));
+		assertEquals(RequestRouteType.PUBLIC, classify("PROPFIND", "/api/auth/login"));
+		assertEquals(RequestRouteType.SWAGGER, classify("PROPFIND", "/webjars/x.js"));
+	}
+
+	private RequestRouteType classify(String method, String path) {
+		return requestRouteTable.classify(method, path, 0);
+	}
+}
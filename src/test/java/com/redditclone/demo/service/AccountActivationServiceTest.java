@@ -0,0 +1,139 @@
+package com.redditclone.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.redditclone.demo.event.UserRegisteredEvent;
+import com.redditclone.demo.exceptions.RedditException;
+import com.redditclone.demo.model.User;
+import com.redditclone.demo.repository.UserRepository;
+import com.redditclone.demo.repository.VerificationTokenRepository;
+
+/**
+ * AccountActivationServiceTest class tests that no registered user is left
+ * without verification token by a failed batch, a failed mail or a lost queue.
+ */
+@ExtendWith(MockitoExtension.class)
+class AccountActivationServiceTest {
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@Mock
+	private MailSenderService mailSenderService;
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Mock
+	private VerificationTokenRepository verificationTokenRepository;
+
+	private AccountActivationService accountActivationService;
+
+	@BeforeEach
+	void createAccountActivationService() {
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+		accountActivationService = new AccountActivationService(jdbcTemplate,
+				new TransactionTemplate(transactionManager), mailSenderService, userRepository,
+				verificationTokenRepository);
+		ReflectionTestUtils.setField(accountActivationService, "activationBatchSize", 2);
+		ReflectionTestUtils.setField(accountActivationService, "verificationTokenExpirationTimeInMillis", 86400000L);
+		ReflectionTestUtils.setField(accountActivationService, "activationRecoveryIntervalInMillis", 300000L);
+	}
+
+	@Test
+	void failedActivationMailDeletesVerificationToken() {
+		when(mailSenderService.sendMailNotification(any()))
+				.thenReturn(failedFuture(new RedditException("Exception occurred when sending mail")));
+		accountActivationService.queueAccountActivation(new UserRegisteredEvent(1L, "user", "user@reddit.com"));
+
+		accountActivationService.issueQueuedVerificationTokens();
+
+		ArgumentCaptor<List<Object[]>> verificationTokenRowsCaptor = rowsCaptor();
+		verify(jdbcTemplate).batchUpdate(anyString(), verificationTokenRowsCaptor.capture());
+		verify(verificationTokenRepository).deleteByToken((String) verificationTokenRowsCaptor.getValue().get(0)[0]);
+	}
+
+	@Test
+	void failedBatchSendsNoMailAndContinuesWithNextBatch() {
+		when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+				.thenThrow(new DataAccessResourceFailureException("Connection refused")).thenReturn(new int[] { 1 });
+		when(mailSenderService.sendMailNotification(any())).thenReturn(CompletableFuture.completedFuture(null));
+		accountActivationService.queueAccountActivation(new UserRegisteredEvent(1L, "first", "first@reddit.com"));
+		accountActivationService.queueAccountActivation(new UserRegisteredEvent(2L, "second", "second@reddit.com"));
+		accountActivationService.queueAccountActivation(new UserRegisteredEvent(3L, "third", "third@reddit.com"));
+
+		accountActivationService.issueQueuedVerificationTokens();
+
+		verify(mailSenderService).sendMailNotification(any());
+		verify(verificationTokenRepository, never()).deleteByToken(anyString());
+	}
+
+	@Test
+	void recoveredUsersWithoutTokenAreIssuedVerificationTokens() {
+		when(userRepository.findUnactivatedUsersWithoutToken(eq(0L), any(), any(), eq(2)))
+				.thenReturn(Arrays.asList(newUser(4L), newUser(7L)));
+		when(userRepository.findUnactivatedUsersWithoutToken(eq(7L), any(), any(), eq(2)))
+				.thenReturn(Collections.singletonList(newUser(9L)));
+		when(mailSenderService.sendMailNotification(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+		accountActivationService.recoverPendingActivations();
+		accountActivationService.issueQueuedVerificationTokens();
+
+		ArgumentCaptor<List<Object[]>> verificationTokenRowsCaptor = rowsCaptor();
+		verify(jdbcTemplate, times(2)).batchUpdate(anyString(), verificationTokenRowsCaptor.capture());
+		List<List<Object[]>> issuedBatches = verificationTokenRowsCaptor.getAllValues();
+		assertEquals(4L, issuedBatches.get(0).get(0)[1]);
+		assertEquals(7L, issuedBatches.get(0).get(1)[1]);
+		assertEquals(9L, issuedBatches.get(1).get(0)[1]);
+		verify(userRepository, never()).findUnactivatedUsersWithoutToken(eq(9L), any(), any(), anyInt());
+	}
+
+	private static User newUser(Long userId) {
+		User user = new User();
+		user.setUserId(userId);
+		user.setUsername("user" + userId);
+		user.setEmail("user" + userId + "@reddit.com");
+		return user;
+	}
+
+	private static CompletableFuture<Void> failedFuture(Throwable exception) {
+		CompletableFuture<Void> failedFuture = new CompletableFuture<>();
+		failedFuture.completeExceptionally(exception);
+		return failedFuture;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static ArgumentCaptor<List<Object[]>> rowsCaptor() {
+		return (ArgumentCaptor) ArgumentCaptor.forClass(List.class);
+	}
+}
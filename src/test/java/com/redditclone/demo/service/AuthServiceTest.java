@@ -0,0 +1,168 @@
+package com.redditclone.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.redditclone.demo.dto.AuthenticationResponse;
+import com.redditclone.demo.repository.UserRepository;
+import com.redditclone.demo.repository.VerificationTokenRepository;
+import com.redditclone.demo.security.JwtProvider;
+import com.redditclone.demo.security.PasswordHashingExecutor;
+import com.redditclone.demo.security.RedditUserPrincipal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * AuthServiceTest class tests that only the password verification of the login
+ * runs on the password hashing executor and that the tokens are issued on the
+ * application task executor.
+ */
+@ExtendWith(MockitoExtension.class)
+class AuthServiceTest {
+
+	@Mock
+	private PasswordEncoder passwordEncoder;
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Mock
+	private VerificationTokenRepository verificationTokenRepository;
+
+	@Mock
+	private ApplicationEventPublisher applicationEventPublisher;
+
+	@Mock
+	private UserDetailsService userDetailsService;
+
+	@Mock
+	private UserDetailsPasswordService userDetailsPasswordService;
+
+	@Mock
+	private JwtProvider jwtProvider;
+
+	@Mock
+	private RefreshTokenService refreshTokenService;
+
+	private PasswordHashingExecutor passwordHashingExecutor;
+
+	private ThreadPoolTaskExecutor applicationTaskExecutor;
+
+	private AuthService authService;
+
+	private volatile String passwordVerifyingThreadName;
+
+	private volatile String tokenGeneratingThreadName;
+
+	@BeforeEach
+	void createAuthService() {
+		passwordHashingExecutor = new PasswordHashingExecutor(new SimpleMeterRegistry(), 1, 4);
+		applicationTaskExecutor = new ThreadPoolTaskExecutor();
+		applicationTaskExecutor.setThreadNamePrefix("task-");
+		applicationTaskExecutor.initialize();
+		authService = new AuthService(passwordEncoder, userRepository, verificationTokenRepository,
+				applicationEventPublisher, userDetailsService, userDetailsPasswordService, passwordHashingExecutor,
+				applicationTaskExecutor, jwtProvider, refreshTokenService);
+	}
+
+	@AfterEach
+	void shutdownExecutors() {
+		passwordHashingExecutor.shutdown();
+		applicationTaskExecutor.shutdown();
+	}
+
+	@Test
+	void loginVerifiesOnlyPasswordOnPasswordHashingExecutor() throws Exception {
+		when(userDetailsService.loadUserByUsername("user"))
+				.thenReturn(new RedditUserPrincipal(1L, "user", "encoded", true));
+		when(passwordEncoder.matches("password", "encoded")).thenAnswer(invocation -> {
+			passwordVerifyingThreadName = Thread.currentThread().getName();
+			return true;
+		});
+		when(jwtProvider.generateAuthenticationToken(1L, "user", true)).thenAnswer(invocation -> {
+			tokenGeneratingThreadName = Thread.currentThread().getName();
+			return "jwt";
+		});
+		when(refreshTokenService.generateAndSaveRefreshToken(any())).thenReturn("refresh");
+
+		AuthenticationResponse authenticationResponse = authService
+				.verifyLoginRequestAndGetAuthenticationInfo("user", "password").get();
+
+		assertEquals("jwt", authenticationResponse.getAuthenticationToken());
+		assertEquals("refresh", authenticationResponse.getRefreshToken());
+		assertTrue(passwordVerifyingThreadName.startsWith("password-hashing-"), passwordVerifyingThreadName);
+		assertTrue(tokenGeneratingThreadName.startsWith("task-"), tokenGeneratingThreadName);
+		verify(userDetailsPasswordService, never()).updatePassword(any(), anyString());
+	}
+
+	@Test
+	void loginOfUnknownUserVerifiesPasswordAndFailsWithBadCredentials() {
+		when(userDetailsService.loadUserByUsername("unknown")).thenThrow(new UsernameNotFoundException("unknown"));
+
+		ExecutionException exception = assertThrows(ExecutionException.class,
+				() -> authService.verifyLoginRequestAndGetAuthenticationInfo("unknown", "password").get());
+
+		assertTrue(exception.getCause() instanceof BadCredentialsException);
+		verify(passwordEncoder).matches(eq("password"), anyString());
+		verify(jwtProvider, never()).generateAuthenticationToken(any(), any(), eq(true));
+	}
+
+	@Test
+	void loginWithWrongPasswordFailsWithBadCredentials() {
+		when(userDetailsService.loadUserByUsername("user"))
+				.thenReturn(new RedditUserPrincipal(1L, "user", "encoded", true));
+
+		ExecutionException exception = assertThrows(ExecutionException.class,
+				() -> authService.verifyLoginRequestAndGetAuthenticationInfo("user", "wrong").get());
+
+		assertTrue(exception.getCause() instanceof BadCredentialsException);
+	}
+
+	@Test
+	void loginOfDisabledUserIsRejectedBeforePasswordVerification() {
+		when(userDetailsService.loadUserByUsername("user"))
+				.thenReturn(new RedditUserPrincipal(1L, "user", "encoded", false));
+
+		assertThrows(DisabledException.class,
+				() -> authService.verifyLoginRequestAndGetAuthenticationInfo("user", "password"));
+		verify(passwordEncoder, never()).matches(any(), any());
+	}
+
+	@Test
+	void loginReencodesPasswordOfOtherWorkFactor() throws Exception {
+		RedditUserPrincipal principal = new RedditUserPrincipal(1L, "user", "encoded", true);
+		when(userDetailsService.loadUserByUsername("user")).thenReturn(principal);
+		when(passwordEncoder.matches("password", "encoded")).thenReturn(true);
+		when(passwordEncoder.upgradeEncoding("encoded")).thenReturn(true);
+		when(passwordEncoder.encode("password")).thenReturn("reencoded");
+
+		authService.verifyLoginRequestAndGetAuthenticationInfo("user", "password").get();
+
+		verify(userDetailsPasswordService, timeout(5000)).updatePassword(principal, "reencoded");
+	}
+}
@@ -0,0 +1,150 @@
+package com.redditclone.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+
+import com.redditclone.demo.dto.CommentDto;
+import com.redditclone.demo.dto.CommentPageCursor;
+import com.redditclone.demo.dto.CursorPageResponse;
+import com.redditclone.demo.exceptions.CommentNotFoundException;
+import com.redditclone.demo.mapper.CommentMapper;
+import com.redditclone.demo.model.Comment;
+import com.redditclone.demo.model.Post;
+import com.redditclone.demo.model.User;
+import com.redditclone.demo.repository.CommentRepository;
+import com.redditclone.demo.repository.PostRepository;
+import com.redditclone.demo.repository.UserRepository;
+
+/**
+ * CommentsServiceTest class tests that the replies are threaded under the
+ * thread path of their parent and paged by the thread path cursor.
+ */
+@ExtendWith(MockitoExtension.class)
+class CommentsServiceTest {
+
+	private static final String PARENT_THREAD_PATH = "0000000100000005";
+
+	@Mock
+	private CommentMapper commentMapper;
+
+	@Mock
+	private CommentRepository commentRepository;
+
+	@Mock
+	private PostRepository postRepository;
+
+	@Mock
+	private AuthService authService;
+
+	@Mock
+	private MailContentBuilderService mailContentBuilderService;
+
+	@Mock
+	private MailSenderService mailSenderService;
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Mock
+	private ApplicationEventPublisher applicationEventPublisher;
+
+	private CommentsService commentsService;
+
+	@BeforeEach
+	void createCommentsService() {
+		commentsService = new CommentsService(commentMapper, commentRepository, postRepository, authService,
+				mailContentBuilderService, mailSenderService, userRepository, applicationEventPublisher);
+		lenient().when(commentMapper.mapCommentDtoFromModel(any(Comment.class))).thenAnswer(invocation -> {
+			Comment comment = invocation.getArgument(0);
+			return CommentDto.builder().id(comment.getId()).depth(comment.getDepth()).build();
+		});
+	}
+
+	@Test
+	void getCommentRepliesPagesRepliesUnderThreadPathOfComment() {
+		when(commentRepository.findById(5L)).thenReturn(Optional.of(newComment(5L, PARENT_THREAD_PATH, 1)));
+		when(commentRepository.findThreadCommentsAfter(7L, PARENT_THREAD_PATH, PARENT_THREAD_PATH, 3,
+				PageRequest.of(0, 3)))
+				.thenReturn(Arrays.asList(newComment(9L, PARENT_THREAD_PATH + "00000009", 2),
+						newComment(12L, PARENT_THREAD_PATH + "000000090000000c", 3),
+						newComment(10L, PARENT_THREAD_PATH + "0000000a", 2)));
+		when(commentRepository.findThreadCommentsAfter(7L, PARENT_THREAD_PATH,
+				PARENT_THREAD_PATH + "000000090000000c", 3, PageRequest.of(0, 3)))
+				.thenReturn(Collections.singletonList(newComment(10L, PARENT_THREAD_PATH + "0000000a", 2)));
+
+		CursorPageResponse<CommentDto> firstPage = commentsService.getCommentReplies(5L, null, 2, 2);
+		CursorPageResponse<CommentDto> secondPage = commentsService.getCommentReplies(5L,
+				firstPage.getNextCursor(), 2, 2);
+
+		assertEquals(Arrays.asList(9L, 12L), commentIds(firstPage));
+		assertEquals(PARENT_THREAD_PATH + "000000090000000c",
+				CommentPageCursor.decodeCommentPageCursor(firstPage.getNextCursor()).getThreadPath());
+		assertEquals(Collections.singletonList(10L), commentIds(secondPage));
+		assertNull(secondPage.getNextCursor());
+	}
+
+	@Test
+	void getCommentRepliesOfUnknownCommentThrowsCommentNotFound() {
+		when(commentRepository.findById(5L)).thenReturn(Optional.empty());
+
+		assertThrows(CommentNotFoundException.class, () -> commentsService.getCommentReplies(5L, null, 2, 2));
+	}
+
+	@Test
+	void createdReplyIsThreadedUnderThreadPathOfParent() {
+		Post post = newPost();
+		when(postRepository.findById(7L)).thenReturn(Optional.of(post));
+		when(commentMapper.mapCommentModelFromDto(any(), any(), any()))
+				.thenReturn(Comment.builder().post(post).parentCommentId(5L).build());
+		when(commentRepository.findById(5L)).thenReturn(Optional.of(newComment(5L, PARENT_THREAD_PATH, 1)));
+		when(commentRepository.save(any(Comment.class))).thenAnswer(invocation -> {
+			Comment comment = invocation.getArgument(0);
+			comment.setId(46L);
+			return comment;
+		});
+
+		CommentDto reply = commentsService.createAndSaveNewComment(
+				CommentDto.builder().postId(7L).parentCommentId(5L).commentedText("reply").build());
+
+		assertEquals(46L, reply.getId());
+		assertEquals(2, reply.getDepth());
+		verify(commentRepository).save(
+				Comment.builder().id(46L).post(post).parentCommentId(5L).depth(2)
+						.threadPath(PARENT_THREAD_PATH + "0000001a").build());
+		verify(commentRepository).incrementReplyCount(5L);
+		verify(postRepository).incrementCommentCount(7L);
+	}
+
+	private static List<Long> commentIds(CursorPageResponse<CommentDto> commentPage) {
+		return commentPage.getItems().stream().map(CommentDto::getId).collect(Collectors.toList());
+	}
+
+	private static Comment newComment(Long commentId, String threadPath, int depth) {
+		return Comment.builder().id(commentId).post(newPost()).threadPath(threadPath).depth(depth).build();
+	}
+
+	private static Post newPost() {
+		User user = new User();
+		user.setUsername("user");
+		return Post.builder().postId(7L).postName("post").user(user).build();
+	}
+}
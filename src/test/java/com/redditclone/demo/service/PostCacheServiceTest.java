@@ -0,0 +1,110 @@
+package com.redditclone.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.redditclone.demo.dto.CachedPost;
+import com.redditclone.demo.dto.PostDto;
+import com.redditclone.demo.event.CommentCreatedEvent;
+import com.redditclone.demo.event.VoteCountsFlushedEvent;
+import com.redditclone.demo.mapper.PostMapper;
+import com.redditclone.demo.model.Post;
+import com.redditclone.demo.repository.PostRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * PostCacheServiceTest class tests that the loaded posts never overwrite the
+ * count updates which are committing or got committed while loading.
+ */
+@ExtendWith(MockitoExtension.class)
+class PostCacheServiceTest {
+
+	@Mock
+	private PostRepository postRepository;
+
+	@Mock
+	private PostMapper postMapper;
+
+	private PostCacheService postCacheService;
+
+	private int loadedVoteCount;
+
+	@BeforeEach
+	void createPostCacheService() {
+		postCacheService = new PostCacheService(postRepository, postMapper, new SimpleMeterRegistry(), 1 << 20, 300);
+		lenient().when(postRepository.findWithUserAndSubredditByPostIdIn(anyList()))
+				.thenAnswer(invocation -> Collections.singletonList(Post.builder().postId(1L).build()));
+		when(postMapper.mapCachedPostFromModel(any(Post.class))).thenAnswer(invocation -> new CachedPost(
+				PostDto.builder().postId(1L).voteCount(loadedVoteCount).commentCount(0).build(), Instant.EPOCH));
+	}
+
+	@Test
+	void loadedPostIsCachedAndUpdatedByCommittedVoteCounts() {
+		assertEquals(0, getCachedVoteCount());
+		VoteCountsFlushedEvent voteCountsFlushedEvent = new VoteCountsFlushedEvent(Collections.singletonMap(1L, 2L));
+		flushVoteCounts(voteCountsFlushedEvent);
+		loadedVoteCount = 2;
+
+		assertEquals(2, getCachedVoteCount());
+		assertEquals(2, postCacheService.getCachedPosts(Arrays.asList(1L, 1L)).size());
+		verify(postRepository, times(1)).findWithUserAndSubredditByPostIdIn(anyList());
+	}
+
+	@Test
+	void postLoadedWhileVoteCountsAreCommittingIsNotCached() {
+		VoteCountsFlushedEvent voteCountsFlushedEvent = new VoteCountsFlushedEvent(Collections.singletonMap(1L, 2L));
+		postCacheService.startFlushingVoteCounts(voteCountsFlushedEvent);
+		assertEquals(0, getCachedVoteCount());
+		postCacheService.updateFlushedVoteCounts(voteCountsFlushedEvent);
+		postCacheService.completeFlushingVoteCounts(voteCountsFlushedEvent);
+		loadedVoteCount = 2;
+
+		assertEquals(2, getCachedVoteCount());
+		assertEquals(2, getCachedVoteCount());
+		verify(postRepository, times(2)).findWithUserAndSubredditByPostIdIn(anyList());
+	}
+
+	@Test
+	void postLoadedBeforeCommentIsCompletedIsNotCached() {
+		CommentCreatedEvent commentCreatedEvent = new CommentCreatedEvent(1L, 10L);
+		when(postRepository.findWithUserAndSubredditByPostIdIn(anyList())).thenAnswer(invocation -> {
+			postCacheService.startCommentCountUpdate(commentCreatedEvent);
+			postCacheService.updateCommentCount(commentCreatedEvent);
+			postCacheService.completeCommentCountUpdate(commentCreatedEvent);
+			return Collections.singletonList(Post.builder().postId(1L).build());
+		}).thenAnswer(invocation -> Collections.singletonList(Post.builder().postId(1L).build()));
+
+		List<CachedPost> cachedPosts = postCacheService.getCachedPosts(Collections.singletonList(1L));
+		assertEquals(1, cachedPosts.size());
+		postCacheService.getCachedPosts(Collections.singletonList(1L));
+		postCacheService.getCachedPosts(Collections.singletonList(1L));
+		verify(postRepository, times(2)).findWithUserAndSubredditByPostIdIn(anyList());
+	}
+
+	private void flushVoteCounts(VoteCountsFlushedEvent voteCountsFlushedEvent) {
+		postCacheService.startFlushingVoteCounts(voteCountsFlushedEvent);
+		postCacheService.updateFlushedVoteCounts(voteCountsFlushedEvent);
+		postCacheService.completeFlushingVoteCounts(voteCountsFlushedEvent);
+	}
+
+	private int getCachedVoteCount() {
+		return postCacheService.getCachedPost(1L).get().getSharedPostDto().getVoteCount();
+	}
+}
@@ -0,0 +1,241 @@
+package com.redditclone.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.redditclone.demo.dto.RankedPostPageCursor;
+import com.redditclone.demo.event.CommentCreatedEvent;
+import com.redditclone.demo.event.PostCreatedEvent;
+import com.redditclone.demo.event.VoteRegisteredEvent;
+import com.redditclone.demo.model.PostSortType;
+import com.redditclone.demo.model.VoteType;
+import com.redditclone.demo.repository.PostRepository;
+import com.redditclone.demo.repository.PostRepository.PostRankingSnapshot;
+
+/**
+ * PostRankingServiceTest class tests the ranking of the queued posts, votes and
+ * comments in the feeds, and the loading and reconciliation of the ranking
+ * state with the database.
+ */
+@ExtendWith(MockitoExtension.class)
+class PostRankingServiceTest {
+
+	private static final Instant CREATED_DATE_TIME = Instant.parse("2021-01-02T03:04:05Z");
+
+	@Mock
+	private PostRepository postRepository;
+
+	@Mock
+	private VoteAggregatorService voteAggregatorService;
+
+	private PostRankingService postRankingService;
+
+	@BeforeEach
+	void createPostRankingService() {
+		postRankingService = new PostRankingService(postRepository, voteAggregatorService);
+		ReflectionTestUtils.setField(postRankingService, "loadBatchSize", 10);
+		ReflectionTestUtils.setField(postRankingService, "globalFeedCapacity", 3);
+		ReflectionTestUtils.setField(postRankingService, "subredditFeedCapacity", 2);
+		postRankingService.createGlobalPostFeed();
+	}
+
+	@Test
+	void queuedUpdatesAreRankedOnlyOnceApplied() {
+		createPost(1L, 10L);
+		createPost(2L, 10L);
+
+		assertEquals(0, getTopPostIds(null).length);
+
+		postRankingService.applyQueuedRankingUpdates();
+
+		assertArrayEquals(new long[] { 2L, 1L }, getTopPostIds(null));
+	}
+
+	@Test
+	void votesAndCommentsRerankPostsInGlobalAndSubredditFeeds() {
+		createPost(1L, 10L);
+		createPost(2L, 10L);
+		createPost(3L, 20L);
+		vote(1L, 1);
+		vote(1L, 1);
+		vote(3L, 1);
+		vote(2L, -1);
+		postRankingService.queueCommentedPost(new CommentCreatedEvent(2L, 9L));
+
+		postRankingService.applyQueuedRankingUpdates();
+
+		assertArrayEquals(new long[] { 1L, 3L, 2L }, getTopPostIds(null));
+		assertArrayEquals(new long[] { 1L, 2L }, getTopPostIds(10L));
+		assertArrayEquals(new long[] { 3L }, getTopPostIds(20L));
+	}
+
+	@Test
+	void rebuildPostFeedsBringsBackPostsWhichDroppedOutOfFullFeed() {
+		createPost(1L, 10L);
+		createPost(2L, 10L);
+		createPost(3L, 10L);
+		vote(1L, 3);
+		vote(2L, 2);
+		postRankingService.applyQueuedRankingUpdates();
+		assertArrayEquals(new long[] { 1L, 2L }, getTopPostIds(10L));
+
+		vote(1L, -5);
+		vote(2L, -5);
+		postRankingService.applyQueuedRankingUpdates();
+		assertArrayEquals(new long[] { 1L, 2L }, getTopPostIds(10L));
+
+		postRankingService.rebuildPostFeeds();
+
+		assertArrayEquals(new long[] { 3L, 1L }, getTopPostIds(10L));
+	}
+
+	@Test
+	void rebuildPostFeedsRefillsFeedsSwappedOutByLastRebuild() {
+		createPost(1L, 10L);
+		createPost(2L, 10L);
+		createPost(3L, 10L);
+		vote(1L, 3);
+		vote(2L, 2);
+		postRankingService.applyQueuedRankingUpdates();
+		postRankingService.rebuildPostFeeds();
+
+		vote(1L, -5);
+		postRankingService.applyQueuedRankingUpdates();
+		postRankingService.rebuildPostFeeds();
+		assertArrayEquals(new long[] { 2L, 3L }, getTopPostIds(10L));
+
+		vote(3L, 5);
+		postRankingService.applyQueuedRankingUpdates();
+		postRankingService.rebuildPostFeeds();
+
+		assertArrayEquals(new long[] { 3L, 2L, 1L }, getTopPostIds(null));
+		assertArrayEquals(new long[] { 3L, 2L }, getTopPostIds(10L));
+	}
+
+	@Test
+	void votesQueuedBeforeLoadAreNotCountedTwice() {
+		vote(1L, 2);
+		when(postRepository.findPostRankingSnapshotsAfter(0L, PageRequest.of(0, 10)))
+				.thenReturn(Collections.singletonList(newRankingSnapshot(1L, 2)));
+
+		postRankingService.loadPostRanks();
+		vote(1L, 1);
+		postRankingService.applyQueuedRankingUpdates();
+
+		assertArrayEquals(new double[] { 3d }, getTopScores(null));
+	}
+
+	@Test
+	void reconcilePostRanksCorrectsDriftedRankingState() {
+		createPost(1L, 10L);
+		createPost(2L, 10L);
+		vote(1L, 3);
+		postRankingService.applyQueuedRankingUpdates();
+		when(postRepository.findPostRankingSnapshotsAfter(0L, PageRequest.of(0, 10)))
+				.thenReturn(Arrays.asList(newRankingSnapshot(1L, 0), newRankingSnapshot(2L, 1)));
+
+		postRankingService.reconcilePostRanks();
+
+		assertArrayEquals(new long[] { 2L, 1L }, getTopPostIds(null));
+		assertArrayEquals(new double[] { 1d, 0d }, getTopScores(null));
+	}
+
+	@Test
+	void reconcilePostRanksKeepsPostsUpdatedAfterSnapshotIsRead() {
+		createPost(1L, 10L);
+		postRankingService.applyQueuedRankingUpdates();
+		when(postRepository.findPostRankingSnapshotsAfter(0L, PageRequest.of(0, 10))).thenAnswer(invocation -> {
+			vote(1L, 1);
+			postRankingService.applyQueuedRankingUpdates();
+			return Collections.singletonList(newRankingSnapshot(1L, 0));
+		});
+
+		postRankingService.reconcilePostRanks();
+		postRankingService.applyQueuedRankingUpdates();
+
+		assertArrayEquals(new double[] { 1d }, getTopScores(null));
+	}
+
+	@Test
+	void getRankedPostIdsReturnsPageAfterCursor() {
+		for (long postId = 1; postId <= 3; postId++) {
+			createPost(postId, 10L);
+			vote(postId, (int) postId);
+		}
+		postRankingService.applyQueuedRankingUpdates();
+		long[] postIds = new long[2];
+		double[] scores = new double[2];
+
+		int noOfPosts = postRankingService.getRankedPostIds(PostSortType.TOP, (Long) null,
+				new RankedPostPageCursor(2d, 2L), postIds, scores);
+
+		assertEquals(1, noOfPosts);
+		assertEquals(1L, postIds[0]);
+	}
+
+	private void createPost(Long postId, Long subredditId) {
+		postRankingService.queueCreatedPost(new PostCreatedEvent(postId, subredditId, CREATED_DATE_TIME));
+	}
+
+	private void vote(Long postId, int voteDelta) {
+		postRankingService.queueVotedPost(new VoteRegisteredEvent(postId, 7L,
+				voteDelta > 0 ? VoteType.UPVOTE : VoteType.DOWNVOTE, voteDelta));
+	}
+
+	private long[] getTopPostIds(Long subredditId) {
+		long[] postIds = new long[10];
+		int noOfPosts = postRankingService.getRankedPostIds(PostSortType.TOP, subredditId, null, postIds,
+				new double[10]);
+		return Arrays.copyOf(postIds, noOfPosts);
+	}
+
+	private double[] getTopScores(Long subredditId) {
+		double[] scores = new double[10];
+		int noOfPosts = postRankingService.getRankedPostIds(PostSortType.TOP, subredditId, null, new long[10],
+				scores);
+		return Arrays.copyOf(scores, noOfPosts);
+	}
+
+	private static PostRankingSnapshot newRankingSnapshot(Long postId, Integer voteCount) {
+		return new PostRankingSnapshot() {
+
+			@Override
+			public Long getPostId() {
+				return postId;
+			}
+
+			@Override
+			public Long getSubredditId() {
+				return 10L;
+			}
+
+			@Override
+			public Instant getCreatedDateTime() {
+				return CREATED_DATE_TIME;
+			}
+
+			@Override
+			public Integer getVoteCount() {
+				return voteCount;
+			}
+
+			@Override
+			public Integer getCommentCount() {
+				return 0;
+			}
+		};
+	}
+}
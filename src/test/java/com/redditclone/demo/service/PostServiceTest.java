@@ -0,0 +1,150 @@
+package com.redditclone.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+
+import com.redditclone.demo.dto.CursorPageResponse;
+import com.redditclone.demo.dto.PostDto;
+import com.redditclone.demo.dto.PostPageCursor;
+import com.redditclone.demo.exceptions.RedditException;
+import com.redditclone.demo.mapper.PostMapper;
+import com.redditclone.demo.model.Post;
+import com.redditclone.demo.model.PostSortType;
+import com.redditclone.demo.model.User;
+import com.redditclone.demo.repository.PostRepository;
+import com.redditclone.demo.repository.SubredditRepository;
+import com.redditclone.demo.repository.UserRepository;
+
+/**
+ * PostServiceTest class tests the page boundaries of the keyset paginated
+ * latest posts and that posts of a user are listed only by new sort type.
+ */
+@ExtendWith(MockitoExtension.class)
+class PostServiceTest {
+
+	private static final Instant CREATED_DATE_TIME = Instant.parse("2021-01-02T03:04:05Z");
+
+	@Mock
+	private PostMapper postMapper;
+
+	@Mock
+	private PostRepository postRepository;
+
+	@Mock
+	private AuthService authService;
+
+	@Mock
+	private SubredditRepository subredditRepository;
+
+	@Mock
+	private SubredditNameIndexService subredditNameIndexService;
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Mock
+	private PostRankingService postRankingService;
+
+	@Mock
+	private ApplicationEventPublisher applicationEventPublisher;
+
+	@Mock
+	private PostCacheService postCacheService;
+
+	@InjectMocks
+	private PostService postService;
+
+	@Test
+	void getAllPostsFetchesOnePostMoreThanPageSize() {
+		when(postRepository.findLatestPosts(any())).thenReturn(posts(10, 1));
+		mapPostsToDtos();
+
+		postService.getAllPosts(PostSortType.NEW, null, 2);
+
+		ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
+		verify(postRepository).findLatestPosts(pageableCaptor.capture());
+		assertEquals(3, pageableCaptor.getValue().getPageSize());
+	}
+
+	@Test
+	void getAllPostsReturnsNextCursorOfLastPostWhenMorePostsExist() {
+		when(postRepository.findLatestPosts(any())).thenReturn(posts(10, 3));
+		mapPostsToDtos();
+
+		CursorPageResponse<PostDto> postPage = postService.getAllPosts(PostSortType.NEW, null, 2);
+
+		assertEquals(2, postPage.getItems().size());
+		assertEquals(9L, postPage.getItems().get(1).getPostId());
+		PostPageCursor nextPageCursor = PostPageCursor.decodePostPageCursor(postPage.getNextCursor());
+		assertEquals(9L, nextPageCursor.getPostId());
+		assertEquals(CREATED_DATE_TIME.minusSeconds(1), nextPageCursor.getCreatedDateTime());
+	}
+
+	@Test
+	void getAllPostsReturnsNoNextCursorOnLastPage() {
+		when(postRepository.findLatestPosts(any())).thenReturn(posts(10, 2));
+		mapPostsToDtos();
+
+		CursorPageResponse<PostDto> postPage = postService.getAllPosts(PostSortType.NEW, null, 2);
+
+		assertEquals(2, postPage.getItems().size());
+		assertNull(postPage.getNextCursor());
+	}
+
+	@Test
+	void getAllPostsFetchesPostsBeforeKeysetOfPageCursor() {
+		String pageCursor = PostPageCursor
+				.encodePostPageCursor(Post.builder().postId(9L).createdDateTime(CREATED_DATE_TIME).build());
+		when(postRepository.findLatestPostsBefore(eq(CREATED_DATE_TIME), eq(9L), any())).thenReturn(posts(8, 3));
+		mapPostsToDtos();
+
+		CursorPageResponse<PostDto> postPage = postService.getAllPosts(PostSortType.NEW, pageCursor, 2);
+
+		assertEquals(8L, postPage.getItems().get(0).getPostId());
+		assertNotNull(postPage.getNextCursor());
+	}
+
+	@Test
+	void getPostsByUserNameRejectsRankedSortTypes() {
+		when(userRepository.findByUsername("user")).thenReturn(Optional.of(new User()));
+
+		assertThrows(RedditException.class, () -> postService.getPostsByUserName("user", PostSortType.HOT, null, 2));
+	}
+
+	private static List<Post> posts(long firstPostId, int noOfPosts) {
+		return LongStream.range(0, noOfPosts)
+				.mapToObj(index -> Post.builder().postId(firstPostId - index)
+						.createdDateTime(CREATED_DATE_TIME.minusSeconds(index)).build())
+				.collect(Collectors.toList());
+	}
+
+	@SuppressWarnings("unchecked")
+	private void mapPostsToDtos() {
+		when(postMapper.mapPostDtoListFromModels(anyList()))
+				.thenAnswer(invocation -> ((List<Post>) invocation.getArgument(0)).stream()
+						.map(post -> PostDto.builder().postId(post.getPostId()).build())
+						.collect(Collectors.toList()));
+	}
+}
@@ -0,0 +1,144 @@
+package com.redditclone.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import com.redditclone.demo.dto.SearchResultDto;
+import com.redditclone.demo.event.PostCreatedEvent;
+import com.redditclone.demo.model.Post;
+import com.redditclone.demo.model.Subreddit;
+import com.redditclone.demo.model.User;
+import com.redditclone.demo.repository.CommentRepository;
+import com.redditclone.demo.repository.PostRepository;
+
+/**
+ * SearchIndexServiceTest class tests that the index is rebuilt when it is empty
+ * on start up and otherwise caught up from the last indexed ids of the commit.
+ */
+@ExtendWith(MockitoExtension.class)
+class SearchIndexServiceTest {
+
+	@Mock
+	private PostRepository postRepository;
+
+	@Mock
+	private CommentRepository commentRepository;
+
+	@TempDir
+	Path indexDirectory;
+
+	@Test
+	void emptyIndexIsRebuiltOnStartup() throws Exception {
+		when(postRepository.findMaxPostId()).thenReturn(2L);
+		when(postRepository.findWithUserAndSubredditByPostIdBetween(1L, 1000L))
+				.thenReturn(Arrays.asList(newPost(1L, "first"), newPost(2L, "second")));
+		SearchIndexService searchIndexService = openSearchIndexService();
+
+		searchIndexService.reindexOnStartup(newApplicationReadyEvent());
+
+		assertEquals(Collections.singletonList(1L), searchPostIds(searchIndexService, "first"));
+		assertEquals(Collections.singletonList(2L), searchPostIds(searchIndexService, "second"));
+		searchIndexService.closeIndex();
+	}
+
+	@Test
+	void indexIsCaughtUpFromLastCommittedIdsOnStartup() throws Exception {
+		SearchIndexService searchIndexService = openSearchIndexService();
+		when(postRepository.findWithUserAndSubredditByPostIdIn(anyList()))
+				.thenReturn(Arrays.asList(newPost(1L, "first"), newPost(2L, "second")));
+		searchIndexService.queueCreatedPost(new PostCreatedEvent(1L, 1L, null));
+		searchIndexService.queueCreatedPost(new PostCreatedEvent(2L, 1L, null));
+		searchIndexService.indexQueuedDocuments();
+		searchIndexService.queueCreatedPost(new PostCreatedEvent(3L, 1L, null));
+		searchIndexService.commitIndex();
+		searchIndexService.closeIndex();
+
+		when(postRepository.findMaxPostId()).thenReturn(4L);
+		when(postRepository.findWithUserAndSubredditByPostIdBetween(3L, 1002L))
+				.thenReturn(Arrays.asList(newPost(3L, "third"), newPost(4L, "fourth")));
+		SearchIndexService reopenedSearchIndexService = openSearchIndexService();
+
+		reopenedSearchIndexService.reindexOnStartup(newApplicationReadyEvent());
+
+		assertEquals(Collections.singletonList(1L), searchPostIds(reopenedSearchIndexService, "first"));
+		assertEquals(Collections.singletonList(3L), searchPostIds(reopenedSearchIndexService, "third"));
+		assertEquals(Collections.singletonList(4L), searchPostIds(reopenedSearchIndexService, "fourth"));
+		verify(postRepository, never()).findWithUserAndSubredditByPostIdBetween(1L, 1000L);
+		verify(commentRepository, never()).findWithUserAndPostByIdBetween(anyLong(), anyLong());
+		reopenedSearchIndexService.closeIndex();
+	}
+
+	@Test
+	void failedBatchIsQueuedAgainAndCaughtUpOnStartup() throws Exception {
+		SearchIndexService searchIndexService = openSearchIndexService(1);
+		when(postRepository.findWithUserAndSubredditByPostIdIn(Collections.singletonList(1L)))
+				.thenThrow(new DataAccessResourceFailureException("Connection refused"));
+		when(postRepository.findWithUserAndSubredditByPostIdIn(Collections.singletonList(2L)))
+				.thenReturn(Collections.singletonList(newPost(2L, "second")));
+		searchIndexService.queueCreatedPost(new PostCreatedEvent(1L, 1L, null));
+		searchIndexService.queueCreatedPost(new PostCreatedEvent(2L, 1L, null));
+		searchIndexService.indexQueuedDocuments();
+		searchIndexService.indexQueuedDocuments();
+		searchIndexService.commitIndex();
+		searchIndexService.closeIndex();
+
+		when(postRepository.findMaxPostId()).thenReturn(2L);
+		when(postRepository.findWithUserAndSubredditByPostIdBetween(1L, 1000L))
+				.thenReturn(Arrays.asList(newPost(1L, "first"), newPost(2L, "second")));
+		SearchIndexService reopenedSearchIndexService = openSearchIndexService(1);
+
+		reopenedSearchIndexService.reindexOnStartup(newApplicationReadyEvent());
+
+		assertEquals(Collections.singletonList(1L), searchPostIds(reopenedSearchIndexService, "first"));
+		assertEquals(Collections.singletonList(2L), searchPostIds(reopenedSearchIndexService, "second"));
+		reopenedSearchIndexService.closeIndex();
+	}
+
+	private SearchIndexService openSearchIndexService() throws Exception {
+		return openSearchIndexService(500);
+	}
+
+	private SearchIndexService openSearchIndexService(int indexBatchSize) throws Exception {
+		SearchIndexService searchIndexService = new SearchIndexService(postRepository, commentRepository,
+				indexDirectory.toString(), indexBatchSize, 1000, 1);
+		searchIndexService.openIndex();
+		return searchIndexService;
+	}
+
+	private static List<Long> searchPostIds(SearchIndexService searchIndexService, String searchQuery) {
+		return searchIndexService.search(searchQuery, null, null, null, 10).getItems().stream()
+				.map(SearchResultDto::getPostId).collect(Collectors.toList());
+	}
+
+	private static ApplicationReadyEvent newApplicationReadyEvent() {
+		return new ApplicationReadyEvent(mock(SpringApplication.class), new String[0], null);
+	}
+
+	private static Post newPost(Long postId, String postName) {
+		User user = new User();
+		user.setUserId(1L);
+		user.setUsername("user");
+		return Post.builder().postId(postId).postName(postName).description(postName + " post").user(user)
+				.relatedSubreddit(Subreddit.builder().id(1L).build()).build();
+	}
+}
@@ -0,0 +1,94 @@
+package com.redditclone.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.redditclone.demo.dto.CursorPageResponse;
+import com.redditclone.demo.dto.SubredditDto;
+import com.redditclone.demo.dto.SubredditPageCursor;
+import com.redditclone.demo.mapper.SubredditMapper;
+import com.redditclone.demo.model.Subreddit;
+import com.redditclone.demo.model.SubredditSortType;
+import com.redditclone.demo.repository.SubredditRepository;
+
+/**
+ * SubredditDirectoryServiceTest class tests that the pages of the subreddit
+ * directory follow on from the sort keys of the page cursor across the rebuilds
+ * of the directory snapshot.
+ */
+@ExtendWith(MockitoExtension.class)
+class SubredditDirectoryServiceTest {
+
+	@Mock
+	private SubredditRepository subredditRepository;
+
+	@Mock
+	private SubredditMapper subredditMapper;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private SubredditDirectoryService subredditDirectoryService;
+
+	@BeforeEach
+	void createSubredditDirectoryService() {
+		subredditDirectoryService = new SubredditDirectoryService(subredditRepository, subredditMapper,
+				new TransactionTemplate(transactionManager), 60000);
+		lenient().when(subredditMapper.mapSubredditDtoFromModel(any(Subreddit.class))).thenAnswer(invocation -> {
+			Subreddit subreddit = invocation.getArgument(0);
+			return SubredditDto.builder().id(subreddit.getId()).name(subreddit.getName())
+					.noOfRelatedPosts(subreddit.getPostCount()).build();
+		});
+	}
+
+	@Test
+	void nextPageStartsAfterCursorSubredditRemovedFromSnapshot() {
+		when(subredditRepository.findAll()).thenReturn(
+				Arrays.asList(newSubreddit(1L, "java", 5), newSubreddit(2L, "kotlin", 3),
+						newSubreddit(3L, "scala", 3), newSubreddit(4L, "groovy", 1)),
+				Arrays.asList(newSubreddit(1L, "java", 5), newSubreddit(3L, "scala", 3),
+						newSubreddit(4L, "groovy", 1)));
+
+		CursorPageResponse<SubredditDto> firstPage = subredditDirectoryService
+				.getSubredditPage(SubredditSortType.SIZE, null, 2);
+		subredditDirectoryService.markCreatedSubreddit(null);
+		subredditDirectoryService.refreshDirectorySnapshot();
+		CursorPageResponse<SubredditDto> secondPage = subredditDirectoryService
+				.getSubredditPage(SubredditSortType.SIZE, firstPage.getNextCursor(), 2);
+
+		assertEquals(Arrays.asList(1L, 2L), subredditIds(firstPage));
+		assertEquals(Arrays.asList(3L, 4L), subredditIds(secondPage));
+		assertNull(secondPage.getNextCursor());
+	}
+
+	@Test
+	void pageCursorKeepsNameWithCursorValueSeparator() {
+		SubredditPageCursor subredditPageCursor = SubredditPageCursor.decodeSubredditPageCursor(
+				new SubredditPageCursor(3, "java|kotlin", 7L).encodeSubredditPageCursor());
+
+		assertEquals(new SubredditPageCursor(3, "java|kotlin", 7L), subredditPageCursor);
+	}
+
+	private static List<Long> subredditIds(CursorPageResponse<SubredditDto> subredditPage) {
+		return subredditPage.getItems().stream().map(SubredditDto::getId).collect(Collectors.toList());
+	}
+
+	private static Subreddit newSubreddit(Long subredditId, String name, int postCount) {
+		return Subreddit.builder().id(subredditId).name(name).postCount(postCount).build();
+	}
+}
@@ -0,0 +1,176 @@
+package com.redditclone.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.redditclone.demo.event.VoteCountsFlushedEvent;
+import com.redditclone.demo.event.VoteRegisteredEvent;
+import com.redditclone.demo.model.VoteType;
+import com.redditclone.demo.repository.PostRepository;
+
+/**
+ * VoteAggregatorServiceTest class tests the write behind of the pending vote
+ * deltas and the retirement of the idle posts.
+ */
+@ExtendWith(MockitoExtension.class)
+class VoteAggregatorServiceTest {
+
+	@Mock
+	private PostRepository postRepository;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@Mock
+	private ApplicationEventPublisher applicationEventPublisher;
+
+	private VoteAggregatorService voteAggregatorService;
+
+	@BeforeEach
+	void createVoteAggregatorService() {
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+		voteAggregatorService = new VoteAggregatorService(postRepository, new TransactionTemplate(transactionManager),
+				applicationEventPublisher);
+		ReflectionTestUtils.setField(voteAggregatorService, "flushBatchSize", 2);
+	}
+
+	@Test
+	void flushPendingVoteDeltasWritesSummedDeltaOncePerPost() {
+		registerVote(1L, VoteType.UPVOTE, 1);
+		registerVote(1L, VoteType.UPVOTE, 1);
+		registerVote(1L, VoteType.DOWNVOTE, -2);
+		registerVote(2L, VoteType.DOWNVOTE, -1);
+		assertEquals(0, voteAggregatorService.getPendingVoteDelta(1L));
+		assertEquals(-1, voteAggregatorService.getPendingVoteDelta(2L));
+
+		registerVote(1L, VoteType.UPVOTE, 1);
+		voteAggregatorService.flushPendingVoteDeltas();
+
+		verify(postRepository).incrementVoteCount(1L, 1);
+		verify(postRepository).incrementVoteCount(2L, -1);
+		assertEquals(0, voteAggregatorService.getPendingVoteDelta(1L));
+		assertEquals(0, voteAggregatorService.getPendingVoteDelta(2L));
+		ArgumentCaptor<VoteCountsFlushedEvent> flushedEventCaptor = ArgumentCaptor
+				.forClass(VoteCountsFlushedEvent.class);
+		verify(applicationEventPublisher).publishEvent(flushedEventCaptor.capture());
+		assertEquals(Map.of(1L, 1L, 2L, -1L), flushedEventCaptor.getValue().getFlushedVoteDeltaByPostId());
+	}
+
+	@Test
+	void flushPendingVoteDeltasSplitsPostsIntoBatches() {
+		registerVote(1L, VoteType.UPVOTE, 1);
+		registerVote(2L, VoteType.UPVOTE, 1);
+		registerVote(3L, VoteType.UPVOTE, 1);
+
+		voteAggregatorService.flushPendingVoteDeltas();
+
+		verify(transactionManager, times(2)).commit(any());
+		verify(applicationEventPublisher, times(2)).publishEvent(any(VoteCountsFlushedEvent.class));
+	}
+
+	@Test
+	void flushPendingVoteDeltasRetriesFailedBatchAtNextFlush() {
+		registerVote(1L, VoteType.UPVOTE, 1);
+		when(postRepository.incrementVoteCount(1L, 1)).thenThrow(new IllegalStateException("database down"))
+				.thenReturn(1);
+
+		voteAggregatorService.flushPendingVoteDeltas();
+
+		assertEquals(1, voteAggregatorService.getPendingVoteDelta(1L));
+		verify(applicationEventPublisher, never()).publishEvent(any());
+
+		voteAggregatorService.flushPendingVoteDeltas();
+
+		verify(postRepository, times(2)).incrementVoteCount(1L, 1);
+		assertEquals(0, voteAggregatorService.getPendingVoteDelta(1L));
+	}
+
+	@Test
+	void flushPendingVoteDeltasRetiresIdlePostAndFlushesResidualDelta() {
+		registerVote(1L, VoteType.UPVOTE, 1);
+		voteAggregatorService.flushPendingVoteDeltas();
+		Object pendingVoteDelta = getPendingVoteDeltaByPostId().get(1L);
+
+		voteAggregatorService.flushPendingVoteDeltas();
+		assertTrue(getPendingVoteDeltaByPostId().containsKey(1L));
+		voteAggregatorService.flushPendingVoteDeltas();
+		assertFalse(getPendingVoteDeltaByPostId().containsKey(1L));
+
+		// a voter which read the pending vote delta before it was retired
+		((LongAdder) ReflectionTestUtils.getField(pendingVoteDelta, "unflushedVoteDelta")).add(-1);
+		voteAggregatorService.flushPendingVoteDeltas();
+		voteAggregatorService.flushPendingVoteDeltas();
+
+		verify(postRepository).incrementVoteCount(1L, -1);
+		verify(postRepository, times(2)).incrementVoteCount(anyLong(), anyInt());
+	}
+
+	@Test
+	void voteAddedToRetiredPendingVoteDeltaAfterRequeueIsFlushed() {
+		registerVote(1L, VoteType.UPVOTE, 1);
+		voteAggregatorService.flushPendingVoteDeltas();
+		Object pendingVoteDelta = getPendingVoteDeltaByPostId().get(1L);
+		voteAggregatorService.flushPendingVoteDeltas();
+		voteAggregatorService.flushPendingVoteDeltas();
+		voteAggregatorService.flushPendingVoteDeltas();
+		assertFalse(getPendingVoteDeltaByPostId().containsKey(1L));
+
+		// a voter which read the pending vote delta before it was retired
+		ReflectionTestUtils.invokeMethod(voteAggregatorService, "addToPendingVoteDelta", 1L, pendingVoteDelta, -1L);
+		assertEquals(-1, voteAggregatorService.getPendingVoteDelta(1L));
+		voteAggregatorService.flushPendingVoteDeltas();
+
+		verify(postRepository).incrementVoteCount(1L, -1);
+	}
+
+	@Test
+	void flushingVoteDeltaIsCountedOnceAndRemovedBeforeCommit() {
+		registerVote(1L, VoteType.UPVOTE, 1);
+		when(postRepository.incrementVoteCount(1L, 1)).thenAnswer(invocation -> {
+			assertEquals(1, voteAggregatorService.getPendingVoteDelta(1L));
+			return 1;
+		});
+		doAnswer(invocation -> {
+			assertEquals(0, voteAggregatorService.getPendingVoteDelta(1L));
+			return null;
+		}).when(transactionManager).commit(any());
+
+		voteAggregatorService.flushPendingVoteDeltas();
+
+		verify(transactionManager).commit(any());
+		assertEquals(0, voteAggregatorService.getPendingVoteDelta(1L));
+	}
+
+	private void registerVote(Long postId, VoteType voteType, int voteDelta) {
+		voteAggregatorService.registerVoteDelta(new VoteRegisteredEvent(postId, 7L, voteType, voteDelta));
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<Long, Object> getPendingVoteDeltaByPostId() {
+		return (Map<Long, Object>) ReflectionTestUtils.getField(voteAggregatorService, "pendingVoteDeltaByPostId");
+	}
+}
@@ -0,0 +1,56 @@
+package com.redditclone.demo.util;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * AutocompleteTrieBenchmark class measures the cost of finding the top
+ * suggestions of a prefix in a trie of a million names, for a short prefix
+ * matched by all the names, a long prefix matched by a few names and a prefix
+ * which matches no name.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AutocompleteTrieBenchmark {
+
+	/** The Constant NO_OF_NAMES the no of names in the trie. */
+	private static final int NO_OF_NAMES = 1 << 20;
+
+	/** The trie sized as the autocomplete.maximum.suggestions property. */
+	private final AutocompleteTrie autocompleteTrie = new AutocompleteTrie(10);
+
+	public AutocompleteTrieBenchmark() {
+		for (int nameIndex = 0; nameIndex < NO_OF_NAMES; nameIndex++) {
+			autocompleteTrie.add("user" + Integer.toString(nameIndex, 36), nameIndex % 1000);
+		}
+	}
+
+	@Benchmark
+	public List<String> findTopSuggestionsShortPrefix() {
+		return autocompleteTrie.findTopSuggestions("user", 10);
+	}
+
+	@Benchmark
+	public List<String> findTopSuggestionsLongPrefix() {
+		return autocompleteTrie.findTopSuggestions("userkmx", 10);
+	}
+
+	@Benchmark
+	public List<String> findTopSuggestionsUnknownPrefix() {
+		return autocompleteTrie.findTopSuggestions("usex", 10);
+	}
+}
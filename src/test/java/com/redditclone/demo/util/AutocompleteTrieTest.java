@@ -0,0 +1,76 @@
+package com.redditclone.demo.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * AutocompleteTrieTest class tests the splits of the compressed edges and the
+ * ranking of the top suggestions of the prefixes.
+ */
+class AutocompleteTrieTest {
+
+	@Test
+	void addSplitsEdgeAtCommonPrefix() {
+		AutocompleteTrie autocompleteTrie = new AutocompleteTrie(10);
+		autocompleteTrie.add("application", 2);
+		autocompleteTrie.add("apple", 1);
+		autocompleteTrie.add("app", 0);
+
+		assertEquals(Arrays.asList("application", "apple", "app"), autocompleteTrie.findTopSuggestions("ap", 10));
+		assertEquals(Arrays.asList("application", "apple"), autocompleteTrie.findTopSuggestions("appl", 10));
+		assertEquals(Collections.singletonList("apple"), autocompleteTrie.findTopSuggestions("apple", 10));
+		assertEquals(Collections.singletonList("application"), autocompleteTrie.findTopSuggestions("appli", 10));
+		assertEquals(3, autocompleteTrie.size());
+	}
+
+	@Test
+	void findTopSuggestionsMatchesPrefixEndingWithinEdgeLabel() {
+		AutocompleteTrie autocompleteTrie = new AutocompleteTrie(10);
+		autocompleteTrie.add("programming", 1);
+
+		assertEquals(Collections.singletonList("programming"), autocompleteTrie.findTopSuggestions("prog", 10));
+		assertEquals(Collections.emptyList(), autocompleteTrie.findTopSuggestions("progx", 10));
+		assertEquals(Collections.emptyList(), autocompleteTrie.findTopSuggestions("programmings", 10));
+		assertEquals(Collections.emptyList(), autocompleteTrie.findTopSuggestions("x", 10));
+	}
+
+	@Test
+	void findTopSuggestionsIgnoresCaseAndKeepsNameAsAdded() {
+		AutocompleteTrie autocompleteTrie = new AutocompleteTrie(10);
+		autocompleteTrie.add("SpringBoot", 1);
+
+		assertEquals(Collections.singletonList("SpringBoot"), autocompleteTrie.findTopSuggestions("spring", 10));
+		assertEquals(Collections.singletonList("SpringBoot"), autocompleteTrie.findTopSuggestions("SPRINGB", 10));
+	}
+
+	@Test
+	void addRejectsNameAlreadyAddedInOtherCase() {
+		AutocompleteTrie autocompleteTrie = new AutocompleteTrie(10);
+
+		assertTrue(autocompleteTrie.add("Java", 1));
+		assertFalse(autocompleteTrie.add("JAVA", 5));
+
+		assertEquals(1, autocompleteTrie.size());
+		assertEquals(Collections.singletonList("Java"), autocompleteTrie.findTopSuggestions("j", 10));
+	}
+
+	@Test
+	void topSuggestionsAreRankedByScoreThenByNameAndCapped() {
+		AutocompleteTrie autocompleteTrie = new AutocompleteTrie(3);
+		autocompleteTrie.add("sd", 0);
+		autocompleteTrie.add("sa", 1);
+		autocompleteTrie.add("sc", 5);
+		autocompleteTrie.add("sb", 5);
+
+		assertEquals(Arrays.asList("sb", "sc", "sa"), autocompleteTrie.findTopSuggestions("s", 10));
+		assertEquals(Arrays.asList("sb", "sc"), autocompleteTrie.findTopSuggestions("s", 2));
+		assertEquals(Collections.singletonList("sd"), autocompleteTrie.findTopSuggestions("sd", 10));
+		assertEquals(Collections.emptyList(), autocompleteTrie.findTopSuggestions("s", 0));
+	}
+}
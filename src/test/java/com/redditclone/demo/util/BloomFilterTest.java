@@ -0,0 +1,53 @@
+package com.redditclone.demo.util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * BloomFilterTest class tests that the added keys are always found and that
+ * the false positive rate stays near the configured probability.
+ */
+class BloomFilterTest {
+
+	@Test
+	void mightContainIsTrueForEveryAddedKey() {
+		BloomFilter bloomFilter = new BloomFilter(10_000, 0.01);
+		String[] addedKeys = new String[10_000];
+		for (int keyIndex = 0; keyIndex < addedKeys.length; keyIndex++) {
+			addedKeys[keyIndex] = UUID.randomUUID().toString();
+			bloomFilter.add(addedKeys[keyIndex]);
+		}
+
+		for (String addedKey : addedKeys) {
+			assertTrue(bloomFilter.mightContain(addedKey));
+		}
+	}
+
+	@Test
+	void falsePositiveRateStaysNearConfiguredProbability() {
+		BloomFilter bloomFilter = new BloomFilter(10_000, 0.01);
+		for (int keyIndex = 0; keyIndex < 10_000; keyIndex++) {
+			bloomFilter.add("added-" + keyIndex);
+		}
+
+		int falsePositives = 0;
+		for (int keyIndex = 0; keyIndex < 100_000; keyIndex++) {
+			if (bloomFilter.mightContain("not-added-" + keyIndex)) {
+				falsePositives++;
+			}
+		}
+		assertTrue(falsePositives < 2_000, "false positives " + falsePositives);
+	}
+
+	@Test
+	void emptyFilterContainsNoKey() {
+		BloomFilter bloomFilter = new BloomFilter(0, 0.01);
+
+		assertFalse(bloomFilter.mightContain(UUID.randomUUID().toString()));
+		assertFalse(bloomFilter.mightContain(""));
+	}
+}
@@ -0,0 +1,118 @@
+package com.redditclone.demo.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * OffHeapRankedFeedTest class tests the ranking of the entries of the off heap
+ * ranked feed against a sorted set of the same entries.
+ */
+class OffHeapRankedFeedTest {
+
+	@Test
+	void offerMovesHeldEntryToRankOfNewScore() {
+		OffHeapRankedFeed rankedFeed = new OffHeapRankedFeed(1, 10);
+		rankedFeed.offer(0, 1L, 3d);
+		rankedFeed.offer(0, 2L, 2d);
+		rankedFeed.offer(0, 3L, 1d);
+
+		rankedFeed.offer(0, 3L, 5d);
+		rankedFeed.offer(0, 1L, 0d);
+
+		assertRanks(rankedFeed, new long[] { 3L, 2L, 1L }, new double[] { 5d, 2d, 0d });
+	}
+
+	@Test
+	void offerDropsLastEntryOfFullSegment() {
+		OffHeapRankedFeed rankedFeed = new OffHeapRankedFeed(1, 2);
+		rankedFeed.offer(0, 1L, 1d);
+		rankedFeed.offer(0, 2L, 2d);
+
+		assertFalse(rankedFeed.offer(0, 3L, 0d));
+		assertTrue(rankedFeed.offer(0, 4L, 3d));
+		// dropped entry is offered again as a new entry
+		assertTrue(rankedFeed.offer(0, 1L, 4d));
+
+		assertRanks(rankedFeed, new long[] { 1L, 4L }, new double[] { 4d, 3d });
+	}
+
+	@Test
+	void readReturnsEntriesRankedAfterCursor() {
+		OffHeapRankedFeed rankedFeed = new OffHeapRankedFeed(2, 10);
+		rankedFeed.offer(0, 1L, 1d);
+		rankedFeed.offer(0, 2L, 1d);
+		rankedFeed.offer(0, 3L, 0d);
+		rankedFeed.offer(1, 4L, 9d);
+
+		long[] ids = new long[10];
+		double[] scores = new double[10];
+		int noOfEntries = rankedFeed.read(0, false, 1d, 2L, ids, scores);
+
+		assertEquals(2, noOfEntries);
+		assertEquals(1L, ids[0]);
+		assertEquals(3L, ids[1]);
+	}
+
+	@Test
+	void offerAndRemoveRankLikeSortedSet() {
+		int maximumSegmentCapacity = 100;
+		OffHeapRankedFeed rankedFeed = new OffHeapRankedFeed(3, maximumSegmentCapacity);
+		Comparator<Map.Entry<Long, Double>> rankOrder = Map.Entry.<Long, Double>comparingByValue()
+				.thenComparing(Map.Entry.comparingByKey()).reversed();
+		TreeSet<Map.Entry<Long, Double>> expectedEntries = new TreeSet<>(rankOrder);
+		Map<Long, Double> expectedScoreById = new HashMap<>();
+		Random random = new Random(42);
+		for (int operation = 0; operation < 20000; operation++) {
+			long id = 1 + random.nextInt(300);
+			Double previousScore = expectedScoreById.remove(id);
+			if (previousScore != null) {
+				expectedEntries.remove(Map.entry(id, previousScore));
+			}
+			if (random.nextInt(10) == 0) {
+				rankedFeed.remove(1, id);
+			} else {
+				double score = random.nextInt(50);
+				boolean held = rankedFeed.offer(1, id, score);
+				boolean expectedHeld = previousScore != null || expectedEntries.size() < maximumSegmentCapacity
+						|| rankOrder.compare(Map.entry(id, score), expectedEntries.last()) < 0;
+				assertEquals(expectedHeld, held);
+				if (held) {
+					expectedEntries.add(Map.entry(id, score));
+					expectedScoreById.put(id, score);
+					if (expectedEntries.size() > maximumSegmentCapacity) {
+						expectedScoreById.remove(expectedEntries.pollLast().getKey());
+					}
+				}
+			}
+		}
+		long[] expectedIds = expectedEntries.stream().mapToLong(Map.Entry::getKey).toArray();
+		double[] expectedScores = expectedEntries.stream().mapToDouble(Map.Entry::getValue).toArray();
+		assertRanks(rankedFeed, 1, expectedIds, expectedScores);
+		assertRanks(rankedFeed, 0, new long[0], new double[0]);
+	}
+
+	private static void assertRanks(OffHeapRankedFeed rankedFeed, long[] expectedIds, double[] expectedScores) {
+		assertRanks(rankedFeed, 0, expectedIds, expectedScores);
+	}
+
+	private static void assertRanks(OffHeapRankedFeed rankedFeed, int segment, long[] expectedIds,
+			double[] expectedScores) {
+		long[] ids = new long[expectedIds.length + 1];
+		double[] scores = new double[expectedIds.length + 1];
+		int noOfEntries = rankedFeed.read(segment, true, 0, 0, ids, scores);
+		assertEquals(expectedIds.length, noOfEntries);
+		for (int entry = 0; entry < noOfEntries; entry++) {
+			assertEquals(expectedIds[entry], ids[entry]);
+			assertEquals(expectedScores[entry], scores[entry]);
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package com.redditclone.demo.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import com.redditclone.demo.dto.PostPageCursor;
+import com.redditclone.demo.exceptions.RedditException;
+import com.redditclone.demo.model.Post;
+
+/**
+ * PageCursorCodecTest class tests the encoding and decoding of the opaque page
+ * cursors.
+ */
+class PageCursorCodecTest {
+
+	@Test
+	void decodePageCursorReturnsEncodedValues() {
+		String pageCursor = PageCursorCodec.encodePageCursor("2021-01-02T03:04:05.123Z", 42L, 0.5d);
+
+		assertArrayEquals(new String[] { "2021-01-02T03:04:05.123Z", "42", "0.5" },
+				PageCursorCodec.decodePageCursor(pageCursor, 3));
+	}
+
+	@Test
+	void encodePageCursorIsUrlSafeWithoutPadding() {
+		String pageCursor = PageCursorCodec.encodePageCursor("??>>", 1L);
+
+		assertEquals(-1, pageCursor.indexOf('+'));
+		assertEquals(-1, pageCursor.indexOf('/'));
+		assertEquals(-1, pageCursor.indexOf('='));
+	}
+
+	@Test
+	void decodePageCursorRejectsUnexpectedNoOfValues() {
+		String pageCursor = PageCursorCodec.encodePageCursor(1L, 2L);
+
+		assertThrows(RedditException.class, () -> PageCursorCodec.decodePageCursor(pageCursor, 3));
+	}
+
+	@Test
+	void decodePageCursorRejectsMalformedCursor() {
+		assertThrows(RedditException.class, () -> PageCursorCodec.decodePageCursor("not base64!", 2));
+	}
+
+	@Test
+	void decodePostPageCursorReturnsKeysetOfLastPost() {
+		Instant createdDateTime = Instant.parse("2021-01-02T03:04:05.123456Z");
+		Post lastPostOfPage = Post.builder().postId(7L).createdDateTime(createdDateTime).build();
+
+		PostPageCursor postPageCursor = PostPageCursor
+				.decodePostPageCursor(PostPageCursor.encodePostPageCursor(lastPostOfPage));
+
+		assertEquals(createdDateTime, postPageCursor.getCreatedDateTime());
+		assertEquals(7L, postPageCursor.getPostId());
+	}
+
+	@Test
+	void decodePostPageCursorRejectsInvalidKeyset() {
+		String pageCursor = PageCursorCodec.encodePageCursor("yesterday", 7L);
+
+		assertThrows(RedditException.class, () -> PostPageCursor.decodePostPageCursor(pageCursor));
+	}
+}
@@ -0,0 +1,63 @@
+package com.redditclone.demo.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * TokenBucketTableBenchmark class measures the cost of taking a request from
+ * the token buckets of the rate limit filter, for a single hot key and for
+ * millions of distinct keys which overflow the table of the configured size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TokenBucketTableBenchmark {
+
+	/** The Constant NO_OF_DISTINCT_KEYS the no of distinct client keys. */
+	private static final int NO_OF_DISTINCT_KEYS = 1 << 22;
+
+	/** The token buckets sized as the rate.limit.bucket.slots property. */
+	private final TokenBucketTable tokenBucketTable = new TokenBucketTable(262144, 30, 120);
+
+	private final String[] distinctKeys = new String[NO_OF_DISTINCT_KEYS];
+
+	private int nextKeyIndex;
+
+	public TokenBucketTableBenchmark() {
+		for (int keyIndex = 0; keyIndex < NO_OF_DISTINCT_KEYS; keyIndex++) {
+			distinctKeys[keyIndex] = "10." + (keyIndex >>> 16) + '.' + ((keyIndex >>> 8) & 255) + '.'
+					+ (keyIndex & 255);
+		}
+	}
+
+	@Benchmark
+	public long tryAcquireHotKey() {
+		return tokenBucketTable.tryAcquire("10.0.0.1");
+	}
+
+	@Benchmark
+	@Threads(4)
+	public long tryAcquireHotKeyContended() {
+		return tokenBucketTable.tryAcquire("10.0.0.1");
+	}
+
+	@Benchmark
+	public long tryAcquireDistinctKeys() {
+		int keyIndex = nextKeyIndex;
+		nextKeyIndex = (keyIndex + 1) & (NO_OF_DISTINCT_KEYS - 1);
+		return tokenBucketTable.tryAcquire(distinctKeys[keyIndex]);
+	}
+}
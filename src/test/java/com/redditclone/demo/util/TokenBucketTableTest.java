@@ -0,0 +1,44 @@
+package com.redditclone.demo.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * TokenBucketTableTest class tests the bursts and the wait times of the token
+ * buckets and the reuse of the slots by distinct keys.
+ */
+class TokenBucketTableTest {
+
+	@Test
+	void tryAcquireAllowsBurstOfCapacityAndReturnsWaitMillis() {
+		TokenBucketTable tokenBucketTable = new TokenBucketTable(1024, 3, 60);
+
+		assertEquals(0, tokenBucketTable.tryAcquire("10.0.0.1"));
+		assertEquals(0, tokenBucketTable.tryAcquire("10.0.0.1"));
+		assertEquals(0, tokenBucketTable.tryAcquire("10.0.0.1"));
+		long waitMillis = tokenBucketTable.tryAcquire("10.0.0.1");
+		assertTrue(waitMillis > 0 && waitMillis <= 1000, "wait millis " + waitMillis);
+		assertTrue(tokenBucketTable.tryAcquire("10.0.0.1") > 0);
+	}
+
+	@Test
+	void tryAcquireKeepsSeparateBucketPerKey() {
+		TokenBucketTable tokenBucketTable = new TokenBucketTable(1024, 1, 1);
+
+		assertEquals(0, tokenBucketTable.tryAcquire("10.0.0.1"));
+		assertTrue(tokenBucketTable.tryAcquire("10.0.0.1") > 0);
+		assertEquals(0, tokenBucketTable.tryAcquire("10.0.0.2"));
+		assertEquals(0, tokenBucketTable.tryAcquire("user:42"));
+	}
+
+	@Test
+	void tryAcquireTakesOverSlotsWhenKeysOutnumberTable() {
+		TokenBucketTable tokenBucketTable = new TokenBucketTable(8, 1, 1);
+
+		for (int keyIndex = 0; keyIndex < 100_000; keyIndex++) {
+			assertEquals(0, tokenBucketTable.tryAcquire("10.1." + (keyIndex >>> 8) + '.' + (keyIndex & 255)));
+		}
+	}
+}